@@ -0,0 +1,131 @@
+package com.dhillon.twitterclone.cache;
+
+import com.dhillon.twitterclone.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.stream.Stream;
+
+/**
+ * In-memory Bloom filters of the usernames and emails already taken.
+ * A value the filter has never seen is definitely available, so only possible matches need a query.
+ * Bloom filters cannot remove entries; deleted users stay "possibly taken" (costing one query)
+ * until the next scheduled rebuild.
+ */
+@Component
+public class AvailabilityFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityFilter.class);
+
+    private final UserRepository userRepository;
+    private final double falsePositiveRate;
+
+    // Null until the first load completes; callers must then fall back to the database
+    private volatile BloomFilter usernames;
+    private volatile BloomFilter emails;
+
+    // Filters being rebuilt, which also receive concurrent additions so none are lost on swap
+    private volatile BloomFilter pendingUsernames;
+    private volatile BloomFilter pendingEmails;
+
+    /**
+     * Constructor with dependencies.
+     *
+     * @param userRepository the user repository
+     * @param falsePositiveRate the target false positive rate of each filter
+     */
+    public AvailabilityFilter(UserRepository userRepository,
+                              @Value("${app.user.availability-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    /**
+     * Check whether a username might be taken.
+     *
+     * @param username the username
+     * @return false if the username is definitely available, true if it must be checked
+     */
+    public boolean mightContainUsername(String username) {
+        BloomFilter filter = usernames;
+        return filter == null || filter.mightContain(username);
+    }
+
+    /**
+     * Check whether an email might be taken.
+     *
+     * @param email the email
+     * @return false if the email is definitely available, true if it must be checked
+     */
+    public boolean mightContainEmail(String email) {
+        BloomFilter filter = emails;
+        return filter == null || filter.mightContain(email);
+    }
+
+    /**
+     * Record a newly registered user's username and email.
+     * Must also be called after the user is committed, so that a concurrent rebuild either sees
+     * the row or is already accepting additions.
+     *
+     * @param username the username
+     * @param email the email
+     */
+    public void add(String username, String email) {
+        addTo(pendingUsernames, usernames, username);
+        addTo(pendingEmails, emails, email);
+    }
+
+    /**
+     * Rebuild both filters by streaming the users table.
+     */
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.user.availability-filter.refresh-interval-ms:86400000}",
+               fixedDelayString = "${app.user.availability-filter.refresh-interval-ms:86400000}")
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+
+        // Leave headroom for registrations until the next rebuild
+        long expected = Math.max(userRepository.count() * 2, 1024);
+        pendingUsernames = new BloomFilter(expected, falsePositiveRate);
+        pendingEmails = new BloomFilter(expected, falsePositiveRate);
+
+        long loaded = 0;
+        try (Stream<Object[]> rows = userRepository.streamUsernamesAndEmails()) {
+            for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                pendingUsernames.put((String) row[0]);
+                pendingEmails.put((String) row[1]);
+                loaded++;
+            }
+        }
+
+        usernames = pendingUsernames;
+        emails = pendingEmails;
+        pendingUsernames = null;
+        pendingEmails = null;
+
+        logger.info("Loaded {} users into availability filters in {} ms", loaded, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * The pending filter must be read before the current one: if a rebuild swaps in between,
+     * the value still lands in whichever filter ends up current.
+     */
+    private static void addTo(BloomFilter pending, BloomFilter current, String value) {
+        if (value == null) {
+            return;
+        }
+        if (current != null) {
+            current.put(value);
+        }
+        if (pending != null) {
+            pending.put(value);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.dhillon.twitterclone.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * UTF-8 JSON serialized once and written many times, with boolean flags that differ from reader to reader
+ * spliced in. The JSON is serialized with each flag false and cut where the values were, so writing it
+ * takes no serializer, only a copy of the segments with a {@code true} or {@code false} between them.
+ */
+public final class JsonFragment {
+
+    private static final byte[] TRUE = "true".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FALSE = "false".getBytes(StandardCharsets.UTF_8);
+
+    private final byte[][] segments;
+    private final int length;
+
+    private JsonFragment(byte[][] segments) {
+        this.segments = segments;
+        int length = 0;
+        for (byte[] segment : segments) {
+            length += segment.length;
+        }
+        this.length = length;
+    }
+
+    /**
+     * Cut serialized JSON at every value of a flag, in the order they appear.
+     * A quote inside a JSON string is always escaped, so only property names match.
+     *
+     * @param json the JSON, serialized with the flag false everywhere
+     * @param flag the name of the flag property
+     * @return the fragment, with one flag per occurrence of the property
+     */
+    public static JsonFragment split(byte[] json, String flag) {
+        byte[] placeholder = ("\"" + flag + "\":false").getBytes(StandardCharsets.UTF_8);
+        int valueOffset = placeholder.length - FALSE.length;
+        List<byte[]> segments = new ArrayList<>();
+        int start = 0;
+        for (int i = indexOf(json, placeholder, start); i >= 0; i = indexOf(json, placeholder, start)) {
+            segments.add(Arrays.copyOfRange(json, start, i + valueOffset));
+            start = i + placeholder.length;
+        }
+        segments.add(Arrays.copyOfRange(json, start, json.length));
+        return new JsonFragment(segments.toArray(new byte[0][]));
+    }
+
+    /**
+     * Get the number of flags to splice in.
+     *
+     * @return the number of flags
+     */
+    public int flagCount() {
+        return segments.length - 1;
+    }
+
+    /**
+     * Pair the fragment with the flags of one reader.
+     *
+     * @param flags a value for each flag, in the order they appear
+     * @return the JSON to write
+     * @throws IllegalArgumentException if the number of values is not {@link #flagCount()}
+     */
+    public Spliced with(boolean... flags) {
+        if (flags.length != flagCount()) {
+            throw new IllegalArgumentException("Expected " + flagCount() + " flags but got " + flags.length);
+        }
+        return new Spliced(this, flags);
+    }
+
+    private static int indexOf(byte[] bytes, byte[] target, int from) {
+        outer:
+        for (int i = from; i <= bytes.length - target.length; i++) {
+            for (int j = 0; j < target.length; j++) {
+                if (bytes[i + j] != target[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * A fragment with the flags of one reader, ready to be written.
+     *
+     * @param fragment the fragment
+     * @param flags a value for each of its flags
+     */
+    public record Spliced(JsonFragment fragment, boolean[] flags) {
+
+        /**
+         * Get the number of bytes {@link #writeTo} writes.
+         *
+         * @return the length in bytes
+         */
+        public int length() {
+            int length = fragment.length;
+            for (boolean flag : flags) {
+                length += flag ? TRUE.length : FALSE.length;
+            }
+            return length;
+        }
+
+        /**
+         * Write the JSON.
+         *
+         * @param out the stream to write to
+         * @throws IOException if writing fails
+         */
+        public void writeTo(OutputStream out) throws IOException {
+            byte[][] segments = fragment.segments;
+            out.write(segments[0]);
+            for (int i = 0; i < flags.length; i++) {
+                out.write(flags[i] ? TRUE : FALSE);
+                out.write(segments[i + 1]);
+            }
+        }
+
+        /**
+         * Get the JSON as bytes, as written by {@link #writeTo}.
+         *
+         * @return the bytes
+         */
+        public byte[] toByteArray() {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(length());
+            try {
+                writeTo(out);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            return out.toByteArray();
+        }
+    }
+}
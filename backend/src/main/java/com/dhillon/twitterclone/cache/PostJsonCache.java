@@ -0,0 +1,97 @@
+package com.dhillon.twitterclone.cache;
+
+import com.dhillon.twitterclone.dto.PostDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Bounded, least-recently-used cache of posts serialized to JSON, keyed by post ID and tagged with the version
+ * they were serialized at, so a post that changed is serialized again rather than served stale.
+ * Posts are serialized without a current user, and the current user's bookmark flags, of the post and of the
+ * original it reposts, are spliced into the bytes for each response.
+ */
+@Component
+public class PostJsonCache {
+
+    private static final String BOOKMARKED = "bookmarked";
+
+    private final ObjectMapper objectMapper;
+    private final Map<UUID, Entry> entries;
+
+    /**
+     * Constructor with the mapper to serialize posts with and the cache capacity.
+     *
+     * @param objectMapper the mapper HTTP responses are written with
+     * @param capacity the maximum number of posts to keep
+     */
+    public PostJsonCache(ObjectMapper objectMapper, @Value("${app.post.json.cache-size:10000}") int capacity) {
+        this.objectMapper = objectMapper;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Get the JSON of a post at a version, with the current user's bookmark flags.
+     *
+     * @param postId the ID of the post
+     * @param version the current version of the post
+     * @param bookmarkedPostIds the IDs of the post and original if the current user has bookmarked them
+     * @return the JSON, or null if not cached at this version
+     */
+    public JsonFragment.Spliced get(UUID postId, String version, Set<UUID> bookmarkedPostIds) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(postId);
+        }
+        if (entry == null || !entry.version().equals(version)) {
+            return null;
+        }
+        return entry.splice(postId, bookmarkedPostIds);
+    }
+
+    /**
+     * Serialize a post and cache it at a version, replacing any other version of it.
+     *
+     * @param postId the ID of the post
+     * @param version the version the post was loaded at, or an older one
+     * @param post the post, mapped without a current user so no bookmark flag is set
+     * @param bookmarkedPostIds the IDs of the post and original if the current user has bookmarked them
+     * @return the JSON, with the current user's bookmark flags
+     */
+    public JsonFragment.Spliced put(UUID postId, String version, PostDto post, Set<UUID> bookmarkedPostIds) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(post);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize post " + postId, e);
+        }
+        // Record components are written in order, so the post's flag comes before its original's
+        Entry entry = new Entry(version, JsonFragment.split(json, BOOKMARKED),
+                post.originalPost() != null ? post.originalPost().id() : null);
+        synchronized (this) {
+            entries.put(postId, entry);
+        }
+        return entry.splice(postId, bookmarkedPostIds);
+    }
+
+    private record Entry(String version, JsonFragment json, UUID originalId) {
+
+        JsonFragment.Spliced splice(UUID postId, Set<UUID> bookmarkedPostIds) {
+            boolean bookmarked = bookmarkedPostIds.contains(postId);
+            return originalId != null
+                    ? json.with(bookmarked, bookmarkedPostIds.contains(originalId))
+                    : json.with(bookmarked);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.dhillon.twitterclone.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Users who committed a write within the last few seconds.
+ * Their reads go to the primary until the window passes, so they always see their own changes
+ * even while the replicas are catching up.
+ */
+@Component
+public class RecentWriters {
+    
+    private final long windowMs;
+    
+    // User ID to the time in epoch milliseconds until which their reads stay on the primary
+    private final Map<UUID, Long> stickyUntil = new ConcurrentHashMap<>();
+    
+    /**
+     * Constructor with configuration.
+     *
+     * @param windowMs how long after a write the user's reads stay on the primary
+     */
+    public RecentWriters(@Value("${app.datasource.replica.sticky-window-ms:5000}") long windowMs) {
+        this.windowMs = windowMs;
+    }
+    
+    /**
+     * Record that a user has just committed a write.
+     *
+     * @param userId the user ID
+     */
+    public void markWrite(UUID userId) {
+        stickyUntil.put(userId, System.currentTimeMillis() + windowMs);
+    }
+    
+    /**
+     * @param userId the user ID
+     * @return true if the user wrote recently enough that replicas may not have their change yet
+     */
+    public boolean wroteRecently(UUID userId) {
+        Long until = stickyUntil.get(userId);
+        return until != null && until > System.currentTimeMillis();
+    }
+    
+    /**
+     * @return number of users currently tracked
+     */
+    public int size() {
+        return stickyUntil.size();
+    }
+    
+    /**
+     * Forget users whose window has passed.
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replica.sticky-purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        stickyUntil.values().removeIf(until -> until <= now);
+    }
+}
@@ -0,0 +1,105 @@
+package com.dhillon.twitterclone.cache;
+
+import com.dhillon.twitterclone.dto.PostThreadDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Bounded, least-recently-used cache of conversation threads, keyed by the ID of the post they were loaded for.
+ * Each entry remembers the posts it contains, so a change to any of them, such as a new reply below it,
+ * drops every thread it appears in. Counters such as likes are not tracked and may lag by up to the time to live.
+ * <p>
+ * A thread loaded while a change was being committed could be cached after the change dropped its entry,
+ * so loads are stamped with {@link #generation()} beforehand and only cached if no invalidation happened since.
+ */
+@Component
+public class ThreadCache {
+
+    private final Map<UUID, Entry> entries;
+    private final long timeToLiveMillis;
+    private long generation;
+
+    /**
+     * Constructor with the cache capacity and time to live.
+     *
+     * @param capacity the maximum number of threads to keep
+     * @param timeToLiveMillis how long a thread is served from the cache
+     */
+    public ThreadCache(@Value("${app.post.thread.cache-size:1000}") int capacity,
+                       @Value("${app.post.thread.cache-ttl-ms:30000}") long timeToLiveMillis) {
+        this.timeToLiveMillis = timeToLiveMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Get the thread cached for a post.
+     *
+     * @param postId the ID of the post
+     * @return the thread, or null if not cached or expired
+     */
+    public synchronized PostThreadDto get(UUID postId) {
+        Entry entry = entries.get(postId);
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() >= entry.expiresAt()) {
+            entries.remove(postId);
+            return null;
+        }
+        return entry.thread();
+    }
+
+    /**
+     * Get the current generation, to be passed to {@link #put} with a thread loaded after this call.
+     *
+     * @return the generation
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Cache the thread of a post, unless something was invalidated since it started loading.
+     *
+     * @param postId the ID of the post
+     * @param thread the thread
+     * @param loadedAt the generation read before loading the thread
+     */
+    public synchronized void put(UUID postId, PostThreadDto thread, long loadedAt) {
+        if (loadedAt != generation) {
+            return;
+        }
+        entries.put(postId, new Entry(thread, new HashSet<>(thread.postIds()),
+                System.currentTimeMillis() + timeToLiveMillis));
+    }
+
+    /**
+     * Drop every cached thread that contains a post.
+     *
+     * @param postId the ID of the post
+     */
+    public synchronized void invalidate(UUID postId) {
+        generation++;
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().postIds().contains(postId)) {
+                it.remove();
+            }
+        }
+    }
+
+    private record Entry(PostThreadDto thread, Set<UUID> postIds, long expiresAt) {
+    }
+}
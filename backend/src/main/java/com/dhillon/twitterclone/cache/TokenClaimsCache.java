@@ -0,0 +1,81 @@
+package com.dhillon.twitterclone.cache;
+
+import com.dhillon.twitterclone.security.AuthenticatedUser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded, least-recently-used cache of validated access tokens, keyed by the SHA-256 of the token.
+ * A hit skips signature verification and claim parsing; entries are dropped once the token expires.
+ */
+@Component
+public class TokenClaimsCache {
+    
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+    
+    private final Map<String, AuthenticatedUser> entries;
+    
+    /**
+     * Constructor with the cache capacity.
+     *
+     * @param capacity the maximum number of tokens to keep
+     */
+    public TokenClaimsCache(@Value("${app.auth.jwt.claims-cache-size:10000}") int capacity) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, AuthenticatedUser> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+    
+    /**
+     * Get the identity cached for a token.
+     *
+     * @param token the access token
+     * @return the identity, or null if not cached or expired
+     */
+    public AuthenticatedUser get(String token) {
+        String key = hash(token);
+        synchronized (this) {
+            AuthenticatedUser user = entries.get(key);
+            if (user != null && user.isExpired(Instant.now())) {
+                entries.remove(key);
+                return null;
+            }
+            return user;
+        }
+    }
+    
+    /**
+     * Cache the identity of a validated token.
+     *
+     * @param token the access token
+     * @param user the identity it carries
+     */
+    public void put(String token, AuthenticatedUser user) {
+        String key = hash(token);
+        synchronized (this) {
+            entries.put(key, user);
+        }
+    }
+    
+    private static String hash(String token) {
+        byte[] digest = SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getEncoder().encodeToString(digest);
+    }
+}
@@ -0,0 +1,169 @@
+package com.dhillon.twitterclone.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded, least-recently-used cache of each user's unread notification count,
+ * kept current as notifications are written and read instead of counted per request.
+ * Counts are only adjusted for users already cached; a user who is not is counted on their next read.
+ * Waiters can subscribe to a user's count and are completed as soon as it changes.
+ */
+@Component
+public class UnreadCounts {
+
+    private final Map<UUID, Long> counts;
+
+    // Pending long polls per user, completed with the new count on the next change
+    private final Map<UUID, Set<CompletableFuture<Long>>> waiters = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor with the cache capacity.
+     *
+     * @param capacity the maximum number of users to keep counts for
+     */
+    public UnreadCounts(@Value("${app.notification.unread-cache-size:100000}") int capacity) {
+        this.counts = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Long> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Get the cached count of a user.
+     *
+     * @param userId the user ID
+     * @return the unread count, or null if not cached
+     */
+    public synchronized Long get(UUID userId) {
+        return counts.get(userId);
+    }
+
+    /**
+     * Cache a count read from the database, unless another one got there first.
+     *
+     * @param userId the user ID
+     * @param count the unread count
+     * @return the cached count
+     */
+    public synchronized long load(UUID userId, long count) {
+        return counts.computeIfAbsent(userId, id -> count);
+    }
+
+    /**
+     * Add to a user's count, if it is cached.
+     *
+     * @param userId the user ID
+     * @param delta the number of new unread notifications
+     */
+    public void increment(UUID userId, long delta) {
+        Long updated;
+        synchronized (this) {
+            updated = counts.computeIfPresent(userId, (id, count) -> count + delta);
+        }
+        if (updated != null) {
+            signal(userId, updated);
+        }
+    }
+
+    /**
+     * Set a user's count to zero after all of their notifications were read.
+     *
+     * @param userId the user ID
+     */
+    public void reset(UUID userId) {
+        Long previous;
+        synchronized (this) {
+            previous = counts.put(userId, 0L);
+        }
+        if (previous == null || previous != 0) {
+            signal(userId, 0L);
+        }
+    }
+
+    /**
+     * Correct a user's count, unless it changed since the expected value was read.
+     *
+     * @param userId the user ID
+     * @param expected the count the correction was computed against
+     * @param actual the correct count
+     * @return true if the count was replaced
+     */
+    public boolean replace(UUID userId, long expected, long actual) {
+        boolean replaced;
+        synchronized (this) {
+            replaced = counts.replace(userId, expected, actual);
+        }
+        if (replaced && expected != actual) {
+            signal(userId, actual);
+        }
+        return replaced;
+    }
+
+    /**
+     * Copy all cached counts, without refreshing their recency.
+     *
+     * @return user ID to unread count
+     */
+    public synchronized Map<UUID, Long> snapshot() {
+        return new HashMap<>(counts);
+    }
+
+    /**
+     * Wait for a user's count to differ from a known value.
+     * The waiter is registered before the count is compared, so a change in between is never missed.
+     *
+     * @param userId the user ID
+     * @param known the count the caller already has
+     * @return a future completed with the new count; the caller is expected to bound it with a timeout
+     */
+    public CompletableFuture<Long> awaitChange(UUID userId, long known) {
+        CompletableFuture<Long> future = new CompletableFuture<>();
+        // Added inside compute, so a concurrent removal of the last waiter cannot drop the set under us
+        waiters.compute(userId, (id, pending) -> {
+            Set<CompletableFuture<Long>> set = pending != null ? pending : ConcurrentHashMap.newKeySet();
+            set.add(future);
+            return set;
+        });
+        future.whenComplete((count, error) -> removeWaiter(userId, future));
+
+        Long current = get(userId);
+        if (current != null && current != known) {
+            future.complete(current);
+        }
+        return future;
+    }
+
+    /**
+     * @return number of pending waiters across all users
+     */
+    public int waiterCount() {
+        return waiters.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private void signal(UUID userId, long count) {
+        Set<CompletableFuture<Long>> pending = waiters.get(userId);
+        if (pending != null) {
+            for (CompletableFuture<Long> future : pending) {
+                future.complete(count);
+            }
+        }
+    }
+
+    private void removeWaiter(UUID userId, CompletableFuture<Long> future) {
+        waiters.computeIfPresent(userId, (id, pending) -> {
+            pending.remove(future);
+            return pending.isEmpty() ? null : pending;
+        });
+    }
+}
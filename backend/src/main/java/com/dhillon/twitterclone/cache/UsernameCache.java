@@ -0,0 +1,61 @@
+package com.dhillon.twitterclone.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bounded, least-recently-used cache of username to user ID mappings.
+ * Usernames are immutable once registered, so entries only need to be evicted when a user is deleted.
+ */
+@Component
+public class UsernameCache {
+    
+    private final Map<String, UUID> entries;
+    
+    /**
+     * Constructor with the cache capacity.
+     *
+     * @param capacity the maximum number of usernames to keep
+     */
+    public UsernameCache(@Value("${app.user.username-cache-size:10000}") int capacity) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, UUID> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+    
+    /**
+     * Get the user ID cached for a username.
+     *
+     * @param username the username
+     * @return the user ID, or null if not cached
+     */
+    public synchronized UUID get(String username) {
+        return entries.get(username);
+    }
+    
+    /**
+     * Cache the user ID of a username.
+     *
+     * @param username the username
+     * @param userId the user ID
+     */
+    public synchronized void put(String username, UUID userId) {
+        entries.put(username, userId);
+    }
+    
+    /**
+     * Remove a username from the cache.
+     *
+     * @param username the username
+     */
+    public synchronized void evict(String username) {
+        entries.remove(username);
+    }
+}
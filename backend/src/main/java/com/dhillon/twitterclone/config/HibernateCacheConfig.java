@@ -0,0 +1,83 @@
+package com.dhillon.twitterclone.config;
+
+import com.dhillon.twitterclone.entity.Hashtag;
+import com.dhillon.twitterclone.entity.User;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caffeine-backed regions for the Hibernate second-level cache.
+ * Every region Hibernate asks for must be created here, as a missing region fails startup.
+ */
+@Configuration
+public class HibernateCacheConfig {
+    
+    /**
+     * Query cache region for user lookups by username.
+     */
+    public static final String USER_BY_USERNAME_REGION = "query.userByUsername";
+    
+    /**
+     * Query cache region for hashtag lookups by name.
+     */
+    public static final String HASHTAG_BY_NAME_REGION = "query.hashtagByName";
+    
+    private static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    private static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+    
+    /**
+     * Cache manager holding the second-level cache regions.
+     * Each application context gets its own, so contexts sharing a JVM never see each other's entries.
+     *
+     * @param userTtlSeconds how long cached users and their roles live
+     * @param hashtagTtlSeconds how long cached hashtags live
+     * @param userSize the maximum number of cached users, and of cached role collections
+     * @param hashtagSize the maximum number of cached hashtags
+     * @param querySize the maximum number of cached results in each query region
+     * @return the cache manager
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${app.cache.ttl.user-profile:60}") long userTtlSeconds,
+                                              @Value("${app.cache.ttl.hashtag:3600}") long hashtagTtlSeconds,
+                                              @Value("${app.cache.size.user:10000}") long userSize,
+                                              @Value("${app.cache.size.hashtag:5000}") long hashtagSize,
+                                              @Value("${app.cache.size.query:10000}") long querySize) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+        
+        createRegion(cacheManager, User.class.getName(), userSize, userTtlSeconds);
+        createRegion(cacheManager, User.class.getName() + ".roles", userSize, userTtlSeconds);
+        createRegion(cacheManager, Hashtag.class.getName(), hashtagSize, hashtagTtlSeconds);
+        createRegion(cacheManager, USER_BY_USERNAME_REGION, querySize, userTtlSeconds);
+        createRegion(cacheManager, HASHTAG_BY_NAME_REGION, querySize, hashtagTtlSeconds);
+        createRegion(cacheManager, QUERY_RESULTS_REGION, querySize, userTtlSeconds);
+        
+        // Timestamps decide whether cached query results are stale, so they must never be evicted
+        cacheManager.createCache(UPDATE_TIMESTAMPS_REGION, new CaffeineConfiguration<>());
+        return cacheManager;
+    }
+    
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+    
+    private static void createRegion(CacheManager cacheManager, String name, long maximumSize, long ttlSeconds) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+        cacheManager.createCache(name, configuration);
+    }
+}
@@ -0,0 +1,31 @@
+package com.dhillon.twitterclone.config;
+
+import com.dhillon.twitterclone.dto.PostDto;
+import com.dhillon.twitterclone.dto.UserDto;
+import com.dhillon.twitterclone.util.SparseFieldset;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Jackson settings for HTTP responses.
+ * The DTOs that support sparse fieldsets get their property filter here, on the application's object mapper only,
+ * so other mappers serialize them as plain records. The filter passes every field unless
+ * {@link SparseFieldsetAdvice} replaces it for a request.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer sparseFieldsetCustomizer() {
+        return builder -> builder
+                .mixIn(PostDto.class, SparseFieldsetMixin.class)
+                .mixIn(UserDto.class, SparseFieldsetMixin.class)
+                .filters(SparseFieldset.ALL.toFilters());
+    }
+
+    @JsonFilter(SparseFieldset.FILTER_ID)
+    private interface SparseFieldsetMixin {
+    }
+}
@@ -0,0 +1,47 @@
+package com.dhillon.twitterclone.config;
+
+import com.dhillon.twitterclone.cache.JsonFragment;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+/**
+ * Writes JSON that was serialized ahead of time straight to the response body, with its length known up front.
+ * Write-only: request bodies are never read as fragments.
+ */
+public class JsonFragmentHttpMessageConverter extends AbstractHttpMessageConverter<JsonFragment.Spliced> {
+
+    public JsonFragmentHttpMessageConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return JsonFragment.Spliced.class == clazz;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected JsonFragment.Spliced readInternal(Class<? extends JsonFragment.Spliced> clazz,
+                                                HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("JSON fragments cannot be read", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(JsonFragment.Spliced json, MediaType contentType) {
+        return (long) json.length();
+    }
+
+    @Override
+    protected void writeInternal(JsonFragment.Spliced json, HttpOutputMessage outputMessage) throws IOException {
+        json.writeTo(outputMessage.getBody());
+    }
+}
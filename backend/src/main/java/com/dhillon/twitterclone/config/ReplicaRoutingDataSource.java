@@ -0,0 +1,123 @@
+package com.dhillon.twitterclone.config;
+
+import com.dhillon.twitterclone.cache.RecentWriters;
+import com.dhillon.twitterclone.security.AuthenticatedUser;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DataSource that sends read-only transactions to the replicas, round robin, and everything else to the primary.
+ * A user who has just committed a write keeps reading from the primary for a short window.
+ * Entities read from a replica are not put in the second-level cache, as a lagging replica would
+ * otherwise refill it with the state an eviction after a write has just removed.
+ * Must be wrapped in a LazyConnectionDataSourceProxy, since the read-only flag of a transaction
+ * is only set after its connection would otherwise have been fetched.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+    
+    static final String PRIMARY = "primary";
+    
+    private final HikariDataSource primary;
+    private final List<HikariDataSource> replicas;
+    private final List<String> replicaKeys = new ArrayList<>();
+    private final RecentWriters recentWriters;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    
+    /**
+     * Constructor with the target pools.
+     *
+     * @param primary the primary pool
+     * @param replicas the replica pools, keyed by their pool names
+     * @param recentWriters the users whose reads must stay on the primary
+     */
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas,
+                                    RecentWriters recentWriters) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.recentWriters = recentWriters;
+        
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (HikariDataSource replica : replicas) {
+            targets.put(replica.getPoolName(), replica);
+            replicaKeys.add(replica.getPoolName());
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        UUID userId = currentUserId();
+        
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (userId != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        recentWriters.markWrite(userId);
+                    }
+                });
+            }
+            return PRIMARY;
+        }
+        
+        if (replicaKeys.isEmpty() || (userId != null && recentWriters.wroteRecently(userId))) {
+            return PRIMARY;
+        }
+        skipSecondLevelCachePuts();
+        return replicaKeys.get(Math.floorMod(nextReplica.getAndIncrement(), replicaKeys.size()));
+    }
+    
+    @Override
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+        primary.close();
+    }
+    
+    private static void skipSecondLevelCachePuts() {
+        for (Object resource : TransactionSynchronizationManager.getResourceMap().values()) {
+            if (!(resource instanceof EntityManagerHolder holder)) {
+                continue;
+            }
+            // Cached entries are still read; the session's own mode is restored once the transaction ends
+            Session session = holder.getEntityManager().unwrap(Session.class);
+            CacheMode previous = session.getCacheMode();
+            session.setCacheMode(CacheMode.GET);
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (session.isOpen()) {
+                            session.setCacheMode(previous);
+                        }
+                    }
+                });
+            }
+        }
+    }
+    
+    private static UUID currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.id();
+        }
+        return null;
+    }
+}
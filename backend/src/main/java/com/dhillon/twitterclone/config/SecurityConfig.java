@@ -1,5 +1,10 @@
 package com.dhillon.twitterclone.config;
 
+import com.dhillon.twitterclone.cache.TokenClaimsCache;
+import com.dhillon.twitterclone.security.JwtAuthenticationFilter;
+import com.dhillon.twitterclone.security.JwtTokenProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -10,6 +15,7 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 /**
  * Security configuration for the application.
@@ -22,13 +28,17 @@ public class SecurityConfig {
      * Configure the security filter chain.
      *
      * @param http the HttpSecurity to configure
+     * @param tokenProvider the JWT provider
+     * @param claimsCache the cache of validated access tokens
+     * @param objectMapper the object mapper used for error responses
      * @return the configured security filter chain
      * @throws Exception if an error occurs during configuration
      */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
-        // For now, disable CSRF and permit all requests for testing
-        // In a production environment, this would be configured properly with JWT authentication
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtTokenProvider tokenProvider,
+                                                   TokenClaimsCache claimsCache, ObjectMapper objectMapper) throws Exception {
+        // Bearer tokens are validated on every request, but endpoints still take explicit user IDs,
+        // so access is not yet restricted to authenticated users
         return http
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(authorize -> authorize
@@ -38,16 +48,20 @@ public class SecurityConfig {
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
+                .addFilterBefore(new JwtAuthenticationFilter(tokenProvider, claimsCache, objectMapper),
+                        UsernamePasswordAuthenticationFilter.class)
                 .build();
     }
     
     /**
      * Configure the password encoder.
+     * Existing hashes made with a different cost are upgraded on the next successful login.
      *
+     * @param cost the BCrypt cost (log2 of the number of rounds)
      * @return the password encoder
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.auth.password.bcrypt-cost:10}") int cost) {
+        return new BCryptPasswordEncoder(cost);
     }
 } 
\ No newline at end of file
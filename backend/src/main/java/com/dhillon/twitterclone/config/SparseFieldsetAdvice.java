@@ -0,0 +1,57 @@
+package com.dhillon.twitterclone.config;
+
+import com.dhillon.twitterclone.util.SparseFieldset;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+
+/**
+ * Serializes only the requested fields of the DTOs in a response, for endpoints that take the
+ * {@value SparseFieldset#PARAM} parameter. Those endpoints check the field names themselves and skip
+ * loading what is not asked for; this only trims the output.
+ */
+@RestControllerAdvice
+public class SparseFieldsetAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return super.supports(returnType, converterType) && takesFieldset(returnType.getMethod());
+    }
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest) {
+            SparseFieldset fieldset = SparseFieldset.parse(
+                    servletRequest.getServletRequest().getParameter(SparseFieldset.PARAM));
+            if (!fieldset.isAll()) {
+                bodyContainer.setFilters(fieldset.toFilters());
+            }
+        }
+    }
+
+    private static boolean takesFieldset(Method method) {
+        if (method == null) {
+            return false;
+        }
+        for (Parameter parameter : method.getParameters()) {
+            RequestParam requestParam = parameter.getAnnotation(RequestParam.class);
+            if (requestParam != null && (SparseFieldset.PARAM.equals(requestParam.value())
+                    || SparseFieldset.PARAM.equals(requestParam.name()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
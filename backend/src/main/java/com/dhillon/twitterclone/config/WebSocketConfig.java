@@ -0,0 +1,116 @@
+package com.dhillon.twitterclone.config;
+
+import com.dhillon.twitterclone.security.StompAuthenticationInterceptor;
+import com.dhillon.twitterclone.websocket.SessionOutboxFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+/**
+ * STOMP-over-WebSocket configuration for the push channel.
+ * Clients connect to the endpoint, authenticate in the CONNECT frame and subscribe to
+ * /user/queue/events; the in-memory broker fans each event out to every session of its user.
+ * Every session writes through a bounded {@link com.dhillon.twitterclone.websocket.SessionOutbox}.
+ */
+@Configuration
+@EnableWebSocketMessageBroker
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+    private final StompAuthenticationInterceptor authenticationInterceptor;
+    private final SessionOutboxFactory sessionOutboxFactory;
+    private final TaskScheduler brokerScheduler;
+    private final String endpoint;
+    private final String allowedOrigins;
+    private final String brokerPrefix;
+    private final String userDestinationPrefix;
+    private final String applicationDestinationPrefix;
+    private final long heartbeatMs;
+    private final int destinationCacheSize;
+
+    /**
+     * Constructor with dependencies.
+     *
+     * @param authenticationInterceptor authenticates CONNECT frames and restricts subscriptions
+     * @param sessionOutboxFactory wraps each session in a bounded outbox
+     * @param brokerScheduler the broker's own scheduler, used for heartbeats
+     * @param endpoint the WebSocket endpoint path
+     * @param allowedOrigins comma-separated origin patterns allowed to connect
+     * @param brokerPrefix the prefix of destinations handled by the broker
+     * @param userDestinationPrefix the prefix of destinations resolved per user
+     * @param applicationDestinationPrefix the prefix of destinations handled by the application
+     * @param heartbeatMs the STOMP heartbeat interval in both directions
+     * @param destinationCacheSize the number of destinations whose subscribers the broker keeps resolved
+     */
+    public WebSocketConfig(StompAuthenticationInterceptor authenticationInterceptor,
+                           SessionOutboxFactory sessionOutboxFactory,
+                           @Lazy @Qualifier("messageBrokerTaskScheduler") TaskScheduler brokerScheduler,
+                           @Value("${spring.websocket.endpoint:/ws}") String endpoint,
+                           @Value("${spring.websocket.allowed-origins:*}") String allowedOrigins,
+                           @Value("${spring.websocket.broker-prefix:/queue}") String brokerPrefix,
+                           @Value("${spring.websocket.user-destination-prefix:/user}") String userDestinationPrefix,
+                           @Value("${spring.websocket.application-destination-prefix:/app}")
+                           String applicationDestinationPrefix,
+                           @Value("${app.push.heartbeat-ms:10000}") long heartbeatMs,
+                           @Value("${app.push.destination-cache-size:20000}") int destinationCacheSize) {
+        this.authenticationInterceptor = authenticationInterceptor;
+        this.sessionOutboxFactory = sessionOutboxFactory;
+        this.brokerScheduler = brokerScheduler;
+        this.endpoint = endpoint;
+        this.allowedOrigins = allowedOrigins;
+        this.brokerPrefix = brokerPrefix;
+        this.userDestinationPrefix = userDestinationPrefix;
+        this.applicationDestinationPrefix = applicationDestinationPrefix;
+        this.heartbeatMs = heartbeatMs;
+        this.destinationCacheSize = destinationCacheSize;
+    }
+
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        registry.addEndpoint(endpoint).setAllowedOriginPatterns(allowedOrigins.split(","));
+    }
+
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry registry) {
+        registry.enableSimpleBroker(brokerPrefix)
+                .setHeartbeatValue(new long[] { heartbeatMs, heartbeatMs })
+                .setTaskScheduler(brokerScheduler);
+        // Every session has a destination of its own; a miss scans every subscription on the broker
+        registry.setCacheLimit(destinationCacheSize);
+        registry.setUserDestinationPrefix(userDestinationPrefix);
+        registry.setApplicationDestinationPrefixes(applicationDestinationPrefix);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(authenticationInterceptor);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.addDecoratorFactory(sessionOutboxFactory);
+    }
+
+    /**
+     * Scheduler for @Scheduled jobs.
+     * The broker registers a scheduler of its own, which would otherwise make Spring Boot back off
+     * and leave the jobs to run on it, next to the heartbeats.
+     *
+     * @param builder the builder configured from spring.task.scheduling
+     * @return the scheduler
+     */
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+        return builder.build();
+    }
+}
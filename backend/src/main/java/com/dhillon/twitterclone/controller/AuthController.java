@@ -1,13 +1,19 @@
 package com.dhillon.twitterclone.controller;
 
 import com.dhillon.twitterclone.entity.User;
+import com.dhillon.twitterclone.exception.ServiceUnavailableException;
+import com.dhillon.twitterclone.exception.UnauthorizedException;
+import com.dhillon.twitterclone.security.JwtTokenProvider;
+import com.dhillon.twitterclone.security.LoginThrottle;
+import com.dhillon.twitterclone.security.RefreshTokenStore;
+import com.dhillon.twitterclone.service.PasswordHashingService;
 import com.dhillon.twitterclone.service.UserService;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -16,6 +22,8 @@ import org.springframework.web.bind.annotation.RestController;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controller that handles authentication-related endpoints like login, logout, token refresh, etc.
@@ -26,54 +34,147 @@ public class AuthController {
     private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
     
     private final UserService userService;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final LoginThrottle loginThrottle;
+    private final JwtTokenProvider tokenProvider;
+    private final RefreshTokenStore refreshTokenStore;
     
-    public AuthController(UserService userService, PasswordEncoder passwordEncoder) {
+    public AuthController(UserService userService, PasswordHashingService passwordHashingService,
+                          LoginThrottle loginThrottle, JwtTokenProvider tokenProvider,
+                          RefreshTokenStore refreshTokenStore) {
         this.userService = userService;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
+        this.loginThrottle = loginThrottle;
+        this.tokenProvider = tokenProvider;
+        this.refreshTokenStore = refreshTokenStore;
     }
     
     /**
-     * Login endpoint that authenticates users and returns a token.
+     * Login endpoint that authenticates users and returns an access token and a refresh token.
+     * The password check runs on the hashing pool, releasing the request thread while it waits.
      *
      * @param loginRequest the login request with username and password
      * @return the authentication response with token
      */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest, HttpServletRequest request) {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LoginRequest loginRequest, HttpServletRequest request) {
         logger.info("Login attempt for user: {}", loginRequest.getUsername());
         
+        loginThrottle.checkLoginAttempt(loginRequest.getUsername(), request.getRemoteAddr());
+        String path = request.getRequestURI();
+        
         // Find the user by username
         Optional<User> userOpt = userService.findByUsername(loginRequest.getUsername());
+        String passwordHash = userOpt.map(User::getPasswordHash).orElse(null);
         
-        // If user not found or password doesn't match, return unauthorized
-        if (userOpt.isEmpty() || !passwordEncoder.matches(loginRequest.getPassword(), userOpt.get().getPasswordHash())) {
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("status", 401);
-            errorResponse.put("error", "Unauthorized");
-            errorResponse.put("message", "Invalid username or password");
-            errorResponse.put("path", request.getRequestURI());
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
+        return passwordHashingService.verify(loginRequest.getPassword(), passwordHash)
+                .thenApply(matches -> matches
+                        ? loginSucceeded(userOpt.get(), loginRequest.getPassword())
+                        : loginFailed(path));
+    }
+    
+    private ResponseEntity<?> loginFailed(String path) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("status", 401);
+        errorResponse.put("error", "Unauthorized");
+        errorResponse.put("message", "Invalid username or password");
+        errorResponse.put("path", path);
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
+    }
+    
+    private ResponseEntity<?> loginSucceeded(User user, String rawPassword) {
+        rehashIfNeeded(user, rawPassword);
+        JwtTokenProvider.RefreshToken refreshToken = tokenProvider.newRefreshToken(user.getId(), UUID.randomUUID());
+        refreshTokenStore.start(refreshToken);
+        return tokenResponse(user, refreshToken);
+    }
+    
+    /**
+     * Exchange a refresh token for a new access token and refresh token.
+     * The presented refresh token is replaced by the new one, so each one can be used only once.
+     *
+     * @param refreshRequest the request with the refresh token
+     * @return the authentication response with new tokens
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody RefreshRequest refreshRequest) {
+        JwtTokenProvider.RefreshToken refreshToken = parseRefreshToken(refreshRequest.getRefreshToken());
+        JwtTokenProvider.RefreshToken next =
+                tokenProvider.newRefreshToken(refreshToken.userId(), refreshToken.familyId());
+        
+        if (!refreshTokenStore.rotate(refreshToken, next)) {
+            logger.warn("Reuse of revoked refresh token for user {}", refreshToken.userId());
+            throw new UnauthorizedException("Refresh token has been revoked");
         }
         
-        User user = userOpt.get();
+        User user = userService.findById(refreshToken.userId())
+                .filter(User::isEnabled)
+                .orElseThrow(() -> new UnauthorizedException("Invalid refresh token"));
+        return tokenResponse(user, next);
+    }
+    
+    /**
+     * Logout endpoint that revokes a refresh token, along with every other token of the same login.
+     * Access tokens are short-lived and expire on their own.
+     *
+     * @param refreshRequest the request with the refresh token
+     * @return no content
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestBody RefreshRequest refreshRequest) {
+        JwtTokenProvider.RefreshToken refreshToken = parseRefreshToken(refreshRequest.getRefreshToken());
+        refreshTokenStore.revoke(refreshToken.familyId());
+        return ResponseEntity.noContent().build();
+    }
+    
+    private JwtTokenProvider.RefreshToken parseRefreshToken(String token) {
+        if (token == null) {
+            throw new UnauthorizedException("Invalid refresh token");
+        }
+        try {
+            return tokenProvider.parseRefreshToken(token);
+        } catch (JwtException e) {
+            throw new UnauthorizedException("Invalid refresh token");
+        }
+    }
+    
+    private ResponseEntity<?> tokenResponse(User user, JwtTokenProvider.RefreshToken refreshToken) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("id", user.getId());
+        data.put("username", user.getUsername());
+        data.put("email", user.getEmail());
+        data.put("displayName", user.getDisplayName());
+        data.put("token", tokenProvider.createAccessToken(user.getId(), user.getUsername(), user.getRoles()));
+        data.put("refreshToken", tokenProvider.createRefreshToken(refreshToken));
+        data.put("expiresIn", tokenProvider.getAccessExpirationMs() / 1000);
         
-        // In a full implementation, we would generate and return a JWT token here
-        // For now, just return a simple success response with user info
         Map<String, Object> response = new HashMap<>();
         response.put("status", "success");
-        response.put("data", Map.of(
-            "id", user.getId(),
-            "username", user.getUsername(),
-            "email", user.getEmail(),
-            "displayName", user.getDisplayName(),
-            // Placeholder for JWT token
-            "token", "dummy-token-" + System.currentTimeMillis()
-        ));
-        
+        response.put("data", data);
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * Upgrade a hash made with an outdated cost, now that the raw password is known to be correct.
+     * This happens in the background; if the pool is busy, a later login will try again.
+     */
+    private void rehashIfNeeded(User user, String rawPassword) {
+        String currentHash = user.getPasswordHash();
+        if (!passwordHashingService.needsRehash(currentHash)) {
+            return;
+        }
+        try {
+            passwordHashingService.hash(rawPassword)
+                    .thenAccept(newHash -> userService.replacePasswordHash(user.getId(), currentHash, newHash))
+                    .exceptionally(ex -> {
+                        logger.warn("Failed to rehash password for user {}", user.getId(), ex);
+                        return null;
+                    });
+        } catch (ServiceUnavailableException e) {
+            logger.debug("Skipped password rehash for user {}: hashing pool is full", user.getId());
+        }
+    }
+    
     /**
      * Request body for login endpoint.
      */
@@ -97,4 +198,19 @@ public class AuthController {
             this.password = password;
         }
     }
+    
+    /**
+     * Request body for the refresh and logout endpoints.
+     */
+    public static class RefreshRequest {
+        private String refreshToken;
+        
+        public String getRefreshToken() {
+            return refreshToken;
+        }
+        
+        public void setRefreshToken(String refreshToken) {
+            this.refreshToken = refreshToken;
+        }
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,113 @@
+package com.dhillon.twitterclone.controller;
+
+import com.dhillon.twitterclone.dto.CursorPage;
+import com.dhillon.twitterclone.dto.PostDto;
+import com.dhillon.twitterclone.entity.Bookmark;
+import com.dhillon.twitterclone.entity.Post;
+import com.dhillon.twitterclone.security.AuthenticatedUser;
+import com.dhillon.twitterclone.service.BookmarkService;
+import com.dhillon.twitterclone.service.PostService;
+import com.dhillon.twitterclone.util.KeysetCursor;
+import com.dhillon.twitterclone.util.PostMapper;
+import com.dhillon.twitterclone.util.SparseFieldset;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * REST controller for the current user's bookmarks.
+ */
+@RestController
+@RequestMapping("/bookmarks")
+@Tag(name = "Bookmark", description = "Bookmark APIs")
+public class BookmarkController {
+
+    private final BookmarkService bookmarkService;
+    private final PostService postService;
+    private final int maxPageSize;
+
+    public BookmarkController(BookmarkService bookmarkService, PostService postService,
+                              @Value("${app.pagination.max-page-size:100}") int maxPageSize) {
+        this.bookmarkService = bookmarkService;
+        this.postService = postService;
+        this.maxPageSize = maxPageSize;
+    }
+
+    @GetMapping
+    @Operation(summary = "Get bookmarks",
+            description = "Retrieve the current user's bookmarked posts, most recently bookmarked first, "
+                    + "one page per cursor")
+    @ApiResponse(responseCode = "200", description = "Bookmarks retrieved successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    @ApiResponse(responseCode = "401", description = "Not authenticated")
+    public ResponseEntity<CursorPage<PostDto>> getBookmarks(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @Parameter(description = "Cursor returned with the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Fields to include, separated by commas, such as id,content,likeCount; "
+                    + "the ID is always included. Omit for every field")
+            @RequestParam(name = SparseFieldset.PARAM, required = false) String fields) {
+        SparseFieldset fieldset = SparseFieldset.parse(fields, PostDto.class);
+        UUID userId = AuthenticatedUser.require(principal).id();
+        int limit = pageSize(size);
+
+        // One extra row tells whether another page follows
+        List<Bookmark> bookmarks = bookmarkService.getBookmarks(userId, KeysetCursor.decode(cursor), limit + 1);
+
+        String nextCursor = null;
+        if (bookmarks.size() > limit) {
+            bookmarks = bookmarks.subList(0, limit);
+            Bookmark last = bookmarks.get(limit - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        List<Post> posts = bookmarks.stream().map(Bookmark::getPost).toList();
+        Map<UUID, Post> originalPosts = fieldset.includes("originalPost") ? postService.getOriginalPosts(posts) : Map.of();
+        Set<UUID> bookmarkedPostIds = new HashSet<>();
+        posts.forEach(post -> bookmarkedPostIds.add(post.getId()));
+        bookmarkedPostIds.addAll(bookmarkService.getBookmarkedPostIds(userId, originalPosts.keySet()));
+        return ResponseEntity.ok(new CursorPage<>(
+                PostMapper.toDtoList(posts, originalPosts, bookmarkedPostIds, fieldset), nextCursor));
+    }
+
+    @PutMapping("/{postId}")
+    @Operation(summary = "Bookmark post",
+            description = "Bookmark a post for the current user. Bookmarking a post again leaves it where it is")
+    @ApiResponse(responseCode = "204", description = "Post bookmarked")
+    @ApiResponse(responseCode = "401", description = "Not authenticated")
+    @ApiResponse(responseCode = "404", description = "Post not found")
+    public ResponseEntity<Void> addBookmark(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @Parameter(description = "ID of the post to bookmark", required = true)
+            @PathVariable UUID postId) {
+        bookmarkService.addBookmark(AuthenticatedUser.require(principal).id(), postId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/{postId}")
+    @Operation(summary = "Remove bookmark", description = "Remove the current user's bookmark of a post, if any")
+    @ApiResponse(responseCode = "204", description = "Bookmark removed")
+    @ApiResponse(responseCode = "401", description = "Not authenticated")
+    public ResponseEntity<Void> removeBookmark(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @Parameter(description = "ID of the bookmarked post", required = true)
+            @PathVariable UUID postId) {
+        bookmarkService.removeBookmark(AuthenticatedUser.require(principal).id(), postId);
+        return ResponseEntity.noContent().build();
+    }
+
+    private int pageSize(int size) {
+        return Math.min(Math.max(size, 1), maxPageSize);
+    }
+}
@@ -0,0 +1,218 @@
+package com.dhillon.twitterclone.controller;
+
+import com.dhillon.twitterclone.dto.ConversationDto;
+import com.dhillon.twitterclone.dto.CursorPage;
+import com.dhillon.twitterclone.dto.DirectMessageDto;
+import com.dhillon.twitterclone.dto.ReadReceiptDto;
+import com.dhillon.twitterclone.entity.Conversation;
+import com.dhillon.twitterclone.entity.DirectMessage;
+import com.dhillon.twitterclone.security.AuthenticatedUser;
+import com.dhillon.twitterclone.service.DirectMessageService;
+import com.dhillon.twitterclone.util.ConversationMapper;
+import com.dhillon.twitterclone.util.KeysetCursor;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * REST controller for the current user's direct messages.
+ */
+@RestController
+@RequestMapping("/conversations")
+@Tag(name = "Direct Message", description = "Direct messaging APIs")
+public class ConversationController {
+
+    private final DirectMessageService directMessageService;
+    private final int maxPageSize;
+
+    public ConversationController(DirectMessageService directMessageService,
+                                  @Value("${app.pagination.max-page-size:100}") int maxPageSize) {
+        this.directMessageService = directMessageService;
+        this.maxPageSize = maxPageSize;
+    }
+
+    @GetMapping
+    @Operation(summary = "Get inbox",
+            description = "Retrieve the current user's conversations, most recently active first, one page per cursor")
+    @ApiResponse(responseCode = "200", description = "Conversations retrieved successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    @ApiResponse(responseCode = "401", description = "Not authenticated")
+    public ResponseEntity<CursorPage<ConversationDto>> getInbox(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @Parameter(description = "Cursor returned with the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        UUID userId = AuthenticatedUser.require(principal).id();
+        int limit = pageSize(size);
+
+        // One extra row tells whether another page follows
+        List<Conversation> conversations = directMessageService.getInbox(
+                userId, KeysetCursor.decode(cursor), limit + 1);
+
+        String nextCursor = null;
+        if (conversations.size() > limit) {
+            conversations = conversations.subList(0, limit);
+            Conversation last = conversations.get(limit - 1);
+            nextCursor = new KeysetCursor(last.getLastMessageAt(), last.getId()).encode();
+        }
+        List<UUID> conversationIds = conversations.stream().map(Conversation::getId).toList();
+        Map<UUID, List<UUID>> participantIds = directMessageService.getParticipantIds(conversationIds);
+        Map<UUID, Long> unreadCounts = directMessageService.getUnreadCounts(userId, conversationIds);
+        return ResponseEntity.ok(new CursorPage<>(
+                ConversationMapper.toDtoList(conversations, participantIds, unreadCounts), nextCursor));
+    }
+
+    @PostMapping
+    @Operation(summary = "Start conversation",
+            description = "Start a conversation with other users. Starting an unnamed conversation with a single "
+                    + "user returns the existing one-to-one conversation, if there is one")
+    @ApiResponse(responseCode = "201", description = "Conversation created or found")
+    @ApiResponse(responseCode = "400", description = "Invalid participants or name")
+    @ApiResponse(responseCode = "401", description = "Not authenticated")
+    @ApiResponse(responseCode = "404", description = "Participant not found")
+    public ResponseEntity<ConversationDto> createConversation(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @RequestBody CreateConversationRequest request) {
+        UUID userId = AuthenticatedUser.require(principal).id();
+        Conversation conversation = directMessageService.createConversation(userId,
+                request.getParticipantIds() != null ? request.getParticipantIds() : List.of(), request.getName());
+        List<UUID> conversationIds = List.of(conversation.getId());
+        List<UUID> participantIds = directMessageService.getParticipantIds(conversationIds)
+                .getOrDefault(conversation.getId(), List.of());
+        long unreadCount = directMessageService.getUnreadCounts(userId, conversationIds)
+                .getOrDefault(conversation.getId(), 0L);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ConversationMapper.toDto(conversation, participantIds, unreadCount));
+    }
+
+    @GetMapping("/{id}/messages")
+    @Operation(summary = "Get messages",
+            description = "Retrieve a conversation's messages, newest first, one page per cursor")
+    @ApiResponse(responseCode = "200", description = "Messages retrieved successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    @ApiResponse(responseCode = "401", description = "Not authenticated")
+    @ApiResponse(responseCode = "404", description = "Conversation not found")
+    public ResponseEntity<CursorPage<DirectMessageDto>> getMessages(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @Parameter(description = "ID of the conversation", required = true)
+            @PathVariable UUID id,
+            @Parameter(description = "Cursor returned with the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        int limit = pageSize(size);
+
+        List<DirectMessage> messages = directMessageService.getMessages(
+                AuthenticatedUser.require(principal).id(), id, KeysetCursor.decode(cursor), limit + 1);
+
+        String nextCursor = null;
+        if (messages.size() > limit) {
+            messages = messages.subList(0, limit);
+            DirectMessage last = messages.get(limit - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return ResponseEntity.ok(new CursorPage<>(ConversationMapper.toMessageDtoList(messages), nextCursor));
+    }
+
+    @PostMapping("/{id}/messages")
+    @Operation(summary = "Send message", description = "Send a message to a conversation")
+    @ApiResponse(responseCode = "201", description = "Message sent")
+    @ApiResponse(responseCode = "400", description = "Empty or overlong message")
+    @ApiResponse(responseCode = "401", description = "Not authenticated")
+    @ApiResponse(responseCode = "404", description = "Conversation not found")
+    public ResponseEntity<DirectMessageDto> sendMessage(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @Parameter(description = "ID of the conversation", required = true)
+            @PathVariable UUID id,
+            @RequestBody SendMessageRequest request) {
+        DirectMessage message = directMessageService.sendMessage(AuthenticatedUser.require(principal).id(), id, request.getContent());
+        return ResponseEntity.status(HttpStatus.CREATED).body(ConversationMapper.toDto(message));
+    }
+
+    @PostMapping("/{id}/read")
+    @Operation(summary = "Mark conversation read",
+            description = "Mark a message and everything before it as read. Receipts that would move the "
+                    + "read position backwards, such as ones arriving out of order, are ignored")
+    @ApiResponse(responseCode = "204", description = "Read position recorded")
+    @ApiResponse(responseCode = "401", description = "Not authenticated")
+    @ApiResponse(responseCode = "404", description = "Conversation or message not found")
+    public ResponseEntity<Void> markRead(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @Parameter(description = "ID of the conversation", required = true)
+            @PathVariable UUID id,
+            @Parameter(description = "ID of the last message read; omit for the latest message")
+            @RequestParam(required = false) UUID messageId) {
+        directMessageService.markRead(AuthenticatedUser.require(principal).id(), id, messageId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/{id}/read-receipts")
+    @Operation(summary = "Get read receipts",
+            description = "Get how far each participant has read. A message has been read by every participant "
+                    + "whose last read message is not older than it")
+    @ApiResponse(responseCode = "200", description = "Read receipts retrieved successfully")
+    @ApiResponse(responseCode = "401", description = "Not authenticated")
+    @ApiResponse(responseCode = "404", description = "Conversation not found")
+    public ResponseEntity<List<ReadReceiptDto>> getReadReceipts(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @Parameter(description = "ID of the conversation", required = true)
+            @PathVariable UUID id) {
+        List<ReadReceiptDto> receipts = directMessageService.getReadMarks(AuthenticatedUser.require(principal).id(), id).stream()
+                .map(ConversationMapper::toReceiptDto)
+                .toList();
+        return ResponseEntity.ok(receipts);
+    }
+
+    private int pageSize(int size) {
+        return Math.min(Math.max(size, 1), maxPageSize);
+    }
+
+    /**
+     * Request body for starting a conversation.
+     */
+    public static class CreateConversationRequest {
+        private List<UUID> participantIds = new ArrayList<>();
+        private String name;
+
+        public List<UUID> getParticipantIds() {
+            return participantIds;
+        }
+
+        public void setParticipantIds(List<UUID> participantIds) {
+            this.participantIds = participantIds;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * Request body for sending a message.
+     */
+    public static class SendMessageRequest {
+        private String content;
+
+        public String getContent() {
+            return content;
+        }
+
+        public void setContent(String content) {
+            this.content = content;
+        }
+    }
+}
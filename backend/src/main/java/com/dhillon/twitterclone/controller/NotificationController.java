@@ -0,0 +1,141 @@
+package com.dhillon.twitterclone.controller;
+
+import com.dhillon.twitterclone.dto.CursorPage;
+import com.dhillon.twitterclone.dto.NotificationDto;
+import com.dhillon.twitterclone.entity.Notification;
+import com.dhillon.twitterclone.security.AuthenticatedUser;
+import com.dhillon.twitterclone.service.NotificationService;
+import com.dhillon.twitterclone.util.KeysetCursor;
+import com.dhillon.twitterclone.util.NotificationMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * REST controller for the current user's notifications.
+ */
+@RestController
+@RequestMapping("/notifications")
+@Tag(name = "Notification", description = "Notification APIs")
+public class NotificationController {
+
+    private final NotificationService notificationService;
+    private final int maxPageSize;
+    private final long maxWaitMs;
+
+    public NotificationController(NotificationService notificationService,
+                                  @Value("${app.pagination.max-page-size:100}") int maxPageSize,
+                                  @Value("${app.notification.long-poll-max-wait-ms:25000}") long maxWaitMs) {
+        this.notificationService = notificationService;
+        this.maxPageSize = maxPageSize;
+        this.maxWaitMs = maxWaitMs;
+    }
+
+    @GetMapping
+    @Operation(summary = "Get notifications",
+            description = "Retrieve the current user's notifications, newest first, one page per cursor")
+    @ApiResponse(responseCode = "200", description = "Notifications retrieved successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    @ApiResponse(responseCode = "401", description = "Not authenticated")
+    public ResponseEntity<CursorPage<NotificationDto>> getNotifications(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @Parameter(description = "Cursor returned with the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        int limit = Math.min(Math.max(size, 1), maxPageSize);
+
+        // One extra row tells whether another page follows
+        List<Notification> notifications = notificationService.getNotifications(
+                AuthenticatedUser.require(principal).id(), KeysetCursor.decode(cursor), limit + 1);
+
+        String nextCursor = null;
+        if (notifications.size() > limit) {
+            notifications = notifications.subList(0, limit);
+            Notification last = notifications.get(limit - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return ResponseEntity.ok(new CursorPage<>(NotificationMapper.toDtoList(notifications), nextCursor));
+    }
+
+    @GetMapping("/unread-count")
+    @Operation(summary = "Get unread count",
+            description = "Get the current user's unread notification count. The ETag is the count itself: "
+                    + "send it back in If-None-Match to get 304 while it is unchanged, and add wait "
+                    + "to hold the request open until it changes")
+    @ApiResponse(responseCode = "200", description = "Unread count retrieved successfully")
+    @ApiResponse(responseCode = "304", description = "Unread count unchanged")
+    @ApiResponse(responseCode = "401", description = "Not authenticated")
+    public CompletableFuture<ResponseEntity<Map<String, Long>>> getUnreadCount(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @Parameter(description = "Seconds to wait for the count to change before answering 304")
+            @RequestParam(defaultValue = "0") int wait) {
+        UUID userId = AuthenticatedUser.require(principal).id();
+        long count = notificationService.getUnreadCount(userId);
+        Long known = parseETag(ifNoneMatch);
+        if (known == null || known != count || wait <= 0) {
+            return CompletableFuture.completedFuture(unreadCountResponse(count, known));
+        }
+
+        // Held without a thread or a query until the count changes or the wait runs out
+        long waitMs = Math.min(TimeUnit.SECONDS.toMillis(wait), maxWaitMs);
+        return notificationService.awaitUnreadCountChange(userId, known)
+                .completeOnTimeout(known, waitMs, TimeUnit.MILLISECONDS)
+                .thenApply(changed -> unreadCountResponse(changed, known));
+    }
+
+    @PostMapping("/read")
+    @Operation(summary = "Mark notifications read", description = "Mark all of the current user's notifications as read")
+    @ApiResponse(responseCode = "200", description = "Notifications marked as read")
+    @ApiResponse(responseCode = "401", description = "Not authenticated")
+    public ResponseEntity<Map<String, Integer>> markAllAsRead(@AuthenticationPrincipal AuthenticatedUser principal) {
+        int updated = notificationService.markAllAsRead(AuthenticatedUser.require(principal).id());
+        return ResponseEntity.ok(Map.of("updated", updated));
+    }
+
+    private static ResponseEntity<Map<String, Long>> unreadCountResponse(long count, Long known) {
+        String eTag = "\"" + count + "\"";
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (known != null && known == count) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).cacheControl(cacheControl).body(Map.of("unread", count));
+    }
+
+    /**
+     * Read the count back out of an If-None-Match header.
+     *
+     * @return the count, or null if the header is missing or not one of ours
+     */
+    private static Long parseETag(String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return null;
+        }
+        String value = ifNoneMatch.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        if (value.length() < 3 || value.charAt(0) != '"' || value.charAt(value.length() - 1) != '"') {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.substring(1, value.length() - 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
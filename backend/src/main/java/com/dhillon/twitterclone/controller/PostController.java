@@ -1,29 +1,45 @@
 package com.dhillon.twitterclone.controller;
 
+import com.dhillon.twitterclone.cache.JsonFragment;
+import com.dhillon.twitterclone.cache.PostJsonCache;
 import com.dhillon.twitterclone.dto.PostDto;
+import com.dhillon.twitterclone.dto.PostThreadDto;
+import com.dhillon.twitterclone.dto.PostVersion;
 import com.dhillon.twitterclone.entity.Post;
 import com.dhillon.twitterclone.entity.User;
+import com.dhillon.twitterclone.exception.BadRequestException;
+import com.dhillon.twitterclone.security.AuthenticatedUser;
+import com.dhillon.twitterclone.service.BookmarkService;
 import com.dhillon.twitterclone.service.PostService;
 import com.dhillon.twitterclone.service.UserService;
+import com.dhillon.twitterclone.util.ETags;
+import com.dhillon.twitterclone.util.PostMapper;
+import com.dhillon.twitterclone.util.SparseFieldset;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 /**
  * REST controller for post operations.
@@ -35,10 +51,17 @@ public class PostController {
     
     private final PostService postService;
     private final UserService userService;
+    private final BookmarkService bookmarkService;
+    private final PostJsonCache postJsonCache;
+    private final int maxBatchSize;
     
-    public PostController(PostService postService, UserService userService) {
+    public PostController(PostService postService, UserService userService, BookmarkService bookmarkService,
+                          PostJsonCache postJsonCache, @Value("${app.batch.max-ids:100}") int maxBatchSize) {
         this.postService = postService;
         this.userService = userService;
+        this.bookmarkService = bookmarkService;
+        this.postJsonCache = postJsonCache;
+        this.maxBatchSize = maxBatchSize;
     }
     
     @GetMapping
@@ -46,42 +69,132 @@ public class PostController {
     @ApiResponse(responseCode = "200", description = "Posts retrieved successfully",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = PostDto.class)))
     public ResponseEntity<List<PostDto>> getAllPosts(
+            @AuthenticationPrincipal AuthenticatedUser principal,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Fields to include, separated by commas, such as id,content,likeCount; "
+                    + "the ID is always included. Omit for every field")
+            @RequestParam(name = SparseFieldset.PARAM, required = false) String fields) {
+        SparseFieldset fieldset = SparseFieldset.parse(fields, PostDto.class);
         Pageable pageable = PageRequest.of(page, size);
         Page<Post> posts = postService.searchPosts("", pageable);
-        List<PostDto> postDTOs = posts.getContent().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(postDTOs);
+        return ResponseEntity.ok(convertToDtos(posts.getContent(), principal, fieldset));
     }
     
     @GetMapping("/{id}")
-    @Operation(summary = "Get post by ID", description = "Retrieve a specific post by its ID")
-    @ApiResponse(responseCode = "200", description = "Post retrieved successfully")
+    @Operation(summary = "Get post by ID",
+            description = "Retrieve a specific post by its ID. The ETag changes with the post, its counters, "
+                    + "its author and the original it reposts: send it back in If-None-Match to get 304 "
+                    + "without the post being loaded")
+    @ApiResponse(responseCode = "200", description = "Post retrieved successfully",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = PostDto.class)))
+    @ApiResponse(responseCode = "304", description = "Post unchanged")
     @ApiResponse(responseCode = "404", description = "Post not found")
-    public ResponseEntity<PostDto> getPostById(
+    public ResponseEntity<?> getPostById(
+            @AuthenticationPrincipal AuthenticatedUser principal,
             @Parameter(description = "ID of the post to retrieve", required = true)
+            @PathVariable UUID id,
+            @Parameter(description = "Fields to include, separated by commas, such as id,content,likeCount; "
+                    + "the ID is always included. Omit for every field")
+            @RequestParam(name = SparseFieldset.PARAM, required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        SparseFieldset fieldset = SparseFieldset.parse(fields, PostDto.class);
+        
+        // Read before the post, so a body is never older than the ETag sent with it
+        Optional<PostVersion> version = postService.findVersion(id);
+        if (version.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        UUID originalId = version.get().getOriginalId();
+        Set<UUID> bookmarkedPostIds = bookmarkedPostIds(principal, fieldset,
+                originalId != null ? List.of(id, originalId) : List.of(id));
+        String versionKey = postVersionKey(version.get());
+        String eTag = ETags.strong(versionKey, bookmarkedPostIds.contains(id),
+                originalId != null && bookmarkedPostIds.contains(originalId), fields);
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (ETags.matches(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(cacheControl).build();
+        }
+        
+        // Full posts are served from their cached JSON, with only the bookmark flags spliced in
+        if (fieldset.isAll()) {
+            JsonFragment.Spliced json = postJsonCache.get(id, versionKey, bookmarkedPostIds);
+            if (json == null) {
+                Optional<Post> post = postService.findById(id);
+                if (post.isEmpty()) {
+                    return ResponseEntity.notFound().build();
+                }
+                List<Post> posts = List.of(post.get());
+                PostDto dto = PostMapper.toDtoList(posts, postService.getOriginalPosts(posts), Set.of()).get(0);
+                json = postJsonCache.put(id, versionKey, dto, bookmarkedPostIds);
+            }
+            return ResponseEntity.ok().eTag(eTag).cacheControl(cacheControl).body(json);
+        }
+        
+        Optional<Post> post = postService.findById(id);
+        if (post.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        List<Post> posts = List.of(post.get());
+        Map<UUID, Post> originalPosts = fieldset.includes("originalPost") ? postService.getOriginalPosts(posts) : Map.of();
+        return ResponseEntity.ok().eTag(eTag).cacheControl(cacheControl)
+                .body(PostMapper.toDtoList(posts, originalPosts, bookmarkedPostIds, fieldset).get(0));
+    }
+    
+    @PostMapping("/batch")
+    @Operation(summary = "Get posts by IDs",
+            description = "Retrieve several posts in one request, in the order of the IDs given. "
+                    + "Posts that do not exist or were deleted are left out, as are repeated IDs")
+    @ApiResponse(responseCode = "200", description = "Posts retrieved successfully")
+    @ApiResponse(responseCode = "400", description = "Too many IDs")
+    public ResponseEntity<List<PostDto>> getPostsByIds(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @Parameter(description = "IDs of the posts to retrieve", required = true)
+            @RequestBody List<UUID> ids,
+            @Parameter(description = "Fields to include, separated by commas, such as id,content,likeCount; "
+                    + "the ID is always included. Omit for every field")
+            @RequestParam(name = SparseFieldset.PARAM, required = false) String fields) {
+        SparseFieldset fieldset = SparseFieldset.parse(fields, PostDto.class);
+        if (ids.size() > maxBatchSize) {
+            throw new BadRequestException("At most " + maxBatchSize + " IDs can be requested at once");
+        }
+        return ResponseEntity.ok(convertToDtos(postService.findByIds(ids), principal, fieldset));
+    }
+    
+    @GetMapping("/{id}/thread")
+    @Operation(summary = "Get thread",
+            description = "Retrieve a post in its conversation: the posts it replies to, from the top down, "
+                    + "and a tree of replies below it, oldest first. Deep or large reply trees are cut off, "
+                    + "with moreReplies set where replies were left out")
+    @ApiResponse(responseCode = "200", description = "Thread retrieved successfully")
+    @ApiResponse(responseCode = "404", description = "Post not found")
+    public ResponseEntity<PostThreadDto> getThread(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @Parameter(description = "ID of the post", required = true)
             @PathVariable UUID id) {
-        return postService.findById(id)
-                .map(post -> ResponseEntity.ok(convertToDto(post)))
-                .orElse(ResponseEntity.notFound().build());
+        PostThreadDto thread = postService.getThread(id);
+        if (principal != null) {
+            thread = thread.withBookmarks(bookmarkService.getBookmarkedPostIds(principal.id(), thread.postIds()));
+        }
+        return ResponseEntity.ok(thread);
     }
     
     @GetMapping("/user/{userId}")
     @Operation(summary = "Get posts by user ID", description = "Retrieve all posts from a specific user")
     @ApiResponse(responseCode = "200", description = "Posts retrieved successfully")
     public ResponseEntity<List<PostDto>> getPostsByUserId(
+            @AuthenticationPrincipal AuthenticatedUser principal,
             @Parameter(description = "ID of the user", required = true)
             @PathVariable UUID userId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Fields to include, separated by commas, such as id,content,likeCount; "
+                    + "the ID is always included. Omit for every field")
+            @RequestParam(name = SparseFieldset.PARAM, required = false) String fields) {
+        SparseFieldset fieldset = SparseFieldset.parse(fields, PostDto.class);
         Pageable pageable = PageRequest.of(page, size);
-        Page<Post> posts = postService.getUserTimeline(userId, pageable);
-        List<PostDto> postDTOs = posts.getContent().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(postDTOs);
+        Slice<Post> posts = postService.getUserTimeline(userId, pageable);
+        return ResponseEntity.ok(convertToDtos(posts.getContent(), principal, fieldset));
     }
     
     @PostMapping
@@ -93,7 +206,7 @@ public class PostController {
             @RequestBody PostDto postDto) {
         Post post = convertToEntity(postDto);
         Post createdPost = postService.createPost(post);
-        return ResponseEntity.status(HttpStatus.CREATED).body(convertToDto(createdPost));
+        return ResponseEntity.status(HttpStatus.CREATED).body(convertToDto(createdPost, null));
     }
     
     @PutMapping("/{id}")
@@ -101,13 +214,14 @@ public class PostController {
     @ApiResponse(responseCode = "200", description = "Post updated successfully")
     @ApiResponse(responseCode = "404", description = "Post not found")
     public ResponseEntity<PostDto> updatePost(
+            @AuthenticationPrincipal AuthenticatedUser principal,
             @Parameter(description = "ID of the post to update", required = true)
             @PathVariable UUID id,
             @Parameter(description = "Updated post data", required = true)
             @RequestBody PostDto postDto) {
         Post post = convertToEntity(postDto);
         Post updatedPost = postService.updatePost(id, post);
-        return ResponseEntity.ok(convertToDto(updatedPost));
+        return ResponseEntity.ok(convertToDto(updatedPost, principal));
     }
     
     @DeleteMapping("/{id}")
@@ -132,7 +246,7 @@ public class PostController {
             @RequestBody PostDto replyDto) {
         Post reply = convertToEntity(replyDto);
         Post createdReply = postService.createReply(parentId, reply);
-        return ResponseEntity.status(HttpStatus.CREATED).body(convertToDto(createdReply));
+        return ResponseEntity.status(HttpStatus.CREATED).body(convertToDto(createdReply, null));
     }
     
     @PostMapping("/{originalPostId}/repost")
@@ -146,36 +260,74 @@ public class PostController {
             @RequestBody PostDto repostDto) {
         Post repost = convertToEntity(repostDto);
         Post createdRepost = postService.createRepost(originalPostId, repost);
-        return ResponseEntity.status(HttpStatus.CREATED).body(convertToDto(createdRepost));
+        return ResponseEntity.status(HttpStatus.CREATED).body(convertToDto(createdRepost, null));
+    }
+    
+    @PostMapping("/{id}/like")
+    @Operation(summary = "Like post", description = "Like a post as the current user")
+    @ApiResponse(responseCode = "204", description = "Post liked")
+    @ApiResponse(responseCode = "401", description = "Not authenticated")
+    @ApiResponse(responseCode = "404", description = "Post not found")
+    public ResponseEntity<Void> likePost(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @Parameter(description = "ID of the post to like", required = true)
+            @PathVariable UUID id) {
+        postService.likePost(id, AuthenticatedUser.require(principal).id());
+        return ResponseEntity.noContent().build();
+    }
+    
+    @DeleteMapping("/{id}/like")
+    @Operation(summary = "Unlike post", description = "Remove the current user's like from a post")
+    @ApiResponse(responseCode = "204", description = "Like removed")
+    @ApiResponse(responseCode = "401", description = "Not authenticated")
+    public ResponseEntity<Void> unlikePost(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @Parameter(description = "ID of the post to unlike", required = true)
+            @PathVariable UUID id) {
+        postService.unlikePost(id, AuthenticatedUser.require(principal).id());
+        return ResponseEntity.noContent().build();
+    }
+    
+    /**
+     * Converts a page of Post entities to PostDtos. The originals of its reposts and the posts
+     * the current user has bookmarked are each fetched in a single query for the whole page,
+     * unless the fields asked for leave them out
+     */
+    private List<PostDto> convertToDtos(List<Post> posts, AuthenticatedUser principal, SparseFieldset fields) {
+        Map<UUID, Post> originalPosts = fields.includes("originalPost") ? postService.getOriginalPosts(posts) : Map.of();
+        List<UUID> postIds = new ArrayList<>(posts.size() + originalPosts.size());
+        posts.forEach(post -> postIds.add(post.getId()));
+        postIds.addAll(originalPosts.keySet());
+        return PostMapper.toDtoList(posts, originalPosts, bookmarkedPostIds(principal, fields, postIds), fields);
+    }
+    
+    /**
+     * Looks up which of some posts the current user has bookmarked, in one query,
+     * unless there is no current user or the fields asked for leave the flag out
+     */
+    private Set<UUID> bookmarkedPostIds(AuthenticatedUser principal, SparseFieldset fields, List<UUID> postIds) {
+        if (principal == null || !fields.includes("bookmarked")) {
+            return Set.of();
+        }
+        return bookmarkService.getBookmarkedPostIds(principal.id(), postIds);
+    }
+    
+    /**
+     * Sums up the version of a post: the post, its counters, its author and its original,
+     * which change the body for every user
+     */
+    private static String postVersionKey(PostVersion version) {
+        return ETags.strong(version.getId(), version.getUpdatedAt(), version.getLikeCount(), version.getReplyCount(),
+                version.getRepostCount(), version.getAuthorUpdatedAt(), version.getOriginalId(),
+                version.getOriginalUpdatedAt(), version.getOriginalDeletedAt(), version.getOriginalLikeCount(),
+                version.getOriginalReplyCount(), version.getOriginalRepostCount());
     }
     
     /**
      * Converts Post entity to PostDto
      */
-    private PostDto convertToDto(Post post) {
-        // Convert hashtags to strings
-        List<String> hashtagNames = post.getHashtags().stream()
-                .map(hashtag -> hashtag.getName())
-                .collect(Collectors.toList());
-        
-        return new PostDto(
-            post.getId(),
-            post.getUser().getId(),
-            post.getUser().getUsername(),
-            post.getUser().getDisplayName() != null ? 
-                post.getUser().getDisplayName() : post.getUser().getUsername(),
-            post.getUser().getProfileImage(),
-            post.getContent(),
-            post.getMedia(),
-            post.getLikeCount(),
-            post.getRepostCount(),
-            post.getReplyCount(),
-            false, // liked status would need to be set based on current user
-            false, // retweeted status would need to be set based on current user
-            post.getCreatedAt(),
-            hashtagNames,
-            new ArrayList<>() // mentions would need to be extracted
-        );
+    private PostDto convertToDto(Post post, AuthenticatedUser principal) {
+        return convertToDtos(List.of(post), principal, SparseFieldset.ALL).get(0);
     }
     
     /**
@@ -0,0 +1,117 @@
+package com.dhillon.twitterclone.controller;
+
+import com.dhillon.twitterclone.dto.PostDto;
+import com.dhillon.twitterclone.entity.Post;
+import com.dhillon.twitterclone.security.AuthenticatedUser;
+import com.dhillon.twitterclone.service.BookmarkService;
+import com.dhillon.twitterclone.service.PostService;
+import com.dhillon.twitterclone.service.TimelineStreamService;
+import com.dhillon.twitterclone.util.ETags;
+import com.dhillon.twitterclone.util.PostMapper;
+import com.dhillon.twitterclone.util.SparseFieldset;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * REST controller for the current user's home timeline and its stream.
+ */
+@RestController
+@RequestMapping("/timeline")
+@Tag(name = "Timeline", description = "Home timeline APIs")
+public class TimelineController {
+
+    private final TimelineStreamService timelineStreamService;
+    private final PostService postService;
+    private final BookmarkService bookmarkService;
+    private final int maxPageSize;
+
+    public TimelineController(TimelineStreamService timelineStreamService, PostService postService,
+                              BookmarkService bookmarkService,
+                              @Value("${app.pagination.max-page-size:100}") int maxPageSize) {
+        this.timelineStreamService = timelineStreamService;
+        this.postService = postService;
+        this.bookmarkService = bookmarkService;
+        this.maxPageSize = maxPageSize;
+    }
+
+    @GetMapping
+    @Operation(summary = "Get home timeline",
+            description = "Retrieve posts from the current user and the users they follow, newest first. Reposts "
+                    + "embed their original, and an original reposted by several users on the same page appears "
+                    + "once, listing everyone who reposted it")
+    @ApiResponse(responseCode = "200", description = "Timeline retrieved successfully")
+    @ApiResponse(responseCode = "304", description = "No new posts since the page was last retrieved")
+    @ApiResponse(responseCode = "401", description = "Not authenticated")
+    public ResponseEntity<List<PostDto>> getHomeTimeline(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Fields to include, separated by commas, such as id,content,likeCount; "
+                    + "the ID is always included. Omit for every field")
+            @RequestParam(name = SparseFieldset.PARAM, required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        SparseFieldset fieldset = SparseFieldset.parse(fields, PostDto.class);
+        UUID userId = AuthenticatedUser.require(principal).id();
+        PageRequest pageRequest = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), maxPageSize));
+
+        // A new post on top shifts every page, so the newest post's ID stands for the page. The ETag is weak
+        // as counters and bookmarks on the page may still change under it
+        String eTag = ETags.weak(postService.getHomeTimelineHead(userId).orElse(null),
+                pageRequest.getPageNumber(), pageRequest.getPageSize(), fields);
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (ETags.matches(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(cacheControl).build();
+        }
+        List<Post> posts = postService.getHomeTimeline(userId, pageRequest).getContent();
+
+        // The originals of the page's reposts and its bookmarks are one query each, whatever the page holds.
+        // Originals are loaded even when not asked for, as reposts are collapsed by them
+        Map<UUID, Post> originalPosts = postService.getOriginalPosts(posts);
+        Set<UUID> bookmarkedPostIds = Set.of();
+        if (fieldset.includes("bookmarked")) {
+            List<UUID> postIds = new ArrayList<>(posts.size() + originalPosts.size());
+            posts.forEach(post -> postIds.add(post.getId()));
+            postIds.addAll(originalPosts.keySet());
+            bookmarkedPostIds = bookmarkService.getBookmarkedPostIds(userId, postIds);
+        }
+        return ResponseEntity.ok().eTag(eTag).cacheControl(cacheControl).body(PostMapper.collapseReposts(
+                PostMapper.toDtoList(posts, originalPosts, bookmarkedPostIds, fieldset)));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream the home timeline",
+            description = "Server-Sent Events carrying each new post in the current user's home timeline as a "
+                    + "'post' event. Reconnect with Last-Event-ID to get the posts missed meanwhile; a 'reset' "
+                    + "event means some were lost and the timeline should be reloaded")
+    @ApiResponse(responseCode = "200", description = "Stream opened")
+    @ApiResponse(responseCode = "401", description = "Not authenticated")
+    public ResponseEntity<SseEmitter> stream(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @Parameter(description = "ID of the last event received, sent by browsers when reconnecting")
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        SseEmitter emitter = timelineStreamService.subscribe(AuthenticatedUser.require(principal).id(), lastEventId);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                // Keeps nginx from buffering the events
+                .header("X-Accel-Buffering", "no")
+                .body(emitter);
+    }
+}
@@ -2,16 +2,26 @@ package com.dhillon.twitterclone.controller;
 
 import com.dhillon.twitterclone.dto.UserDto;
 import com.dhillon.twitterclone.entity.User;
+import com.dhillon.twitterclone.exception.BadRequestException;
+import com.dhillon.twitterclone.security.AuthenticatedUser;
+import com.dhillon.twitterclone.service.RecommendationService;
 import com.dhillon.twitterclone.service.UserService;
-import com.dhillon.twitterclone.repository.FollowRepository;
+import com.dhillon.twitterclone.util.ETags;
+import com.dhillon.twitterclone.util.IdentifierUtils;
+import com.dhillon.twitterclone.util.SparseFieldset;
+import com.dhillon.twitterclone.util.UserMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -27,18 +37,25 @@ import java.util.HashMap;
 public class UserController {
 
     private final UserService userService;
-    private final FollowRepository followRepository;
+    private final RecommendationService recommendationService;
+    private final int maxBatchSize;
 
-    public UserController(UserService userService, FollowRepository followRepository) {
+    public UserController(UserService userService, RecommendationService recommendationService,
+                          @Value("${app.batch.max-ids:100}") int maxBatchSize) {
         this.userService = userService;
-        this.followRepository = followRepository;
+        this.recommendationService = recommendationService;
+        this.maxBatchSize = maxBatchSize;
     }
 
     @GetMapping
     @Operation(summary = "Get all users", description = "Retrieve a list of all users")
     @ApiResponse(responseCode = "200", description = "Users retrieved successfully",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = UserDto.class)))
-    public ResponseEntity<List<UserDto>> getAllUsers() {
+    public ResponseEntity<List<UserDto>> getAllUsers(
+            @Parameter(description = "Fields to include, separated by commas, such as id,username,displayName; "
+                    + "the ID is always included. Omit for every field")
+            @RequestParam(name = SparseFieldset.PARAM, required = false) String fields) {
+        checkFields(fields);
         List<User> users = userService.searchUsers("");
         List<UserDto> userDTOs = users.stream()
                 .map(this::convertToDto)
@@ -47,39 +64,63 @@ public class UserController {
     }
 
     @GetMapping("/{idOrUsername}")
-    @Operation(summary = "Get user by ID or username", description = "Retrieve a specific user by their ID or username")
+    @Operation(summary = "Get user by ID or username",
+            description = "Retrieve a specific user by their ID or username. The ETag changes with the profile "
+                    + "and its counts: send it back in If-None-Match to get 304")
     @ApiResponse(responseCode = "200", description = "User retrieved successfully")
+    @ApiResponse(responseCode = "304", description = "User unchanged")
     @ApiResponse(responseCode = "404", description = "User not found")
     public ResponseEntity<?> getUser(
             @Parameter(description = "ID or username of the user to retrieve", required = true)
-            @PathVariable String idOrUsername) {
-        try {
-            UUID id = UUID.fromString(idOrUsername);
-            Optional<User> userOpt = userService.findById(id);
-            if (userOpt.isPresent()) {
-                return ResponseEntity.ok(convertToDto(userOpt.get()));
-            } else {
-                Map<String, Object> errorResponse = new HashMap<>();
-                errorResponse.put("status", 404);
-                errorResponse.put("error", "Not Found");
-                errorResponse.put("message", "User not found with ID: " + id);
-                errorResponse.put("path", "/users/" + idOrUsername);
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
-            }
-        } catch (IllegalArgumentException e) {
-            // Not a UUID, so treat as username
-            Optional<User> userOpt = userService.findByUsername(idOrUsername);
-            if (userOpt.isPresent()) {
-                return ResponseEntity.ok(convertToDto(userOpt.get()));
-            } else {
-                Map<String, Object> errorResponse = new HashMap<>();
-                errorResponse.put("status", 404);
-                errorResponse.put("error", "Not Found");
-                errorResponse.put("message", "User not found with username: " + idOrUsername);
-                errorResponse.put("path", "/users/" + idOrUsername);
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+            @PathVariable String idOrUsername,
+            @Parameter(description = "Fields to include, separated by commas, such as id,username,displayName; "
+                    + "the ID is always included. Omit for every field")
+            @RequestParam(name = SparseFieldset.PARAM, required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        checkFields(fields);
+        // Usually served from the second-level cache, which drops a user whenever the profile or its counts change
+        Optional<User> userOpt = userService.findByIdOrUsername(idOrUsername);
+        if (userOpt.isPresent()) {
+            User user = userOpt.get();
+            String eTag = ETags.strong(user.getId(), user.getUpdatedAt(), user.getFollowerCount(),
+                    user.getFollowingCount(), fields);
+            if (ETags.matches(ifNoneMatch, eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(CacheControl.noCache())
+                        .build();
             }
+            return ResponseEntity.ok().eTag(eTag).cacheControl(CacheControl.noCache()).body(convertToDto(user));
+        }
+        
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("status", 404);
+        errorResponse.put("error", "Not Found");
+        errorResponse.put("message", IdentifierUtils.isUuid(idOrUsername)
+                ? "User not found with ID: " + idOrUsername
+                : "User not found with username: " + idOrUsername);
+        errorResponse.put("path", "/users/" + idOrUsername);
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Get users by IDs",
+            description = "Retrieve several users in one request, in the order of the IDs given. "
+                    + "Users that do not exist or were deleted are left out, as are repeated IDs")
+    @ApiResponse(responseCode = "200", description = "Users retrieved successfully")
+    @ApiResponse(responseCode = "400", description = "Too many IDs")
+    public ResponseEntity<List<UserDto>> getUsersByIds(
+            @Parameter(description = "IDs of the users to retrieve", required = true)
+            @RequestBody List<UUID> ids,
+            @Parameter(description = "Fields to include, separated by commas, such as id,username,displayName; "
+                    + "the ID is always included. Omit for every field")
+            @RequestParam(name = SparseFieldset.PARAM, required = false) String fields) {
+        checkFields(fields);
+        if (ids.size() > maxBatchSize) {
+            throw new BadRequestException("At most " + maxBatchSize + " IDs can be requested at once");
         }
+        List<UserDto> userDtos = userService.findByIds(ids).stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(userDtos);
     }
 
     @PutMapping("/{idOrUsername}")
@@ -91,22 +132,13 @@ public class UserController {
             @PathVariable String idOrUsername,
             @Parameter(description = "Updated user data", required = true)
             @RequestBody UserDto userDto) {
-        try {
-            UUID id = UUID.fromString(idOrUsername);
-            if (!userService.findById(id).isPresent()) {
-                return ResponseEntity.notFound().build();
-            }
-            User updatedUser = userService.updateUser(id, convertToEntity(userDto));
-            return ResponseEntity.ok(convertToDto(updatedUser));
-        } catch (IllegalArgumentException e) {
-            // Not a UUID, so treat as username
-            Optional<User> existingUser = userService.findByUsername(idOrUsername);
-            if (existingUser.isEmpty()) {
-                return ResponseEntity.notFound().build();
-            }
-            User updatedUser = userService.updateUser(existingUser.get().getId(), convertToEntity(userDto));
-            return ResponseEntity.ok(convertToDto(updatedUser));
+        Optional<UUID> id = userService.resolveUserId(idOrUsername);
+        if (id.isEmpty()) {
+            return ResponseEntity.notFound().build();
         }
+        // updateUser loads the user itself and throws ResourceNotFoundException if it is missing
+        User updatedUser = userService.updateUser(id.get(), convertToEntity(userDto));
+        return ResponseEntity.ok(convertToDto(updatedUser));
     }
 
     @DeleteMapping("/{idOrUsername}")
@@ -116,22 +148,12 @@ public class UserController {
     public ResponseEntity<Void> deleteUser(
             @Parameter(description = "ID or username of the user to delete", required = true)
             @PathVariable String idOrUsername) {
-        try {
-            UUID id = UUID.fromString(idOrUsername);
-            if (userService.findById(id).isEmpty()) {
-                return ResponseEntity.notFound().build();
-            }
-            userService.deleteUser(id);
-            return ResponseEntity.noContent().build();
-        } catch (IllegalArgumentException e) {
-            // Not a UUID, so treat as username
-            Optional<User> user = userService.findByUsername(idOrUsername);
-            if (user.isEmpty()) {
-                return ResponseEntity.notFound().build();
-            }
-            userService.deleteUser(user.get().getId());
-            return ResponseEntity.noContent().build();
+        Optional<UUID> id = userService.resolveUserId(idOrUsername);
+        if (id.isEmpty()) {
+            return ResponseEntity.notFound().build();
         }
+        userService.deleteUser(id.get());
+        return ResponseEntity.noContent().build();
     }
 
     @GetMapping("/check-username")
@@ -161,7 +183,11 @@ public class UserController {
     @ApiResponse(responseCode = "200", description = "Search results retrieved successfully")
     public ResponseEntity<List<UserDto>> searchUsers(
             @Parameter(description = "Search query", required = true)
-            @RequestParam String query) {
+            @RequestParam String query,
+            @Parameter(description = "Fields to include, separated by commas, such as id,username,displayName; "
+                    + "the ID is always included. Omit for every field")
+            @RequestParam(name = SparseFieldset.PARAM, required = false) String fields) {
+        checkFields(fields);
         List<User> users = userService.searchUsers(query);
         List<UserDto> userDtos = users.stream()
                 .map(this::convertToDto)
@@ -202,29 +228,73 @@ public class UserController {
         return ResponseEntity.status(HttpStatus.CREATED).body(convertToDto(createdUser));
     }
     
+    @PostMapping("/{idOrUsername}/follow")
+    @Operation(summary = "Follow user", description = "Follow a user by their ID or username, as the current user")
+    @ApiResponse(responseCode = "204", description = "User followed successfully")
+    @ApiResponse(responseCode = "401", description = "Not authenticated")
+    @ApiResponse(responseCode = "404", description = "User not found")
+    public ResponseEntity<Void> followUser(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @Parameter(description = "ID or username of the user to follow", required = true)
+            @PathVariable String idOrUsername) {
+        UUID followerId = AuthenticatedUser.require(principal).id();
+        Optional<UUID> id = userService.resolveUserId(idOrUsername);
+        if (id.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        userService.followUser(followerId, id.get());
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/{idOrUsername}/follow")
+    @Operation(summary = "Unfollow user", description = "Unfollow a user by their ID or username, as the current user")
+    @ApiResponse(responseCode = "204", description = "User unfollowed successfully")
+    @ApiResponse(responseCode = "401", description = "Not authenticated")
+    @ApiResponse(responseCode = "404", description = "User not found")
+    public ResponseEntity<Void> unfollowUser(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @Parameter(description = "ID or username of the user to unfollow", required = true)
+            @PathVariable String idOrUsername) {
+        UUID followerId = AuthenticatedUser.require(principal).id();
+        Optional<UUID> id = userService.resolveUserId(idOrUsername);
+        if (id.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        userService.unfollowUser(followerId, id.get());
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/{id}/suggestions")
+    @Operation(summary = "Get follow suggestions", description = "Retrieve users to follow, ranked by mutual connections")
+    @ApiResponse(responseCode = "200", description = "Suggestions retrieved successfully")
+    public ResponseEntity<List<UserDto>> getSuggestions(
+            @Parameter(description = "ID of the user to suggest follows for", required = true)
+            @PathVariable UUID id,
+            @Parameter(description = "Maximum number of suggestions")
+            @RequestParam(defaultValue = "10") int limit,
+            @Parameter(description = "Fields to include, separated by commas, such as id,username,displayName; "
+                    + "the ID is always included. Omit for every field")
+            @RequestParam(name = SparseFieldset.PARAM, required = false) String fields) {
+        checkFields(fields);
+        List<UserDto> suggestions = recommendationService.getSuggestions(id, limit).stream()
+                .map(UserMapper::toDto)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(suggestions);
+    }
+    
+    /**
+     * Checks the names of the fields asked for. Users have no associations to skip loading,
+     * so the fields only trim the response, which SparseFieldsetAdvice does
+     */
+    private static void checkFields(String fields) {
+        SparseFieldset.parse(fields, UserDto.class);
+    }
+    
     /**
      * Converts User entity to UserDto
      */
     private UserDto convertToDto(User user) {
-        int followersCount = (int) followRepository.countByFollowingId(user.getId());
-        int followingCount = (int) followRepository.countByFollowerId(user.getId());
-        
-        return new UserDto(
-            user.getId(),
-            user.getUsername(),
-            user.getEmail(),
-            user.getDisplayName(),
-            user.getBio(),
-            user.getLocation(),
-            user.getWebsite(),
-            user.getProfileImage(),
-            user.getHeaderImage(),
-            user.isVerified(),
-            user.getCreatedAt(),
-            followersCount,
-            followingCount,
-            null // no need to expose password
-        );
+        return UserMapper.toDto(user);
     }
     
     /**
@@ -0,0 +1,32 @@
+package com.dhillon.twitterclone.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Schema(description = "Data Transfer Object for a direct messaging conversation")
+public record ConversationDto(
+    @Schema(description = "Unique identifier of the conversation")
+    UUID id,
+
+    @Schema(description = "Name of the conversation, if it was given one")
+    String name,
+
+    @Schema(description = "Whether this is a group conversation rather than one between two users")
+    boolean group,
+
+    @Schema(description = "User IDs of the participants, including the current user")
+    List<UUID> participantIds,
+
+    @Schema(description = "Timestamp of the latest message, or of creation if there is none")
+    LocalDateTime lastMessageAt,
+
+    @Schema(description = "Number of messages from others the current user has not read")
+    long unreadCount,
+
+    @Schema(description = "Creation timestamp")
+    LocalDateTime createdAt
+) {
+}
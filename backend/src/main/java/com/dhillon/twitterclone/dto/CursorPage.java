@@ -0,0 +1,22 @@
+package com.dhillon.twitterclone.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing.
+ *
+ * @param items the items on this page
+ * @param nextCursor the cursor for the next page, or null if this is the last page
+ * @param <T> the item type
+ */
+@Schema(description = "A page of results with a cursor for the next page")
+public record CursorPage<T>(
+    @Schema(description = "Items on this page")
+    List<T> items,
+
+    @Schema(description = "Opaque cursor to pass as the cursor parameter for the next page; null on the last page")
+    String nextCursor
+) {
+}
@@ -0,0 +1,28 @@
+package com.dhillon.twitterclone.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Schema(description = "Data Transfer Object for a direct message")
+public record DirectMessageDto(
+    @Schema(description = "Unique identifier of the message")
+    UUID id,
+
+    @Schema(description = "ID of the conversation")
+    UUID conversationId,
+
+    @Schema(description = "User ID of the sender")
+    UUID senderId,
+
+    @Schema(description = "Username of the sender")
+    String senderUsername,
+
+    @Schema(description = "Text of the message")
+    String content,
+
+    @Schema(description = "Timestamp when the message was sent")
+    LocalDateTime createdAt
+) {
+}
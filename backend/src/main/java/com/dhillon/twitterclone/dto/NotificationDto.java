@@ -0,0 +1,41 @@
+package com.dhillon.twitterclone.dto;
+
+import com.dhillon.twitterclone.entity.NotificationType;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Schema(description = "Data Transfer Object for Notification")
+public record NotificationDto(
+    @Schema(description = "Unique identifier of the notification")
+    UUID id,
+
+    @Schema(description = "Type of the notification")
+    NotificationType type,
+
+    @Schema(description = "User ID of the latest actor")
+    UUID actorId,
+
+    @Schema(description = "Username of the latest actor")
+    String actorUsername,
+
+    @Schema(description = "Display name of the latest actor")
+    String actorDisplayName,
+
+    @Schema(description = "Profile image URL of the latest actor")
+    String actorProfileImage,
+
+    @Schema(description = "Number of users collapsed into this notification, including the latest actor")
+    int actorCount,
+
+    @Schema(description = "ID of the related post, if any")
+    UUID postId,
+
+    @Schema(description = "Whether the notification has been read")
+    boolean read,
+
+    @Schema(description = "Timestamp of the latest event in the notification")
+    LocalDateTime createdAt
+) {
+}
@@ -50,6 +50,9 @@ public record PostDto(
     @Schema(description = "Whether the current user has retweeted the post")
     boolean retweeted,
 
+    @Schema(description = "Whether the current user has bookmarked the post")
+    boolean bookmarked,
+
     @Schema(description = "Timestamp when the post was created")
     LocalDateTime createdAt,
 
@@ -57,13 +60,38 @@ public record PostDto(
     List<String> hashtags,
 
     @Schema(description = "List of mentioned users in the post")
-    List<String> mentions
+    List<String> mentions,
+
+    @Schema(description = "The post this one reposts, or null if it is not a repost or the original was deleted")
+    PostDto originalPost,
+
+    @Schema(description = "Usernames of the users who reposted the original; a timeline shows one entry "
+        + "for an original reposted by several of the users followed")
+    List<String> repostedBy
 ) {
     // Compact constructor to ensure lists are never null
     public PostDto {
         media = media != null ? media : new ArrayList<>();
         hashtags = hashtags != null ? hashtags : new ArrayList<>();
         mentions = mentions != null ? mentions : new ArrayList<>();
+        repostedBy = repostedBy != null ? repostedBy : new ArrayList<>();
+    }
+    
+    // Copy with the current user's bookmark flag, for DTOs built or cached without a user
+    public PostDto withBookmarked(boolean bookmarked) {
+        if (bookmarked == this.bookmarked) {
+            return this;
+        }
+        return new PostDto(id, userId, username, displayName, profileImage, content, media, likeCount,
+            retweetCount, replyCount, liked, retweeted, bookmarked, createdAt, hashtags, mentions,
+            originalPost, repostedBy);
+    }
+    
+    // Copy listing every user who reposted the same original
+    public PostDto withRepostedBy(List<String> repostedBy) {
+        return new PostDto(id, userId, username, displayName, profileImage, content, media, likeCount,
+            retweetCount, replyCount, liked, retweeted, bookmarked, createdAt, hashtags, mentions,
+            originalPost, repostedBy);
     }
     
     // Factory method for creating a post with just content
@@ -71,9 +99,9 @@ public record PostDto(
         return new PostDto(
             null, null, null, null, null, 
             content, 
-            new ArrayList<>(), 0, 0, 0, false, false, 
+            new ArrayList<>(), 0, 0, 0, false, false, false, 
             LocalDateTime.now(), 
-            new ArrayList<>(), new ArrayList<>()
+            new ArrayList<>(), new ArrayList<>(), null, new ArrayList<>()
         );
     }
 }
\ No newline at end of file
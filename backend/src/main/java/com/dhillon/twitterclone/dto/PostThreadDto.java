@@ -0,0 +1,66 @@
+package com.dhillon.twitterclone.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A post in its conversation: the posts it replies to and the replies below it.
+ *
+ * @param ancestors the posts it replies to, from the top of the conversation down
+ * @param post the post
+ * @param replies the replies to it, oldest first, each with its own replies
+ * @param moreReplies whether it has replies beyond the loaded ones
+ */
+@Schema(description = "A post with the chain of posts above it and a tree of replies below it")
+public record PostThreadDto(
+    @Schema(description = "Posts it replies to, from the top of the conversation down")
+    List<PostDto> ancestors,
+
+    @Schema(description = "The post")
+    PostDto post,
+
+    @Schema(description = "Replies to the post, oldest first")
+    List<ThreadReplyDto> replies,
+
+    @Schema(description = "Whether the post has further direct replies that were not loaded")
+    boolean moreReplies
+) {
+    /**
+     * Get the IDs of every post in the thread.
+     *
+     * @return the post IDs
+     */
+    public List<UUID> postIds() {
+        List<UUID> ids = new ArrayList<>();
+        ancestors.forEach(ancestor -> ids.add(ancestor.id()));
+        ids.add(post.id());
+        collectIds(replies, ids);
+        return ids;
+    }
+
+    /**
+     * Copy of this thread with the bookmarked flags of its posts set.
+     *
+     * @param bookmarkedPostIds the IDs of the posts the current user has bookmarked
+     * @return the flagged copy
+     */
+    public PostThreadDto withBookmarks(Set<UUID> bookmarkedPostIds) {
+        return new PostThreadDto(
+                ancestors.stream().map(ancestor -> ancestor.withBookmarked(bookmarkedPostIds.contains(ancestor.id())))
+                        .toList(),
+                post.withBookmarked(bookmarkedPostIds.contains(post.id())),
+                replies.stream().map(reply -> reply.withBookmarks(bookmarkedPostIds)).toList(),
+                moreReplies);
+    }
+
+    private static void collectIds(List<ThreadReplyDto> replies, List<UUID> ids) {
+        for (ThreadReplyDto reply : replies) {
+            ids.add(reply.post().id());
+            collectIds(reply.replies(), ids);
+        }
+    }
+}
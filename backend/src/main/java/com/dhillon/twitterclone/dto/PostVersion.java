@@ -0,0 +1,36 @@
+package com.dhillon.twitterclone.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Projection of what a post's representation depends on: its own timestamp and counters, which are updated
+ * without touching the timestamp, when its author last changed, and the same for the original of a repost.
+ * The original's values are null for other posts.
+ */
+public interface PostVersion {
+    
+    UUID getId();
+    
+    LocalDateTime getUpdatedAt();
+    
+    int getLikeCount();
+    
+    int getReplyCount();
+    
+    int getRepostCount();
+    
+    LocalDateTime getAuthorUpdatedAt();
+    
+    UUID getOriginalId();
+    
+    LocalDateTime getOriginalUpdatedAt();
+    
+    LocalDateTime getOriginalDeletedAt();
+    
+    Integer getOriginalLikeCount();
+    
+    Integer getOriginalReplyCount();
+    
+    Integer getOriginalRepostCount();
+}
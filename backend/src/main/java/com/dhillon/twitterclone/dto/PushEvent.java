@@ -0,0 +1,41 @@
+package com.dhillon.twitterclone.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Event pushed to a user's sessions on /user/queue/events.
+ * Events are hints to refresh: each one covers every change of its type since the previous one,
+ * so a client that misses an event loses nothing the next refresh does not bring back.
+ *
+ * @param type what changed
+ * @param ids the IDs of the changed items, newest first, capped in length
+ * @param count the number of changes covered, which may exceed the number of IDs
+ */
+@Schema(description = "Push event telling the client what to refresh")
+public record PushEvent(
+    @Schema(description = "What changed")
+    Type type,
+
+    @Schema(description = "IDs of the new posts or the conversations with new messages, newest first; "
+            + "empty for notifications")
+    List<UUID> ids,
+
+    @Schema(description = "Number of changes covered by this event")
+    int count
+) {
+
+    /**
+     * Kinds of push event.
+     */
+    public enum Type {
+        /** New posts in the home timeline */
+        TIMELINE,
+        /** New or updated notifications */
+        NOTIFICATIONS,
+        /** New direct messages */
+        MESSAGES
+    }
+}
@@ -0,0 +1,27 @@
+package com.dhillon.twitterclone.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A participant's read watermark. The participant has read every message up to and including
+ * the one named, so a message has been read by each participant whose watermark is not older than it.
+ *
+ * @param userId the ID of the participant
+ * @param lastReadMessageId the ID of the last message read, or null if none
+ * @param lastReadAt the creation time of that message, or null if none
+ */
+@Schema(description = "How far a participant has read in a conversation")
+public record ReadReceiptDto(
+    @Schema(description = "User ID of the participant")
+    UUID userId,
+
+    @Schema(description = "ID of the last message the participant has read; null if none")
+    UUID lastReadMessageId,
+
+    @Schema(description = "Timestamp of that message; messages sent at or before it have been read")
+    LocalDateTime lastReadAt
+) {
+}
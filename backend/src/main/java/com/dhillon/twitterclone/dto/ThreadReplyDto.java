@@ -0,0 +1,37 @@
+package com.dhillon.twitterclone.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A reply in a conversation thread, with the replies to it that were loaded.
+ *
+ * @param post the reply
+ * @param replies the loaded replies to it, oldest first
+ * @param moreReplies whether it has replies beyond the loaded ones, left out by the depth or size limit
+ */
+@Schema(description = "A reply in a conversation thread, with its own replies")
+public record ThreadReplyDto(
+    @Schema(description = "The reply")
+    PostDto post,
+
+    @Schema(description = "Replies to it, oldest first")
+    List<ThreadReplyDto> replies,
+
+    @Schema(description = "Whether it has further replies that were not loaded; fetch its thread to see them")
+    boolean moreReplies
+) {
+    /**
+     * Copy of this reply and the replies below it with their bookmarked flags set.
+     *
+     * @param bookmarkedPostIds the IDs of the posts the current user has bookmarked
+     * @return the flagged copy
+     */
+    public ThreadReplyDto withBookmarks(Set<UUID> bookmarkedPostIds) {
+        return new ThreadReplyDto(post.withBookmarked(bookmarkedPostIds.contains(post.id())),
+                replies.stream().map(reply -> reply.withBookmarks(bookmarkedPostIds)).toList(), moreReplies);
+    }
+}
@@ -0,0 +1,22 @@
+package com.dhillon.twitterclone.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.UUID;
+
+/**
+ * Compact home timeline entry sent on the timeline stream.
+ * Carries only IDs; the client fetches the posts it wants to show.
+ *
+ * @param postId the ID of the new post
+ * @param authorId the ID of its author
+ */
+@Schema(description = "New post in the home timeline")
+public record TimelineEntryDto(
+    @Schema(description = "Post ID")
+    UUID postId,
+
+    @Schema(description = "Author ID")
+    UUID authorId
+) {
+}
@@ -0,0 +1,164 @@
+package com.dhillon.twitterclone.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Entity representing a post bookmarked by a user.
+ */
+@Entity
+@Table(
+    name = "bookmarks",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "post_id"})
+)
+public class Bookmark {
+    
+    @Id
+    @TimeOrderedUuid
+    private UUID id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "post_id", nullable = false)
+    private Post post;
+    
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+    
+    /**
+     * Default constructor.
+     */
+    public Bookmark() {
+    }
+    
+    /**
+     * Constructor with required fields.
+     *
+     * @param user the user who bookmarked
+     * @param post the post that was bookmarked
+     */
+    public Bookmark(User user, Post post) {
+        this.user = user;
+        this.post = post;
+    }
+    
+    /**
+     * Full constructor.
+     *
+     * @param id the ID
+     * @param user the user who bookmarked
+     * @param post the post that was bookmarked
+     * @param createdAt the creation timestamp
+     */
+    public Bookmark(UUID id, User user, Post post, LocalDateTime createdAt) {
+        this.id = id;
+        this.user = user;
+        this.post = post;
+        this.createdAt = createdAt;
+    }
+    
+    // Getters and Setters
+    
+    public UUID getId() {
+        return id;
+    }
+    
+    public void setId(UUID id) {
+        this.id = id;
+    }
+    
+    public User getUser() {
+        return user;
+    }
+    
+    public void setUser(User user) {
+        this.user = user;
+    }
+    
+    public Post getPost() {
+        return post;
+    }
+    
+    public void setPost(Post post) {
+        this.post = post;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Bookmark bookmark = (Bookmark) o;
+        return Objects.equals(id, bookmark.id);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+    
+    @Override
+    public String toString() {
+        return "Bookmark{" +
+               "id=" + id +
+               ", user=" + (user != null ? user.getUsername() : null) +
+               ", post=" + (post != null ? post.getId() : null) +
+               ", createdAt=" + createdAt +
+               '}';
+    }
+    
+    /**
+     * Builder for Bookmark.
+     */
+    public static class BookmarkBuilder {
+        private UUID id;
+        private User user;
+        private Post post;
+        private LocalDateTime createdAt;
+        
+        public BookmarkBuilder() {
+        }
+        
+        public BookmarkBuilder id(UUID id) {
+            this.id = id;
+            return this;
+        }
+        
+        public BookmarkBuilder user(User user) {
+            this.user = user;
+            return this;
+        }
+        
+        public BookmarkBuilder post(Post post) {
+            this.post = post;
+            return this;
+        }
+        
+        public BookmarkBuilder createdAt(LocalDateTime createdAt) {
+            this.createdAt = createdAt;
+            return this;
+        }
+        
+        public Bookmark build() {
+            return new Bookmark(id, user, post, createdAt);
+        }
+    }
+    
+    public static BookmarkBuilder builder() {
+        return new BookmarkBuilder();
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,223 @@
+package com.dhillon.twitterclone.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Entity representing a direct messaging conversation.
+ */
+@Entity
+@Table(name = "dm_conversations")
+public class Conversation {
+    
+    @Id
+    @TimeOrderedUuid
+    private UUID id;
+    
+    @Column(length = 100)
+    private String name;
+    
+    @Column(name = "is_group")
+    private boolean group;
+    
+    // Time of the latest message, or of creation until there is one; copied onto each participant
+    private LocalDateTime lastMessageAt;
+    
+    // The two users of a one-to-one conversation, lower ID first, unique together; null for groups
+    @Column(updatable = false)
+    private UUID directUserLow;
+    
+    @Column(updatable = false)
+    private UUID directUserHigh;
+    
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+    
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+    
+    /**
+     * Default constructor.
+     */
+    public Conversation() {
+    }
+    
+    /**
+     * Constructor with required fields.
+     *
+     * @param name the conversation name, or null
+     * @param group whether the conversation is a group conversation
+     */
+    public Conversation(String name, boolean group) {
+        this.name = name;
+        this.group = group;
+    }
+    
+    /**
+     * Full constructor.
+     *
+     * @param id the ID
+     * @param name the conversation name
+     * @param group whether the conversation is a group conversation
+     * @param lastMessageAt the time of the latest message
+     * @param createdAt the creation timestamp
+     * @param updatedAt the last update timestamp
+     */
+    public Conversation(UUID id, String name, boolean group, LocalDateTime lastMessageAt,
+                        LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.name = name;
+        this.group = group;
+        this.lastMessageAt = lastMessageAt;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+    
+    // Getters and Setters
+    
+    public UUID getId() {
+        return id;
+    }
+    
+    public void setId(UUID id) {
+        this.id = id;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public boolean isGroup() {
+        return group;
+    }
+    
+    public void setGroup(boolean group) {
+        this.group = group;
+    }
+    
+    public LocalDateTime getLastMessageAt() {
+        return lastMessageAt;
+    }
+    
+    public void setLastMessageAt(LocalDateTime lastMessageAt) {
+        this.lastMessageAt = lastMessageAt;
+    }
+    
+    public UUID getDirectUserLow() {
+        return directUserLow;
+    }
+    
+    public void setDirectUserLow(UUID directUserLow) {
+        this.directUserLow = directUserLow;
+    }
+    
+    public UUID getDirectUserHigh() {
+        return directUserHigh;
+    }
+    
+    public void setDirectUserHigh(UUID directUserHigh) {
+        this.directUserHigh = directUserHigh;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Conversation that = (Conversation) o;
+        return Objects.equals(id, that.id);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+    
+    @Override
+    public String toString() {
+        return "Conversation{" +
+               "id=" + id +
+               ", name='" + name + '\'' +
+               ", group=" + group +
+               ", lastMessageAt=" + lastMessageAt +
+               ", createdAt=" + createdAt +
+               '}';
+    }
+    
+    /**
+     * Builder for Conversation.
+     */
+    public static class ConversationBuilder {
+        private UUID id;
+        private String name;
+        private boolean group;
+        private LocalDateTime lastMessageAt;
+        private LocalDateTime createdAt;
+        private LocalDateTime updatedAt;
+        
+        public ConversationBuilder() {
+        }
+        
+        public ConversationBuilder id(UUID id) {
+            this.id = id;
+            return this;
+        }
+        
+        public ConversationBuilder name(String name) {
+            this.name = name;
+            return this;
+        }
+        
+        public ConversationBuilder group(boolean group) {
+            this.group = group;
+            return this;
+        }
+        
+        public ConversationBuilder lastMessageAt(LocalDateTime lastMessageAt) {
+            this.lastMessageAt = lastMessageAt;
+            return this;
+        }
+        
+        public ConversationBuilder createdAt(LocalDateTime createdAt) {
+            this.createdAt = createdAt;
+            return this;
+        }
+        
+        public ConversationBuilder updatedAt(LocalDateTime updatedAt) {
+            this.updatedAt = updatedAt;
+            return this;
+        }
+        
+        public Conversation build() {
+            return new Conversation(id, name, group, lastMessageAt, createdAt, updatedAt);
+        }
+    }
+    
+    public static ConversationBuilder builder() {
+        return new ConversationBuilder();
+    }
+}
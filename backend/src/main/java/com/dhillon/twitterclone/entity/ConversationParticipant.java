@@ -0,0 +1,164 @@
+package com.dhillon.twitterclone.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Entity representing a user's membership of a conversation.
+ * Also the user's inbox entry for the conversation, ordered by the time of its latest message,
+ * and the user's read watermark in it: every message up to the last one read counts as read.
+ */
+@Entity
+@Table(name = "dm_participants")
+@IdClass(ConversationParticipant.Key.class)
+public class ConversationParticipant {
+    
+    @Id
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "conversation_id", nullable = false)
+    private Conversation conversation;
+    
+    @Id
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+    
+    // Copy of the conversation's lastMessageAt, so the inbox is ordered by this table's index alone
+    private LocalDateTime lastMessageAt;
+    
+    // The latest message read, by (createdAt, id); null until the user reads or sends anything
+    private LocalDateTime lastReadAt;
+    
+    private UUID lastReadMessageId;
+    
+    @CreationTimestamp
+    private LocalDateTime joinedAt;
+    
+    /**
+     * Default constructor.
+     */
+    public ConversationParticipant() {
+    }
+    
+    /**
+     * Constructor with required fields.
+     *
+     * @param conversation the conversation
+     * @param user the participating user
+     */
+    public ConversationParticipant(Conversation conversation, User user) {
+        this.conversation = conversation;
+        this.user = user;
+        this.lastMessageAt = conversation.getLastMessageAt();
+    }
+    
+    // Getters and Setters
+    
+    public Conversation getConversation() {
+        return conversation;
+    }
+    
+    public void setConversation(Conversation conversation) {
+        this.conversation = conversation;
+    }
+    
+    public User getUser() {
+        return user;
+    }
+    
+    public void setUser(User user) {
+        this.user = user;
+    }
+    
+    public LocalDateTime getLastMessageAt() {
+        return lastMessageAt;
+    }
+    
+    public void setLastMessageAt(LocalDateTime lastMessageAt) {
+        this.lastMessageAt = lastMessageAt;
+    }
+    
+    public LocalDateTime getLastReadAt() {
+        return lastReadAt;
+    }
+    
+    public void setLastReadAt(LocalDateTime lastReadAt) {
+        this.lastReadAt = lastReadAt;
+    }
+    
+    public UUID getLastReadMessageId() {
+        return lastReadMessageId;
+    }
+    
+    public void setLastReadMessageId(UUID lastReadMessageId) {
+        this.lastReadMessageId = lastReadMessageId;
+    }
+    
+    public LocalDateTime getJoinedAt() {
+        return joinedAt;
+    }
+    
+    public void setJoinedAt(LocalDateTime joinedAt) {
+        this.joinedAt = joinedAt;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ConversationParticipant that = (ConversationParticipant) o;
+        return conversation != null && user != null
+                && Objects.equals(conversation.getId(), that.conversation.getId())
+                && Objects.equals(user.getId(), that.user.getId());
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(conversation != null ? conversation.getId() : null, user != null ? user.getId() : null);
+    }
+    
+    @Override
+    public String toString() {
+        return "ConversationParticipant{" +
+               "conversation=" + (conversation != null ? conversation.getId() : null) +
+               ", user=" + (user != null ? user.getId() : null) +
+               ", lastMessageAt=" + lastMessageAt +
+               ", lastReadMessageId=" + lastReadMessageId +
+               ", joinedAt=" + joinedAt +
+               '}';
+    }
+    
+    /**
+     * Composite primary key of a participant: the conversation and the user.
+     */
+    public static class Key implements Serializable {
+        private UUID conversation;
+        private UUID user;
+        
+        public Key() {
+        }
+        
+        public Key(UUID conversation, UUID user) {
+            this.conversation = conversation;
+            this.user = user;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return Objects.equals(conversation, key.conversation) && Objects.equals(user, key.user);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(conversation, user);
+        }
+    }
+}
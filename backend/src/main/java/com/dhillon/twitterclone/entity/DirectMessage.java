@@ -0,0 +1,204 @@
+package com.dhillon.twitterclone.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Entity representing a message in a direct messaging conversation.
+ */
+@Entity
+@Table(name = "dm_messages")
+public class DirectMessage {
+    
+    @Id
+    @TimeOrderedUuid
+    private UUID id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "conversation_id", nullable = false)
+    private Conversation conversation;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "sender_id", nullable = false)
+    private User sender;
+    
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String content;
+    
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+    
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+    
+    /**
+     * Default constructor.
+     */
+    public DirectMessage() {
+    }
+    
+    /**
+     * Constructor with required fields.
+     *
+     * @param conversation the conversation
+     * @param sender the user who sent the message
+     * @param content the message text
+     */
+    public DirectMessage(Conversation conversation, User sender, String content) {
+        this.conversation = conversation;
+        this.sender = sender;
+        this.content = content;
+    }
+    
+    /**
+     * Full constructor.
+     *
+     * @param id the ID
+     * @param conversation the conversation
+     * @param sender the user who sent the message
+     * @param content the message text
+     * @param createdAt the creation timestamp
+     * @param updatedAt the last update timestamp
+     */
+    public DirectMessage(UUID id, Conversation conversation, User sender, String content,
+                         LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.conversation = conversation;
+        this.sender = sender;
+        this.content = content;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+    
+    // Getters and Setters
+    
+    public UUID getId() {
+        return id;
+    }
+    
+    public void setId(UUID id) {
+        this.id = id;
+    }
+    
+    public Conversation getConversation() {
+        return conversation;
+    }
+    
+    public void setConversation(Conversation conversation) {
+        this.conversation = conversation;
+    }
+    
+    public User getSender() {
+        return sender;
+    }
+    
+    public void setSender(User sender) {
+        this.sender = sender;
+    }
+    
+    public String getContent() {
+        return content;
+    }
+    
+    public void setContent(String content) {
+        this.content = content;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DirectMessage that = (DirectMessage) o;
+        return Objects.equals(id, that.id);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+    
+    @Override
+    public String toString() {
+        return "DirectMessage{" +
+               "id=" + id +
+               ", conversation=" + (conversation != null ? conversation.getId() : null) +
+               ", sender=" + (sender != null ? sender.getUsername() : null) +
+               ", content='" + content + '\'' +
+               ", createdAt=" + createdAt +
+               '}';
+    }
+    
+    /**
+     * Builder for DirectMessage.
+     */
+    public static class DirectMessageBuilder {
+        private UUID id;
+        private Conversation conversation;
+        private User sender;
+        private String content;
+        private LocalDateTime createdAt;
+        private LocalDateTime updatedAt;
+        
+        public DirectMessageBuilder() {
+        }
+        
+        public DirectMessageBuilder id(UUID id) {
+            this.id = id;
+            return this;
+        }
+        
+        public DirectMessageBuilder conversation(Conversation conversation) {
+            this.conversation = conversation;
+            return this;
+        }
+        
+        public DirectMessageBuilder sender(User sender) {
+            this.sender = sender;
+            return this;
+        }
+        
+        public DirectMessageBuilder content(String content) {
+            this.content = content;
+            return this;
+        }
+        
+        public DirectMessageBuilder createdAt(LocalDateTime createdAt) {
+            this.createdAt = createdAt;
+            return this;
+        }
+        
+        public DirectMessageBuilder updatedAt(LocalDateTime updatedAt) {
+            this.updatedAt = updatedAt;
+            return this;
+        }
+        
+        public DirectMessage build() {
+            return new DirectMessage(id, conversation, sender, content, createdAt, updatedAt);
+        }
+    }
+    
+    public static DirectMessageBuilder builder() {
+        return new DirectMessageBuilder();
+    }
+}
@@ -18,7 +18,7 @@ import java.util.UUID;
 public class Follow {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     private UUID id;
     
     @ManyToOne(fetch = FetchType.LAZY)
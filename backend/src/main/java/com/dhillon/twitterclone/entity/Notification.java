@@ -15,7 +15,7 @@ import java.util.UUID;
 public class Notification {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     private UUID id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -35,6 +35,9 @@ public class Notification {
     
     private boolean read;
     
+    // Number of actors collapsed into this notification; the actor above is the latest of them
+    private int actorCount = 1;
+    
     @CreationTimestamp
     private LocalDateTime createdAt;
     
@@ -145,6 +148,14 @@ public class Notification {
         this.read = read;
     }
     
+    public int getActorCount() {
+        return actorCount;
+    }
+    
+    public void setActorCount(int actorCount) {
+        this.actorCount = actorCount;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -175,6 +186,7 @@ public class Notification {
                ", actor=" + (actor != null ? actor.getUsername() : null) +
                ", post=" + (post != null ? post.getId() : null) +
                ", read=" + read +
+               ", actorCount=" + actorCount +
                ", createdAt=" + createdAt +
                '}';
     }
@@ -189,6 +201,7 @@ public class Notification {
         private User actor;
         private Post post;
         private boolean read;
+        private int actorCount = 1;
         private LocalDateTime createdAt;
         
         public NotificationBuilder() {
@@ -224,13 +237,20 @@ public class Notification {
             return this;
         }
         
+        public NotificationBuilder actorCount(int actorCount) {
+            this.actorCount = actorCount;
+            return this;
+        }
+        
         public NotificationBuilder createdAt(LocalDateTime createdAt) {
             this.createdAt = createdAt;
             return this;
         }
         
         public Notification build() {
-            return new Notification(id, user, type, actor, post, read, createdAt);
+            Notification notification = new Notification(id, user, type, actor, post, read, createdAt);
+            notification.setActorCount(actorCount);
+            return notification;
         }
     }
     
@@ -1,7 +1,9 @@
 package com.dhillon.twitterclone.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SQLRestriction;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -17,10 +19,11 @@ import java.util.UUID;
  */
 @Entity
 @Table(name = "posts")
+@SQLRestriction("deleted_at is null")
 public class Post {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     private UUID id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -30,7 +33,9 @@ public class Post {
     @Column(columnDefinition = "TEXT", nullable = false)
     private String content;
     
+    // Collections of posts read together, such as a thread, are loaded 50 posts to a query
     @ElementCollection
+    @BatchSize(size = 50)
     @CollectionTable(name = "post_media", joinColumns = @JoinColumn(name = "post_id"))
     @Column(name = "media_url")
     private List<String> media = new ArrayList<>();
@@ -56,6 +61,7 @@ public class Post {
     private List<Post> reposts = new ArrayList<>();
     
     @ManyToMany
+    @BatchSize(size = 50)
     @JoinTable(
         name = "post_hashtags",
         joinColumns = @JoinColumn(name = "post_id"),
@@ -81,6 +87,10 @@ public class Post {
     @UpdateTimestamp
     private LocalDateTime updatedAt;
     
+    // Set by bulk updates when the post is deleted; such rows are filtered out until purged
+    @Column(name = "deleted_at", insertable = false, updatable = false)
+    private LocalDateTime deletedAt;
+    
     /**
      * Default constructor.
      */
@@ -280,6 +290,10 @@ public class Post {
         this.updatedAt = updatedAt;
     }
     
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+    
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
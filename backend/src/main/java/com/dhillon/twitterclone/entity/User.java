@@ -1,7 +1,11 @@
 package com.dhillon.twitterclone.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SQLRestriction;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -12,13 +16,18 @@ import java.util.UUID;
 
 /**
  * Entity representing a user in the system.
+ * Authors of posts read together are loaded 50 to a query when not already cached.
  */
 @Entity
+@BatchSize(size = 50)
 @Table(name = "users")
+@SQLRestriction("deleted_at is null")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class User {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     private UUID id;
     
     @Column(unique = true, nullable = false)
@@ -27,6 +36,8 @@ public class User {
     @Column(unique = true, nullable = false)
     private String email;
     
+    // Cached with the rest of the entity, on the heap of this process like the loaded entity itself;
+    // login reads it from the cached user, and the bulk rehash update evicts the region
     @Column(nullable = false)
     private String passwordHash;
     
@@ -45,12 +56,23 @@ public class User {
     @Column(name = "email_verified")
     private boolean emailVerified;
     
+    // Maintained by bulk updates in the follow path, never written from the entity
+    @Column(name = "follower_count", insertable = false, updatable = false)
+    private int followerCount;
+    
+    @Column(name = "following_count", insertable = false, updatable = false)
+    private int followingCount;
+    
     @CreationTimestamp
     private LocalDateTime createdAt;
     
     @UpdateTimestamp
     private LocalDateTime updatedAt;
     
+    // Set by bulk updates when the user is deleted; such rows are filtered out until purged
+    @Column(name = "deleted_at", insertable = false, updatable = false)
+    private LocalDateTime deletedAt;
+    
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Post> posts = new ArrayList<>();
     
@@ -61,6 +83,8 @@ public class User {
     private List<Follow> followers = new ArrayList<>();
     
     @ElementCollection(fetch = FetchType.EAGER)
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @CollectionTable(
         name = "user_roles",
         joinColumns = @JoinColumn(name = "user_id")
@@ -253,6 +277,22 @@ public class User {
         this.emailVerified = emailVerified;
     }
     
+    public int getFollowerCount() {
+        return followerCount;
+    }
+    
+    public void setFollowerCount(int followerCount) {
+        this.followerCount = followerCount;
+    }
+    
+    public int getFollowingCount() {
+        return followingCount;
+    }
+    
+    public void setFollowingCount(int followingCount) {
+        this.followingCount = followingCount;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -269,6 +309,10 @@ public class User {
         this.updatedAt = updatedAt;
     }
     
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+    
     public List<Post> getPosts() {
         return posts;
     }
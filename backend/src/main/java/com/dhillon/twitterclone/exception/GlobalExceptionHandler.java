@@ -4,6 +4,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -100,6 +101,44 @@ public class GlobalExceptionHandler {
         );
     }
     
+    /**
+     * Handle TooManyRequestsException.
+     *
+     * @param ex the exception
+     * @param request the HTTP request
+     * @return the error response with a Retry-After header
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ApiError> handleTooManyRequestsException(TooManyRequestsException ex, HttpServletRequest request) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(new ApiError(
+                    HttpStatus.TOO_MANY_REQUESTS.value(),
+                    "Too Many Requests",
+                    ex.getMessage(),
+                    request.getRequestURI()
+                ));
+    }
+    
+    /**
+     * Handle ServiceUnavailableException.
+     *
+     * @param ex the exception
+     * @param request the HTTP request
+     * @return the error response with a Retry-After header
+     */
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ApiError> handleServiceUnavailableException(ServiceUnavailableException ex, HttpServletRequest request) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(new ApiError(
+                    HttpStatus.SERVICE_UNAVAILABLE.value(),
+                    "Service Unavailable",
+                    ex.getMessage(),
+                    request.getRequestURI()
+                ));
+    }
+    
     /**
      * Handle Spring Security AccessDeniedException.
      *
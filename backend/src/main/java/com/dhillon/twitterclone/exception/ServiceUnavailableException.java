@@ -0,0 +1,38 @@
+package com.dhillon.twitterclone.exception;
+
+/**
+ * Exception thrown when the server is temporarily unable to handle a request, e.g. because it is overloaded.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final long retryAfterSeconds;
+    
+    /**
+     * Constructs a new service unavailable exception with the specified detail message.
+     *
+     * @param message the detail message
+     * @param retryAfterSeconds the number of seconds after which the client may retry
+     */
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    /**
+     * Constructs a new service unavailable exception with the specified detail message and cause.
+     *
+     * @param message the detail message
+     * @param retryAfterSeconds the number of seconds after which the client may retry
+     * @param cause the cause
+     */
+    public ServiceUnavailableException(String message, long retryAfterSeconds, Throwable cause) {
+        super(message, cause);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,26 @@
+package com.dhillon.twitterclone.exception;
+
+/**
+ * Exception thrown when a client has exceeded its request rate.
+ */
+public class TooManyRequestsException extends RuntimeException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final long retryAfterSeconds;
+    
+    /**
+     * Constructs a new too many requests exception with the specified detail message.
+     *
+     * @param message the detail message
+     * @param retryAfterSeconds the number of seconds after which the client may retry
+     */
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,73 @@
+package com.dhillon.twitterclone.repository;
+
+import com.dhillon.twitterclone.entity.Bookmark;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for Bookmark entity operations.
+ * Bookmarks are added with a native upsert in the service rather than through save,
+ * so adding one twice is a no-op instead of a unique constraint violation.
+ */
+@Repository
+public interface BookmarkRepository extends JpaRepository<Bookmark, UUID> {
+
+    /**
+     * Find a user's newest bookmarks, with their posts and the posts' authors.
+     * The first page of a keyset-paginated list.
+     *
+     * @param userId the ID of the user
+     * @param pageable the page size; the page number must be 0
+     * @return list of bookmarks, newest first
+     */
+    @Query("SELECT b FROM Bookmark b JOIN FETCH b.post p JOIN FETCH p.user WHERE b.user.id = :userId " +
+           "ORDER BY b.createdAt DESC, b.id DESC")
+    List<Bookmark> findLatest(@Param("userId") UUID userId, Pageable pageable);
+
+    /**
+     * Find a user's bookmarks that come before a given one, with their posts and the posts' authors.
+     * Seeks straight to the position in the (user_id, created_at, id) index, however deep the page.
+     *
+     * @param userId the ID of the user
+     * @param createdAt the creation time of the last bookmark already returned
+     * @param id the ID of the last bookmark already returned
+     * @param pageable the page size; the page number must be 0
+     * @return list of bookmarks, newest first
+     */
+    @Query("SELECT b FROM Bookmark b JOIN FETCH b.post p JOIN FETCH p.user WHERE b.user.id = :userId " +
+           "AND (b.createdAt < :createdAt OR (b.createdAt = :createdAt AND b.id < :id)) " +
+           "ORDER BY b.createdAt DESC, b.id DESC")
+    List<Bookmark> findBefore(@Param("userId") UUID userId, @Param("createdAt") LocalDateTime createdAt,
+                              @Param("id") UUID id, Pageable pageable);
+
+    /**
+     * Find which of a set of posts a user has bookmarked.
+     * Answered from the unique (user_id, post_id) index alone.
+     *
+     * @param userId the ID of the user
+     * @param postIds the IDs of the posts
+     * @return the IDs of the bookmarked posts
+     */
+    @Query("SELECT b.post.id FROM Bookmark b WHERE b.user.id = :userId AND b.post.id IN :postIds")
+    List<UUID> findBookmarkedPostIds(@Param("userId") UUID userId, @Param("postIds") Collection<UUID> postIds);
+
+    /**
+     * Delete a bookmark by user ID and post ID.
+     *
+     * @param userId the ID of the user
+     * @param postId the ID of the post
+     * @return number of rows affected
+     */
+    @Modifying
+    @Query("DELETE FROM Bookmark b WHERE b.user.id = :userId AND b.post.id = :postId")
+    int deleteByUserIdAndPostId(@Param("userId") UUID userId, @Param("postId") UUID postId);
+}
@@ -0,0 +1,90 @@
+package com.dhillon.twitterclone.repository;
+
+import com.dhillon.twitterclone.entity.ConversationParticipant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for ConversationParticipant entity operations.
+ */
+@Repository
+public interface ConversationParticipantRepository
+        extends JpaRepository<ConversationParticipant, ConversationParticipant.Key> {
+    
+    /**
+     * Find the IDs of a conversation's participants.
+     *
+     * @param conversationId the ID of the conversation
+     * @return list of user IDs
+     */
+    @Query("SELECT p.user.id FROM ConversationParticipant p WHERE p.conversation.id = :conversationId")
+    List<UUID> findUserIdsByConversationId(@Param("conversationId") UUID conversationId);
+    
+    /**
+     * Find the participants of a set of conversations, such as one page of an inbox.
+     *
+     * @param conversationIds the IDs of the conversations
+     * @return rows of [conversation ID, user ID]
+     */
+    @Query("SELECT p.conversation.id, p.user.id FROM ConversationParticipant p " +
+           "WHERE p.conversation.id IN :conversationIds")
+    List<Object[]> findUserIdsByConversationIds(@Param("conversationIds") Collection<UUID> conversationIds);
+    
+    /**
+     * Check if a user takes part in a conversation.
+     *
+     * @param conversationId the ID of the conversation
+     * @param userId the ID of the user
+     * @return true if the user is a participant
+     */
+    @Query("SELECT COUNT(p) > 0 FROM ConversationParticipant p " +
+           "WHERE p.conversation.id = :conversationId AND p.user.id = :userId")
+    boolean existsByConversationIdAndUserId(@Param("conversationId") UUID conversationId,
+                                            @Param("userId") UUID userId);
+    
+    /**
+     * Find the read watermarks of a conversation's participants.
+     *
+     * @param conversationId the ID of the conversation
+     * @return list of participants
+     */
+    @Query("SELECT p FROM ConversationParticipant p WHERE p.conversation.id = :conversationId")
+    List<ConversationParticipant> findByConversationId(@Param("conversationId") UUID conversationId);
+    
+    /**
+     * Move a participant's read watermark forward to a message, leaving it alone if it is already past it.
+     * A single row write, however many messages it marks read.
+     *
+     * @param conversationId the ID of the conversation
+     * @param userId the ID of the participant
+     * @param readAt the creation time of the message
+     * @param messageId the ID of the message
+     * @return number of rows affected
+     */
+    @Modifying
+    @Query("UPDATE ConversationParticipant p SET p.lastReadAt = :readAt, p.lastReadMessageId = :messageId " +
+           "WHERE p.conversation.id = :conversationId AND p.user.id = :userId AND (p.lastReadAt IS NULL " +
+           "OR p.lastReadAt < :readAt OR (p.lastReadAt = :readAt AND p.lastReadMessageId < :messageId))")
+    int advanceReadMark(@Param("conversationId") UUID conversationId, @Param("userId") UUID userId,
+                        @Param("readAt") LocalDateTime readAt, @Param("messageId") UUID messageId);
+    
+    /**
+     * Move every participant's copy of a conversation's last activity forward, in one statement.
+     *
+     * @param conversationId the ID of the conversation
+     * @param lastMessageAt the time of the new message
+     * @return number of rows affected
+     */
+    @Modifying
+    @Query("UPDATE ConversationParticipant p SET p.lastMessageAt = :lastMessageAt " +
+           "WHERE p.conversation.id = :conversationId AND p.lastMessageAt < :lastMessageAt")
+    int touch(@Param("conversationId") UUID conversationId, @Param("lastMessageAt") LocalDateTime lastMessageAt);
+}
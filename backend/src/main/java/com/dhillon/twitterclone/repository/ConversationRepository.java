@@ -0,0 +1,71 @@
+package com.dhillon.twitterclone.repository;
+
+import com.dhillon.twitterclone.entity.Conversation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository for Conversation entity operations.
+ */
+@Repository
+public interface ConversationRepository extends JpaRepository<Conversation, UUID> {
+    
+    /**
+     * Find a user's most recently active conversations.
+     * The first page of a keyset-paginated inbox, read in order off the user's participant rows.
+     *
+     * @param userId the ID of the user
+     * @param pageable the page size; the page number must be 0
+     * @return list of conversations, most recently active first
+     */
+    @Query("SELECT c FROM ConversationParticipant p JOIN p.conversation c WHERE p.user.id = :userId " +
+           "ORDER BY p.lastMessageAt DESC, c.id DESC")
+    List<Conversation> findInbox(@Param("userId") UUID userId, Pageable pageable);
+    
+    /**
+     * Find a user's conversations that come after a given one in the inbox.
+     * Seeks straight to the position in the (user_id, last_message_at, conversation_id) index, however deep the page.
+     *
+     * @param userId the ID of the user
+     * @param lastMessageAt the last activity time of the last conversation already returned
+     * @param id the ID of the last conversation already returned
+     * @param pageable the page size; the page number must be 0
+     * @return list of conversations, most recently active first
+     */
+    @Query("SELECT c FROM ConversationParticipant p JOIN p.conversation c WHERE p.user.id = :userId " +
+           "AND (p.lastMessageAt < :lastMessageAt OR (p.lastMessageAt = :lastMessageAt AND c.id < :id)) " +
+           "ORDER BY p.lastMessageAt DESC, c.id DESC")
+    List<Conversation> findInboxBefore(@Param("userId") UUID userId,
+                                       @Param("lastMessageAt") LocalDateTime lastMessageAt,
+                                       @Param("id") UUID id, Pageable pageable);
+    
+    /**
+     * Find the one-to-one conversation between two users.
+     *
+     * @param directUserLow the ID of the user that comes first in text order
+     * @param directUserHigh the ID of the other user
+     * @return the conversation, if they have one
+     */
+    Optional<Conversation> findByDirectUserLowAndDirectUserHigh(UUID directUserLow, UUID directUserHigh);
+    
+    /**
+     * Move a conversation's last activity forward, leaving it alone if it is already later.
+     *
+     * @param conversationId the ID of the conversation
+     * @param lastMessageAt the time of the new message
+     * @return number of rows affected
+     */
+    @Modifying
+    @Query("UPDATE Conversation c SET c.lastMessageAt = :lastMessageAt, c.updatedAt = :lastMessageAt " +
+           "WHERE c.id = :conversationId AND c.lastMessageAt < :lastMessageAt")
+    int touch(@Param("conversationId") UUID conversationId, @Param("lastMessageAt") LocalDateTime lastMessageAt);
+}
@@ -0,0 +1,67 @@
+package com.dhillon.twitterclone.repository;
+
+import com.dhillon.twitterclone.entity.DirectMessage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for DirectMessage entity operations.
+ */
+@Repository
+public interface DirectMessageRepository extends JpaRepository<DirectMessage, UUID> {
+    
+    /**
+     * Find the newest messages of a conversation, with their senders.
+     * The first page of a keyset-paginated history.
+     *
+     * @param conversationId the ID of the conversation
+     * @param pageable the page size; the page number must be 0
+     * @return list of messages, newest first
+     */
+    @Query("SELECT m FROM DirectMessage m JOIN FETCH m.sender WHERE m.conversation.id = :conversationId " +
+           "ORDER BY m.createdAt DESC, m.id DESC")
+    List<DirectMessage> findLatest(@Param("conversationId") UUID conversationId, Pageable pageable);
+    
+    /**
+     * Find the messages of a conversation that come before a given one, with their senders.
+     * Seeks straight to the position in the (conversation_id, created_at, id) index, however deep the page.
+     *
+     * @param conversationId the ID of the conversation
+     * @param createdAt the creation time of the last message already returned
+     * @param id the ID of the last message already returned
+     * @param pageable the page size; the page number must be 0
+     * @return list of messages, newest first
+     */
+    @Query("SELECT m FROM DirectMessage m JOIN FETCH m.sender WHERE m.conversation.id = :conversationId " +
+           "AND (m.createdAt < :createdAt OR (m.createdAt = :createdAt AND m.id < :id)) " +
+           "ORDER BY m.createdAt DESC, m.id DESC")
+    List<DirectMessage> findBefore(@Param("conversationId") UUID conversationId,
+                                   @Param("createdAt") LocalDateTime createdAt,
+                                   @Param("id") UUID id, Pageable pageable);
+    
+    /**
+     * Count the messages from others past a user's read watermark, for each of a set of conversations.
+     * Reads only the unread end of each conversation off the (conversation_id, created_at, id) index.
+     * Conversations without unread messages are left out.
+     *
+     * @param userId the ID of the user
+     * @param conversationIds the IDs of the conversations
+     * @return rows of [conversation ID, count]
+     */
+    @Query("SELECT p.conversation.id, COUNT(m) FROM ConversationParticipant p, DirectMessage m " +
+           "WHERE p.user.id = :userId AND p.conversation.id IN :conversationIds " +
+           "AND m.conversation = p.conversation AND m.sender.id <> :userId " +
+           "AND (p.lastReadAt IS NULL OR m.createdAt > p.lastReadAt " +
+           "OR (m.createdAt = p.lastReadAt AND m.id > p.lastReadMessageId)) " +
+           "GROUP BY p.conversation.id")
+    List<Object[]> countUnread(@Param("userId") UUID userId,
+                               @Param("conversationIds") Collection<UUID> conversationIds);
+}
@@ -2,11 +2,18 @@ package com.dhillon.twitterclone.repository;
 
 import com.dhillon.twitterclone.entity.Follow;
 import com.dhillon.twitterclone.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Repository for Follow entity operations.
@@ -56,4 +63,76 @@ public interface FollowRepository extends JpaRepository<Follow, UUID> {
      * @return number of rows affected
      */
     long deleteByFollowerAndFollowing(User follower, User following);
-} 
\ No newline at end of file
+    
+    /**
+     * Delete a follow relationship between two users by their IDs.
+     *
+     * @param followerId the ID of the user who is following
+     * @param followingId the ID of the user being followed
+     * @return number of rows affected
+     */
+    @Modifying
+    @Query("DELETE FROM Follow f WHERE f.follower.id = :followerId AND f.following.id = :followingId")
+    int deleteByFollowerIdAndFollowingId(@Param("followerId") UUID followerId, @Param("followingId") UUID followingId);
+    
+    /**
+     * Delete every follow to or from a user in a single statement.
+     *
+     * @param userId the user ID
+     * @return number of follows deleted
+     */
+    @Modifying
+    @Query("DELETE FROM Follow f WHERE f.follower.id = :userId OR f.following.id = :userId")
+    int deleteAllByUserId(@Param("userId") UUID userId);
+    
+    /**
+     * Stream every follow relationship as a (followerId, followingId) pair.
+     * Must be consumed inside a transaction.
+     *
+     * @return stream of follower and following ID pairs
+     */
+    @Query("SELECT f.follower.id, f.following.id FROM Follow f")
+    Stream<Object[]> streamAllEdges();
+    
+    /**
+     * Find which of some users follow which of some others, such as the online followers of a few authors.
+     *
+     * @param followingIds the IDs of the users being followed
+     * @param followerIds the IDs of the possible followers
+     * @return pairs of followed user ID and follower ID
+     */
+    @Query("SELECT f.following.id, f.follower.id FROM Follow f " +
+           "WHERE f.following.id IN :followingIds AND f.follower.id IN :followerIds")
+    List<Object[]> findFollowsAmong(@Param("followingIds") Collection<UUID> followingIds,
+                                    @Param("followerIds") Collection<UUID> followerIds);
+    
+    /**
+     * Find the users followed by the users that a specific user follows, excluding the user
+     * and everyone they already follow, ranked by the number of mutual connections.
+     *
+     * @param userId the ID of the user to compute suggestions for
+     * @param pageable pagination information (limits the number of suggestions)
+     * @return list of suggested user IDs, best candidate first
+     */
+    @Query("SELECT f2.following.id FROM Follow f1, Follow f2 " +
+           "WHERE f1.follower.id = :userId AND f2.follower.id = f1.following.id " +
+           "AND f2.following.id <> :userId " +
+           "AND f2.following.id NOT IN (SELECT f3.following.id FROM Follow f3 WHERE f3.follower.id = :userId) " +
+           "GROUP BY f2.following.id " +
+           "ORDER BY COUNT(f2) DESC")
+    List<UUID> findFriendsOfFriendsIds(@Param("userId") UUID userId, Pageable pageable);
+    
+    /**
+     * Insert a follow unless it already exists, in one statement that concurrent requests cannot race on.
+     *
+     * @param id the ID for a new follow
+     * @param followerId the ID of the follower
+     * @param followingId the ID of the user being followed
+     * @return 1 if the follow was inserted, 0 if it already existed
+     */
+    @Modifying
+    @Query(value = "insert into follows (id, follower_id, following_id, created_at) " +
+            "values (:id, :followerId, :followingId, current_timestamp) on conflict do nothing", nativeQuery = true)
+    int insertIfAbsent(@Param("id") UUID id, @Param("followerId") UUID followerId,
+                       @Param("followingId") UUID followingId);
+}
@@ -1,13 +1,19 @@
 package com.dhillon.twitterclone.repository;
 
+import com.dhillon.twitterclone.config.HibernateCacheConfig;
 import com.dhillon.twitterclone.entity.Hashtag;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -23,8 +29,20 @@ public interface HashtagRepository extends JpaRepository<Hashtag, UUID> {
      * @param name the name of the hashtag
      * @return optional hashtag if found
      */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = HibernateCacheConfig.HASHTAG_BY_NAME_REGION)
+    })
     Optional<Hashtag> findByName(String name);
     
+    /**
+     * Find all hashtags with any of the given names in a single query.
+     *
+     * @param names the names of the hashtags
+     * @return the hashtags that exist
+     */
+    List<Hashtag> findByNameIn(Collection<String> names);
+    
     /**
      * Check if a hashtag exists by name.
      *
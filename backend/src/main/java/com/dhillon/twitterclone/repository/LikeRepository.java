@@ -4,6 +4,9 @@ import com.dhillon.twitterclone.entity.Like;
 import com.dhillon.twitterclone.entity.Post;
 import com.dhillon.twitterclone.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -32,7 +35,8 @@ public interface LikeRepository extends JpaRepository<Like, UUID> {
      * @param postId the ID of the post
      * @return true if exists, false otherwise
      */
-    boolean existsByUserIdAndPostId(UUID userId, UUID postId);
+    @Query("SELECT COUNT(l) > 0 FROM Like l WHERE l.user.id = :userId AND l.post.id = :postId")
+    boolean existsByUserIdAndPostId(@Param("userId") UUID userId, @Param("postId") UUID postId);
     
     /**
      * Count the number of likes for a post.
@@ -58,4 +62,29 @@ public interface LikeRepository extends JpaRepository<Like, UUID> {
      * @return number of rows affected
      */
     long deleteByUserAndPost(User user, Post post);
-} 
\ No newline at end of file
+    
+    /**
+     * Delete a like by user ID and post ID.
+     *
+     * @param userId the ID of the user
+     * @param postId the ID of the post
+     * @return number of rows affected
+     */
+    @Modifying
+    @Query("DELETE FROM Like l WHERE l.user.id = :userId AND l.post.id = :postId")
+    int deleteByUserIdAndPostId(@Param("userId") UUID userId, @Param("postId") UUID postId);
+    
+    /**
+     * Insert a like unless the user has already liked the post, in a single statement,
+     * so concurrent likes never race between a check and an insert.
+     *
+     * @param id the ID for a new like
+     * @param userId the ID of the user
+     * @param postId the ID of the post
+     * @return 1 if the like was inserted, 0 if it already existed
+     */
+    @Modifying
+    @Query(value = "insert into likes (id, user_id, post_id, created_at) " +
+            "values (:id, :userId, :postId, current_timestamp) on conflict do nothing", nativeQuery = true)
+    int insertIfAbsent(@Param("id") UUID id, @Param("userId") UUID userId, @Param("postId") UUID postId);
+}
@@ -10,6 +10,9 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -25,7 +28,36 @@ public interface NotificationRepository extends JpaRepository<Notification, UUID
      * @param pageable pagination information
      * @return page of notifications
      */
-    Page<Notification> findByUserIdOrderByCreatedAtDesc(UUID userId, Pageable pageable);
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId ORDER BY n.createdAt DESC")
+    Page<Notification> findByUserIdOrderByCreatedAtDesc(@Param("userId") UUID userId, Pageable pageable);
+    
+    /**
+     * Find the newest notifications for a user, with their actors.
+     * The first page of a keyset-paginated listing.
+     *
+     * @param userId the ID of the user
+     * @param pageable the page size; the page number must be 0
+     * @return list of notifications, newest first
+     */
+    @Query("SELECT n FROM Notification n JOIN FETCH n.actor WHERE n.user.id = :userId " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findLatest(@Param("userId") UUID userId, Pageable pageable);
+    
+    /**
+     * Find the notifications for a user that come after a given one in newest-first order, with their actors.
+     * Seeks straight to the position in the (user_id, created_at, id) index, however deep the page.
+     *
+     * @param userId the ID of the user
+     * @param createdAt the creation time of the last notification already returned
+     * @param id the ID of the last notification already returned
+     * @param pageable the page size; the page number must be 0
+     * @return list of notifications, newest first
+     */
+    @Query("SELECT n FROM Notification n JOIN FETCH n.actor WHERE n.user.id = :userId " +
+           "AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id)) " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findBefore(@Param("userId") UUID userId, @Param("createdAt") LocalDateTime createdAt,
+                                  @Param("id") UUID id, Pageable pageable);
     
     /**
      * Find all unread notifications for a user.
@@ -34,7 +66,8 @@ public interface NotificationRepository extends JpaRepository<Notification, UUID
      * @param pageable pagination information
      * @return page of unread notifications
      */
-    Page<Notification> findByUserIdAndReadFalseOrderByCreatedAtDesc(UUID userId, Pageable pageable);
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId AND n.read = false ORDER BY n.createdAt DESC")
+    Page<Notification> findByUserIdAndReadFalseOrderByCreatedAtDesc(@Param("userId") UUID userId, Pageable pageable);
     
     /**
      * Count unread notifications for a user.
@@ -42,7 +75,19 @@ public interface NotificationRepository extends JpaRepository<Notification, UUID
      * @param userId the ID of the user
      * @return count of unread notifications
      */
-    long countByUserIdAndReadFalse(UUID userId);
+    @Query("SELECT COUNT(n) FROM Notification n WHERE n.user.id = :userId AND n.read = false")
+    long countByUserIdAndReadFalse(@Param("userId") UUID userId);
+    
+    /**
+     * Count unread notifications for each of a set of users.
+     * Users without unread notifications are left out.
+     *
+     * @param userIds the IDs of the users
+     * @return rows of [user ID, count]
+     */
+    @Query("SELECT n.user.id, COUNT(n) FROM Notification n WHERE n.user.id IN :userIds AND n.read = false " +
+           "GROUP BY n.user.id")
+    List<Object[]> countUnreadByUserIds(@Param("userIds") Collection<UUID> userIds);
     
     /**
      * Find notifications by type for a user.
@@ -52,7 +97,10 @@ public interface NotificationRepository extends JpaRepository<Notification, UUID
      * @param pageable pagination information
      * @return page of notifications
      */
-    Page<Notification> findByUserIdAndTypeOrderByCreatedAtDesc(UUID userId, NotificationType type, Pageable pageable);
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId AND n.type = :type ORDER BY n.createdAt DESC")
+    Page<Notification> findByUserIdAndTypeOrderByCreatedAtDesc(@Param("userId") UUID userId,
+                                                               @Param("type") NotificationType type,
+                                                               Pageable pageable);
     
     /**
      * Mark all notifications for a user as read.
@@ -1,15 +1,24 @@
 package com.dhillon.twitterclone.repository;
 
+import com.dhillon.twitterclone.dto.PostVersion;
 import com.dhillon.twitterclone.entity.Post;
 import com.dhillon.twitterclone.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -34,7 +43,21 @@ public interface PostRepository extends JpaRepository<Post, UUID> {
      * @param pageable pagination information
      * @return page of posts
      */
-    Page<Post> findByUserIdOrderByCreatedAtDesc(UUID userId, Pageable pageable);
+    @Query("SELECT p FROM Post p WHERE p.user.id = :userId ORDER BY p.createdAt DESC")
+    Page<Post> findByUserIdOrderByCreatedAtDesc(@Param("userId") UUID userId, Pageable pageable);
+    
+    /**
+     * Find posts by user ID created since a given time, newest first.
+     * The lower bound on created_at lets the database skip older partitions.
+     *
+     * @param userId the user ID
+     * @param since the earliest creation time to include
+     * @param pageable pagination information
+     * @return slice of posts
+     */
+    @Query("SELECT p FROM Post p WHERE p.user.id = :userId AND p.createdAt >= :since ORDER BY p.createdAt DESC")
+    Slice<Post> findByUserIdSince(@Param("userId") UUID userId, @Param("since") LocalDateTime since,
+                                  Pageable pageable);
     
     /**
      * Find all posts that have a specific hashtag.
@@ -66,6 +89,28 @@ public interface PostRepository extends JpaRepository<Post, UUID> {
     @Query("SELECT p FROM Post p WHERE LOWER(p.content) LIKE LOWER(CONCAT('%', :query, '%')) ORDER BY p.createdAt DESC")
     Page<Post> searchPosts(@Param("query") String query, Pageable pageable);
     
+    /**
+     * Find posts by ID with their authors, such as the originals of a page of reposts.
+     *
+     * @param ids the post IDs
+     * @return list of posts, in no particular order
+     */
+    @Query("SELECT p FROM Post p JOIN FETCH p.user WHERE p.id IN :ids")
+    List<Post> findWithUserByIdIn(@Param("ids") Collection<UUID> ids);
+    
+    /**
+     * Find what the representation of a post depends on, without loading the post.
+     *
+     * @param id the post ID
+     * @return the version, or empty if the post does not exist or was deleted
+     */
+    @Query("SELECT p.id AS id, p.updatedAt AS updatedAt, p.likeCount AS likeCount, p.replyCount AS replyCount, " +
+           "p.repostCount AS repostCount, u.updatedAt AS authorUpdatedAt, o.id AS originalId, " +
+           "o.updatedAt AS originalUpdatedAt, o.deletedAt AS originalDeletedAt, o.likeCount AS originalLikeCount, " +
+           "o.replyCount AS originalReplyCount, o.repostCount AS originalRepostCount " +
+           "FROM Post p JOIN p.user u LEFT JOIN p.originalPost o WHERE p.id = :id")
+    Optional<PostVersion> findVersionById(@Param("id") UUID id);
+    
     /**
      * Find all replies to a specific post.
      *
@@ -73,7 +118,8 @@ public interface PostRepository extends JpaRepository<Post, UUID> {
      * @param pageable pagination information
      * @return page of reply posts
      */
-    Page<Post> findByParentIdOrderByCreatedAtDesc(UUID parentId, Pageable pageable);
+    @Query("SELECT p FROM Post p WHERE p.parent.id = :parentId ORDER BY p.createdAt DESC")
+    Page<Post> findByParentIdOrderByCreatedAtDesc(@Param("parentId") UUID parentId, Pageable pageable);
     
     /**
      * Find home timeline posts (posts from followed users).
@@ -88,6 +134,49 @@ public interface PostRepository extends JpaRepository<Post, UUID> {
            "ORDER BY p.createdAt DESC")
     Page<Post> findHomeTimeline(@Param("userId") UUID userId, Pageable pageable);
     
+    /**
+     * Find home timeline posts created since a given time, newest first.
+     *
+     * @param userId the user ID
+     * @param since the earliest creation time to include
+     * @param pageable pagination information
+     * @return slice of posts
+     */
+    @Query("SELECT p FROM Post p WHERE p.createdAt >= :since AND (p.user.id IN " +
+           "(SELECT f.following.id FROM Follow f WHERE f.follower.id = :userId) " +
+           "OR p.user.id = :userId) " +
+           "ORDER BY p.createdAt DESC")
+    Slice<Post> findHomeTimelineSince(@Param("userId") UUID userId, @Param("since") LocalDateTime since,
+                                      Pageable pageable);
+    
+    /**
+     * Find the IDs of the newest home timeline posts created since a given time, newest first.
+     *
+     * @param userId the user ID
+     * @param since the earliest creation time to include
+     * @param pageable how many IDs to return
+     * @return list of post IDs
+     */
+    @Query("SELECT p.id FROM Post p WHERE p.createdAt >= :since AND (p.user.id IN " +
+           "(SELECT f.following.id FROM Follow f WHERE f.follower.id = :userId) " +
+           "OR p.user.id = :userId) " +
+           "ORDER BY p.createdAt DESC")
+    List<UUID> findHomeTimelineIdsSince(@Param("userId") UUID userId, @Param("since") LocalDateTime since,
+                                        Pageable pageable);
+    
+    /**
+     * Find the IDs of the newest home timeline posts, newest first.
+     *
+     * @param userId the user ID
+     * @param pageable how many IDs to return
+     * @return list of post IDs
+     */
+    @Query("SELECT p.id FROM Post p WHERE p.user.id IN " +
+           "(SELECT f.following.id FROM Follow f WHERE f.follower.id = :userId) " +
+           "OR p.user.id = :userId " +
+           "ORDER BY p.createdAt DESC")
+    List<UUID> findHomeTimelineIds(@Param("userId") UUID userId, Pageable pageable);
+    
     /**
      * Find trending posts based on like count, repost count, and reply count.
      *
@@ -96,4 +185,113 @@ public interface PostRepository extends JpaRepository<Post, UUID> {
      */
     @Query("SELECT p FROM Post p ORDER BY (p.likeCount + p.repostCount + p.replyCount) DESC, p.createdAt DESC")
     Page<Post> findTrendingPosts(Pageable pageable);
-} 
\ No newline at end of file
+    
+    /**
+     * Check whether any post was created since a given time.
+     *
+     * @param since the earliest creation time to include
+     * @return true if there is such a post
+     */
+    boolean existsByCreatedAtGreaterThanEqual(LocalDateTime since);
+    
+    /**
+     * Find trending posts among those created since a given time.
+     *
+     * @param since the earliest creation time to include
+     * @param pageable pagination information
+     * @return slice of trending posts
+     */
+    @Query("SELECT p FROM Post p WHERE p.createdAt >= :since " +
+           "ORDER BY (p.likeCount + p.repostCount + p.replyCount) DESC, p.createdAt DESC")
+    Slice<Post> findTrendingPostsSince(@Param("since") LocalDateTime since, Pageable pageable);
+    
+    /**
+     * Find the posts of a conversation thread around a post in a single query: the post itself, the
+     * chain of posts it replies to, and the replies below it, breadth first, down to a maximum depth.
+     * One recursive walk over parent_id goes both ways, up at negative depths and down at positive ones;
+     * deleted posts end their branch. The thread is returned unordered, to be assembled from each post's parent.
+     *
+     * @param postId the ID of the post
+     * @param maxAncestors the maximum number of posts above it
+     * @param maxDepth the maximum depth of replies below it
+     * @param maxReplies the maximum number of replies; shallower and older ones are kept
+     * @return list of posts
+     */
+    @Query(value = "with recursive thread (id, parent_id, created_at, depth) as (" +
+                   "select p.id, p.parent_id, p.created_at, 0 from posts p " +
+                   "where p.id = :postId and p.deleted_at is null " +
+                   "union all " +
+                   "select p.id, p.parent_id, p.created_at, " +
+                   "case when p.id = t.parent_id then t.depth - 1 else t.depth + 1 end " +
+                   "from thread t join posts p " +
+                   "on (t.depth <= 0 and -t.depth < :maxAncestors and p.id = t.parent_id) " +
+                   "or (t.depth >= 0 and t.depth < :maxDepth and p.parent_id = t.id) " +
+                   "where p.deleted_at is null) " +
+                   "select p.* from posts p where (p.id, p.created_at) in (" +
+                   "select t.id, t.created_at from thread t where t.depth <= 0 " +
+                   "union all " +
+                   "(select t.id, t.created_at from thread t where t.depth > 0 " +
+                   "order by t.depth, t.created_at, t.id limit :maxReplies))",
+           nativeQuery = true)
+    List<Post> findThread(@Param("postId") UUID postId, @Param("maxAncestors") int maxAncestors,
+                          @Param("maxDepth") int maxDepth, @Param("maxReplies") int maxReplies);
+    
+    /**
+     * Find which of the loaded posts of a thread have replies that were not loaded with it,
+     * past the depth or size limit. Deleted replies are not counted, unlike in the reply count.
+     *
+     * @param ids the IDs of the post and its loaded replies
+     * @return the IDs of those with replies outside of them
+     */
+    @Query("SELECT DISTINCT p.parent.id FROM Post p WHERE p.parent.id IN :ids AND p.id NOT IN :ids")
+    List<UUID> findParentIdsWithRepliesOutside(@Param("ids") Collection<UUID> ids);
+    
+    /**
+     * Atomically adjust the like count of a post.
+     * Declared against the posts table, so cached queries over other tables stay valid.
+     *
+     * @param postId the ID of the post
+     * @param delta the amount to add (negative to subtract)
+     * @return number of rows affected
+     */
+    @Modifying
+    @Query(value = "update posts set like_count = like_count + :delta where id = :postId", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "posts"))
+    int adjustLikeCount(@Param("postId") UUID postId, @Param("delta") int delta);
+    
+    /**
+     * Mark a post as deleted, hiding it from all entity queries until it is purged.
+     *
+     * @param postId the ID of the post
+     * @return number of rows affected
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Post p SET p.deletedAt = CURRENT_TIMESTAMP WHERE p.id = :postId AND p.deletedAt IS NULL")
+    int softDelete(@Param("postId") UUID postId);
+    
+    /**
+     * Mark every post of a user as deleted.
+     *
+     * @param userId the ID of the user
+     * @return number of rows affected
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Post p SET p.deletedAt = CURRENT_TIMESTAMP WHERE p.user.id = :userId AND p.deletedAt IS NULL")
+    int softDeleteByUserId(@Param("userId") UUID userId);
+    
+    /**
+     * Permanently delete a batch of soft-deleted posts.
+     * Media, hashtag links, likes and bookmarks go with them via ON DELETE CASCADE;
+     * replies, reposts and notifications that refer to them are kept, with the reference set to null.
+     * On PostgreSQL, where posts is partitioned, a delete trigger applies the same rules.
+     *
+     * @param batchSize the maximum number of posts to delete
+     * @return number of posts deleted
+     */
+    @Modifying
+    @Query(value = "delete from posts where id in (" +
+                   "select p.id from posts p where p.deleted_at is not null limit :batchSize)",
+           nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "posts"))
+    int purgeDeletedPosts(@Param("batchSize") int batchSize);
+}
@@ -1,14 +1,20 @@
 package com.dhillon.twitterclone.repository;
 
+import com.dhillon.twitterclone.config.HibernateCacheConfig;
 import com.dhillon.twitterclone.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Repository for User entity operations.
@@ -22,8 +28,21 @@ public interface UserRepository extends JpaRepository<User, UUID> {
      * @param username the username to search for
      * @return optional user if found
      */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = HibernateCacheConfig.USER_BY_USERNAME_REGION)
+    })
     Optional<User> findByUsername(String username);
     
+    /**
+     * Find the ID of a user by username without loading the entity.
+     *
+     * @param username the username to search for
+     * @return optional user ID if found
+     */
+    @Query("SELECT u.id FROM User u WHERE u.username = :username")
+    Optional<UUID> findIdByUsername(@Param("username") String username);
+    
     /**
      * Find a user by email.
      *
@@ -34,19 +53,33 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     
     /**
      * Check if a username exists.
+     * Users awaiting purge still hold their username, so they are included.
      *
      * @param username the username to check
      * @return true if exists, false otherwise
      */
-    boolean existsByUsername(String username);
+    @Query(value = "select count(*) > 0 from users where username = :username", nativeQuery = true)
+    boolean existsByUsername(@Param("username") String username);
     
     /**
      * Check if an email exists.
+     * Users awaiting purge still hold their email, so they are included.
      *
      * @param email the email to check
      * @return true if exists, false otherwise
      */
-    boolean existsByEmail(String email);
+    @Query(value = "select count(*) > 0 from users where email = :email", nativeQuery = true)
+    boolean existsByEmail(@Param("email") String email);
+    
+    /**
+     * Stream the username and email of every user.
+     * Users awaiting purge still hold their username and email, so they are included.
+     * Must be consumed inside a transaction.
+     *
+     * @return stream of username and email pairs
+     */
+    @Query(value = "select username, email from users", nativeQuery = true)
+    Stream<Object[]> streamUsernamesAndEmails();
     
     /**
      * Search for users by username or display name.
@@ -75,4 +108,119 @@ public interface UserRepository extends JpaRepository<User, UUID> {
      */
     @Query("SELECT f.follower FROM Follow f WHERE f.following.id = :userId")
     List<User> findFollowersByUserId(@Param("userId") UUID userId);
+    
+    /**
+     * Replace a user's password hash, only if it has not changed since it was read.
+     *
+     * @param userId the ID of the user
+     * @param currentHash the hash expected to be stored
+     * @param newHash the replacement hash
+     * @return number of rows affected
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.passwordHash = :newHash WHERE u.id = :userId AND u.passwordHash = :currentHash")
+    int replacePasswordHash(@Param("userId") UUID userId, @Param("currentHash") String currentHash,
+                            @Param("newHash") String newHash);
+    
+    /**
+     * Mark a user as deleted, hiding it from all entity queries until it is purged.
+     *
+     * @param userId the ID of the user
+     * @return number of rows affected
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE User u SET u.deletedAt = CURRENT_TIMESTAMP WHERE u.id = :userId AND u.deletedAt IS NULL")
+    int softDelete(@Param("userId") UUID userId);
+    
+    /**
+     * Permanently delete a batch of soft-deleted users whose posts have already been purged.
+     * Their remaining rows (likes, notifications, roles, messages) go with them via ON DELETE CASCADE.
+     *
+     * Soft-deleted users were already evicted from the second-level cache, so the delete is
+     * declared against user_roles only and leaves the User region intact.
+     *
+     * @param batchSize the maximum number of users to delete
+     * @return number of users deleted
+     */
+    @Modifying
+    @Query(value = "delete from users where id in (" +
+                   "select u.id from users u where u.deleted_at is not null " +
+                   "and not exists (select 1 from posts p where p.user_id = u.id) " +
+                   "limit :batchSize)",
+           nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_roles"))
+    int purgeDeletedUsers(@Param("batchSize") int batchSize);
+    
+    /**
+     * Atomically adjust the follower count of a user.
+     * Declared against the follows table so the update leaves the cached User region alone;
+     * the caller must evict the one user it changed.
+     *
+     * @param userId the ID of the user
+     * @param delta the amount to add (negative to subtract)
+     * @return number of rows affected
+     */
+    @Modifying
+    @Query(value = "update users set follower_count = follower_count + :delta where id = :userId", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "follows"))
+    int adjustFollowerCount(@Param("userId") UUID userId, @Param("delta") int delta);
+    
+    /**
+     * Atomically adjust the following count of a user.
+     * Like adjustFollowerCount, the caller must evict the user from the second-level cache.
+     *
+     * @param userId the ID of the user
+     * @param delta the amount to add (negative to subtract)
+     * @return number of rows affected
+     */
+    @Modifying
+    @Query(value = "update users set following_count = following_count + :delta where id = :userId", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "follows"))
+    int adjustFollowingCount(@Param("userId") UUID userId, @Param("delta") int delta);
+    
+    /**
+     * Decrement the follower count of every user followed by a specific user.
+     *
+     * @param userId the ID of the user who is following
+     * @return number of rows affected
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.followerCount = u.followerCount - 1 " +
+           "WHERE u.id IN (SELECT f.following.id FROM Follow f WHERE f.follower.id = :userId)")
+    int decrementFollowerCountOfFollowing(@Param("userId") UUID userId);
+    
+    /**
+     * Decrement the following count of every user following a specific user.
+     *
+     * @param userId the ID of the user being followed
+     * @return number of rows affected
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.followingCount = u.followingCount - 1 " +
+           "WHERE u.id IN (SELECT f.follower.id FROM Follow f WHERE f.following.id = :userId)")
+    int decrementFollowingCountOfFollowers(@Param("userId") UUID userId);
+    
+    /**
+     * Recompute follower counts from the follows table for users whose count has drifted.
+     *
+     * @return number of rows corrected
+     */
+    @Modifying
+    @Query(value = "update users set follower_count = " +
+                   "(select count(*) from follows where follows.following_id = users.id) " +
+                   "where follower_count <> (select count(*) from follows where follows.following_id = users.id)",
+           nativeQuery = true)
+    int reconcileFollowerCounts();
+    
+    /**
+     * Recompute following counts from the follows table for users whose count has drifted.
+     *
+     * @return number of rows corrected
+     */
+    @Modifying
+    @Query(value = "update users set following_count = " +
+                   "(select count(*) from follows where follows.follower_id = users.id) " +
+                   "where following_count <> (select count(*) from follows where follows.follower_id = users.id)",
+           nativeQuery = true)
+    int reconcileFollowingCounts();
 } 
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.dhillon.twitterclone.security;
+
+import com.dhillon.twitterclone.exception.UnauthorizedException;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The identity carried by a validated access token, used as the security principal.
+ * Authorities are built once per token rather than on every request.
+ * The principal is named by the user ID, which is what STOMP user destinations are resolved by.
+ *
+ * @param id the user ID
+ * @param username the username
+ * @param authorities the granted authorities, one per role
+ * @param expiresAt when the token expires
+ */
+public record AuthenticatedUser(UUID id, String username, List<GrantedAuthority> authorities, Instant expiresAt)
+        implements AuthenticatedPrincipal {
+    
+    /**
+     * Create an authenticated user from token claims.
+     *
+     * @param id the user ID
+     * @param username the username
+     * @param roles the role names, without the ROLE_ prefix
+     * @param expiresAt when the token expires
+     * @return the authenticated user
+     */
+    public static AuthenticatedUser of(UUID id, String username, List<String> roles, Instant expiresAt) {
+        List<GrantedAuthority> authorities = roles.stream()
+                .<GrantedAuthority>map(role -> new SimpleGrantedAuthority("ROLE_" + role))
+                .toList();
+        return new AuthenticatedUser(id, username, authorities, expiresAt);
+    }
+    
+    /**
+     * Require a signed-in user, for endpoints that act as one.
+     *
+     * @param principal the principal of the request, null if anonymous
+     * @return the principal
+     * @throws UnauthorizedException if the request is anonymous
+     */
+    public static AuthenticatedUser require(AuthenticatedUser principal) {
+        if (principal == null) {
+            throw new UnauthorizedException("Authentication required");
+        }
+        return principal;
+    }
+    
+    /**
+     * @return the user ID as a string
+     */
+    @Override
+    public String getName() {
+        return id.toString();
+    }
+    
+    /**
+     * @param now the current time
+     * @return true if the token has expired
+     */
+    public boolean isExpired(Instant now) {
+        return !now.isBefore(expiresAt);
+    }
+}
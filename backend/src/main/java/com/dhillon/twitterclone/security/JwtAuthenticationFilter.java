@@ -0,0 +1,92 @@
+package com.dhillon.twitterclone.security;
+
+import com.dhillon.twitterclone.cache.TokenClaimsCache;
+import com.dhillon.twitterclone.exception.ApiError;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Authenticates requests carrying a bearer access token.
+ * Tokens are validated from their signature and claims alone, and recently seen tokens are served
+ * from {@link TokenClaimsCache}, so no request needs a database lookup to authenticate.
+ * Requests without a token pass through unauthenticated; requests with an invalid one are rejected.
+ * The authentication endpoints are left alone, so a client still sending its expired access token
+ * can log in, refresh or log out.
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+    
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final String AUTH_PATH = "/auth/";
+    
+    private final JwtTokenProvider tokenProvider;
+    private final TokenClaimsCache claimsCache;
+    private final ObjectMapper objectMapper;
+    
+    /**
+     * Constructor with dependencies.
+     *
+     * @param tokenProvider the token provider
+     * @param claimsCache the cache of validated tokens
+     * @param objectMapper the object mapper used to write error responses
+     */
+    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, TokenClaimsCache claimsCache, ObjectMapper objectMapper) {
+        this.tokenProvider = tokenProvider;
+        this.claimsCache = claimsCache;
+        this.objectMapper = objectMapper;
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith(request.getContextPath() + AUTH_PATH);
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.startsWith(BEARER_PREFIX)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        
+        String token = header.substring(BEARER_PREFIX.length()).trim();
+        AuthenticatedUser user = claimsCache.get(token);
+        if (user == null) {
+            try {
+                user = tokenProvider.parseAccessToken(token);
+            } catch (JwtException e) {
+                rejectToken(request, response);
+                return;
+            }
+            claimsCache.put(token, user);
+        }
+        
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.authorities()));
+        filterChain.doFilter(request, response);
+    }
+    
+    private void rejectToken(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.UNAUTHORIZED.value());
+        response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ApiError(
+            HttpStatus.UNAUTHORIZED.value(),
+            "Unauthorized",
+            "Invalid or expired access token",
+            request.getRequestURI()
+        ));
+    }
+}
@@ -0,0 +1,172 @@
+package com.dhillon.twitterclone.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Issues and validates signed JWTs.
+ * Access tokens carry everything needed to authenticate a request, so validating one needs no query.
+ * The signing key and parser are built once; both are immutable and thread-safe.
+ */
+@Component
+public class JwtTokenProvider {
+    
+    private static final String CLAIM_USERNAME = "username";
+    private static final String CLAIM_ROLES = "roles";
+    private static final String CLAIM_TOKEN_TYPE = "token_type";
+    private static final String CLAIM_FAMILY = "family";
+    private static final String ACCESS = "access";
+    private static final String REFRESH = "refresh";
+    
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final long accessExpirationMs;
+    private final long refreshExpirationMs;
+    
+    /**
+     * Constructor with token settings.
+     *
+     * @param secret the HMAC secret, at least 32 bytes
+     * @param accessExpirationMs the lifetime of access tokens
+     * @param refreshExpirationMs the lifetime of refresh tokens
+     */
+    public JwtTokenProvider(@Value("${spring.jwt.secret}") String secret,
+                            @Value("${spring.jwt.expiration:86400000}") long accessExpirationMs,
+                            @Value("${spring.jwt.refresh-expiration:604800000}") long refreshExpirationMs) {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.accessExpirationMs = accessExpirationMs;
+        this.refreshExpirationMs = refreshExpirationMs;
+    }
+    
+    /**
+     * Create an access token.
+     *
+     * @param userId the user ID
+     * @param username the username
+     * @param roles the user's roles
+     * @return the signed token
+     */
+    public String createAccessToken(UUID userId, String username, List<String> roles) {
+        Instant now = Instant.now();
+        return Jwts.builder()
+                .setSubject(userId.toString())
+                .claim(CLAIM_USERNAME, username)
+                .claim(CLAIM_ROLES, roles == null ? List.of() : List.copyOf(roles))
+                .claim(CLAIM_TOKEN_TYPE, ACCESS)
+                .setIssuedAt(Date.from(now))
+                .setExpiration(Date.from(now.plusMillis(accessExpirationMs)))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
+                .compact();
+    }
+    
+    /**
+     * Describe the next refresh token of a family, with a unique ID so that it can be accepted only once.
+     *
+     * @param userId the user ID
+     * @param familyId the family ID, new on login and kept on every refresh
+     * @return the token's ID, family, subject and expiry
+     */
+    public RefreshToken newRefreshToken(UUID userId, UUID familyId) {
+        return new RefreshToken(UUID.randomUUID(), familyId, userId, Instant.now().plusMillis(refreshExpirationMs));
+    }
+    
+    /**
+     * Create a refresh token.
+     *
+     * @param token the token's ID, family, subject and expiry
+     * @return the signed token
+     */
+    public String createRefreshToken(RefreshToken token) {
+        return Jwts.builder()
+                .setId(token.id().toString())
+                .setSubject(token.userId().toString())
+                .claim(CLAIM_FAMILY, token.familyId().toString())
+                .claim(CLAIM_TOKEN_TYPE, REFRESH)
+                .setIssuedAt(new Date())
+                .setExpiration(Date.from(token.expiresAt()))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
+                .compact();
+    }
+    
+    /**
+     * Validate an access token.
+     *
+     * @param token the token
+     * @return the identity it carries
+     * @throws JwtException if the token is malformed, forged, expired or not an access token
+     */
+    public AuthenticatedUser parseAccessToken(String token) {
+        Claims claims = parse(token, ACCESS);
+        List<?> roles = claims.get(CLAIM_ROLES, List.class);
+        return AuthenticatedUser.of(
+                UUID.fromString(claims.getSubject()),
+                claims.get(CLAIM_USERNAME, String.class),
+                roles == null ? List.of() : roles.stream().map(String::valueOf).toList(),
+                claims.getExpiration().toInstant());
+    }
+    
+    /**
+     * Validate a refresh token.
+     *
+     * @param token the token
+     * @return the token's ID, family, subject and expiry
+     * @throws JwtException if the token is malformed, forged, expired or not a refresh token
+     */
+    public RefreshToken parseRefreshToken(String token) {
+        Claims claims = parse(token, REFRESH);
+        String familyId = claims.get(CLAIM_FAMILY, String.class);
+        if (familyId == null) {
+            throw new JwtException("Refresh token has no family");
+        }
+        return new RefreshToken(
+                UUID.fromString(claims.getId()),
+                UUID.fromString(familyId),
+                UUID.fromString(claims.getSubject()),
+                claims.getExpiration().toInstant());
+    }
+    
+    /**
+     * @return the lifetime of access tokens in milliseconds
+     */
+    public long getAccessExpirationMs() {
+        return accessExpirationMs;
+    }
+    
+    private Claims parse(String token, String expectedType) {
+        Claims claims;
+        try {
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (IllegalArgumentException e) {
+            throw new JwtException("Invalid token", e);
+        }
+        if (!expectedType.equals(claims.get(CLAIM_TOKEN_TYPE, String.class))) {
+            throw new JwtException("Expected a " + expectedType + " token");
+        }
+        return claims;
+    }
+    
+    /**
+     * The parts of a validated refresh token.
+     *
+     * @param id the token ID
+     * @param familyId the ID of the login the token descends from
+     * @param userId the user ID
+     * @param expiresAt when the token expires
+     */
+    public record RefreshToken(UUID id, UUID familyId, UUID userId, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,67 @@
+package com.dhillon.twitterclone.security;
+
+import com.dhillon.twitterclone.exception.TooManyRequestsException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Throttles login attempts per username and per client IP address.
+ * The username limit slows guessing against one account; the IP limit slows one client
+ * trying many accounts, as in credential stuffing.
+ */
+@Component
+public class LoginThrottle {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LoginThrottle.class);
+    
+    private final TokenBucketLimiter usernameLimiter;
+    private final TokenBucketLimiter ipLimiter;
+    
+    /**
+     * Constructor with limits.
+     *
+     * @param usernameCapacity the burst of attempts allowed per username
+     * @param usernameRefillPerMinute the sustained attempts per username per minute
+     * @param ipCapacity the burst of attempts allowed per IP address
+     * @param ipRefillPerMinute the sustained attempts per IP address per minute
+     */
+    public LoginThrottle(@Value("${app.auth.throttle.username.capacity:5}") int usernameCapacity,
+                         @Value("${app.auth.throttle.username.refill-per-minute:5}") int usernameRefillPerMinute,
+                         @Value("${app.auth.throttle.ip.capacity:20}") int ipCapacity,
+                         @Value("${app.auth.throttle.ip.refill-per-minute:20}") int ipRefillPerMinute) {
+        this.usernameLimiter = new TokenBucketLimiter(usernameCapacity, usernameRefillPerMinute);
+        this.ipLimiter = new TokenBucketLimiter(ipCapacity, ipRefillPerMinute);
+    }
+    
+    /**
+     * Record a login attempt, refusing it if either limit is exhausted.
+     *
+     * @param username the username being logged in to
+     * @param ipAddress the client IP address
+     * @throws TooManyRequestsException if the attempt exceeds a limit
+     */
+    public void checkLoginAttempt(String username, String ipAddress) {
+        long retryAfter = ipLimiter.tryAcquire(ipAddress);
+        if (retryAfter == 0 && username != null) {
+            retryAfter = usernameLimiter.tryAcquire(username.toLowerCase(Locale.ROOT));
+        }
+        if (retryAfter > 0) {
+            logger.warn("Throttled login attempt for user {} from {}", username, ipAddress);
+            throw new TooManyRequestsException("Too many login attempts, please try again later", retryAfter);
+        }
+    }
+    
+    /**
+     * Forget keys whose buckets have refilled, bounding memory to recently active clients.
+     */
+    @Scheduled(fixedDelayString = "${app.auth.throttle.sweep-interval-ms:60000}")
+    public void evictIdleKeys() {
+        usernameLimiter.evictFullBuckets();
+        ipLimiter.evictFullBuckets();
+    }
+}
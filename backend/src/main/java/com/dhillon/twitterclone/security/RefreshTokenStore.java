@@ -0,0 +1,92 @@
+package com.dhillon.twitterclone.security;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * The refresh tokens that may still be used, kept in the database so logouts and rotations hold
+ * across restarts and instances. Each login starts a family of tokens, one row, and every refresh
+ * replaces its current token with the next, so a token can be used once and the table holds one row
+ * per session rather than one per refresh. Presenting a token that was already replaced means it was
+ * copied, so the whole family is ended.
+ */
+@Component
+public class RefreshTokenStore {
+
+    private static final String START_SQL =
+            "insert into refresh_token_families (id, user_id, current_token_id, expires_at) values (?, ?, ?, ?)";
+
+    private static final String ROTATE_SQL =
+            "update refresh_token_families set current_token_id = ?, expires_at = ? " +
+            "where id = ? and current_token_id = ?";
+
+    private static final String REVOKE_SQL = "delete from refresh_token_families where id = ?";
+
+    private static final String PURGE_SQL = "delete from refresh_token_families where expires_at <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor with dependencies.
+     *
+     * @param jdbcTemplate the JDBC template
+     */
+    public RefreshTokenStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Start a family with its first token, on login.
+     *
+     * @param token the first token
+     */
+    public void start(JwtTokenProvider.RefreshToken token) {
+        jdbcTemplate.update(START_SQL, token.familyId(), token.userId(), token.id(), timestamp(token.expiresAt()));
+    }
+
+    /**
+     * Replace the presented token of a family with the next one.
+     * The replacement is a single conditional update, so of two concurrent uses of the same token only one succeeds.
+     *
+     * @param presented the token presented
+     * @param next the token to accept from now on
+     * @return true if the presented token was the family's current one, false if the family has now ended
+     */
+    public boolean rotate(JwtTokenProvider.RefreshToken presented, JwtTokenProvider.RefreshToken next) {
+        int updated = jdbcTemplate.update(ROTATE_SQL, next.id(), timestamp(next.expiresAt()),
+                presented.familyId(), presented.id());
+        if (updated > 0) {
+            return true;
+        }
+        revoke(presented.familyId());
+        return false;
+    }
+
+    /**
+     * End a family, so none of its tokens can be used, on logout.
+     *
+     * @param familyId the family ID
+     */
+    public void revoke(UUID familyId) {
+        jdbcTemplate.update(REVOKE_SQL, familyId);
+    }
+
+    /**
+     * Drop families whose current token has expired, as its signature check now rejects it anyway.
+     *
+     * @return the number of families dropped
+     */
+    @Scheduled(fixedDelayString = "${app.auth.jwt.refresh-purge-interval-ms:3600000}")
+    public int purgeExpired() {
+        return jdbcTemplate.update(PURGE_SQL, timestamp(Instant.now()));
+    }
+
+    private static Timestamp timestamp(Instant instant) {
+        return Timestamp.from(instant);
+    }
+}
@@ -0,0 +1,88 @@
+package com.dhillon.twitterclone.security;
+
+import com.dhillon.twitterclone.cache.TokenClaimsCache;
+import io.jsonwebtoken.JwtException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+/**
+ * Authenticates STOMP sessions from the bearer token in the CONNECT frame's Authorization header,
+ * since browsers cannot set headers on the WebSocket handshake itself.
+ * The push channel is receive-only: clients may only subscribe to their own user destinations,
+ * and SEND frames are refused so that nobody can publish to other clients through the broker.
+ */
+@Component
+public class StompAuthenticationInterceptor implements ChannelInterceptor {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtTokenProvider tokenProvider;
+    private final TokenClaimsCache claimsCache;
+    private final String userDestinationPrefix;
+
+    /**
+     * Constructor with dependencies.
+     *
+     * @param tokenProvider the token provider
+     * @param claimsCache the cache of validated tokens
+     * @param userDestinationPrefix the prefix of destinations resolved per user
+     */
+    public StompAuthenticationInterceptor(JwtTokenProvider tokenProvider, TokenClaimsCache claimsCache,
+                                          @Value("${spring.websocket.user-destination-prefix:/user}")
+                                          String userDestinationPrefix) {
+        this.tokenProvider = tokenProvider;
+        this.claimsCache = claimsCache;
+        this.userDestinationPrefix = userDestinationPrefix.endsWith("/")
+                ? userDestinationPrefix : userDestinationPrefix + "/";
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+
+        StompCommand command = accessor.getCommand();
+        if (command == StompCommand.CONNECT || command == StompCommand.STOMP) {
+            AuthenticatedUser user = authenticate(message, accessor.getFirstNativeHeader(HttpHeaders.AUTHORIZATION));
+            accessor.setUser(new UsernamePasswordAuthenticationToken(user, null, user.authorities()));
+        } else if (command == StompCommand.SUBSCRIBE) {
+            String destination = accessor.getDestination();
+            if (destination == null || !destination.startsWith(userDestinationPrefix)) {
+                throw new MessageDeliveryException(message,
+                        "Only " + userDestinationPrefix + " destinations may be subscribed to");
+            }
+        } else if (command == StompCommand.SEND) {
+            throw new MessageDeliveryException(message, "This channel does not accept messages");
+        }
+        return message;
+    }
+
+    private AuthenticatedUser authenticate(Message<?> message, String header) {
+        if (header == null || !header.startsWith(BEARER_PREFIX)) {
+            throw new MessageDeliveryException(message, "Authentication required");
+        }
+
+        String token = header.substring(BEARER_PREFIX.length()).trim();
+        AuthenticatedUser user = claimsCache.get(token);
+        if (user == null) {
+            try {
+                user = tokenProvider.parseAccessToken(token);
+            } catch (JwtException e) {
+                throw new MessageDeliveryException(message, "Invalid or expired access token");
+            }
+            claimsCache.put(token, user);
+        }
+        return user;
+    }
+}
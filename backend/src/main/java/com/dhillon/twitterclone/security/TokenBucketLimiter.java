@@ -0,0 +1,93 @@
+package com.dhillon.twitterclone.security;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keyed token-bucket rate limiter.
+ * Each key starts with a full bucket of {@code capacity} tokens, refilled continuously at a fixed rate;
+ * a request takes one token and is refused when the bucket is empty.
+ */
+public class TokenBucketLimiter {
+    
+    private static final long NANOS_PER_MINUTE = TimeUnit.MINUTES.toNanos(1);
+    
+    private final double capacity;
+    private final double tokensPerNano;
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    
+    /**
+     * Constructor with limits.
+     *
+     * @param capacity the maximum burst per key
+     * @param refillPerMinute the sustained number of requests per key per minute
+     */
+    public TokenBucketLimiter(int capacity, int refillPerMinute) {
+        this.capacity = capacity;
+        this.tokensPerNano = (double) refillPerMinute / NANOS_PER_MINUTE;
+    }
+    
+    /**
+     * Try to take a token for a key.
+     *
+     * @param key the key, e.g. a username or IP address
+     * @return 0 if a token was taken, otherwise the number of seconds until one is available
+     */
+    public long tryAcquire(String key) {
+        return tryAcquire(key, System.nanoTime());
+    }
+    
+    long tryAcquire(String key, long nowNanos) {
+        return buckets.computeIfAbsent(key, k -> new Bucket(capacity, nowNanos)).tryAcquire(nowNanos);
+    }
+    
+    /**
+     * Drop buckets that have refilled completely, as they are indistinguishable from new ones.
+     * A request racing with the eviction may see a fresh bucket, which only errs towards allowing it.
+     */
+    public void evictFullBuckets() {
+        evictFullBuckets(System.nanoTime());
+    }
+    
+    void evictFullBuckets(long nowNanos) {
+        buckets.values().removeIf(bucket -> bucket.isFull(nowNanos));
+    }
+    
+    /**
+     * @return number of keys currently tracked
+     */
+    public int size() {
+        return buckets.size();
+    }
+    
+    private final class Bucket {
+        
+        private double tokens;
+        private long updatedAt;
+        
+        private Bucket(double tokens, long nowNanos) {
+            this.tokens = tokens;
+            this.updatedAt = nowNanos;
+        }
+        
+        private synchronized long tryAcquire(long nowNanos) {
+            refill(nowNanos);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            long waitNanos = (long) Math.ceil((1 - tokens) / tokensPerNano);
+            return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        }
+        
+        private synchronized boolean isFull(long nowNanos) {
+            refill(nowNanos);
+            return tokens >= capacity;
+        }
+        
+        private void refill(long nowNanos) {
+            tokens = Math.min(capacity, tokens + (nowNanos - updatedAt) * tokensPerNano);
+            updatedAt = nowNanos;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.dhillon.twitterclone.service;
+
+import com.dhillon.twitterclone.entity.Bookmark;
+import com.dhillon.twitterclone.util.KeysetCursor;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Service interface for bookmarks, the posts a user has saved for later.
+ * Adding and removing are idempotent, so a client can retry either without checking first.
+ */
+public interface BookmarkService {
+
+    /**
+     * Bookmark a post for a user.
+     *
+     * @param userId the ID of the user
+     * @param postId the ID of the post
+     * @return true if the bookmark was added, false if it already existed
+     */
+    boolean addBookmark(UUID userId, UUID postId);
+
+    /**
+     * Remove a user's bookmark of a post.
+     *
+     * @param userId the ID of the user
+     * @param postId the ID of the post
+     * @return true if the bookmark was removed, false if there was none
+     */
+    boolean removeBookmark(UUID userId, UUID postId);
+
+    /**
+     * Get a page of a user's bookmarks, newest first, with their posts and the posts' authors.
+     *
+     * @param userId the ID of the user
+     * @param cursor the position after which to start, or null for the first page
+     * @param limit the maximum number of bookmarks to return
+     * @return list of bookmarks
+     */
+    List<Bookmark> getBookmarks(UUID userId, KeysetCursor cursor, int limit);
+
+    /**
+     * Find which of a page of posts a user has bookmarked, in one query.
+     *
+     * @param userId the ID of the user
+     * @param postIds the IDs of the posts
+     * @return the IDs of the bookmarked posts
+     */
+    Set<UUID> getBookmarkedPostIds(UUID userId, Collection<UUID> postIds);
+}
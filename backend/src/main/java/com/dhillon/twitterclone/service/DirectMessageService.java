@@ -0,0 +1,102 @@
+package com.dhillon.twitterclone.service;
+
+import com.dhillon.twitterclone.entity.Conversation;
+import com.dhillon.twitterclone.entity.ConversationParticipant;
+import com.dhillon.twitterclone.entity.DirectMessage;
+import com.dhillon.twitterclone.util.KeysetCursor;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Service interface for direct messaging.
+ * Each participant row carries a copy of its conversation's last activity time, so an inbox page
+ * costs the same however many conversations its user is in. Reads are tracked as a watermark per
+ * participant, the latest message read, from which unread counts and read receipts are derived.
+ * Conversations a user is not part of are reported as not found.
+ */
+public interface DirectMessageService {
+
+    /**
+     * Start a conversation. A conversation between two users without a name is one-to-one,
+     * and asking for it again returns the existing one.
+     *
+     * @param creatorId the ID of the user starting the conversation
+     * @param participantIds the IDs of the other participants
+     * @param name the conversation name, or null
+     * @return the conversation
+     */
+    Conversation createConversation(UUID creatorId, Collection<UUID> participantIds, String name);
+
+    /**
+     * Get a page of a user's conversations, most recently active first.
+     *
+     * @param userId the ID of the user
+     * @param cursor the position after which to start, or null for the first page
+     * @param limit the maximum number of conversations to return
+     * @return list of conversations
+     */
+    List<Conversation> getInbox(UUID userId, KeysetCursor cursor, int limit);
+
+    /**
+     * Get the participants of a set of conversations in one query.
+     *
+     * @param conversationIds the IDs of the conversations
+     * @return the user IDs of each conversation's participants, by conversation ID
+     */
+    Map<UUID, List<UUID>> getParticipantIds(Collection<UUID> conversationIds);
+
+    /**
+     * Get a user's unread message counts for a set of conversations in one query.
+     *
+     * @param userId the ID of the user
+     * @param conversationIds the IDs of the conversations
+     * @return the number of messages from others past the user's watermark, by conversation ID;
+     *         conversations without unread messages are left out
+     */
+    Map<UUID, Long> getUnreadCounts(UUID userId, Collection<UUID> conversationIds);
+
+    /**
+     * Send a message to a conversation. The other participants get a push once the transaction commits,
+     * and the sender's watermark moves to the new message.
+     *
+     * @param senderId the ID of the sender, who must be a participant
+     * @param conversationId the ID of the conversation
+     * @param content the message text
+     * @return the saved message
+     */
+    DirectMessage sendMessage(UUID senderId, UUID conversationId, String content);
+
+    /**
+     * Get a page of a conversation's messages, newest first.
+     *
+     * @param userId the ID of the user reading, who must be a participant
+     * @param conversationId the ID of the conversation
+     * @param cursor the position after which to start, or null for the first page
+     * @param limit the maximum number of messages to return
+     * @return list of messages
+     */
+    List<DirectMessage> getMessages(UUID userId, UUID conversationId, KeysetCursor cursor, int limit);
+
+    /**
+     * Move a user's read watermark forward to a message, marking it and everything before it read.
+     * One row write however many messages it covers; a watermark already past the message stays put.
+     *
+     * @param userId the ID of the user, who must be a participant
+     * @param conversationId the ID of the conversation
+     * @param messageId the ID of the last message read, or null for the latest message
+     * @return whether the watermark moved
+     */
+    boolean markRead(UUID userId, UUID conversationId, UUID messageId);
+
+    /**
+     * Get the read watermarks of a conversation's participants, from which clients tell who has read each message.
+     *
+     * @param userId the ID of the user asking, who must be a participant
+     * @param conversationId the ID of the conversation
+     * @return list of participants with their watermarks
+     */
+    List<ConversationParticipant> getReadMarks(UUID userId, UUID conversationId);
+}
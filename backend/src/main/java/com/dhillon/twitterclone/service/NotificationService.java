@@ -0,0 +1,82 @@
+package com.dhillon.twitterclone.service;
+
+import com.dhillon.twitterclone.entity.Notification;
+import com.dhillon.twitterclone.entity.NotificationType;
+import com.dhillon.twitterclone.util.KeysetCursor;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Service interface for notification operations.
+ * Events are buffered in memory and written in batches, collapsing same-type events on the same
+ * post into a single aggregate row, so a burst of likes costs a handful of writes.
+ */
+public interface NotificationService {
+
+    /**
+     * Record that an actor did something the recipient should hear about.
+     * The event is buffered once the current transaction commits, or at once if there is none;
+     * events where the actor is the recipient are ignored.
+     *
+     * @param recipientId the ID of the user to notify
+     * @param type the notification type
+     * @param actorId the ID of the user who triggered the notification
+     * @param postId the ID of the related post, or null
+     */
+    void notify(UUID recipientId, NotificationType type, UUID actorId, UUID postId);
+
+    /**
+     * Write all buffered events in one transaction.
+     * Each (recipient, type, post) group either bumps a matching unread notification from within
+     * the aggregation window or becomes a new row.
+     *
+     * @return number of notification rows inserted or updated
+     */
+    int flush();
+
+    /**
+     * Get a page of a user's notifications, newest first.
+     *
+     * @param userId the ID of the user
+     * @param cursor the position after which to start, or null for the first page
+     * @param limit the maximum number of notifications to return
+     * @return list of notifications
+     */
+    List<Notification> getNotifications(UUID userId, KeysetCursor cursor, int limit);
+
+    /**
+     * Mark all of a user's notifications as read.
+     *
+     * @param userId the ID of the user
+     * @return number of notifications marked
+     */
+    int markAllAsRead(UUID userId);
+
+    /**
+     * Get a user's unread notification count, from memory once it has been counted.
+     *
+     * @param userId the ID of the user
+     * @return the number of unread notifications
+     */
+    long getUnreadCount(UUID userId);
+
+    /**
+     * Wait for a user's unread count to differ from a value the caller already has.
+     * No query is made while waiting.
+     *
+     * @param userId the ID of the user
+     * @param known the count the caller already has
+     * @return a future completed with the new count, which the caller must bound with a timeout
+     */
+    CompletableFuture<Long> awaitUnreadCountChange(UUID userId, long known);
+
+    /**
+     * Recount the unread notifications of every user with a cached count, correcting any drift,
+     * such as from notifications written by another instance.
+     *
+     * @return number of counts corrected
+     */
+    int reconcileUnreadCounts();
+}
@@ -0,0 +1,15 @@
+package com.dhillon.twitterclone.service;
+
+/**
+ * Service that keeps the monthly partitions of the posts table in step with the calendar.
+ */
+public interface PartitionMaintenanceService {
+    
+    /**
+     * Create the partitions for the coming months and detach those past the retention period.
+     * Does nothing on databases where posts is not partitioned.
+     *
+     * @return number of partitions created and detached
+     */
+    int maintainPostPartitions();
+}
@@ -0,0 +1,37 @@
+package com.dhillon.twitterclone.service;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Service for hashing and verifying passwords off the request threads.
+ * Work runs on a bounded pool; when the pool and its queue are full, calls fail fast with a
+ * {@link com.dhillon.twitterclone.exception.ServiceUnavailableException} instead of queueing unboundedly.
+ */
+public interface PasswordHashingService {
+    
+    /**
+     * Hash a raw password with the configured cost.
+     *
+     * @param rawPassword the raw password
+     * @return future completing with the encoded hash
+     */
+    CompletableFuture<String> hash(String rawPassword);
+    
+    /**
+     * Verify a raw password against a stored hash.
+     * A null hash is verified against a dummy hash, so that unknown users take as long as known ones.
+     *
+     * @param rawPassword the raw password
+     * @param passwordHash the stored hash, or null if there is no such user
+     * @return future completing with true if the password matches
+     */
+    CompletableFuture<Boolean> verify(String rawPassword, String passwordHash);
+    
+    /**
+     * Check whether a stored hash was produced with a cost other than the configured one.
+     *
+     * @param passwordHash the stored hash
+     * @return true if the hash should be replaced on the next successful login
+     */
+    boolean needsRehash(String passwordHash);
+}
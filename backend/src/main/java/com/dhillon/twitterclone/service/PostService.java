@@ -1,10 +1,15 @@
 package com.dhillon.twitterclone.service;
 
+import com.dhillon.twitterclone.dto.PostThreadDto;
+import com.dhillon.twitterclone.dto.PostVersion;
 import com.dhillon.twitterclone.entity.Post;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -21,6 +26,23 @@ public interface PostService {
      */
     Optional<Post> findById(UUID id);
     
+    /**
+     * Find several posts by ID, with their authors, in the order asked for.
+     * IDs of missing or deleted posts, and repeated IDs, are left out.
+     *
+     * @param ids the post IDs
+     * @return the posts found
+     */
+    List<Post> findByIds(List<UUID> ids);
+    
+    /**
+     * Find what the representation of a post depends on, which is cheaper to read than the post.
+     *
+     * @param id the post ID
+     * @return the version, or empty if the post does not exist or was deleted
+     */
+    Optional<PostVersion> findVersion(UUID id);
+    
     /**
      * Create a new post.
      *
@@ -47,21 +69,40 @@ public interface PostService {
     
     /**
      * Get user timeline (posts by a specific user).
+     * Recent posts are read first, falling back to the full history when they do not fill the page.
      *
      * @param userId the user ID
      * @param pageable pagination information
-     * @return page of posts
+     * @return slice of posts
+     */
+    Slice<Post> getUserTimeline(UUID userId, Pageable pageable);
+    
+    /**
+     * Get the originals of the reposts in a page of posts, with their authors, in one query.
+     * Originals that were deleted are left out.
+     *
+     * @param posts the page of posts
+     * @return the original posts by ID
      */
-    Page<Post> getUserTimeline(UUID userId, Pageable pageable);
+    Map<UUID, Post> getOriginalPosts(Collection<Post> posts);
     
     /**
      * Get home timeline (posts from followed users).
+     * Recent posts are read first, falling back to the full history when they do not fill the page.
      *
      * @param userId the user ID
      * @param pageable pagination information
-     * @return page of posts
+     * @return slice of posts
      */
-    Page<Post> getHomeTimeline(UUID userId, Pageable pageable);
+    Slice<Post> getHomeTimeline(UUID userId, Pageable pageable);
+    
+    /**
+     * Get the ID of the newest post in a user's home timeline, without loading any post.
+     *
+     * @param userId the user ID
+     * @return the post ID, or empty if the timeline is empty
+     */
+    Optional<UUID> getHomeTimelineHead(UUID userId);
     
     /**
      * Search for posts.
@@ -73,12 +114,12 @@ public interface PostService {
     Page<Post> searchPosts(String query, Pageable pageable);
     
     /**
-     * Get trending posts.
+     * Get trending posts among recent ones, or of all time when there are no recent posts.
      *
      * @param pageable pagination information
-     * @return page of posts
+     * @return slice of posts
      */
-    Page<Post> getTrendingPosts(Pageable pageable);
+    Slice<Post> getTrendingPosts(Pageable pageable);
     
     /**
      * Get posts by hashtag.
@@ -98,6 +139,15 @@ public interface PostService {
      */
     Page<Post> getReplies(UUID postId, Pageable pageable);
     
+    /**
+     * Get a post in its conversation: the posts it replies to and a tree of the replies below it,
+     * bounded in depth and size. Threads are cached until a post in them changes or gets a reply.
+     *
+     * @param postId the post ID
+     * @return the thread, with no bookmarked flags set
+     */
+    PostThreadDto getThread(UUID postId);
+    
     /**
      * Create a reply to a post.
      *
@@ -116,6 +166,24 @@ public interface PostService {
      */
     Post createRepost(UUID originalPostId, Post repost);
     
+    /**
+     * Like a post. Liking a post twice has no further effect.
+     *
+     * @param postId the post ID
+     * @param userId the ID of the user liking the post
+     * @return true if the like was added, false if it already existed
+     */
+    boolean likePost(UUID postId, UUID userId);
+    
+    /**
+     * Remove a like from a post.
+     *
+     * @param postId the post ID
+     * @param userId the ID of the user who liked the post
+     * @return true if a like was removed, false if there was none
+     */
+    boolean unlikePost(UUID postId, UUID userId);
+    
     /**
      * Extract hashtags from post content.
      *
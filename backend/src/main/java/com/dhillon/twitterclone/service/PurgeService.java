@@ -0,0 +1,15 @@
+package com.dhillon.twitterclone.service;
+
+/**
+ * Service that permanently removes soft-deleted users and posts in the background.
+ */
+public interface PurgeService {
+    
+    /**
+     * Purge all soft-deleted posts, then all soft-deleted users whose posts are gone.
+     * Rows are deleted in bounded batches, each in its own transaction.
+     *
+     * @return number of posts and users deleted
+     */
+    int purgeDeleted();
+}
@@ -0,0 +1,44 @@
+package com.dhillon.twitterclone.service;
+
+import java.util.UUID;
+
+/**
+ * Service interface for pushing events to connected clients over STOMP.
+ * Events are only kept for users with an open session, and bursts are coalesced: each flush sends
+ * every user at most one event per type, covering everything that happened since the last one.
+ */
+public interface PushService {
+
+    /**
+     * Tell the author's followers that a post appeared in their home timeline.
+     * Takes effect once the current transaction commits, or at once if there is none.
+     *
+     * @param authorId the ID of the post's author
+     * @param postId the ID of the new post
+     */
+    void postCreated(UUID authorId, UUID postId);
+
+    /**
+     * Tell a user that notifications were created or updated.
+     *
+     * @param userId the ID of the user
+     * @param count the number of notifications created or updated
+     */
+    void notificationsChanged(UUID userId, int count);
+
+    /**
+     * Tell a user that a direct message arrived.
+     * Takes effect once the current transaction commits, or at once if there is none.
+     *
+     * @param recipientId the ID of the recipient
+     * @param conversationId the ID of the conversation
+     */
+    void messageReceived(UUID recipientId, UUID conversationId);
+
+    /**
+     * Send the pending events, one per user and type.
+     *
+     * @return number of events sent
+     */
+    int flush();
+}
@@ -0,0 +1,37 @@
+package com.dhillon.twitterclone.service;
+
+import com.dhillon.twitterclone.entity.User;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Service for computing "who to follow" suggestions from the follow graph.
+ */
+public interface RecommendationService {
+
+    /**
+     * Get follow suggestions for a user, ranked by the number of mutual connections.
+     * Users deleted since the suggestions were computed are left out.
+     * A user who does not exist is reported as not found.
+     *
+     * @param userId the user ID
+     * @param limit the maximum number of suggestions to return; none are returned if it is not positive
+     * @return list of suggested users
+     */
+    List<User> getSuggestions(UUID userId, int limit);
+
+    /**
+     * Rebuild the suggestions of every user from a fresh snapshot of the follow graph.
+     */
+    void rebuildSuggestions();
+
+    /**
+     * Refresh the suggestions of the user who followed or unfollowed, once the current transaction commits.
+     * The users who follow them see the change after the next rebuild.
+     *
+     * @param followerId the ID of the user who followed or unfollowed
+     * @param followingId the ID of the user who was followed or unfollowed
+     */
+    void onFollowChanged(UUID followerId, UUID followingId);
+}
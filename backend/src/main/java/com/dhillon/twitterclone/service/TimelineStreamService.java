@@ -0,0 +1,57 @@
+package com.dhillon.twitterclone.service;
+
+import com.dhillon.twitterclone.dto.TimelineEntryDto;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Service interface for streaming home timeline entries to clients as Server-Sent Events.
+ * Each streaming user has a bounded replay buffer, so a client that reconnects with the ID of the
+ * last event it saw gets what it missed, or a reset event telling it to reload the timeline.
+ */
+public interface TimelineStreamService {
+
+    /**
+     * Open a stream for a user.
+     *
+     * @param userId the ID of the user
+     * @param lastEventId the Last-Event-ID sent by a reconnecting client, or null for a new one
+     * @return the emitter to return from the request
+     */
+    SseEmitter subscribe(UUID userId, String lastEventId);
+
+    /**
+     * @param userId the ID of the user
+     * @return whether entries for the user are kept, because the user has or recently had a stream open
+     */
+    boolean isStreaming(UUID userId);
+
+    /**
+     * @return whether any user is streaming
+     */
+    boolean hasStreams();
+
+    /**
+     * @return the IDs of the users whose entries are kept, as by {@link #isStreaming}
+     */
+    Set<UUID> streamingUserIds();
+
+    /**
+     * Append entries to a user's replay buffer and send them to the user's open streams.
+     *
+     * @param userId the ID of the user
+     * @param entries the new entries, oldest first
+     */
+    void publish(UUID userId, List<TimelineEntryDto> entries);
+
+    /**
+     * Send a comment on every open stream, so proxies keep idle connections open
+     * and dead ones are noticed.
+     *
+     * @return number of streams open
+     */
+    int heartbeat();
+}
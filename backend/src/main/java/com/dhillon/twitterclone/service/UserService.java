@@ -19,6 +19,15 @@ public interface UserService {
      */
     Optional<User> findById(UUID id);
     
+    /**
+     * Find several users by ID, in the order asked for.
+     * IDs of missing or deleted users, and repeated IDs, are left out.
+     *
+     * @param ids the user IDs
+     * @return the users found
+     */
+    List<User> findByIds(List<UUID> ids);
+    
     /**
      * Find a user by username.
      *
@@ -27,6 +36,23 @@ public interface UserService {
      */
     Optional<User> findByUsername(String username);
     
+    /**
+     * Find a user by ID or, if the value is not a UUID, by username.
+     *
+     * @param idOrUsername the user ID or username
+     * @return optional user if found
+     */
+    Optional<User> findByIdOrUsername(String idOrUsername);
+    
+    /**
+     * Resolve a user ID or username to a user ID without loading the user.
+     * A value in UUID form is returned as-is; its existence is not checked.
+     *
+     * @param idOrUsername the user ID or username
+     * @return optional user ID if the value is a UUID or a known username
+     */
+    Optional<UUID> resolveUserId(String idOrUsername);
+    
     /**
      * Find a user by email.
      *
@@ -36,13 +62,25 @@ public interface UserService {
     Optional<User> findByEmail(String email);
     
     /**
-     * Create a new user.
+     * Create a new user. The password is hashed before the user is saved, outside any transaction
+     * this method starts.
      *
-     * @param user the user to create
+     * @param user the user to create, with the raw password in place of its hash
      * @return the created user
      */
     User createUser(User user);
     
+    /**
+     * Replace a user's password hash, e.g. to upgrade it to the configured hashing cost.
+     * Nothing is changed if the stored hash no longer matches, so a concurrent password change wins.
+     *
+     * @param id the user ID
+     * @param currentHash the hash the caller verified against
+     * @param newHash the replacement hash
+     * @return true if the hash was replaced
+     */
+    boolean replacePasswordHash(UUID id, String currentHash, String newHash);
+    
     /**
      * Update a user.
      *
@@ -82,4 +120,27 @@ public interface UserService {
      * @return true if available, false otherwise
      */
     boolean isEmailAvailable(String email);
+    
+    /**
+     * Follow a user. Following a user that is already followed has no effect.
+     *
+     * @param followerId the ID of the user who follows
+     * @param followingId the ID of the user to follow
+     */
+    void followUser(UUID followerId, UUID followingId);
+    
+    /**
+     * Unfollow a user. Unfollowing a user that is not followed has no effect.
+     *
+     * @param followerId the ID of the user who unfollows
+     * @param followingId the ID of the user to unfollow
+     */
+    void unfollowUser(UUID followerId, UUID followingId);
+    
+    /**
+     * Correct any drift between the cached follow counts on users and the follows table.
+     *
+     * @return number of users whose counts were corrected
+     */
+    int reconcileFollowCounts();
 } 
\ No newline at end of file
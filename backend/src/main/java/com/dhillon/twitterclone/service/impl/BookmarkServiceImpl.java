@@ -0,0 +1,88 @@
+package com.dhillon.twitterclone.service.impl;
+
+import com.dhillon.twitterclone.entity.Bookmark;
+import com.dhillon.twitterclone.exception.ResourceNotFoundException;
+import com.dhillon.twitterclone.repository.BookmarkRepository;
+import com.dhillon.twitterclone.repository.PostRepository;
+import com.dhillon.twitterclone.service.BookmarkService;
+import com.dhillon.twitterclone.util.KeysetCursor;
+import com.dhillon.twitterclone.util.UuidV7;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Implementation of the BookmarkService interface.
+ * Adding a bookmark is a single upsert that leaves an existing one alone, so concurrent or repeated
+ * requests never race between a check and an insert.
+ */
+@Service
+public class BookmarkServiceImpl implements BookmarkService {
+
+    private static final String UPSERT_BOOKMARK_SQL =
+            "insert into bookmarks (id, user_id, post_id, created_at) values (?, ?, ?, ?) " +
+            "on conflict do nothing";
+
+    private final BookmarkRepository bookmarkRepository;
+    private final PostRepository postRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor with dependencies.
+     *
+     * @param bookmarkRepository the bookmark repository
+     * @param postRepository the post repository
+     * @param jdbcTemplate the JDBC template used for the upsert
+     */
+    public BookmarkServiceImpl(BookmarkRepository bookmarkRepository, PostRepository postRepository,
+                               JdbcTemplate jdbcTemplate) {
+        this.bookmarkRepository = bookmarkRepository;
+        this.postRepository = postRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public boolean addBookmark(UUID userId, UUID postId) {
+        // Soft-deleted posts keep their rows until purged, which the foreign key alone would accept
+        if (!postRepository.existsById(postId)) {
+            throw new ResourceNotFoundException("Post", "id", postId);
+        }
+        return jdbcTemplate.update(UPSERT_BOOKMARK_SQL, UuidV7.randomUuid(), userId, postId,
+                Timestamp.valueOf(LocalDateTime.now())) > 0;
+    }
+
+    @Override
+    @Transactional
+    public boolean removeBookmark(UUID userId, UUID postId) {
+        return bookmarkRepository.deleteByUserIdAndPostId(userId, postId) > 0;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Bookmark> getBookmarks(UUID userId, KeysetCursor cursor, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+        if (cursor == null) {
+            return bookmarkRepository.findLatest(userId, page);
+        }
+        return bookmarkRepository.findBefore(userId, cursor.createdAt(), cursor.id(), page);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Set<UUID> getBookmarkedPostIds(UUID userId, Collection<UUID> postIds) {
+        if (postIds.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(bookmarkRepository.findBookmarkedPostIds(userId, postIds));
+    }
+}
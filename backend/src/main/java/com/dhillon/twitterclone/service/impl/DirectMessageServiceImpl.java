@@ -0,0 +1,288 @@
+package com.dhillon.twitterclone.service.impl;
+
+import com.dhillon.twitterclone.entity.Conversation;
+import com.dhillon.twitterclone.entity.ConversationParticipant;
+import com.dhillon.twitterclone.entity.DirectMessage;
+import com.dhillon.twitterclone.entity.User;
+import com.dhillon.twitterclone.exception.BadRequestException;
+import com.dhillon.twitterclone.exception.ResourceNotFoundException;
+import com.dhillon.twitterclone.repository.ConversationParticipantRepository;
+import com.dhillon.twitterclone.repository.ConversationRepository;
+import com.dhillon.twitterclone.repository.DirectMessageRepository;
+import com.dhillon.twitterclone.repository.UserRepository;
+import com.dhillon.twitterclone.service.DirectMessageService;
+import com.dhillon.twitterclone.service.PushService;
+import com.dhillon.twitterclone.util.KeysetCursor;
+import com.dhillon.twitterclone.util.UuidV7;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Implementation of the DirectMessageService interface.
+ * Sending a message is a fixed handful of statements whatever the size of the conversation: the insert,
+ * one update each to move the conversation and its participant rows forward in their inboxes, and one
+ * to move the sender's watermark. Reading is a single row write to the reader's watermark, where the
+ * per-message status rows it replaced cost a write per message and reader.
+ */
+@Service
+public class DirectMessageServiceImpl implements DirectMessageService {
+
+    // Another request may have just created the pair's conversation; then this inserts nothing
+    private static final String INSERT_DIRECT_SQL =
+            "insert into dm_conversations (id, is_group, direct_user_low, direct_user_high, last_message_at, " +
+            "created_at, updated_at) values (?, false, ?, ?, ?, ?, ?) on conflict do nothing";
+
+    private static final String INSERT_PARTICIPANT_SQL =
+            "insert into dm_participants (conversation_id, user_id, last_message_at, joined_at) values (?, ?, ?, ?)";
+
+    private static final int MAX_NAME_LENGTH = 100;
+
+    private final ConversationRepository conversationRepository;
+    private final ConversationParticipantRepository participantRepository;
+    private final DirectMessageRepository messageRepository;
+    private final UserRepository userRepository;
+    private final PushService pushService;
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxParticipants;
+    private final int maxLength;
+    private final int batchSize;
+
+    /**
+     * Constructor with dependencies.
+     *
+     * @param conversationRepository the conversation repository
+     * @param participantRepository the conversation participant repository
+     * @param messageRepository the direct message repository
+     * @param userRepository the user repository
+     * @param pushService the push service, told about each message for its recipients
+     * @param jdbcTemplate the JDBC template used for the batched participant inserts
+     * @param maxParticipants the maximum number of participants in a conversation, including its creator
+     * @param maxLength the maximum length of a message
+     * @param batchSize the maximum number of statements per JDBC batch
+     */
+    public DirectMessageServiceImpl(ConversationRepository conversationRepository,
+                                    ConversationParticipantRepository participantRepository,
+                                    DirectMessageRepository messageRepository, UserRepository userRepository,
+                                    PushService pushService, JdbcTemplate jdbcTemplate,
+                                    @Value("${app.dm.max-participants:50}") int maxParticipants,
+                                    @Value("${app.dm.max-length:10000}") int maxLength,
+                                    @Value("${app.dm.batch-size:500}") int batchSize) {
+        this.conversationRepository = conversationRepository;
+        this.participantRepository = participantRepository;
+        this.messageRepository = messageRepository;
+        this.userRepository = userRepository;
+        this.pushService = pushService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxParticipants = maxParticipants;
+        this.maxLength = maxLength;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    @Transactional
+    public Conversation createConversation(UUID creatorId, Collection<UUID> participantIds, String name) {
+        Set<UUID> others = new LinkedHashSet<>(participantIds);
+        others.remove(creatorId);
+        if (others.isEmpty()) {
+            throw new BadRequestException("A conversation needs at least one other participant");
+        }
+        if (others.size() + 1 > maxParticipants) {
+            throw new BadRequestException("A conversation can have at most " + maxParticipants + " participants");
+        }
+        String trimmedName = name != null && !name.isBlank() ? name.strip() : null;
+        if (trimmedName != null && trimmedName.length() > MAX_NAME_LENGTH) {
+            throw new BadRequestException("Conversation name exceeds " + MAX_NAME_LENGTH + " characters");
+        }
+
+        boolean group = others.size() > 1 || trimmedName != null;
+        UUID[] pair = group ? null : directPair(creatorId, others.iterator().next());
+        if (!group) {
+            Optional<Conversation> existing =
+                    conversationRepository.findByDirectUserLowAndDirectUserHigh(pair[0], pair[1]);
+            if (existing.isPresent()) {
+                return existing.get();
+            }
+        }
+
+        List<UUID> userIds = new ArrayList<>(others.size() + 1);
+        userIds.add(creatorId);
+        userIds.addAll(others);
+        Set<UUID> found = new LinkedHashSet<>();
+        for (User user : userRepository.findAllById(userIds)) {
+            found.add(user.getId());
+        }
+        for (UUID userId : userIds) {
+            if (!found.contains(userId)) {
+                throw new ResourceNotFoundException("User", "id", userId);
+            }
+        }
+
+        Conversation conversation;
+        if (group) {
+            conversation = new Conversation(trimmedName, true);
+            conversation.setLastMessageAt(LocalDateTime.now());
+            conversationRepository.saveAndFlush(conversation);
+        } else {
+            LocalDateTime createdAt = LocalDateTime.now();
+            conversation = new Conversation(UuidV7.randomUuid(), null, false, createdAt, createdAt, createdAt);
+            conversation.setDirectUserLow(pair[0]);
+            conversation.setDirectUserHigh(pair[1]);
+            Timestamp at = Timestamp.valueOf(createdAt);
+            if (jdbcTemplate.update(INSERT_DIRECT_SQL, conversation.getId(), pair[0], pair[1], at, at, at) == 0) {
+                return conversationRepository.findByDirectUserLowAndDirectUserHigh(pair[0], pair[1])
+                        .orElseThrow(() -> new IllegalStateException("Direct conversation vanished after a conflict"));
+            }
+        }
+        Timestamp now = Timestamp.valueOf(conversation.getLastMessageAt());
+        jdbcTemplate.batchUpdate(INSERT_PARTICIPANT_SQL, userIds, batchSize, (ps, userId) -> {
+            ps.setObject(1, conversation.getId());
+            ps.setObject(2, userId);
+            ps.setTimestamp(3, now);
+            ps.setTimestamp(4, now);
+        });
+        return conversation;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Conversation> getInbox(UUID userId, KeysetCursor cursor, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+        if (cursor == null) {
+            return conversationRepository.findInbox(userId, page);
+        }
+        return conversationRepository.findInboxBefore(userId, cursor.createdAt(), cursor.id(), page);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<UUID, List<UUID>> getParticipantIds(Collection<UUID> conversationIds) {
+        if (conversationIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<UUID, List<UUID>> participants = new HashMap<>();
+        for (Object[] row : participantRepository.findUserIdsByConversationIds(conversationIds)) {
+            participants.computeIfAbsent((UUID) row[0], id -> new ArrayList<>()).add((UUID) row[1]);
+        }
+        return participants;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<UUID, Long> getUnreadCounts(UUID userId, Collection<UUID> conversationIds) {
+        if (conversationIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<UUID, Long> counts = new HashMap<>();
+        for (Object[] row : messageRepository.countUnread(userId, conversationIds)) {
+            counts.put((UUID) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+
+    @Override
+    @Transactional
+    public DirectMessage sendMessage(UUID senderId, UUID conversationId, String content) {
+        String text = content != null ? content.strip() : "";
+        if (text.isEmpty()) {
+            throw new BadRequestException("Message content is required");
+        }
+        if (text.length() > maxLength) {
+            throw new BadRequestException("Message exceeds " + maxLength + " characters");
+        }
+        List<UUID> participantIds = participantRepository.findUserIdsByConversationId(conversationId);
+        if (!participantIds.contains(senderId)) {
+            throw conversationNotFound(conversationId);
+        }
+
+        // Flushed so the status rows below can reference it
+        DirectMessage message = messageRepository.saveAndFlush(new DirectMessage(
+                conversationRepository.getReferenceById(conversationId), userRepository.getReferenceById(senderId), text));
+        conversationRepository.touch(conversationId, message.getCreatedAt());
+        participantRepository.touch(conversationId, message.getCreatedAt());
+        // Whoever writes has read everything before it
+        participantRepository.advanceReadMark(conversationId, senderId, message.getCreatedAt(), message.getId());
+
+        for (UUID participantId : participantIds) {
+            if (!participantId.equals(senderId)) {
+                pushService.messageReceived(participantId, conversationId);
+            }
+        }
+        return message;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<DirectMessage> getMessages(UUID userId, UUID conversationId, KeysetCursor cursor, int limit) {
+        requireParticipant(userId, conversationId);
+        PageRequest page = PageRequest.of(0, limit);
+        if (cursor == null) {
+            return messageRepository.findLatest(conversationId, page);
+        }
+        return messageRepository.findBefore(conversationId, cursor.createdAt(), cursor.id(), page);
+    }
+
+    @Override
+    @Transactional
+    public boolean markRead(UUID userId, UUID conversationId, UUID messageId) {
+        requireParticipant(userId, conversationId);
+        DirectMessage message;
+        if (messageId == null) {
+            List<DirectMessage> latest = messageRepository.findLatest(conversationId, PageRequest.of(0, 1));
+            if (latest.isEmpty()) {
+                return false;
+            }
+            message = latest.get(0);
+        } else {
+            message = messageRepository.findById(messageId)
+                    .filter(found -> found.getConversation().getId().equals(conversationId))
+                    .orElseThrow(() -> new ResourceNotFoundException("Message", "id", messageId));
+        }
+        return participantRepository.advanceReadMark(
+                conversationId, userId, message.getCreatedAt(), message.getId()) > 0;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ConversationParticipant> getReadMarks(UUID userId, UUID conversationId) {
+        requireParticipant(userId, conversationId);
+        return participantRepository.findByConversationId(conversationId);
+    }
+
+    /**
+     * Order the two users of a one-to-one conversation as its unique key does: by the text of their IDs,
+     * as the migration keyed the existing ones, rather than by {@link UUID#compareTo}.
+     */
+    private static UUID[] directPair(UUID userId, UUID otherUserId) {
+        return userId.toString().compareTo(otherUserId.toString()) < 0
+                ? new UUID[] { userId, otherUserId }
+                : new UUID[] { otherUserId, userId };
+    }
+
+    private void requireParticipant(UUID userId, UUID conversationId) {
+        if (!participantRepository.existsByConversationIdAndUserId(conversationId, userId)) {
+            throw conversationNotFound(conversationId);
+        }
+    }
+
+    /**
+     * Outsiders get the same answer whether or not the conversation exists.
+     */
+    private static ResourceNotFoundException conversationNotFound(UUID conversationId) {
+        return new ResourceNotFoundException("Conversation", "id", conversationId);
+    }
+}
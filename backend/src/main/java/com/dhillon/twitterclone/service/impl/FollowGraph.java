@@ -0,0 +1,225 @@
+package com.dhillon.twitterclone.service.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Immutable snapshot of the follow graph in compressed sparse row form.
+ * Users are mapped to dense int indices so that friends-of-friends counting
+ * runs over primitive arrays instead of entity collections.
+ */
+final class FollowGraph {
+
+    /**
+     * Number of users a single fork/join leaf task processes sequentially.
+     */
+    private static final int LEAF_SIZE = 256;
+
+    private final UUID[] userIds;
+    private final int[] offsets;
+    private final int[] targets;
+
+    private FollowGraph(UUID[] userIds, int[] offsets, int[] targets) {
+        this.userIds = userIds;
+        this.offsets = offsets;
+        this.targets = targets;
+    }
+
+    /**
+     * Build a graph from a list of (followerId, followingId) edges.
+     *
+     * @param edges the follow edges
+     * @return the graph snapshot
+     */
+    static FollowGraph fromEdges(List<UUID[]> edges) {
+        Map<UUID, Integer> index = new HashMap<>();
+        List<UUID> ids = new ArrayList<>();
+        int[] sources = new int[edges.size()];
+        int[] destinations = new int[edges.size()];
+
+        for (int i = 0; i < edges.size(); i++) {
+            UUID[] edge = edges.get(i);
+            sources[i] = index.computeIfAbsent(edge[0], id -> { ids.add(id); return ids.size() - 1; });
+            destinations[i] = index.computeIfAbsent(edge[1], id -> { ids.add(id); return ids.size() - 1; });
+        }
+
+        int userCount = ids.size();
+        int[] offsets = new int[userCount + 1];
+        for (int source : sources) {
+            offsets[source + 1]++;
+        }
+        for (int i = 0; i < userCount; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+
+        int[] targets = new int[edges.size()];
+        int[] cursor = Arrays.copyOf(offsets, userCount);
+        for (int i = 0; i < sources.length; i++) {
+            targets[cursor[sources[i]]++] = destinations[i];
+        }
+
+        return new FollowGraph(ids.toArray(new UUID[0]), offsets, targets);
+    }
+
+    /**
+     * Compute the top-K friends-of-friends suggestions for every user in parallel.
+     *
+     * @param pool the fork/join pool to run on
+     * @param k the maximum number of suggestions per user
+     * @return suggested user IDs keyed by user ID, best candidate first
+     */
+    Map<UUID, List<UUID>> computeSuggestions(ForkJoinPool pool, int k) {
+        int[][] results = new int[userIds.length][];
+        ThreadLocal<int[]> scratch = ThreadLocal.withInitial(() -> new int[userIds.length]);
+        pool.invoke(new SuggestionTask(0, userIds.length, k, results, scratch));
+
+        Map<UUID, List<UUID>> suggestions = new HashMap<>(userIds.length * 2);
+        for (int user = 0; user < results.length; user++) {
+            List<UUID> ids = new ArrayList<>(results[user].length);
+            for (int candidate : results[user]) {
+                ids.add(userIds[candidate]);
+            }
+            suggestions.put(userIds[user], ids);
+        }
+        return suggestions;
+    }
+
+    /**
+     * Rank the friends-of-friends of a single user.
+     * The scratch array must be all zeroes on entry and is left all zeroes on exit.
+     */
+    private int[] topCandidates(int user, int k, int[] counts) {
+        // Mark the user and everyone they already follow so they are never suggested
+        counts[user] = -1;
+        for (int e = offsets[user]; e < offsets[user + 1]; e++) {
+            counts[targets[e]] = -1;
+        }
+
+        int[] touched = new int[16];
+        int touchedCount = 0;
+        for (int e = offsets[user]; e < offsets[user + 1]; e++) {
+            int friend = targets[e];
+            for (int f = offsets[friend]; f < offsets[friend + 1]; f++) {
+                int candidate = targets[f];
+                if (counts[candidate] < 0) {
+                    continue;
+                }
+                if (counts[candidate]++ == 0) {
+                    if (touchedCount == touched.length) {
+                        touched = Arrays.copyOf(touched, touchedCount * 2);
+                    }
+                    touched[touchedCount++] = candidate;
+                }
+            }
+        }
+
+        // Bounded min-heap on (count, candidate) keeps the best k without sorting every candidate
+        int[] heap = new int[Math.min(k, touchedCount)];
+        int size = 0;
+        for (int i = 0; i < touchedCount; i++) {
+            int candidate = touched[i];
+            if (size < heap.length) {
+                heap[size++] = candidate;
+                siftUp(heap, size - 1, counts);
+            } else if (heap.length > 0 && counts[candidate] > counts[heap[0]]) {
+                heap[0] = candidate;
+                siftDown(heap, size, counts);
+            }
+        }
+
+        int[] ranked = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            ranked[i] = heap[0];
+            heap[0] = heap[i];
+            siftDown(heap, i, counts);
+        }
+
+        // Reset the scratch array for the next user
+        for (int i = 0; i < touchedCount; i++) {
+            counts[touched[i]] = 0;
+        }
+        counts[user] = 0;
+        for (int e = offsets[user]; e < offsets[user + 1]; e++) {
+            counts[targets[e]] = 0;
+        }
+
+        return ranked;
+    }
+
+    private static void siftUp(int[] heap, int i, int[] counts) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (counts[heap[i]] >= counts[heap[parent]]) {
+                return;
+            }
+            swap(heap, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, int[] counts) {
+        int i = 0;
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && counts[heap[left]] < counts[heap[smallest]]) {
+                smallest = left;
+            }
+            if (right < size && counts[heap[right]] < counts[heap[smallest]]) {
+                smallest = right;
+            }
+            if (smallest == i) {
+                return;
+            }
+            swap(heap, i, smallest);
+            i = smallest;
+        }
+    }
+
+    private static void swap(int[] heap, int a, int b) {
+        int tmp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = tmp;
+    }
+
+    /**
+     * Fork/join task that splits the user range until it is small enough to process sequentially.
+     */
+    private final class SuggestionTask extends RecursiveAction {
+
+        private final int from;
+        private final int to;
+        private final int k;
+        private final int[][] results;
+        private final ThreadLocal<int[]> scratch;
+
+        SuggestionTask(int from, int to, int k, int[][] results, ThreadLocal<int[]> scratch) {
+            this.from = from;
+            this.to = to;
+            this.k = k;
+            this.results = results;
+            this.scratch = scratch;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_SIZE) {
+                int[] counts = scratch.get();
+                for (int user = from; user < to; user++) {
+                    results[user] = topCandidates(user, k, counts);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SuggestionTask(from, mid, k, results, scratch),
+                      new SuggestionTask(mid, to, k, results, scratch));
+        }
+    }
+}
@@ -0,0 +1,418 @@
+package com.dhillon.twitterclone.service.impl;
+
+import com.dhillon.twitterclone.cache.UnreadCounts;
+import com.dhillon.twitterclone.entity.Notification;
+import com.dhillon.twitterclone.entity.NotificationType;
+import com.dhillon.twitterclone.repository.NotificationRepository;
+import com.dhillon.twitterclone.service.NotificationService;
+import com.dhillon.twitterclone.service.PushService;
+import com.dhillon.twitterclone.util.KeysetCursor;
+import com.dhillon.twitterclone.util.UuidV7;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of the NotificationService interface.
+ * Buffered events are grouped by (recipient, type, post) before anything is written. Each group first
+ * tries to bump the newest matching unread notification inside the aggregation window, adding its
+ * actors to the notification's distinct actors and recounting them; the groups that found none are
+ * inserted as new rows. All steps are JDBC batches, and the inserts reach PostgreSQL as multi-row
+ * INSERTs through reWriteBatchedInserts.
+ */
+@Service
+public class NotificationServiceImpl implements NotificationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationServiceImpl.class);
+
+    // The newest unread notification of a group inside the aggregation window
+    private static final String TARGET_SQL =
+            "select n.id from notifications n " +
+            "where n.user_id = ? and n.type = ? and %s and n.read = false and n.created_at >= ? " +
+            "order by n.created_at desc limit 1";
+
+    private static final String ADD_ACTOR_SQL =
+            "insert into notification_actors (notification_id, actor_id) " +
+            "select t.id, ? from (" + TARGET_SQL + ") t on conflict do nothing";
+
+    private static final String MERGE_SQL =
+            "update notifications set actor_id = ?, created_at = ?, actor_count = " +
+            "(select count(*) from notification_actors a where a.notification_id = notifications.id) " +
+            "where id = (" + TARGET_SQL + ")";
+
+    // A null post has to be matched with IS NULL, so groups with and without a post use separate statements
+    private static final String WITH_POST = "n.post_id = ?";
+    private static final String WITHOUT_POST = "n.post_id is null";
+
+    private static final String INSERT_SQL =
+            "insert into notifications (id, user_id, type, actor_id, post_id, actor_count, read, created_at) " +
+            "values (?, ?, ?, ?, ?, ?, false, ?)";
+
+    private static final String INSERT_ACTOR_SQL =
+            "insert into notification_actors (notification_id, actor_id) values (?, ?)";
+
+    private final NotificationRepository notificationRepository;
+    private final UnreadCounts unreadCounts;
+    private final PushService pushService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final long aggregationWindowMs;
+    private final int batchSize;
+    private final BlockingQueue<NotificationEvent> buffer;
+
+    /**
+     * Constructor with dependencies.
+     *
+     * @param notificationRepository the notification repository
+     * @param unreadCounts the cached unread counts, kept in step with each flush and read
+     * @param pushService the push service, told which recipients each flush touched
+     * @param jdbcTemplate the JDBC template used for the batched writes
+     * @param transactionTemplate the template whose transaction manager writes each flush in a new transaction
+     * @param aggregationWindowMs how long an unread notification keeps absorbing new events of its group
+     * @param batchSize the maximum number of statements per JDBC batch
+     * @param bufferCapacity the maximum number of events held between flushes
+     */
+    public NotificationServiceImpl(NotificationRepository notificationRepository, UnreadCounts unreadCounts,
+                                   PushService pushService, JdbcTemplate jdbcTemplate,
+                                   TransactionTemplate transactionTemplate,
+                                   @Value("${app.notification.aggregation-window-ms:3600000}") long aggregationWindowMs,
+                                   @Value("${app.notification.batch-size:500}") int batchSize,
+                                   @Value("${app.notification.buffer-capacity:10000}") int bufferCapacity) {
+        this.notificationRepository = notificationRepository;
+        this.unreadCounts = unreadCounts;
+        this.pushService = pushService;
+        this.jdbcTemplate = jdbcTemplate;
+        // A full buffer is flushed from afterCommit callbacks, where the committed transaction's resources are
+        // still bound; joining it would leave the flush without a transaction of its own, so it always starts one
+        this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.aggregationWindowMs = aggregationWindowMs;
+        this.batchSize = batchSize;
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+    }
+
+    @Override
+    public void notify(UUID recipientId, NotificationType type, UUID actorId, UUID postId) {
+        if (recipientId.equals(actorId)) {
+            return;
+        }
+
+        NotificationEvent event = new NotificationEvent(recipientId, type, actorId, postId, LocalDateTime.now());
+        afterCommit(() -> enqueue(event));
+    }
+
+    @Override
+    @Scheduled(initialDelayString = "${app.notification.flush-interval-ms:1000}",
+               fixedDelayString = "${app.notification.flush-interval-ms:1000}")
+    public synchronized int flush() {
+        List<NotificationEvent> events = new ArrayList<>(buffer.size());
+        buffer.drainTo(events);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        Map<GroupKey, Group> groups = aggregate(events);
+        try {
+            List<Group> inserted = transactionTemplate.execute(status -> write(groups.values()));
+            // Merged groups bumped a notification that was already unread, so only inserts change the counts
+            if (inserted != null) {
+                inserted.stream()
+                        .collect(Collectors.groupingBy(group -> group.key.recipientId(), Collectors.counting()))
+                        .forEach(unreadCounts::increment);
+            }
+            // Every group created or bumped one notification
+            groups.keySet().stream()
+                    .collect(Collectors.groupingBy(GroupKey::recipientId, Collectors.summingInt(key -> 1)))
+                    .forEach(pushService::notificationsChanged);
+            return groups.size();
+        } catch (RuntimeException e) {
+            // Notifications are best effort; a failed flush must not wedge the buffer or the caller
+            logger.error("Dropped {} notification events after a failed flush", events.size(), e);
+            return 0;
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Notification> getNotifications(UUID userId, KeysetCursor cursor, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+        if (cursor == null) {
+            return notificationRepository.findLatest(userId, page);
+        }
+        return notificationRepository.findBefore(userId, cursor.createdAt(), cursor.id(), page);
+    }
+
+    @Override
+    @Transactional
+    public int markAllAsRead(UUID userId) {
+        int updated = notificationRepository.markAllAsRead(userId);
+        afterCommit(() -> unreadCounts.reset(userId));
+        return updated;
+    }
+
+    // Not transactional, so a cached count is served without touching the connection pool
+    @Override
+    public long getUnreadCount(UUID userId) {
+        Long cached = unreadCounts.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        return unreadCounts.load(userId, notificationRepository.countByUserIdAndReadFalse(userId));
+    }
+
+    @Override
+    public CompletableFuture<Long> awaitUnreadCountChange(UUID userId, long known) {
+        return unreadCounts.awaitChange(userId, known);
+    }
+
+    // Reads the primary: replica lag would look like drift and undo recent increments
+    @Override
+    @Transactional
+    @Scheduled(initialDelayString = "${app.notification.unread-reconcile-interval-ms:60000}",
+               fixedDelayString = "${app.notification.unread-reconcile-interval-ms:60000}")
+    public int reconcileUnreadCounts() {
+        Map<UUID, Long> cached = unreadCounts.snapshot();
+        List<UUID> userIds = new ArrayList<>(cached.keySet());
+        int corrected = 0;
+        for (int from = 0; from < userIds.size(); from += batchSize) {
+            List<UUID> chunk = userIds.subList(from, Math.min(from + batchSize, userIds.size()));
+            Map<UUID, Long> actual = new HashMap<>();
+            for (Object[] row : notificationRepository.countUnreadByUserIds(chunk)) {
+                actual.put((UUID) row[0], (Long) row[1]);
+            }
+            for (UUID userId : chunk) {
+                long expected = cached.get(userId);
+                long count = actual.getOrDefault(userId, 0L);
+                if (count != expected && unreadCounts.replace(userId, expected, count)) {
+                    corrected++;
+                }
+            }
+        }
+        if (corrected > 0) {
+            logger.info("Corrected drifted unread counts of {} users", corrected);
+        }
+        return corrected;
+    }
+
+    /**
+     * Write whatever is still buffered before the data source goes away.
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * Add an event to the buffer. A full buffer is flushed on the calling thread,
+     * which slows producers down instead of dropping their events.
+     */
+    private void enqueue(NotificationEvent event) {
+        if (buffer.offer(event)) {
+            return;
+        }
+        flush();
+        if (!buffer.offer(event)) {
+            logger.warn("Notification buffer still full after a flush; dropped a {} event", event.type());
+        }
+    }
+
+    /**
+     * Collapse events into one group per (recipient, type, post), in order of first appearance.
+     * Each group keeps its distinct actors and the latest of them.
+     */
+    private static Map<GroupKey, Group> aggregate(List<NotificationEvent> events) {
+        Map<GroupKey, Group> groups = new LinkedHashMap<>();
+        for (NotificationEvent event : events) {
+            GroupKey key = new GroupKey(event.recipientId(), event.type(), event.postId());
+            groups.computeIfAbsent(key, Group::new).add(event);
+        }
+        return groups;
+    }
+
+    /**
+     * Merge or insert each group.
+     *
+     * @return the groups that were inserted as new notifications
+     */
+    private List<Group> write(Iterable<Group> groups) {
+        Timestamp windowStart = Timestamp.valueOf(LocalDateTime.now().minus(aggregationWindowMs, ChronoUnit.MILLIS));
+        List<Group> withPost = new ArrayList<>();
+        List<Group> withoutPost = new ArrayList<>();
+        for (Group group : groups) {
+            (group.key.postId() != null ? withPost : withoutPost).add(group);
+        }
+
+        List<Group> unmerged = new ArrayList<>();
+        unmerged.addAll(merge(true, withPost, windowStart));
+        unmerged.addAll(merge(false, withoutPost, windowStart));
+
+        for (Group group : unmerged) {
+            group.notificationId = UuidV7.fromTimestamp(group.latestMillis());
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, unmerged, batchSize, (ps, group) -> {
+            ps.setObject(1, group.notificationId);
+            ps.setObject(2, group.key.recipientId());
+            ps.setString(3, group.key.type().name());
+            ps.setObject(4, group.latestActor);
+            if (group.key.postId() != null) {
+                ps.setObject(5, group.key.postId());
+            } else {
+                ps.setNull(5, Types.OTHER);
+            }
+            ps.setInt(6, group.actors.size());
+            ps.setTimestamp(7, Timestamp.valueOf(group.latestAt));
+        });
+        List<GroupActor> insertedActors = actorsOf(unmerged);
+        jdbcTemplate.batchUpdate(INSERT_ACTOR_SQL, insertedActors, batchSize, (ps, actor) -> {
+            ps.setObject(1, actor.group().notificationId);
+            ps.setObject(2, actor.actorId());
+        });
+
+        int merged = withPost.size() + withoutPost.size() - unmerged.size();
+        logger.debug("Flushed notifications: {} merged into existing rows, {} inserted", merged, unmerged.size());
+        return unmerged;
+    }
+
+    /**
+     * Add each group's actors to its matching unread notification, then bump it and recount its actors.
+     * An actor already counted, in this flush or an earlier one, is left alone.
+     *
+     * @param withPost whether the groups are of a post, rather than all without one
+     * @return the groups that had no notification to merge into
+     */
+    private List<Group> merge(boolean withPost, List<Group> groups, Timestamp windowStart) {
+        if (groups.isEmpty()) {
+            return List.of();
+        }
+        String postCondition = withPost ? WITH_POST : WITHOUT_POST;
+
+        jdbcTemplate.batchUpdate(ADD_ACTOR_SQL.formatted(postCondition), actorsOf(groups), batchSize,
+                (ps, actor) -> {
+                    ps.setObject(1, actor.actorId());
+                    setTarget(ps, 2, actor.group(), withPost, windowStart);
+                });
+
+        int[][] counts = jdbcTemplate.batchUpdate(MERGE_SQL.formatted(postCondition), groups, batchSize,
+                (ps, group) -> {
+                    ps.setObject(1, group.latestActor);
+                    ps.setTimestamp(2, Timestamp.valueOf(group.latestAt));
+                    setTarget(ps, 3, group, withPost, windowStart);
+                });
+
+        List<Group> unmerged = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count == 0) {
+                    unmerged.add(groups.get(index));
+                }
+                index++;
+            }
+        }
+        return unmerged;
+    }
+
+    /**
+     * Bind the parameters of TARGET_SQL for a group, from the given index on.
+     */
+    private static void setTarget(PreparedStatement ps, int index, Group group, boolean withPost,
+                                  Timestamp windowStart) throws SQLException {
+        ps.setObject(index++, group.key.recipientId());
+        ps.setString(index++, group.key.type().name());
+        if (withPost) {
+            ps.setObject(index++, group.key.postId());
+        }
+        ps.setTimestamp(index, windowStart);
+    }
+
+    private static List<GroupActor> actorsOf(List<Group> groups) {
+        List<GroupActor> actors = new ArrayList<>();
+        for (Group group : groups) {
+            for (UUID actorId : group.actors) {
+                actors.add(new GroupActor(group, actorId));
+            }
+        }
+        return actors;
+    }
+
+    /**
+     * Run an action once the current transaction commits, or immediately if there is none.
+     *
+     * @param action the action to run
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record NotificationEvent(UUID recipientId, NotificationType type, UUID actorId, UUID postId,
+                                     LocalDateTime createdAt) {
+    }
+
+    private record GroupKey(UUID recipientId, NotificationType type, UUID postId) {
+    }
+
+    private record GroupActor(Group group, UUID actorId) {
+    }
+
+    private static final class Group {
+        private final GroupKey key;
+        private final Set<UUID> actors = new LinkedHashSet<>();
+        private UUID latestActor;
+        private LocalDateTime latestAt;
+        private UUID notificationId;
+
+        private Group(GroupKey key) {
+            this.key = key;
+        }
+
+        private void add(NotificationEvent event) {
+            actors.add(event.actorId());
+            if (latestAt == null || !event.createdAt().isBefore(latestAt)) {
+                latestActor = event.actorId();
+                latestAt = event.createdAt();
+            }
+        }
+
+        private long latestMillis() {
+            return Timestamp.valueOf(latestAt).getTime();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.dhillon.twitterclone.service.impl;
+
+import com.dhillon.twitterclone.service.PartitionMaintenanceService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Implementation of the PartitionMaintenanceService interface.
+ * The partition DDL lives in database functions created by the migration; this only calls them.
+ * Posts are partitioned on PostgreSQL alone, so other databases are skipped.
+ */
+@Service
+public class PartitionMaintenanceServiceImpl implements PartitionMaintenanceService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PartitionMaintenanceServiceImpl.class);
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private final int retainMonths;
+    
+    private volatile Boolean partitioned;
+    
+    /**
+     * Constructor with dependencies.
+     *
+     * @param jdbcTemplate the JDBC template
+     * @param monthsAhead the number of months after the current one to keep partitions for
+     * @param retainMonths the number of past months to keep attached, or 0 to keep every month
+     */
+    public PartitionMaintenanceServiceImpl(JdbcTemplate jdbcTemplate,
+                                           @Value("${app.post.partitions.months-ahead:3}") int monthsAhead,
+                                           @Value("${app.post.partitions.retain-months:0}") int retainMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+        this.retainMonths = retainMonths;
+    }
+    
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.post.partitions.interval-ms:86400000}",
+               fixedDelayString = "${app.post.partitions.interval-ms:86400000}")
+    public int maintainPostPartitions() {
+        if (!isPartitioned()) {
+            return 0;
+        }
+        
+        int created = jdbcTemplate.queryForObject("select create_posts_partitions(?)", Integer.class, monthsAhead);
+        int detached = 0;
+        if (retainMonths > 0) {
+            detached = jdbcTemplate.queryForObject("select detach_posts_partitions(?)", Integer.class, retainMonths);
+        }
+        
+        if (created + detached > 0) {
+            logger.info("Created {} and detached {} posts partitions", created, detached);
+        }
+        return created + detached;
+    }
+    
+    private boolean isPartitioned() {
+        if (partitioned == null) {
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            partitioned = "PostgreSQL".equals(product);
+        }
+        return partitioned;
+    }
+}
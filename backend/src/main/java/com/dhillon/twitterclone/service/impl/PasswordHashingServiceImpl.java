@@ -0,0 +1,124 @@
+package com.dhillon.twitterclone.service.impl;
+
+import com.dhillon.twitterclone.exception.ServiceUnavailableException;
+import com.dhillon.twitterclone.service.PasswordHashingService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Implementation of the PasswordHashingService interface.
+ * BCrypt is deliberately CPU-bound, so it gets its own fixed-size pool: a burst of logins saturates
+ * that pool and is then rejected, rather than occupying every request thread.
+ */
+@Service
+public class PasswordHashingServiceImpl implements PasswordHashingService {
+    
+    // Matches the cost field of $2a$, $2b$ and $2y$ BCrypt hashes
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[aby]?\\$(\\d{2})\\$");
+    
+    private final PasswordEncoder passwordEncoder;
+    private final int cost;
+    private final ThreadPoolExecutor executor;
+    private final String dummyHash;
+    
+    private final Timer hashTimer;
+    private final Timer verifyTimer;
+    private final Counter rejectedCounter;
+    
+    /**
+     * Constructor with dependencies.
+     *
+     * @param passwordEncoder the password encoder
+     * @param meterRegistry the meter registry
+     * @param cost the configured BCrypt cost
+     * @param threads the number of hashing threads, or 0 for half the available processors
+     * @param queueCapacity the number of requests allowed to wait for a hashing thread
+     */
+    public PasswordHashingServiceImpl(PasswordEncoder passwordEncoder, MeterRegistry meterRegistry,
+                                      @Value("${app.auth.password.bcrypt-cost:10}") int cost,
+                                      @Value("${app.auth.password.threads:0}") int threads,
+                                      @Value("${app.auth.password.queue-capacity:64}") int queueCapacity) {
+        this.passwordEncoder = passwordEncoder;
+        this.cost = cost;
+        
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("password-hash-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        
+        this.hashTimer = Timer.builder("auth.password.hash")
+                .description("Time spent computing password hashes")
+                .tag("operation", "hash")
+                .register(meterRegistry);
+        this.verifyTimer = Timer.builder("auth.password.hash")
+                .description("Time spent computing password hashes")
+                .tag("operation", "verify")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("auth.password.rejected")
+                .description("Password hashing requests rejected because the pool was full")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.queue", executor, e -> e.getQueue().size())
+                .description("Password hashing requests waiting for a thread")
+                .register(meterRegistry);
+        
+        this.dummyHash = passwordEncoder.encode("dummy-password-for-unknown-users");
+    }
+    
+    @Override
+    public CompletableFuture<String> hash(String rawPassword) {
+        return submit(hashTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+    
+    @Override
+    public CompletableFuture<Boolean> verify(String rawPassword, String passwordHash) {
+        if (passwordHash == null) {
+            return submit(verifyTimer, () -> {
+                passwordEncoder.matches(rawPassword, dummyHash);
+                return false;
+            });
+        }
+        return submit(verifyTimer, () -> passwordEncoder.matches(rawPassword, passwordHash));
+    }
+    
+    @Override
+    public boolean needsRehash(String passwordHash) {
+        if (passwordHash == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(passwordHash);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != cost;
+    }
+    
+    /**
+     * Stop the hashing threads on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+    
+    private <T> CompletableFuture<T> submit(Timer timer, Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(() -> timer.record(task), executor);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new ServiceUnavailableException("Too many password requests in progress, please retry shortly", 1, e);
+        }
+    }
+}
@@ -1,22 +1,49 @@
 package com.dhillon.twitterclone.service.impl;
 
+import com.dhillon.twitterclone.cache.ThreadCache;
+import com.dhillon.twitterclone.dto.PostDto;
+import com.dhillon.twitterclone.dto.PostThreadDto;
+import com.dhillon.twitterclone.dto.PostVersion;
+import com.dhillon.twitterclone.dto.ThreadReplyDto;
 import com.dhillon.twitterclone.entity.Hashtag;
+import com.dhillon.twitterclone.entity.NotificationType;
 import com.dhillon.twitterclone.entity.Post;
 import com.dhillon.twitterclone.exception.ResourceNotFoundException;
 import com.dhillon.twitterclone.repository.HashtagRepository;
+import com.dhillon.twitterclone.repository.LikeRepository;
 import com.dhillon.twitterclone.repository.PostRepository;
+import com.dhillon.twitterclone.repository.UserRepository;
+import com.dhillon.twitterclone.service.NotificationService;
 import com.dhillon.twitterclone.service.PostService;
+import com.dhillon.twitterclone.service.PushService;
+import com.dhillon.twitterclone.util.PostMapper;
+import com.dhillon.twitterclone.util.UuidV7;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -29,6 +56,16 @@ public class PostServiceImpl implements PostService {
     
     private final PostRepository postRepository;
     private final HashtagRepository hashtagRepository;
+    private final LikeRepository likeRepository;
+    private final UserRepository userRepository;
+    private final NotificationService notificationService;
+    private final PushService pushService;
+    private final ThreadCache threadCache;
+    private final int timelineWindowDays;
+    private final int trendingWindowDays;
+    private final int threadMaxAncestors;
+    private final int threadMaxDepth;
+    private final int threadMaxReplies;
     
     // Pattern to match hashtags in post content
     private static final Pattern HASHTAG_PATTERN = Pattern.compile("#(\\w+)");
@@ -38,24 +75,74 @@ public class PostServiceImpl implements PostService {
      *
      * @param postRepository the post repository
      * @param hashtagRepository the hashtag repository
+     * @param likeRepository the like repository
+     * @param userRepository the user repository
+     * @param notificationService the notification service
+     * @param pushService the push service, told about new posts for followers' timelines
+     * @param threadCache the cache of assembled conversation threads
+     * @param timelineWindowDays how far back timelines look before falling back to the full history
+     * @param trendingWindowDays how far back trending posts are drawn from
+     * @param threadMaxAncestors the maximum number of posts loaded above a post in its thread
+     * @param threadMaxDepth the maximum depth of replies loaded below a post in its thread
+     * @param threadMaxReplies the maximum number of replies loaded below a post in its thread
      */
-    public PostServiceImpl(PostRepository postRepository, HashtagRepository hashtagRepository) {
+    public PostServiceImpl(PostRepository postRepository, HashtagRepository hashtagRepository,
+                           LikeRepository likeRepository, UserRepository userRepository,
+                           NotificationService notificationService, PushService pushService, ThreadCache threadCache,
+                           @Value("${app.post.timeline-window-days:30}") int timelineWindowDays,
+                           @Value("${app.post.trending-window-days:7}") int trendingWindowDays,
+                           @Value("${app.post.thread.max-ancestors:50}") int threadMaxAncestors,
+                           @Value("${app.post.thread.max-depth:4}") int threadMaxDepth,
+                           @Value("${app.post.thread.max-replies:200}") int threadMaxReplies) {
         this.postRepository = postRepository;
         this.hashtagRepository = hashtagRepository;
+        this.likeRepository = likeRepository;
+        this.userRepository = userRepository;
+        this.notificationService = notificationService;
+        this.pushService = pushService;
+        this.threadCache = threadCache;
+        this.timelineWindowDays = timelineWindowDays;
+        this.trendingWindowDays = trendingWindowDays;
+        this.threadMaxAncestors = threadMaxAncestors;
+        this.threadMaxDepth = threadMaxDepth;
+        this.threadMaxReplies = threadMaxReplies;
     }
     
     @Override
+    @Transactional(readOnly = true)
     public Optional<Post> findById(UUID id) {
         return postRepository.findById(id);
     }
     
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<PostVersion> findVersion(UUID id) {
+        return postRepository.findVersionById(id);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<Post> findByIds(List<UUID> ids) {
+        Set<UUID> distinctIds = new LinkedHashSet<>(ids);
+        distinctIds.remove(null);
+        if (distinctIds.isEmpty()) {
+            return List.of();
+        }
+        // Posts are not in the second-level cache, so they all come from one query, authors included
+        Map<UUID, Post> postsById = postRepository.findWithUserByIdIn(distinctIds).stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+        return distinctIds.stream().map(postsById::get).filter(Objects::nonNull).toList();
+    }
+    
     @Override
     @Transactional
     public Post createPost(Post post) {
         // Extract and process hashtags
         processHashtags(post);
         
-        return postRepository.save(post);
+        Post savedPost = postRepository.save(post);
+        pushToFollowers(savedPost);
+        return savedPost;
     }
     
     @Override
@@ -73,48 +160,142 @@ public class PostServiceImpl implements PostService {
             processHashtags(existingPost);
         }
         
-        return postRepository.save(existingPost);
+        Post savedPost = postRepository.save(existingPost);
+        afterCommit(() -> threadCache.invalidate(id));
+        return savedPost;
     }
     
     @Override
     @Transactional
     public void deletePost(UUID id) {
-        Post post = postRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Post", "id", id));
+        if (!postRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Post", "id", id);
+        }
         
-        postRepository.delete(post);
+        // Hide the post at once; the row and its dependents are removed in batches by the purge job
+        postRepository.softDelete(id);
+        afterCommit(() -> threadCache.invalidate(id));
     }
     
     @Override
-    public Page<Post> getUserTimeline(UUID userId, Pageable pageable) {
-        return postRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable);
+    @Transactional(readOnly = true)
+    public Slice<Post> getUserTimeline(UUID userId, Pageable pageable) {
+        return recentOrAll(
+                () -> postRepository.findByUserIdSince(userId, windowStart(timelineWindowDays), pageable),
+                () -> postRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable));
     }
     
     @Override
-    public Page<Post> getHomeTimeline(UUID userId, Pageable pageable) {
-        return postRepository.findHomeTimeline(userId, pageable);
+    @Transactional(readOnly = true)
+    public Map<UUID, Post> getOriginalPosts(Collection<Post> posts) {
+        // Reading the ID of an unloaded original does not load it
+        Set<UUID> originalIds = new HashSet<>();
+        for (Post post : posts) {
+            if (post.isRepost() && post.getOriginalPost() != null) {
+                originalIds.add(post.getOriginalPost().getId());
+            }
+        }
+        if (originalIds.isEmpty()) {
+            return Map.of();
+        }
+        return postRepository.findWithUserByIdIn(originalIds).stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
     }
     
     @Override
+    @Transactional(readOnly = true)
+    public Slice<Post> getHomeTimeline(UUID userId, Pageable pageable) {
+        return recentOrAll(
+                () -> postRepository.findHomeTimelineSince(userId, windowStart(timelineWindowDays), pageable),
+                () -> postRepository.findHomeTimeline(userId, pageable));
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<UUID> getHomeTimelineHead(UUID userId) {
+        // The newest post is a recent one whenever there are any, so the full history is only read otherwise
+        PageRequest first = PageRequest.of(0, 1);
+        List<UUID> head = postRepository.findHomeTimelineIdsSince(userId, windowStart(timelineWindowDays), first);
+        if (head.isEmpty()) {
+            head = postRepository.findHomeTimelineIds(userId, first);
+        }
+        return head.stream().findFirst();
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
     public Page<Post> searchPosts(String query, Pageable pageable) {
         return postRepository.searchPosts(query, pageable);
     }
     
     @Override
-    public Page<Post> getTrendingPosts(Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Slice<Post> getTrendingPosts(Pageable pageable) {
+        LocalDateTime since = windowStart(trendingWindowDays);
+        // Ranking changes with the window, so only an empty window falls back, never a partial page.
+        // Every page asks whether the window has any posts at all, so all pages of a listing agree on it
+        if (postRepository.existsByCreatedAtGreaterThanEqual(since)) {
+            return postRepository.findTrendingPostsSince(since, pageable);
+        }
         return postRepository.findTrendingPosts(pageable);
     }
     
     @Override
+    @Transactional(readOnly = true)
     public Page<Post> getPostsByHashtag(String hashtag, Pageable pageable) {
         return postRepository.findByHashtagName(hashtag, pageable);
     }
     
     @Override
+    @Transactional(readOnly = true)
     public Page<Post> getReplies(UUID postId, Pageable pageable) {
         return postRepository.findByParentIdOrderByCreatedAtDesc(postId, pageable);
     }
     
+    @Override
+    @Transactional(readOnly = true)
+    public PostThreadDto getThread(UUID postId) {
+        PostThreadDto cached = threadCache.get(postId);
+        if (cached != null) {
+            return cached;
+        }
+        
+        long generation = threadCache.generation();
+        List<Post> posts = postRepository.findThread(postId, threadMaxAncestors, threadMaxDepth, threadMaxReplies);
+        Map<UUID, Post> postsById = new HashMap<>();
+        Map<UUID, List<Post>> repliesByParentId = new HashMap<>();
+        for (Post post : posts) {
+            postsById.put(post.getId(), post);
+            if (post.getParent() != null) {
+                repliesByParentId.computeIfAbsent(post.getParent().getId(), id -> new ArrayList<>()).add(post);
+            }
+        }
+        Post post = postsById.get(postId);
+        if (post == null) {
+            throw new ResourceNotFoundException("Post", "id", postId);
+        }
+        repliesByParentId.values().forEach(replies ->
+                replies.sort(Comparator.comparing(Post::getCreatedAt).thenComparing(Post::getId)));
+        
+        // Walk up the chain of parents, then build the reply tree down from the post
+        List<PostDto> ancestors = new ArrayList<>();
+        for (Post parent = parentOf(post, postsById); parent != null; parent = parentOf(parent, postsById)) {
+            ancestors.add(PostMapper.toDto(parent));
+        }
+        Collections.reverse(ancestors);
+        // Reply counts also count deleted replies, so whether more are left to load is asked of the posts
+        Set<UUID> treeIds = new HashSet<>();
+        treeIds.add(postId);
+        collectReplyIds(postId, repliesByParentId, treeIds);
+        Set<UUID> withMore = new HashSet<>(postRepository.findParentIdsWithRepliesOutside(treeIds));
+        List<ThreadReplyDto> replies = replyTree(postId, repliesByParentId, withMore);
+        
+        PostThreadDto thread = new PostThreadDto(ancestors, PostMapper.toDto(post), replies,
+                withMore.contains(postId));
+        threadCache.put(postId, thread, generation);
+        return thread;
+    }
+    
     @Override
     @Transactional
     public Post createReply(UUID parentId, Post reply) {
@@ -133,6 +314,10 @@ public class PostServiceImpl implements PostService {
         parentPost.setReplyCount(parentPost.getReplyCount() + 1);
         postRepository.save(parentPost);
         
+        notifyAuthor(parentPost, NotificationType.REPLY, savedReply);
+        pushToFollowers(savedReply);
+        // Every cached thread showing the parent now lacks the reply or has a stale reply count
+        afterCommit(() -> threadCache.invalidate(parentId));
         return savedReply;
     }
     
@@ -154,9 +339,36 @@ public class PostServiceImpl implements PostService {
         originalPost.setRepostCount(originalPost.getRepostCount() + 1);
         postRepository.save(originalPost);
         
+        notifyAuthor(originalPost, NotificationType.REPOST, savedRepost);
+        pushToFollowers(savedRepost);
         return savedRepost;
     }
     
+    @Override
+    @Transactional
+    public boolean likePost(UUID postId, UUID userId) {
+        Post post = postRepository.findById(postId)
+                .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId));
+        // Only the request that inserted the like counts it and notifies, however many race
+        if (likeRepository.insertIfAbsent(UuidV7.randomUuid(), userId, postId) == 0) {
+            return false;
+        }
+        
+        postRepository.adjustLikeCount(postId, 1);
+        notificationService.notify(post.getUser().getId(), NotificationType.LIKE, userId, postId);
+        return true;
+    }
+    
+    @Override
+    @Transactional
+    public boolean unlikePost(UUID postId, UUID userId) {
+        if (likeRepository.deleteByUserIdAndPostId(userId, postId) == 0) {
+            return false;
+        }
+        postRepository.adjustLikeCount(postId, -1);
+        return true;
+    }
+    
     @Override
     public List<String> extractHashtags(String content) {
         if (content == null || content.isEmpty()) {
@@ -173,10 +385,97 @@ public class PostServiceImpl implements PostService {
         return hashtags;
     }
     
+    /**
+     * Read a newest-first page from the recent window, which only touches the latest partitions.
+     * When more recent posts follow the page, it is exactly the page the full history would give;
+     * otherwise the window ran out and the page is read from the full history.
+     *
+     * @param recent query bounded to the recent window
+     * @param all the same query over the full history
+     * @return slice of posts
+     */
+    private static Slice<Post> recentOrAll(Supplier<Slice<Post>> recent, Supplier<? extends Slice<Post>> all) {
+        Slice<Post> page = recent.get();
+        return page.hasNext() ? page : all.get();
+    }
+    
+    /**
+     * Notify the author of a post that another post replied to or reposted it.
+     */
+    private void notifyAuthor(Post post, NotificationType type, Post source) {
+        if (source.getUser() != null) {
+            notificationService.notify(post.getUser().getId(), type, source.getUser().getId(), post.getId());
+        }
+    }
+    
+    /**
+     * Tell the author's connected followers that the post is in their home timeline.
+     */
+    private void pushToFollowers(Post post) {
+        if (post.getUser() != null) {
+            pushService.postCreated(post.getUser().getId(), post.getId());
+        }
+    }
+    
+    /**
+     * Get the parent of a thread post, if it was loaded with the thread.
+     */
+    private static Post parentOf(Post post, Map<UUID, Post> postsById) {
+        return post.getParent() != null ? postsById.get(post.getParent().getId()) : null;
+    }
+    
+    /**
+     * Add the IDs of the loaded replies below a thread post.
+     */
+    private static void collectReplyIds(UUID parentId, Map<UUID, List<Post>> repliesByParentId, Set<UUID> ids) {
+        for (Post reply : repliesByParentId.getOrDefault(parentId, List.of())) {
+            ids.add(reply.getId());
+            collectReplyIds(reply.getId(), repliesByParentId, ids);
+        }
+    }
+    
+    /**
+     * Build the loaded replies below a thread post into a tree, keeping the order of each level.
+     */
+    private static List<ThreadReplyDto> replyTree(UUID parentId, Map<UUID, List<Post>> repliesByParentId,
+                                                  Set<UUID> withMore) {
+        List<Post> replies = repliesByParentId.getOrDefault(parentId, List.of());
+        List<ThreadReplyDto> tree = new ArrayList<>(replies.size());
+        for (Post reply : replies) {
+            List<ThreadReplyDto> below = replyTree(reply.getId(), repliesByParentId, withMore);
+            tree.add(new ThreadReplyDto(PostMapper.toDto(reply), below, withMore.contains(reply.getId())));
+        }
+        return tree;
+    }
+    
+    /**
+     * Run an action once the current transaction commits, or immediately if there is none.
+     *
+     * @param action the action to run
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+    
+    private static LocalDateTime windowStart(int days) {
+        return LocalDateTime.now().minusDays(days);
+    }
+    
     /**
      * Process hashtags in a post.
      * Extracts hashtags from content, finds or creates Hashtag entities,
      * and associates them with the post.
+     * Existing hashtags are loaded with one query; new ones get their IDs in memory,
+     * so their inserts are batched with the post's at flush time.
      *
      * @param post the post to process
      */
@@ -185,21 +484,28 @@ public class PostServiceImpl implements PostService {
             return;
         }
         
-        List<String> hashtagNames = extractHashtags(post.getContent());
-        Set<Hashtag> hashtags = new HashSet<>();
+        Set<String> hashtagNames = new LinkedHashSet<>(extractHashtags(post.getContent()));
+        if (hashtagNames.isEmpty()) {
+            post.setHashtags(new HashSet<>());
+            return;
+        }
         
+        Map<String, Hashtag> existing = hashtagRepository.findByNameIn(hashtagNames).stream()
+                .collect(Collectors.toMap(Hashtag::getName, Function.identity()));
+        
+        Set<Hashtag> hashtags = new HashSet<>();
         for (String name : hashtagNames) {
             // Find existing hashtag or create a new one
-            Hashtag hashtag = hashtagRepository.findByName(name)
-                    .orElseGet(() -> {
-                        Hashtag newHashtag = new Hashtag();
-                        newHashtag.setName(name);
-                        return hashtagRepository.save(newHashtag);
-                    });
+            Hashtag hashtag = existing.get(name);
+            if (hashtag == null) {
+                hashtag = new Hashtag();
+                hashtag.setName(name);
+                hashtag = hashtagRepository.save(hashtag);
+            }
             
             hashtags.add(hashtag);
         }
         
         post.setHashtags(hashtags);
     }
-} 
\ No newline at end of file
+}
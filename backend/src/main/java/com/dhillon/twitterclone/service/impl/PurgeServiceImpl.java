@@ -0,0 +1,80 @@
+package com.dhillon.twitterclone.service.impl;
+
+import com.dhillon.twitterclone.repository.PostRepository;
+import com.dhillon.twitterclone.repository.UserRepository;
+import com.dhillon.twitterclone.service.PurgeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Implementation of the PurgeService interface.
+ * Each batch is a single set-based DELETE that leaves dependent rows to the schema's ON DELETE rules,
+ * so no entities are loaded and no transaction holds locks on more than one batch.
+ */
+@Service
+public class PurgeServiceImpl implements PurgeService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PurgeServiceImpl.class);
+    
+    private final PostRepository postRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    
+    /**
+     * Constructor with dependencies.
+     *
+     * @param postRepository the post repository
+     * @param userRepository the user repository
+     * @param transactionTemplate the template used to run each batch in its own transaction
+     * @param batchSize the maximum number of rows deleted per batch
+     */
+    public PurgeServiceImpl(PostRepository postRepository, UserRepository userRepository,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${app.purge.batch-size:500}") int batchSize) {
+        this.postRepository = postRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+    
+    @Override
+    @Scheduled(initialDelayString = "${app.purge.interval-ms:60000}",
+               fixedDelayString = "${app.purge.interval-ms:60000}")
+    public int purgeDeleted() {
+        long start = System.currentTimeMillis();
+        
+        // Posts first, since a user is only purged once none of their posts remain
+        int posts = purgeInBatches(postRepository::purgeDeletedPosts);
+        int users = purgeInBatches(userRepository::purgeDeletedUsers);
+        
+        if (posts + users > 0) {
+            logger.info("Purged {} deleted posts and {} deleted users in {} ms",
+                    posts, users, System.currentTimeMillis() - start);
+        }
+        return posts + users;
+    }
+    
+    /**
+     * Run a batch delete repeatedly until a batch comes back short.
+     *
+     * @param deleteBatch deletes up to the given number of rows and returns how many it deleted
+     * @return total number of rows deleted
+     */
+    private int purgeInBatches(IntUnaryOperator deleteBatch) {
+        int total = 0;
+        int deleted;
+        do {
+            Integer result = transactionTemplate.execute(status -> deleteBatch.applyAsInt(batchSize));
+            deleted = result == null ? 0 : result;
+            total += deleted;
+        } while (deleted == batchSize);
+        return total;
+    }
+}
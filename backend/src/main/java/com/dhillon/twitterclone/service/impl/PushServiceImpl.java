@@ -0,0 +1,277 @@
+package com.dhillon.twitterclone.service.impl;
+
+import com.dhillon.twitterclone.dto.PushEvent;
+import com.dhillon.twitterclone.dto.TimelineEntryDto;
+import com.dhillon.twitterclone.repository.FollowRepository;
+import com.dhillon.twitterclone.service.PushService;
+import com.dhillon.twitterclone.service.TimelineStreamService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implementation of the PushService interface.
+ * Pending events are accumulated per user between flushes, so a burst of posts, likes or messages
+ * becomes a single event per type. New posts are fanned out at flush time: the follows between the
+ * flush's authors and the users online, with an open session or stream, are looked up together,
+ * so an author's offline followers are never loaded. Each event then goes through the broker to
+ * every session of its user. Followers streaming
+ * their timeline over SSE get the same posts from the fan-out, handed to the TimelineStreamService.
+ */
+@Service
+public class PushServiceImpl implements PushService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PushServiceImpl.class);
+
+    /**
+     * The destination clients subscribe to, under the user destination prefix.
+     */
+    public static final String EVENTS_DESTINATION = "/queue/events";
+
+    // Keeps the IN lists of the follow lookup within what a statement should bind
+    private static final int MAX_IDS_PER_QUERY = 1000;
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final SimpUserRegistry userRegistry;
+    private final FollowRepository followRepository;
+    private final TimelineStreamService timelineStreamService;
+    private final int maxIds;
+    private final BlockingQueue<NewPost> newPosts;
+    private final Map<UUID, Pending> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor with dependencies.
+     *
+     * @param messagingTemplate the template used to send to user destinations
+     * @param userRegistry the registry of connected users
+     * @param followRepository the follow repository, used to fan out new posts
+     * @param timelineStreamService the service streaming home timelines over SSE
+     * @param maxIds the maximum number of IDs carried by one event
+     * @param bufferCapacity the maximum number of new posts held between flushes
+     */
+    public PushServiceImpl(SimpMessagingTemplate messagingTemplate, SimpUserRegistry userRegistry,
+                           FollowRepository followRepository, TimelineStreamService timelineStreamService,
+                           @Value("${app.push.max-ids:20}") int maxIds,
+                           @Value("${app.push.buffer-capacity:10000}") int bufferCapacity) {
+        this.messagingTemplate = messagingTemplate;
+        this.userRegistry = userRegistry;
+        this.followRepository = followRepository;
+        this.timelineStreamService = timelineStreamService;
+        this.maxIds = maxIds;
+        this.newPosts = new ArrayBlockingQueue<>(bufferCapacity);
+    }
+
+    @Override
+    public void postCreated(UUID authorId, UUID postId) {
+        afterCommit(() -> {
+            // Nobody to tell, so not even worth the follower lookup
+            if ((userRegistry.getUserCount() > 0 || timelineStreamService.hasStreams())
+                    && !newPosts.offer(new NewPost(authorId, postId))) {
+                logger.debug("Push buffer full; post {} will not be pushed", postId);
+            }
+        });
+    }
+
+    @Override
+    public void notificationsChanged(UUID userId, int count) {
+        if (isConnected(userId)) {
+            pending.compute(userId, (id, events) -> (events != null ? events : new Pending()).addNotifications(count));
+        }
+    }
+
+    @Override
+    public void messageReceived(UUID recipientId, UUID conversationId) {
+        afterCommit(() -> {
+            if (isConnected(recipientId)) {
+                pending.compute(recipientId,
+                        (id, events) -> (events != null ? events : new Pending()).addMessage(conversationId));
+            }
+        });
+    }
+
+    @Override
+    @Scheduled(initialDelayString = "${app.push.coalesce-interval-ms:250}",
+               fixedDelayString = "${app.push.coalesce-interval-ms:250}")
+    public synchronized int flush() {
+        List<NewPost> posts = new ArrayList<>(newPosts.size());
+        newPosts.drainTo(posts);
+        if (!posts.isEmpty()) {
+            fanOut(posts);
+        }
+
+        int sent = 0;
+        for (UUID userId : pending.keySet()) {
+            // Removed before sending, so events added meanwhile start a fresh entry for the next flush
+            Pending events = pending.remove(userId);
+            if (events == null) {
+                continue;
+            }
+            for (PushEvent event : events.toEvents()) {
+                try {
+                    messagingTemplate.convertAndSendToUser(userId.toString(), EVENTS_DESTINATION, event);
+                    sent++;
+                } catch (RuntimeException e) {
+                    // Pushes are hints; the client catches up on its next refresh
+                    logger.warn("Failed to push a {} event to user {}", event.type(), userId, e);
+                }
+            }
+        }
+        return sent;
+    }
+
+    /**
+     * Queue each new post for the connected followers of its author, and for the author's other sessions,
+     * and publish it to those streaming their timeline.
+     * Posts are taken oldest first, so the newest ends up first in each user's list.
+     */
+    private void fanOut(List<NewPost> posts) {
+        Map<UUID, List<UUID>> postsByAuthor = new LinkedHashMap<>();
+        for (NewPost post : posts) {
+            postsByAuthor.computeIfAbsent(post.authorId(), id -> new ArrayList<>()).add(post.postId());
+        }
+
+        Map<UUID, List<UUID>> recipientsByAuthor = new HashMap<>();
+        for (UUID authorId : postsByAuthor.keySet()) {
+            recipientsByAuthor.put(authorId, new ArrayList<>(List.of(authorId)));
+        }
+        List<UUID> authorIds = new ArrayList<>(postsByAuthor.keySet());
+        List<UUID> onlineIds = new ArrayList<>(onlineUserIds());
+        for (int a = 0; a < authorIds.size(); a += MAX_IDS_PER_QUERY) {
+            List<UUID> authors = authorIds.subList(a, Math.min(a + MAX_IDS_PER_QUERY, authorIds.size()));
+            for (int o = 0; o < onlineIds.size(); o += MAX_IDS_PER_QUERY) {
+                List<UUID> online = onlineIds.subList(o, Math.min(o + MAX_IDS_PER_QUERY, onlineIds.size()));
+                for (Object[] follow : followRepository.findFollowsAmong(authors, online)) {
+                    recipientsByAuthor.get((UUID) follow[0]).add((UUID) follow[1]);
+                }
+            }
+        }
+
+        postsByAuthor.forEach((authorId, postIds) -> {
+            List<TimelineEntryDto> entries = postIds.stream()
+                    .map(postId -> new TimelineEntryDto(postId, authorId))
+                    .toList();
+            for (UUID recipientId : recipientsByAuthor.get(authorId)) {
+                if (isConnected(recipientId)) {
+                    pending.compute(recipientId,
+                            (id, events) -> (events != null ? events : new Pending()).addPosts(postIds));
+                }
+                if (timelineStreamService.isStreaming(recipientId)) {
+                    timelineStreamService.publish(recipientId, entries);
+                }
+            }
+        });
+    }
+
+    /**
+     * The users with a session open on this instance, named by their IDs, or streaming their timeline.
+     */
+    private Set<UUID> onlineUserIds() {
+        Set<UUID> userIds = timelineStreamService.streamingUserIds();
+        for (SimpUser user : userRegistry.getUsers()) {
+            try {
+                userIds.add(UUID.fromString(user.getName()));
+            } catch (IllegalArgumentException e) {
+                // Not a signed-in user, so nobody's follower
+            }
+        }
+        return userIds;
+    }
+
+    private boolean isConnected(UUID userId) {
+        return userRegistry.getUser(userId.toString()) != null;
+    }
+
+    /**
+     * Run an action once the current transaction commits, or immediately if there is none.
+     *
+     * @param action the action to run
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record NewPost(UUID authorId, UUID postId) {
+    }
+
+    /**
+     * The events accumulated for one user since the last flush.
+     * Only modified inside {@link ConcurrentHashMap#compute}, and read after being removed from the map.
+     */
+    private final class Pending {
+        private final Deque<UUID> postIds = new ArrayDeque<>();
+        private int postCount;
+        private int notificationCount;
+        private final Deque<UUID> conversationIds = new ArrayDeque<>();
+        private int messageCount;
+
+        Pending addPosts(List<UUID> ids) {
+            for (UUID id : ids) {
+                push(postIds, id);
+            }
+            postCount += ids.size();
+            return this;
+        }
+
+        Pending addNotifications(int count) {
+            notificationCount += count;
+            return this;
+        }
+
+        Pending addMessage(UUID conversationId) {
+            conversationIds.remove(conversationId);
+            push(conversationIds, conversationId);
+            messageCount++;
+            return this;
+        }
+
+        List<PushEvent> toEvents() {
+            List<PushEvent> events = new ArrayList<>(3);
+            if (postCount > 0) {
+                events.add(new PushEvent(PushEvent.Type.TIMELINE, List.copyOf(postIds), postCount));
+            }
+            if (notificationCount > 0) {
+                events.add(new PushEvent(PushEvent.Type.NOTIFICATIONS, List.of(), notificationCount));
+            }
+            if (messageCount > 0) {
+                events.add(new PushEvent(PushEvent.Type.MESSAGES, List.copyOf(conversationIds), messageCount));
+            }
+            return events;
+        }
+
+        private void push(Deque<UUID> ids, UUID id) {
+            ids.addFirst(id);
+            if (ids.size() > maxIds) {
+                ids.removeLast();
+            }
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.dhillon.twitterclone.service.impl;
+
+import com.dhillon.twitterclone.entity.User;
+import com.dhillon.twitterclone.exception.ResourceNotFoundException;
+import com.dhillon.twitterclone.repository.FollowRepository;
+import com.dhillon.twitterclone.repository.UserRepository;
+import com.dhillon.twitterclone.service.RecommendationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of the RecommendationService interface.
+ * Suggestions for every user are precomputed from a snapshot of the follow graph on a schedule.
+ * A user whose own follows change since is recomputed with a single query on their next read, and kept
+ * in a bounded, least-recently-used cache until the next rebuild; the users who follow them see the
+ * changed second hop after that rebuild.
+ */
+@Service
+public class RecommendationServiceImpl implements RecommendationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecommendationServiceImpl.class);
+
+    private final FollowRepository followRepository;
+    private final UserRepository userRepository;
+    private final int maxSuggestions;
+
+    // Users from the last rebuild, less those whose follows changed since
+    private volatile Map<UUID, List<UUID>> snapshot = new ConcurrentHashMap<>();
+
+    // Users loaded one at a time since the last rebuild; guarded by this
+    private final Map<UUID, List<UUID>> loaded;
+
+    // Counts invalidations, so a load that overlapped one is not cached; guarded by this
+    private long generation;
+
+    private final Set<UUID> changedDuringRebuild = new HashSet<>();
+    private boolean rebuilding;
+
+    /**
+     * Constructor with dependencies.
+     *
+     * @param followRepository the follow repository
+     * @param userRepository the user repository
+     * @param maxSuggestions the number of suggestions kept per user
+     * @param cacheSize the maximum number of users kept whose suggestions were loaded one at a time
+     */
+    public RecommendationServiceImpl(FollowRepository followRepository, UserRepository userRepository,
+                                     @Value("${app.recommendation.max-suggestions:20}") int maxSuggestions,
+                                     @Value("${app.recommendation.cache-size:10000}") int cacheSize) {
+        this.followRepository = followRepository;
+        this.userRepository = userRepository;
+        this.maxSuggestions = maxSuggestions;
+        this.loaded = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, List<UUID>> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    @Override
+    public List<User> getSuggestions(UUID userId, int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        List<UUID> suggestedIds = cachedSuggestions(userId);
+        if (suggestedIds == null) {
+            suggestedIds = loadSuggestions(userId);
+        }
+        if (suggestedIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // Load every suggestion, as users deleted since they were computed are not found, then preserve
+        // the ranking, which findAllById does not guarantee
+        Map<UUID, User> usersById = userRepository.findAllById(suggestedIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        return suggestedIds.stream()
+                .map(usersById::get)
+                .filter(user -> user != null)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Scheduled(initialDelayString = "${app.recommendation.initial-delay-ms:60000}",
+               fixedDelayString = "${app.recommendation.refresh-interval-ms:3600000}")
+    public void rebuildSuggestions() {
+        long start = System.currentTimeMillis();
+        synchronized (this) {
+            rebuilding = true;
+            changedDuringRebuild.clear();
+        }
+
+        try {
+            List<UUID[]> edges;
+            try (Stream<Object[]> rows = followRepository.streamAllEdges()) {
+                edges = rows.map(row -> new UUID[] { (UUID) row[0], (UUID) row[1] })
+                        .collect(Collectors.toList());
+            }
+
+            FollowGraph graph = FollowGraph.fromEdges(edges);
+            Map<UUID, List<UUID>> rebuilt =
+                    new ConcurrentHashMap<>(graph.computeSuggestions(ForkJoinPool.commonPool(), maxSuggestions));
+
+            // The snapshot may predate follows that changed while it was computed; those users are loaded again
+            synchronized (this) {
+                rebuilt.keySet().removeAll(changedDuringRebuild);
+                loaded.keySet().retainAll(changedDuringRebuild);
+                snapshot = rebuilt;
+            }
+
+            logger.info("Rebuilt follow suggestions for {} users from {} follows in {} ms",
+                    rebuilt.size(), edges.size(), System.currentTimeMillis() - start);
+        } finally {
+            synchronized (this) {
+                rebuilding = false;
+                changedDuringRebuild.clear();
+            }
+        }
+    }
+
+    @Override
+    public void onFollowChanged(UUID followerId, UUID followingId) {
+        // Dropped once the follow commits, so a rollback leaves them alone; recomputed on next read
+        afterCommit(() -> invalidate(followerId));
+    }
+
+    /**
+     * Drop the suggestions of a user, and keep a rebuild in progress from bringing them back.
+     *
+     * @param userId the user ID
+     */
+    private synchronized void invalidate(UUID userId) {
+        snapshot.remove(userId);
+        loaded.remove(userId);
+        generation++;
+        if (rebuilding) {
+            changedDuringRebuild.add(userId);
+        }
+    }
+
+    /**
+     * @param userId the user ID
+     * @return the user's suggestions if they are cached, or null
+     */
+    private List<UUID> cachedSuggestions(UUID userId) {
+        List<UUID> suggestedIds = snapshot.get(userId);
+        if (suggestedIds != null) {
+            return suggestedIds;
+        }
+        synchronized (this) {
+            return loaded.get(userId);
+        }
+    }
+
+    /**
+     * Compute a user's suggestions, outside any lock, and cache them unless their follows changed meanwhile.
+     *
+     * @param userId the user ID
+     * @return suggested user IDs, best candidate first
+     * @throws ResourceNotFoundException if there is no such user
+     */
+    private List<UUID> loadSuggestions(UUID userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User", "id", userId);
+        }
+        long startGeneration;
+        synchronized (this) {
+            startGeneration = generation;
+        }
+        List<UUID> suggestedIds = computeSuggestions(userId);
+        synchronized (this) {
+            if (generation == startGeneration) {
+                loaded.put(userId, suggestedIds);
+            }
+        }
+        return suggestedIds;
+    }
+
+    /**
+     * Compute the suggestions of a single user directly from the database.
+     *
+     * @param userId the user ID
+     * @return suggested user IDs, best candidate first
+     */
+    private List<UUID> computeSuggestions(UUID userId) {
+        return followRepository.findFriendsOfFriendsIds(userId, PageRequest.of(0, maxSuggestions));
+    }
+
+    /**
+     * Run an action once the current transaction commits, or immediately if there is none.
+     *
+     * @param action the action to run
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,345 @@
+package com.dhillon.twitterclone.service.impl;
+
+import com.dhillon.twitterclone.dto.TimelineEntryDto;
+import com.dhillon.twitterclone.service.TimelineStreamService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Implementation of the TimelineStreamService interface.
+ * Event IDs are the epoch of the user's replay buffer and a sequence number within it, so an ID from
+ * an evicted buffer or an earlier run of the server is recognised and answered with a reset.
+ * Each open stream is a cursor into its user's buffer, written by its own virtual thread, so a slow
+ * client never holds up the publisher; one that falls behind the buffer gets a reset instead.
+ * Buffers are kept for the most recently subscribed users, up to a fixed number, plus any with a stream open.
+ */
+@Service
+public class TimelineStreamServiceImpl implements TimelineStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimelineStreamServiceImpl.class);
+
+    /**
+     * Event carrying a {@link TimelineEntryDto}.
+     */
+    public static final String POST_EVENT = "post";
+
+    /**
+     * Event telling the client that entries were missed and the timeline should be reloaded.
+     */
+    public static final String RESET_EVENT = "reset";
+
+    private final int replaySize;
+    private final int maxUsers;
+    private final long timeoutMs;
+    private final long retryMs;
+    private final ExecutorService sender = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("timeline-stream-", 0).factory());
+    // Insertion order is subscription order; guarded by itself
+    private final Map<UUID, UserStream> streams = new LinkedHashMap<>();
+
+    /**
+     * Constructor with configuration.
+     *
+     * @param replaySize the number of entries kept per user for reconnecting clients
+     * @param maxUsers the number of users whose buffers are kept once their streams close
+     * @param timeoutMs the time after which a stream is closed and the client reconnects
+     * @param retryMs the reconnection delay advised to clients
+     */
+    public TimelineStreamServiceImpl(@Value("${app.timeline.stream.replay-size:100}") int replaySize,
+                                     @Value("${app.timeline.stream.max-users:10000}") int maxUsers,
+                                     @Value("${app.timeline.stream.timeout-ms:1800000}") long timeoutMs,
+                                     @Value("${app.timeline.stream.retry-ms:3000}") long retryMs) {
+        this.replaySize = replaySize;
+        this.maxUsers = maxUsers;
+        this.timeoutMs = timeoutMs;
+        this.retryMs = retryMs;
+    }
+
+    @Override
+    public SseEmitter subscribe(UUID userId, String lastEventId) {
+        UserStream stream;
+        synchronized (streams) {
+            // Re-inserted to make it the most recent
+            stream = streams.remove(userId);
+            if (stream == null) {
+                stream = new UserStream();
+            }
+            streams.put(userId, stream);
+            evictIdle();
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Connection connection = stream.connect(emitter, lastEventId);
+        emitter.onTimeout(emitter::complete);
+        emitter.onCompletion(connection::close);
+        emitter.onError(e -> connection.close());
+        connection.kick();
+        return emitter;
+    }
+
+    @Override
+    public boolean isStreaming(UUID userId) {
+        synchronized (streams) {
+            return streams.containsKey(userId);
+        }
+    }
+
+    @Override
+    public boolean hasStreams() {
+        synchronized (streams) {
+            return !streams.isEmpty();
+        }
+    }
+
+    @Override
+    public Set<UUID> streamingUserIds() {
+        synchronized (streams) {
+            return new HashSet<>(streams.keySet());
+        }
+    }
+
+    @Override
+    public void publish(UUID userId, List<TimelineEntryDto> entries) {
+        UserStream stream;
+        synchronized (streams) {
+            stream = streams.get(userId);
+        }
+        if (stream != null && !entries.isEmpty()) {
+            stream.append(entries);
+        }
+    }
+
+    @Override
+    @Scheduled(initialDelayString = "${app.timeline.stream.heartbeat-ms:15000}",
+               fixedDelayString = "${app.timeline.stream.heartbeat-ms:15000}")
+    public int heartbeat() {
+        List<UserStream> open;
+        synchronized (streams) {
+            open = new ArrayList<>(streams.values());
+        }
+        int count = 0;
+        for (UserStream stream : open) {
+            for (Connection connection : stream.connections) {
+                connection.heartbeat();
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    /**
+     * Drop the oldest buffers without open streams until the map is back within its bound.
+     * Called with the map's lock held.
+     */
+    private void evictIdle() {
+        Iterator<UserStream> oldestFirst = streams.values().iterator();
+        int excess = streams.size() - maxUsers;
+        while (excess > 0 && oldestFirst.hasNext()) {
+            if (oldestFirst.next().connections.isEmpty()) {
+                oldestFirst.remove();
+                excess--;
+            }
+        }
+    }
+
+    private record Entry(long seq, TimelineEntryDto entry) {
+    }
+
+    /**
+     * One user's replay buffer and open streams.
+     * Buffer methods never call out while holding the buffer's lock.
+     */
+    private final class UserStream {
+        private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+        private final Deque<Entry> replay = new ArrayDeque<>();
+        private long lastSeq;
+        private final List<Connection> connections = new CopyOnWriteArrayList<>();
+
+        Connection connect(SseEmitter emitter, String lastEventId) {
+            Connection connection;
+            synchronized (this) {
+                long resumeFrom = lastEventId != null ? parseSeq(lastEventId) : lastSeq;
+                // Unknown or ahead of us: the client cannot be brought up to date from this buffer
+                boolean resetDue = resumeFrom < 0 || resumeFrom > lastSeq;
+                connection = new Connection(this, emitter, resetDue ? lastSeq : resumeFrom, resetDue);
+            }
+            connections.add(connection);
+            return connection;
+        }
+
+        void append(List<TimelineEntryDto> entries) {
+            synchronized (this) {
+                for (TimelineEntryDto entry : entries) {
+                    replay.addLast(new Entry(++lastSeq, entry));
+                    if (replay.size() > replaySize) {
+                        replay.removeFirst();
+                    }
+                }
+            }
+            for (Connection connection : connections) {
+                connection.kick();
+            }
+        }
+
+        /**
+         * @return the entries after a sequence number, or null if some of them are no longer buffered
+         */
+        synchronized List<Entry> after(long seq) {
+            long firstSeq = replay.isEmpty() ? lastSeq + 1 : replay.peekFirst().seq();
+            if (seq + 1 < firstSeq) {
+                return null;
+            }
+            List<Entry> entries = new ArrayList<>((int) (lastSeq - seq));
+            for (Entry entry : replay) {
+                if (entry.seq() > seq) {
+                    entries.add(entry);
+                }
+            }
+            return entries;
+        }
+
+        synchronized long lastSeq() {
+            return lastSeq;
+        }
+
+        String eventId(long seq) {
+            return epoch + "-" + seq;
+        }
+
+        /**
+         * @return the sequence number in an event ID from this buffer, or -1 if it is not one
+         */
+        private long parseSeq(String eventId) {
+            int dash = eventId.lastIndexOf('-');
+            if (dash < 0 || !eventId.substring(0, dash).equals(epoch)) {
+                return -1;
+            }
+            try {
+                return Long.parseLong(eventId.substring(dash + 1));
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * One open stream: a cursor into its user's buffer, written by at most one sender at a time.
+     */
+    private final class Connection {
+        private final UserStream stream;
+        private final SseEmitter emitter;
+        // Guarded by this
+        private long sentSeq;
+        private boolean resetDue;
+        private boolean greeted;
+        private boolean heartbeatDue;
+        private boolean sending;
+        private boolean closed;
+
+        Connection(UserStream stream, SseEmitter emitter, long sentSeq, boolean resetDue) {
+            this.stream = stream;
+            this.emitter = emitter;
+            this.sentSeq = sentSeq;
+            this.resetDue = resetDue;
+        }
+
+        synchronized void heartbeat() {
+            heartbeatDue = true;
+            kick();
+        }
+
+        synchronized void kick() {
+            if (sending || closed) {
+                return;
+            }
+            sending = true;
+            sender.execute(this::drain);
+        }
+
+        void close() {
+            synchronized (this) {
+                closed = true;
+            }
+            stream.connections.remove(this);
+        }
+
+        private void drain() {
+            try {
+                while (true) {
+                    SseEmitter.SseEventBuilder greeting = null;
+                    SseEmitter.SseEventBuilder reset = null;
+                    List<Entry> entries = List.of();
+                    boolean sendHeartbeat;
+                    synchronized (this) {
+                        if (!greeted) {
+                            // Sets the client's reconnection delay and gets the headers out at once
+                            greeting = SseEmitter.event().reconnectTime(retryMs).comment("connected");
+                            greeted = true;
+                        }
+                        List<Entry> missed = resetDue ? null : stream.after(sentSeq);
+                        if (missed == null) {
+                            sentSeq = stream.lastSeq();
+                            reset = SseEmitter.event().id(stream.eventId(sentSeq)).name(RESET_EVENT).data("");
+                            resetDue = false;
+                        } else if (!missed.isEmpty()) {
+                            entries = missed;
+                            sentSeq = missed.get(missed.size() - 1).seq();
+                        }
+                        sendHeartbeat = heartbeatDue && greeting == null && reset == null && entries.isEmpty();
+                        heartbeatDue = false;
+                        if (closed || (greeting == null && reset == null && entries.isEmpty() && !sendHeartbeat)) {
+                            sending = false;
+                            return;
+                        }
+                    }
+
+                    if (greeting != null) {
+                        emitter.send(greeting);
+                    }
+                    if (reset != null) {
+                        emitter.send(reset);
+                    }
+                    for (Entry entry : entries) {
+                        emitter.send(SseEmitter.event().id(stream.eventId(entry.seq())).name(POST_EVENT)
+                                .data(entry.entry(), MediaType.APPLICATION_JSON));
+                    }
+                    if (sendHeartbeat) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client went away or the stream already completed; it reconnects with its last event ID
+                logger.debug("Timeline stream closed while sending: {}", e.getMessage());
+                close();
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
@@ -1,16 +1,40 @@
 package com.dhillon.twitterclone.service.impl;
 
+import com.dhillon.twitterclone.cache.AvailabilityFilter;
+import com.dhillon.twitterclone.cache.UsernameCache;
+import com.dhillon.twitterclone.entity.NotificationType;
 import com.dhillon.twitterclone.entity.User;
+import com.dhillon.twitterclone.exception.BadRequestException;
 import com.dhillon.twitterclone.exception.ResourceNotFoundException;
+import com.dhillon.twitterclone.repository.FollowRepository;
+import com.dhillon.twitterclone.repository.PostRepository;
 import com.dhillon.twitterclone.repository.UserRepository;
+import com.dhillon.twitterclone.service.NotificationService;
+import com.dhillon.twitterclone.service.PasswordHashingService;
+import com.dhillon.twitterclone.service.RecommendationService;
 import com.dhillon.twitterclone.service.UserService;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import com.dhillon.twitterclone.util.IdentifierUtils;
+import com.dhillon.twitterclone.util.UuidV7;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Implementation of the UserService interface.
@@ -18,47 +42,150 @@ import java.util.UUID;
 @Service
 public class UserServiceImpl implements UserService {
     
+    private static final Logger logger = LoggerFactory.getLogger(UserServiceImpl.class);
+    
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final FollowRepository followRepository;
+    private final PostRepository postRepository;
+    private final PasswordHashingService passwordHashingService;
+    private final RecommendationService recommendationService;
+    private final UsernameCache usernameCache;
+    private final AvailabilityFilter availabilityFilter;
+    private final EntityManagerFactory entityManagerFactory;
+    private final EntityManager entityManager;
+    private final NotificationService notificationService;
     
     /**
      * Constructor with dependencies.
      *
      * @param userRepository the user repository
-     * @param passwordEncoder the password encoder
+     * @param followRepository the follow repository
+     * @param postRepository the post repository
+     * @param passwordHashingService the password hashing service
+     * @param recommendationService the recommendation service
+     * @param usernameCache the username to ID cache
+     * @param availabilityFilter the taken username and email filter
+     * @param entityManagerFactory the entity manager factory, whose second-level cache holds users
+     * @param entityManager the shared entity manager, used to load several users at once
+     * @param notificationService the notification service
      */
-    public UserServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserServiceImpl(UserRepository userRepository, FollowRepository followRepository,
+                           PostRepository postRepository, PasswordHashingService passwordHashingService,
+                           RecommendationService recommendationService, UsernameCache usernameCache,
+                           AvailabilityFilter availabilityFilter, EntityManagerFactory entityManagerFactory,
+                           EntityManager entityManager, NotificationService notificationService) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.followRepository = followRepository;
+        this.postRepository = postRepository;
+        this.passwordHashingService = passwordHashingService;
+        this.recommendationService = recommendationService;
+        this.usernameCache = usernameCache;
+        this.availabilityFilter = availabilityFilter;
+        this.entityManagerFactory = entityManagerFactory;
+        this.entityManager = entityManager;
+        this.notificationService = notificationService;
     }
     
+    // Lookups used while authenticating stay on the primary, so a fresh registration can log in at once
     @Override
     public Optional<User> findById(UUID id) {
         return userRepository.findById(id);
     }
     
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> findByIds(List<UUID> ids) {
+        Set<UUID> distinctIds = new LinkedHashSet<>(ids);
+        distinctIds.remove(null);
+        if (distinctIds.isEmpty()) {
+            return List.of();
+        }
+        // Users in the second-level cache are taken from it, and the rest are loaded in one query;
+        // ordered results line up with the IDs, with a null for each one not found. A session reading
+        // from a replica is in GET mode, which still reads the cache but does not fill it
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode cacheMode = session.getCacheMode() == CacheMode.GET ? CacheMode.GET : CacheMode.NORMAL;
+        return session.byMultipleIds(User.class)
+                .with(cacheMode)
+                .enableOrderedReturn(true)
+                .multiLoad(List.copyOf(distinctIds)).stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+    
     @Override
     public Optional<User> findByUsername(String username) {
         return userRepository.findByUsername(username);
     }
     
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<User> findByIdOrUsername(String idOrUsername) {
+        if (IdentifierUtils.isUuid(idOrUsername)) {
+            return userRepository.findById(UUID.fromString(idOrUsername));
+        }
+        
+        UUID cachedId = usernameCache.get(idOrUsername);
+        if (cachedId != null) {
+            Optional<User> cachedUser = userRepository.findById(cachedId);
+            if (cachedUser.isPresent()) {
+                return cachedUser;
+            }
+            // Deleted since it was cached
+            usernameCache.evict(idOrUsername);
+        }
+        
+        Optional<User> user = userRepository.findByUsername(idOrUsername);
+        user.ifPresent(u -> usernameCache.put(u.getUsername(), u.getId()));
+        return user;
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<UUID> resolveUserId(String idOrUsername) {
+        if (IdentifierUtils.isUuid(idOrUsername)) {
+            return Optional.of(UUID.fromString(idOrUsername));
+        }
+        
+        UUID cachedId = usernameCache.get(idOrUsername);
+        if (cachedId != null) {
+            return Optional.of(cachedId);
+        }
+        
+        Optional<UUID> id = userRepository.findIdByUsername(idOrUsername);
+        id.ifPresent(userId -> usernameCache.put(idOrUsername, userId));
+        return id;
+    }
+    
     @Override
     public Optional<User> findByEmail(String email) {
         return userRepository.findByEmail(email);
     }
     
     @Override
-    @Transactional
     public User createUser(User user) {
-        // Encode the password before saving
-        user.setPasswordHash(passwordEncoder.encode(user.getPasswordHash()));
+        // Not transactional, so no connection is held while the password is hashed on the bounded pool;
+        // the save runs in a transaction of its own
+        user.setPasswordHash(await(passwordHashingService.hash(user.getPasswordHash())));
         
         // Set default values
         user.setEnabled(true);
         user.setEmailVerified(false);
         user.setVerified(false);
         
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        
+        // Add now so a caller's transaction reads its own write, and again after it commits in case a
+        // filter rebuild started in between; a rolled-back add only costs a false positive
+        availabilityFilter.add(savedUser.getUsername(), savedUser.getEmail());
+        afterCommit(() -> availabilityFilter.add(savedUser.getUsername(), savedUser.getEmail()));
+        return savedUser;
+    }
+    
+    @Override
+    @Transactional
+    public boolean replacePasswordHash(UUID id, String currentHash, String newHash) {
+        return userRepository.replacePasswordHash(id, currentHash, newHash) > 0;
     }
     
     @Override
@@ -101,21 +228,136 @@ public class UserServiceImpl implements UserService {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
         
-        userRepository.delete(user);
+        // Remove the user from the follow graph now, keeping everyone else's cached counts in step
+        userRepository.decrementFollowerCountOfFollowing(id);
+        userRepository.decrementFollowingCountOfFollowers(id);
+        followRepository.deleteAllByUserId(id);
+        
+        // Hide the user and their posts at once; the rows are removed in batches by the purge job
+        postRepository.softDeleteByUserId(id);
+        userRepository.softDelete(id);
+        usernameCache.evict(user.getUsername());
     }
     
     @Override
+    @Transactional(readOnly = true)
     public List<User> searchUsers(String query) {
         return userRepository.searchUsers(query);
     }
     
     @Override
     public boolean isUsernameAvailable(String username) {
+        // A definite miss in the filter needs no query
+        if (!availabilityFilter.mightContainUsername(username)) {
+            return true;
+        }
         return !userRepository.existsByUsername(username);
     }
     
     @Override
     public boolean isEmailAvailable(String email) {
+        if (!availabilityFilter.mightContainEmail(email)) {
+            return true;
+        }
         return !userRepository.existsByEmail(email);
     }
+    
+    @Override
+    @Transactional
+    public void followUser(UUID followerId, UUID followingId) {
+        if (followerId.equals(followingId)) {
+            throw new BadRequestException("Users cannot follow themselves");
+        }
+        
+        userRepository.findById(followerId)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", followerId));
+        userRepository.findById(followingId)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", followingId));
+        
+        // Only the request that inserted the follow counts it and notifies, however many race
+        if (followRepository.insertIfAbsent(UuidV7.randomUuid(), followerId, followingId) == 0) {
+            return;
+        }
+        
+        userRepository.adjustFollowingCount(followerId, 1);
+        userRepository.adjustFollowerCount(followingId, 1);
+        evictCachedUsers(followerId, followingId);
+        recommendationService.onFollowChanged(followerId, followingId);
+        notificationService.notify(followingId, NotificationType.FOLLOW, followerId, null);
+    }
+    
+    @Override
+    @Transactional
+    public void unfollowUser(UUID followerId, UUID followingId) {
+        if (followRepository.deleteByFollowerIdAndFollowingId(followerId, followingId) > 0) {
+            userRepository.adjustFollowingCount(followerId, -1);
+            userRepository.adjustFollowerCount(followingId, -1);
+            evictCachedUsers(followerId, followingId);
+            recommendationService.onFollowChanged(followerId, followingId);
+        }
+    }
+    
+    @Override
+    @Transactional
+    @Scheduled(initialDelayString = "${app.user.count-reconcile-initial-delay-ms:300000}",
+               fixedDelayString = "${app.user.count-reconcile-interval-ms:21600000}")
+    public int reconcileFollowCounts() {
+        int corrected = userRepository.reconcileFollowerCounts() + userRepository.reconcileFollowingCounts();
+        if (corrected > 0) {
+            logger.warn("Corrected drifted follow counts on {} users", corrected);
+        }
+        return corrected;
+    }
+    
+    /**
+     * Drop users whose counts were changed in SQL from the second-level cache.
+     * Evicted now, and again after commit in case a concurrent read cached the old row in between.
+     *
+     * @param ids the user IDs
+     */
+    private void evictCachedUsers(UUID... ids) {
+        Runnable evict = () -> {
+            for (UUID id : ids) {
+                entityManagerFactory.getCache().evict(User.class, id);
+            }
+        };
+        evict.run();
+        afterCommit(evict);
+    }
+    
+    /**
+     * Wait for a result computed on another thread, rethrowing what it failed with as is,
+     * so that e.g. a full hashing pool still answers 503.
+     *
+     * @param future the future result
+     * @return the result
+     */
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Run an action once the current transaction commits, or immediately if there is none.
+     *
+     * @param action the action to run
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
 } 
\ No newline at end of file
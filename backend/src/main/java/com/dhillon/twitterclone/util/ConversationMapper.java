@@ -0,0 +1,126 @@
+package com.dhillon.twitterclone.util;
+
+import com.dhillon.twitterclone.dto.ConversationDto;
+import com.dhillon.twitterclone.dto.DirectMessageDto;
+import com.dhillon.twitterclone.dto.ReadReceiptDto;
+import com.dhillon.twitterclone.entity.Conversation;
+import com.dhillon.twitterclone.entity.ConversationParticipant;
+import com.dhillon.twitterclone.entity.DirectMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Utility class for mapping Conversation, DirectMessage and ConversationParticipant entities to DTOs.
+ */
+public class ConversationMapper {
+
+    private ConversationMapper() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Convert a Conversation entity to a ConversationDto.
+     *
+     * @param conversation the conversation entity
+     * @param participantIds the user IDs of its participants
+     * @param unreadCount the number of messages the current user has not read
+     * @return the conversation DTO
+     */
+    public static ConversationDto toDto(Conversation conversation, List<UUID> participantIds, long unreadCount) {
+        if (conversation == null) {
+            return null;
+        }
+
+        return new ConversationDto(
+            conversation.getId(),
+            conversation.getName(),
+            conversation.isGroup(),
+            participantIds != null ? participantIds : List.of(),
+            conversation.getLastMessageAt(),
+            unreadCount,
+            conversation.getCreatedAt()
+        );
+    }
+
+    /**
+     * Convert a list of Conversation entities to a list of ConversationDtos.
+     *
+     * @param conversations the list of conversation entities
+     * @param participantIds the user IDs of the participants of each conversation, by conversation ID
+     * @param unreadCounts the current user's unread counts, by conversation ID; missing means none
+     * @return the list of conversation DTOs
+     */
+    public static List<ConversationDto> toDtoList(List<Conversation> conversations,
+                                                  Map<UUID, List<UUID>> participantIds,
+                                                  Map<UUID, Long> unreadCounts) {
+        if (conversations == null) {
+            return new ArrayList<>();
+        }
+
+        return conversations.stream()
+                .map(conversation -> toDto(conversation, participantIds.get(conversation.getId()),
+                        unreadCounts.getOrDefault(conversation.getId(), 0L)))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Convert a DirectMessage entity to a DirectMessageDto.
+     * The conversation is only referenced by ID, so its lazy proxy is never initialized.
+     *
+     * @param message the message entity
+     * @return the message DTO
+     */
+    public static DirectMessageDto toDto(DirectMessage message) {
+        if (message == null) {
+            return null;
+        }
+
+        return new DirectMessageDto(
+            message.getId(),
+            message.getConversation().getId(),
+            message.getSender().getId(),
+            message.getSender().getUsername(),
+            message.getContent(),
+            message.getCreatedAt()
+        );
+    }
+
+    /**
+     * Convert a participant's read watermark to a ReadReceiptDto.
+     * The user is only referenced by ID, so its lazy proxy is never initialized.
+     *
+     * @param participant the participant entity
+     * @return the read receipt DTO
+     */
+    public static ReadReceiptDto toReceiptDto(ConversationParticipant participant) {
+        if (participant == null) {
+            return null;
+        }
+
+        return new ReadReceiptDto(
+            participant.getUser().getId(),
+            participant.getLastReadMessageId(),
+            participant.getLastReadAt()
+        );
+    }
+
+    /**
+     * Convert a list of DirectMessage entities to a list of DirectMessageDtos.
+     *
+     * @param messages the list of message entities
+     * @return the list of message DTOs
+     */
+    public static List<DirectMessageDto> toMessageDtoList(List<DirectMessage> messages) {
+        if (messages == null) {
+            return new ArrayList<>();
+        }
+
+        return messages.stream()
+                .map(ConversationMapper::toDto)
+                .collect(Collectors.toList());
+    }
+}
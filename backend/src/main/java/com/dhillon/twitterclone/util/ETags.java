@@ -0,0 +1,81 @@
+package com.dhillon.twitterclone.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+/**
+ * Utility class for building entity tags from what a representation depends on, and for checking
+ * them against If-None-Match.
+ */
+public final class ETags {
+
+    private static final int HASH_BYTES = 16;
+
+    private ETags() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Build a strong entity tag, for a representation that is the same byte for byte while the parts are.
+     *
+     * @param parts the values the representation depends on; nulls are allowed
+     * @return the quoted entity tag
+     */
+    public static String strong(Object... parts) {
+        return "\"" + hash(parts) + "\"";
+    }
+
+    /**
+     * Build a weak entity tag, for a representation that may change in detail while the parts do not.
+     *
+     * @param parts the values the representation depends on; nulls are allowed
+     * @return the quoted entity tag, marked weak
+     */
+    public static String weak(Object... parts) {
+        return "W/" + strong(parts);
+    }
+
+    /**
+     * Check an If-None-Match header against an entity tag, using the weak comparison it calls for,
+     * so a weak and a strong tag with the same value match.
+     *
+     * @param ifNoneMatch the header value, or null
+     * @param eTag the current entity tag
+     * @return true if the client's copy is current
+     */
+    public static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String current = opaque(eTag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || opaque(value).equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaque(String eTag) {
+        return eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+    }
+
+    private static String hash(Object[] parts) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        for (Object part : parts) {
+            digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+            // Keeps ("ab", "c") and ("a", "bc") apart
+            digest.update((byte) 0);
+        }
+        return HexFormat.of().formatHex(Arrays.copyOf(digest.digest(), HASH_BYTES));
+    }
+}
@@ -0,0 +1,37 @@
+package com.dhillon.twitterclone.util;
+
+/**
+ * Utility class for classifying path identifiers without relying on parse exceptions.
+ */
+public class IdentifierUtils {
+    
+    private IdentifierUtils() {
+        // Private constructor to prevent instantiation
+    }
+    
+    /**
+     * Check whether a value is a UUID in canonical 8-4-4-4-12 hex form.
+     * Usernames can never match, so a value that fails this check is treated as a username.
+     *
+     * @param value the value to check
+     * @return true if the value can be parsed with UUID.fromString, false otherwise
+     */
+    public static boolean isUuid(String value) {
+        if (value == null || value.length() != 36) {
+            return false;
+        }
+        
+        for (int i = 0; i < 36; i++) {
+            char c = value.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (Character.digit(c, 16) < 0) {
+                return false;
+            }
+        }
+        
+        return true;
+    }
+}
@@ -0,0 +1,55 @@
+package com.dhillon.twitterclone.util;
+
+import com.dhillon.twitterclone.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a newest-first listing ordered by (created_at, id), handed to clients as an opaque token.
+ * The next page is read with a seek past this position rather than an OFFSET,
+ * so its cost does not grow with the depth of the page.
+ *
+ * @param createdAt the creation time of the last row returned
+ * @param id the ID of the last row returned
+ */
+public record KeysetCursor(LocalDateTime createdAt, UUID id) {
+
+    /**
+     * Encode the cursor as a URL-safe token.
+     *
+     * @return the token
+     */
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}.
+     *
+     * @param token the token, or null for the first page
+     * @return the cursor, or null if the token is null or blank
+     * @throws BadRequestException if the token is malformed
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0 || !IdentifierUtils.isUuid(raw.substring(separator + 1))) {
+                throw new BadRequestException("Invalid cursor: " + token);
+            }
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor: " + token, e);
+        }
+    }
+}
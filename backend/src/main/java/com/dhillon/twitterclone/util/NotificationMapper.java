@@ -0,0 +1,62 @@
+package com.dhillon.twitterclone.util;
+
+import com.dhillon.twitterclone.dto.NotificationDto;
+import com.dhillon.twitterclone.entity.Notification;
+import com.dhillon.twitterclone.entity.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Utility class for mapping Notification entities to DTOs.
+ */
+public class NotificationMapper {
+
+    private NotificationMapper() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Convert a Notification entity to a NotificationDto.
+     * The post is only referenced by ID, so its lazy proxy is never initialized.
+     *
+     * @param notification the notification entity
+     * @return the notification DTO
+     */
+    public static NotificationDto toDto(Notification notification) {
+        if (notification == null) {
+            return null;
+        }
+
+        User actor = notification.getActor();
+        return new NotificationDto(
+            notification.getId(),
+            notification.getType(),
+            actor.getId(),
+            actor.getUsername(),
+            actor.getDisplayName() != null ? actor.getDisplayName() : actor.getUsername(),
+            actor.getProfileImage(),
+            notification.getActorCount(),
+            notification.getPost() != null ? notification.getPost().getId() : null,
+            notification.isRead(),
+            notification.getCreatedAt()
+        );
+    }
+
+    /**
+     * Convert a list of Notification entities to a list of NotificationDtos.
+     *
+     * @param notifications the list of notification entities
+     * @return the list of notification DTOs
+     */
+    public static List<NotificationDto> toDtoList(List<Notification> notifications) {
+        if (notifications == null) {
+            return new ArrayList<>();
+        }
+
+        return notifications.stream()
+                .map(NotificationMapper::toDto)
+                .collect(Collectors.toList());
+    }
+}
@@ -1,11 +1,15 @@
 package com.dhillon.twitterclone.util;
 
 import com.dhillon.twitterclone.dto.PostDto;
-import com.dhillon.twitterclone.entity.Hashtag;
 import com.dhillon.twitterclone.entity.Post;
+import com.dhillon.twitterclone.entity.User;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
@@ -20,33 +24,22 @@ public class PostMapper {
      * @return the post DTO
      */
     public static PostDto toDto(Post post) {
+        return toDto(post, false);
+    }
+    
+    /**
+     * Convert a Post entity to a PostDto for a user who may have bookmarked it.
+     * A repost is converted without its original; see {@link #toDtoList(List, Map, Set)}.
+     *
+     * @param post the post entity
+     * @param bookmarked whether the current user has bookmarked the post
+     * @return the post DTO
+     */
+    public static PostDto toDto(Post post, boolean bookmarked) {
         if (post == null) {
             return null;
         }
-        
-        // Convert hashtags to strings
-        List<String> hashtagNames = post.getHashtags().stream()
-                .map(Hashtag::getName)
-                .collect(Collectors.toList());
-        
-        return new PostDto(
-            post.getId(),
-            post.getUser().getId(),
-            post.getUser().getUsername(),
-            post.getUser().getDisplayName() != null ? 
-                post.getUser().getDisplayName() : post.getUser().getUsername(),
-            post.getUser().getProfileImage(),
-            post.getContent(),
-            post.getMedia(),
-            post.getLikeCount(),
-            post.getRepostCount(),
-            post.getReplyCount(),
-            false, // liked - would need to be set based on current user
-            false, // retweeted - would need to be set based on current user
-            post.getCreatedAt(),
-            hashtagNames,
-            new ArrayList<>() // mentions - would need to be extracted
-        );
+        return toDto(post, null, bookmarked, SparseFieldset.ALL);
     }
     
     /**
@@ -65,6 +58,122 @@ public class PostMapper {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Convert a page of Post entities to PostDtos, embedding the original of each repost and flagging
+     * the posts the current user has bookmarked. The originals are looked up rather than loaded
+     * through each repost, so a page of reposts costs no query per post.
+     *
+     * @param posts the list of post entities
+     * @param originalPosts the originals of the reposts among them, with their authors, by ID
+     * @param bookmarkedPostIds the IDs of the posts and originals the current user has bookmarked
+     * @return the list of post DTOs
+     */
+    public static List<PostDto> toDtoList(List<Post> posts, Map<UUID, Post> originalPosts,
+                                          Set<UUID> bookmarkedPostIds) {
+        return toDtoList(posts, originalPosts, bookmarkedPostIds, SparseFieldset.ALL);
+    }
+    
+    /**
+     * Convert a page of Post entities to PostDtos as {@link #toDtoList(List, Map, Set)} does, filling in
+     * only the requested fields. Hashtags, media and authors are left unloaded unless a field needs them.
+     *
+     * @param posts the list of post entities
+     * @param originalPosts the originals of the reposts among them, with their authors, by ID
+     * @param bookmarkedPostIds the IDs of the posts and originals the current user has bookmarked
+     * @param fields the fields to fill in
+     * @return the list of post DTOs
+     */
+    public static List<PostDto> toDtoList(List<Post> posts, Map<UUID, Post> originalPosts,
+                                          Set<UUID> bookmarkedPostIds, SparseFieldset fields) {
+        if (posts == null) {
+            return new ArrayList<>();
+        }
+        
+        List<PostDto> dtos = new ArrayList<>(posts.size());
+        for (Post post : posts) {
+            PostDto original = null;
+            if (post.isRepost() && post.getOriginalPost() != null) {
+                Post originalPost = originalPosts.get(post.getOriginalPost().getId());
+                if (originalPost != null) {
+                    original = toDto(originalPost, null, bookmarkedPostIds.contains(originalPost.getId()), fields);
+                }
+            }
+            dtos.add(toDto(post, original, bookmarkedPostIds.contains(post.getId()), fields));
+        }
+        return dtos;
+    }
+    
+    /**
+     * Collapse the reposts of the same original into the first of them, which lists every user
+     * who reposted it. Other posts are left as they are, in order.
+     *
+     * @param posts the post DTOs, such as a timeline page
+     * @return the post DTOs with one entry per reposted original
+     */
+    public static List<PostDto> collapseReposts(List<PostDto> posts) {
+        Map<UUID, Integer> positions = new HashMap<>();
+        List<PostDto> collapsed = new ArrayList<>(posts.size());
+        for (PostDto post : posts) {
+            if (post.originalPost() == null) {
+                collapsed.add(post);
+                continue;
+            }
+            Integer position = positions.putIfAbsent(post.originalPost().id(), collapsed.size());
+            if (position == null) {
+                collapsed.add(post);
+                continue;
+            }
+            PostDto first = collapsed.get(position);
+            List<String> repostedBy = new ArrayList<>(first.repostedBy());
+            post.repostedBy().stream()
+                    .filter(username -> !repostedBy.contains(username))
+                    .forEach(repostedBy::add);
+            collapsed.set(position, first.withRepostedBy(repostedBy));
+        }
+        return collapsed;
+    }
+    
+    private static PostDto toDto(Post post, PostDto original, boolean bookmarked, SparseFieldset fields) {
+        // Convert hashtags to strings
+        List<String> hashtagNames = new ArrayList<>();
+        if (fields.includes("hashtags")) {
+            post.getHashtags().forEach(hashtag -> hashtagNames.add(hashtag.getName()));
+        }
+        
+        List<String> media = fields.includes("media") ? new ArrayList<>(post.getMedia()) : new ArrayList<>();
+        
+        // The author's ID is known without loading the author
+        User author = fields.includesAny("username", "displayName", "profileImage", "repostedBy")
+                ? post.getUser() : null;
+        
+        List<String> repostedBy = new ArrayList<>();
+        if (post.isRepost() && author != null) {
+            repostedBy.add(author.getUsername());
+        }
+        
+        return new PostDto(
+            post.getId(),
+            post.getUser().getId(),
+            author != null ? author.getUsername() : null,
+            author == null ? null : author.getDisplayName() != null ? 
+                author.getDisplayName() : author.getUsername(),
+            author != null ? author.getProfileImage() : null,
+            post.getContent(),
+            media,
+            post.getLikeCount(),
+            post.getRepostCount(),
+            post.getReplyCount(),
+            false, // liked - would need to be set based on current user
+            false, // retweeted - would need to be set based on current user
+            bookmarked,
+            post.getCreatedAt(),
+            hashtagNames,
+            new ArrayList<>(), // mentions - would need to be extracted
+            original,
+            repostedBy
+        );
+    }
+    
     /**
      * Convert a PostDto to a Post entity.
      * Note: This does not set the user, parent, or original post references.
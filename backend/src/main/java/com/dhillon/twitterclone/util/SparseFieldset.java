@@ -0,0 +1,130 @@
+package com.dhillon.twitterclone.util;
+
+import com.dhillon.twitterclone.exception.BadRequestException;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The fields of a DTO a client asked for with the {@value #PARAM} query parameter, such as
+ * {@code ?fields=content,likeCount}. Responses leave out the other fields, and mappers skip loading
+ * what only those fields need. The ID is always included, so that clients can tell items apart.
+ */
+public final class SparseFieldset {
+
+    /**
+     * Name of the query parameter listing the fields, separated by commas.
+     */
+    public static final String PARAM = "fields";
+
+    /**
+     * ID of the Jackson property filter on the DTOs that support sparse fieldsets.
+     */
+    public static final String FILTER_ID = "sparseFieldset";
+
+    /**
+     * Every field, for requests that do not ask for particular ones.
+     */
+    public static final SparseFieldset ALL = new SparseFieldset(null);
+
+    private final Set<String> fields;
+
+    private SparseFieldset(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Parse the fields asked for without checking their names, as when they were checked already.
+     *
+     * @param fields the value of the query parameter, or null
+     * @return the fieldset, or {@link #ALL} if the value is null or blank
+     */
+    public static SparseFieldset parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add("id");
+        for (String field : fields.split(",")) {
+            if (!field.isBlank()) {
+                selected.add(field.trim());
+            }
+        }
+        return new SparseFieldset(selected);
+    }
+
+    /**
+     * Parse the fields asked for from a DTO.
+     *
+     * @param fields the value of the query parameter, or null
+     * @param type the DTO the fields belong to
+     * @return the fieldset, or {@link #ALL} if the value is null or blank
+     * @throws BadRequestException if a field is not one of the DTO's
+     */
+    public static SparseFieldset parse(String fields, Class<? extends Record> type) {
+        SparseFieldset fieldset = parse(fields);
+        if (fieldset.fields != null) {
+            Set<String> known = Arrays.stream(type.getRecordComponents())
+                    .map(RecordComponent::getName)
+                    .collect(Collectors.toSet());
+            for (String field : fieldset.fields) {
+                if (!known.contains(field)) {
+                    throw new BadRequestException("Unknown field: " + field);
+                }
+            }
+        }
+        return fieldset;
+    }
+
+    /**
+     * Check whether a field was asked for.
+     *
+     * @param field the name of the field
+     * @return true if the field is to be included
+     */
+    public boolean includes(String field) {
+        return fields == null || fields.contains(field);
+    }
+
+    /**
+     * Check whether any of several fields was asked for.
+     *
+     * @param fields the names of the fields
+     * @return true if at least one of them is to be included
+     */
+    public boolean includesAny(String... fields) {
+        for (String field : fields) {
+            if (includes(field)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check whether every field is included.
+     *
+     * @return true if no particular fields were asked for
+     */
+    public boolean isAll() {
+        return fields == null;
+    }
+
+    /**
+     * Jackson filters that serialize only these fields of the DTOs filtered by {@link #FILTER_ID}.
+     *
+     * @return the filter provider
+     */
+    public FilterProvider toFilters() {
+        SimpleBeanPropertyFilter filter = fields == null
+                ? SimpleBeanPropertyFilter.serializeAll()
+                : SimpleBeanPropertyFilter.filterOutAllExcept(fields);
+        return new SimpleFilterProvider().addFilter(FILTER_ID, filter);
+    }
+}
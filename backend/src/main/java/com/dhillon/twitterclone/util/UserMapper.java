@@ -36,8 +36,8 @@ public class UserMapper {
             user.getHeaderImage(),
             user.isVerified(),
             user.getCreatedAt(),
-            0,
-            0,
+            user.getFollowerCount(),
+            user.getFollowingCount(),
             null
         );
     }
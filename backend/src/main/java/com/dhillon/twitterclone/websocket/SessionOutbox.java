@@ -0,0 +1,208 @@
+package com.dhillon.twitterclone.websocket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+
+/**
+ * Bounded outbound queue in front of one WebSocket session.
+ * Frames are written by a single sender task per session, so the broker thread handing over a frame
+ * never waits on a slow client's socket. When the queue is full the oldest STOMP MESSAGE frame is
+ * dropped: push events are hints that the next one supersedes, while protocol frames such as
+ * CONNECTED and RECEIPT are never dropped. A client whose current write has been stuck for longer
+ * than the send time limit is disconnected.
+ */
+public class SessionOutbox extends WebSocketSessionDecorator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionOutbox.class);
+
+    private static final String MESSAGE_FRAME = "MESSAGE\n";
+
+    private final Executor sender;
+    private final int capacity;
+    private final long sendTimeLimitMs;
+    private final Listener listener;
+
+    // Guarded by this
+    private final Deque<WebSocketMessage<?>> queue = new ArrayDeque<>();
+    private boolean sending;
+    private boolean closed;
+    private CloseStatus pendingClose;
+
+    // When the write in progress started, or 0 when idle
+    private volatile long sendStartedAt;
+
+    /**
+     * Constructor with limits.
+     *
+     * @param session the session to write to
+     * @param sender the executor that runs the sender task
+     * @param capacity the maximum number of queued frames
+     * @param sendTimeLimitMs how long one write may take before the client counts as stuck
+     * @param listener told about dropped frames and disconnected clients
+     */
+    public SessionOutbox(WebSocketSession session, Executor sender, int capacity, long sendTimeLimitMs,
+                         Listener listener) {
+        super(session);
+        this.sender = sender;
+        this.capacity = capacity;
+        this.sendTimeLimitMs = sendTimeLimitMs;
+        this.listener = listener;
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+        boolean startSender = false;
+        boolean stuck = false;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            long startedAt = sendStartedAt;
+            if (startedAt != 0 && System.currentTimeMillis() - startedAt > sendTimeLimitMs) {
+                stuck = true;
+            } else if (queue.size() >= capacity && !dropOldestMessage()) {
+                // Nothing droppable, so the client is not even reading protocol frames
+                stuck = true;
+            } else {
+                queue.add(message);
+                if (!sending) {
+                    sending = true;
+                    startSender = true;
+                }
+            }
+        }
+
+        if (stuck) {
+            logger.info("Disconnecting slow WebSocket client, session {}", getId());
+            listener.disconnected(this);
+            closeNow(CloseStatus.SESSION_NOT_RELIABLE);
+        } else if (startSender) {
+            sender.execute(this::drain);
+        }
+    }
+
+    /**
+     * Close once the queued frames are written, so that a final ERROR frame still reaches the client.
+     */
+    @Override
+    public void close(CloseStatus status) throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (sending) {
+                pendingClose = status;
+                return;
+            }
+        }
+        closeNow(status);
+    }
+
+    /**
+     * @return number of frames waiting to be written
+     */
+    public synchronized int queued() {
+        return queue.size();
+    }
+
+    /**
+     * Write queued frames until none are left. Runs on the sender executor, one task per session at a time.
+     */
+    private void drain() {
+        while (true) {
+            WebSocketMessage<?> message;
+            CloseStatus closeStatus = null;
+            synchronized (this) {
+                message = closed ? null : queue.poll();
+                if (message == null) {
+                    sending = false;
+                    closeStatus = pendingClose;
+                }
+            }
+            if (message == null) {
+                if (closeStatus != null) {
+                    closeNow(closeStatus);
+                }
+                return;
+            }
+
+            sendStartedAt = System.currentTimeMillis();
+            try {
+                getDelegate().sendMessage(message);
+            } catch (IOException | RuntimeException e) {
+                logger.debug("Failed to write to WebSocket session {}", getId(), e);
+                synchronized (this) {
+                    sending = false;
+                }
+                closeNow(CloseStatus.SESSION_NOT_RELIABLE);
+                return;
+            } finally {
+                sendStartedAt = 0;
+            }
+        }
+    }
+
+    /**
+     * Remove the oldest queued MESSAGE frame, if there is one. Must hold the lock.
+     *
+     * @return true if a frame was dropped
+     */
+    private boolean dropOldestMessage() {
+        Iterator<WebSocketMessage<?>> frames = queue.iterator();
+        while (frames.hasNext()) {
+            WebSocketMessage<?> frame = frames.next();
+            if (frame instanceof TextMessage text && text.getPayload().startsWith(MESSAGE_FRAME)) {
+                frames.remove();
+                listener.dropped(this);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void closeNow(CloseStatus status) {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.clear();
+        }
+        try {
+            getDelegate().close(status);
+        } catch (IOException e) {
+            logger.debug("Failed to close WebSocket session {}", getId(), e);
+        }
+    }
+
+    /**
+     * Callbacks for the events an outbox counts.
+     */
+    public interface Listener {
+
+        /**
+         * A queued MESSAGE frame was dropped to make room for a newer one.
+         *
+         * @param outbox the outbox
+         */
+        void dropped(SessionOutbox outbox);
+
+        /**
+         * The client was disconnected for not keeping up.
+         *
+         * @param outbox the outbox
+         */
+        void disconnected(SessionOutbox outbox);
+    }
+}
@@ -0,0 +1,110 @@
+package com.dhillon.twitterclone.websocket;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Puts a {@link SessionOutbox} in front of every WebSocket session, and keeps count of what they drop.
+ * Senders run on virtual threads, so a client stuck in a blocking write holds no platform thread
+ * and cannot starve the others.
+ */
+@Component
+public class SessionOutboxFactory implements WebSocketHandlerDecoratorFactory, SessionOutbox.Listener {
+
+    private final int capacity;
+    private final long sendTimeLimitMs;
+    private final ExecutorService sender = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("push-send-", 0).factory());
+    private final Map<String, SessionOutbox> outboxes = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder disconnected = new LongAdder();
+
+    /**
+     * Constructor with limits.
+     *
+     * @param capacity the maximum number of frames queued per session
+     * @param sendTimeLimitMs how long one write may take before the client is disconnected
+     */
+    public SessionOutboxFactory(@Value("${app.push.session-queue-capacity:32}") int capacity,
+                                @Value("${app.push.send-time-limit-ms:10000}") long sendTimeLimitMs) {
+        this.capacity = capacity;
+        this.sendTimeLimitMs = sendTimeLimitMs;
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                SessionOutbox outbox = new SessionOutbox(session, sender, capacity, sendTimeLimitMs,
+                        SessionOutboxFactory.this);
+                outboxes.put(session.getId(), outbox);
+                super.afterConnectionEstablished(outbox);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                outboxes.remove(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    @Override
+    public void dropped(SessionOutbox outbox) {
+        dropped.increment();
+    }
+
+    @Override
+    public void disconnected(SessionOutbox outbox) {
+        disconnected.increment();
+    }
+
+    /**
+     * @return number of open sessions
+     */
+    public int sessionCount() {
+        return outboxes.size();
+    }
+
+    /**
+     * @return number of frames queued across all sessions
+     */
+    public long queuedFrames() {
+        return outboxes.values().stream().mapToLong(SessionOutbox::queued).sum();
+    }
+
+    /**
+     * @return number of MESSAGE frames dropped since startup
+     */
+    public long droppedFrames() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return number of slow clients disconnected since startup
+     */
+    public long disconnectedClients() {
+        return disconnected.sum();
+    }
+
+    /**
+     * Stop the senders; frames still queued are abandoned with their sessions.
+     */
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+}
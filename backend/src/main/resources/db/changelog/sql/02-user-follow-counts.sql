@@ -0,0 +1,12 @@
+--liquibase formatted sql
+
+--changeset liquibase:5
+-- Denormalized follow counts so profile reads do not count the follows table
+alter table users add column follower_count int not null default 0;
+alter table users add column following_count int not null default 0;
+
+-- Backfill the counts for existing users
+update users
+set
+  follower_count = (select count(*) from follows where follows.following_id = users.id),
+  following_count = (select count(*) from follows where follows.follower_id = users.id);
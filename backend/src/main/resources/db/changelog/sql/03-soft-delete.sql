@@ -0,0 +1,15 @@
+--liquibase formatted sql
+
+--changeset liquibase:6
+-- Soft-delete markers; marked rows are hidden at once and removed later by the purge job
+alter table users add column deleted_at timestamp;
+alter table posts add column deleted_at timestamp;
+
+--changeset liquibase:7 dbms:postgresql
+-- Only the few rows awaiting purge are indexed
+create index idx_users_deleted_at on users(deleted_at) where deleted_at is not null;
+create index idx_posts_deleted_at on posts(deleted_at) where deleted_at is not null;
+
+--changeset liquibase:8 dbms:!postgresql
+create index idx_users_deleted_at on users(deleted_at);
+create index idx_posts_deleted_at on posts(deleted_at);
@@ -0,0 +1,19 @@
+--liquibase formatted sql
+
+--changeset liquibase:9
+-- Composite indexes shaped like the timeline queries: equality columns first, then the sort order,
+-- so a page can be read straight off the index without sorting every matching row
+create index idx_posts_user_created on posts(user_id, created_at desc, id);
+create index idx_posts_parent_created on posts(parent_id, created_at desc);
+create index idx_notifications_user_read_created on notifications(user_id, read, created_at desc);
+create index idx_post_hashtags_hashtag_post on post_hashtags(hashtag_id, post_id);
+
+--changeset liquibase:10 dbms:postgresql
+-- Superseded by the composite indexes above, which lead with the same column.
+-- H2 keeps them because it binds foreign keys to their own indexes.
+drop index idx_posts_user_id;
+drop index idx_posts_parent_id;
+drop index idx_notifications_user_id;
+
+-- likes(user_id, post_id) is already indexed by its unique constraint
+drop index idx_likes_user_id;
@@ -0,0 +1,138 @@
+--liquibase formatted sql
+
+--changeset liquibase:11 dbms:postgresql splitStatements:false
+-- Helpers for the monthly posts partitions, called by this migration and by the scheduled maintenance job.
+-- Partitions are named posts_YYYY_MM and cover [first of month, first of next month).
+create function create_posts_partition(month_start date) returns boolean as $$
+declare
+    partition_name text := 'posts_' || to_char(month_start, 'YYYY_MM');
+begin
+    if to_regclass(partition_name) is not null then
+        return false;
+    end if;
+    execute format('create table %I partition of posts for values from (%L) to (%L)',
+                   partition_name, month_start, (month_start + interval '1 month')::date);
+    return true;
+end;
+$$ language plpgsql;
+
+-- Create the partitions for the current month and the given number of months after it
+create function create_posts_partitions(months_ahead int) returns int as $$
+declare
+    month_start date;
+    created int := 0;
+begin
+    for month_start in
+        select generate_series(date_trunc('month', now()),
+                               date_trunc('month', now()) + make_interval(months => months_ahead),
+                               interval '1 month')::date
+    loop
+        if create_posts_partition(month_start) then
+            created := created + 1;
+        end if;
+    end loop;
+    return created;
+end;
+$$ language plpgsql;
+
+-- Detach monthly partitions that ended more than the given number of months ago.
+-- Detached partitions stay behind as ordinary tables, to be archived or dropped out of band.
+create function detach_posts_partitions(retain_months int) returns int as $$
+declare
+    partition_name text;
+    cutoff date := (date_trunc('month', now()) - make_interval(months => retain_months))::date;
+    detached int := 0;
+begin
+    for partition_name in
+        select c.relname
+        from pg_inherits i
+        join pg_class c on c.oid = i.inhrelid
+        where i.inhparent = 'posts'::regclass
+          and c.relname ~ '^posts_[0-9]{4}_[0-9]{2}$'
+          and to_date(substr(c.relname, 7), 'YYYY_MM') < cutoff
+    loop
+        execute format('alter table posts detach partition %I', partition_name);
+        detached := detached + 1;
+    end loop;
+    return detached;
+end;
+$$ language plpgsql;
+
+-- Foreign keys cannot target posts(id) once the primary key has to include created_at,
+-- so the ON DELETE rules they carried are applied by this trigger instead
+create function posts_delete_dependents() returns trigger as $$
+begin
+    delete from post_media where post_id = old.id;
+    delete from post_hashtags where post_id = old.id;
+    delete from likes where post_id = old.id;
+    delete from bookmarks where post_id = old.id;
+    update notifications set post_id = null where post_id = old.id;
+    update posts set parent_id = null where parent_id = old.id;
+    update posts set original_post_id = null where original_post_id = old.id;
+    return old;
+end;
+$$ language plpgsql;
+
+--changeset liquibase:12 dbms:postgresql splitStatements:false
+-- Range-partition posts by month on created_at, so recent rows live in small hot partitions
+-- and old months can be detached instead of bloating every index and vacuum
+alter table post_media drop constraint post_media_post_id_fkey;
+alter table post_hashtags drop constraint post_hashtags_post_id_fkey;
+alter table likes drop constraint likes_post_id_fkey;
+alter table bookmarks drop constraint bookmarks_post_id_fkey;
+alter table notifications drop constraint notifications_post_id_fkey;
+
+alter table posts rename to posts_unpartitioned;
+alter table posts_unpartitioned rename constraint posts_pkey to posts_unpartitioned_pkey;
+
+create table posts (
+    id uuid not null,
+    user_id uuid not null references users(id) on delete cascade,
+    content text not null,
+    is_reply boolean not null default false,
+    parent_id uuid,
+    is_repost boolean not null default false,
+    original_post_id uuid,
+    like_count int not null default 0,
+    reply_count int not null default 0,
+    repost_count int not null default 0,
+    created_at timestamp not null default now(),
+    updated_at timestamp not null default now(),
+    deleted_at timestamp,
+    primary key (id, created_at)
+) partition by range (created_at);
+comment on table posts is 'Table storing all posts (tweets) created by users, partitioned by month';
+
+-- Catches rows outside every monthly range; kept empty by creating partitions ahead of time
+create table posts_default partition of posts default;
+
+do $$
+declare
+    month_start date;
+begin
+    for month_start in
+        select distinct date_trunc('month', created_at)::date from posts_unpartitioned
+    loop
+        perform create_posts_partition(month_start);
+    end loop;
+    perform create_posts_partitions(3);
+end;
+$$;
+
+insert into posts (id, user_id, content, is_reply, parent_id, is_repost, original_post_id,
+                   like_count, reply_count, repost_count, created_at, updated_at, deleted_at)
+select id, user_id, content, is_reply, parent_id, is_repost, original_post_id,
+       like_count, reply_count, repost_count, created_at, updated_at, deleted_at
+from posts_unpartitioned;
+
+drop table posts_unpartitioned;
+
+-- Indexes on the parent are created on every current and future partition
+create index idx_posts_user_created on posts(user_id, created_at desc, id);
+create index idx_posts_parent_created on posts(parent_id, created_at desc);
+create index idx_posts_original_post_id on posts(original_post_id);
+create index idx_posts_created_at on posts(created_at);
+create index idx_posts_deleted_at on posts(deleted_at) where deleted_at is not null;
+
+create trigger posts_delete_dependents after delete on posts
+    for each row execute function posts_delete_dependents();
@@ -0,0 +1,9 @@
+--liquibase formatted sql
+
+--changeset liquibase:13
+-- Same-type events on the same post are collapsed into one notification row,
+-- which names the latest actor and counts all of them
+alter table notifications add column actor_count int not null default 1;
+
+-- Keyset pagination of a user's notifications walks (created_at, id) newest first
+create index idx_notifications_user_created on notifications(user_id, created_at desc, id desc);
@@ -0,0 +1,22 @@
+--liquibase formatted sql
+
+--changeset liquibase:14
+-- Time of the latest message, or of creation until there is one. Copied onto each participant row,
+-- so a user's inbox is read in order straight off (user_id, last_message_at), however many
+-- conversations the user is in
+alter table dm_conversations add column last_message_at timestamp not null default now();
+alter table dm_participants add column last_message_at timestamp not null default now();
+create index idx_dm_participants_user_last_message on dm_participants(user_id, last_message_at desc, conversation_id desc);
+
+-- Keyset pagination of a conversation's history walks (created_at, id) newest first
+create index idx_dm_messages_conversation_created on dm_messages(conversation_id, created_at desc, id desc);
+
+--changeset liquibase:15 dbms:postgresql
+-- Superseded by the composite indexes above, which lead with the same column.
+-- H2 keeps them because it binds foreign keys to their own indexes.
+drop index idx_dm_participants_user_id;
+drop index idx_dm_messages_conversation_id;
+drop index idx_dm_messages_created_at;
+
+-- Marking a conversation read only looks at the reader's unread rows
+create index idx_dm_message_status_user_unread on dm_message_status(user_id) where is_read = false;
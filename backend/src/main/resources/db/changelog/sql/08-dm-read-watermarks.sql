@@ -0,0 +1,23 @@
+--liquibase formatted sql
+
+--changeset liquibase:16
+-- Each participant's read position: the latest message read, by (created_at, id) like the history index.
+-- Everything up to it counts as read, so a read receipt is a single row write however many messages it covers
+alter table dm_participants add column last_read_at timestamp;
+alter table dm_participants add column last_read_message_id uuid;
+
+-- dm_message_status is no longer written, but is kept, with its index, until 10-drop-dm-message-status.sql,
+-- as instances of the previous release still write it during a rolling deploy.
+-- Backfill from the per-message statuses: the watermark is the latest message the participant sent or read.
+-- Unread messages older than a read one become read, which is what the watermark means from now on
+update dm_participants set last_read_message_id = (
+    select m.id from dm_messages m
+    where m.conversation_id = dm_participants.conversation_id
+      and (m.sender_id = dm_participants.user_id
+           or exists (select 1 from dm_message_status s
+                      where s.message_id = m.id and s.user_id = dm_participants.user_id and s.is_read = true))
+    order by m.created_at desc, m.id desc
+    limit 1);
+update dm_participants set last_read_at = (
+    select m.created_at from dm_messages m where m.id = dm_participants.last_read_message_id)
+where last_read_message_id is not null;
@@ -0,0 +1,11 @@
+--liquibase formatted sql
+
+--changeset liquibase:18
+-- A user's bookmarks are listed newest first, a page at a time by (created_at, id),
+-- so the list is read straight off this index however deep the page.
+-- The per-page "is it bookmarked" check is served by the unique (user_id, post_id) index
+create index idx_bookmarks_user_created on bookmarks(user_id, created_at desc, id desc);
+
+--changeset liquibase:19 dbms:postgresql
+-- Superseded by the composite index above, which leads with the same column
+drop index idx_bookmarks_user_id;
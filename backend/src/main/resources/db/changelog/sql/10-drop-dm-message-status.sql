@@ -0,0 +1,21 @@
+--liquibase formatted sql
+
+--changeset liquibase:20 labels:contract
+-- Contract step of the read watermarks, run with the contract label once no instance of the release before them
+-- is left: until then those instances still write per-message statuses.
+-- Catch up on what they wrote since changeset 16: a watermark only moves forward, to the latest message the
+-- participant sent, read, or was already at
+update dm_participants set last_read_message_id = (
+    select m.id from dm_messages m
+    where m.conversation_id = dm_participants.conversation_id
+      and (m.id = dm_participants.last_read_message_id
+           or m.sender_id = dm_participants.user_id
+           or exists (select 1 from dm_message_status s
+                      where s.message_id = m.id and s.user_id = dm_participants.user_id and s.is_read = true))
+    order by m.created_at desc, m.id desc
+    limit 1);
+update dm_participants set last_read_at = (
+    select m.created_at from dm_messages m where m.id = dm_participants.last_read_message_id)
+where last_read_message_id is not null;
+
+drop table dm_message_status;
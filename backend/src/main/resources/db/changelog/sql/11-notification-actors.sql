@@ -0,0 +1,13 @@
+--liquibase formatted sql
+
+--changeset liquibase:21
+-- The distinct actors of each notification, so an actor who repeats an action in a later flush is not
+-- counted again: actor_count is the number of rows here. Rows go with their notification or actor
+create table notification_actors (
+    notification_id uuid not null references notifications(id) on delete cascade,
+    actor_id uuid not null references users(id) on delete cascade,
+    primary key (notification_id, actor_id)
+);
+
+-- Only the latest actor of existing notifications is known
+insert into notification_actors (notification_id, actor_id) select id, actor_id from notifications;
@@ -0,0 +1,24 @@
+--liquibase formatted sql
+
+--changeset liquibase:22
+-- The two users of a one-to-one conversation, lower ID first in text order (the uuid order of both
+-- databases), so a pair can only have one. Null for groups
+alter table dm_conversations add column direct_user_low uuid;
+alter table dm_conversations add column direct_user_high uuid;
+
+-- There is no min or max of uuid in PostgreSQL, so the IDs are ordered as text
+update dm_conversations c set
+    direct_user_low = (select cast(min(cast(p.user_id as varchar(36))) as uuid)
+                       from dm_participants p where p.conversation_id = c.id),
+    direct_user_high = (select cast(max(cast(p.user_id as varchar(36))) as uuid)
+                        from dm_participants p where p.conversation_id = c.id)
+where c.is_group = false;
+
+-- A pair that already has more than one keeps the key on its oldest; the others stay in the inbox
+update dm_conversations c set direct_user_low = null, direct_user_high = null
+where c.direct_user_low is not null and exists (
+    select 1 from dm_conversations o
+    where o.direct_user_low = c.direct_user_low and o.direct_user_high = c.direct_user_high
+      and (o.created_at < c.created_at or (o.created_at = c.created_at and o.id < c.id)));
+
+create unique index uq_dm_conversations_direct_pair on dm_conversations(direct_user_low, direct_user_high);
@@ -0,0 +1,95 @@
+--liquibase formatted sql
+
+--changeset liquibase:23 dbms:postgresql splitStatements:false
+-- The partitioned posts table can only be unique on (id, created_at), which neither keeps post ids
+-- unique nor gives foreign keys anything to reference. Every post id is therefore also registered
+-- here, on insert, and the foreign keys dropped by the partitioning reference this table instead
+create table post_ids (
+    id uuid primary key
+);
+comment on table post_ids is 'The id of every post, unique across all posts partitions';
+
+insert into post_ids (id) select id from posts;
+
+-- Rows left pointing at posts that are gone while nothing enforced it
+delete from post_media m where not exists (select 1 from post_ids p where p.id = m.post_id);
+delete from post_hashtags h where not exists (select 1 from post_ids p where p.id = h.post_id);
+delete from likes l where not exists (select 1 from post_ids p where p.id = l.post_id);
+delete from bookmarks b where not exists (select 1 from post_ids p where p.id = b.post_id);
+update notifications n set post_id = null
+where post_id is not null and not exists (select 1 from post_ids p where p.id = n.post_id);
+update posts r set parent_id = null
+where parent_id is not null and not exists (select 1 from post_ids p where p.id = r.parent_id);
+update posts r set original_post_id = null
+where original_post_id is not null and not exists (select 1 from post_ids p where p.id = r.original_post_id);
+
+-- The ON DELETE rules the original foreign keys into posts(id) carried
+alter table post_media add constraint post_media_post_id_fkey
+    foreign key (post_id) references post_ids(id) on delete cascade;
+alter table post_hashtags add constraint post_hashtags_post_id_fkey
+    foreign key (post_id) references post_ids(id) on delete cascade;
+alter table likes add constraint likes_post_id_fkey
+    foreign key (post_id) references post_ids(id) on delete cascade;
+alter table bookmarks add constraint bookmarks_post_id_fkey
+    foreign key (post_id) references post_ids(id) on delete cascade;
+alter table notifications add constraint notifications_post_id_fkey
+    foreign key (post_id) references post_ids(id) on delete set null;
+alter table posts add constraint posts_parent_id_fkey
+    foreign key (parent_id) references post_ids(id) on delete set null;
+alter table posts add constraint posts_original_post_id_fkey
+    foreign key (original_post_id) references post_ids(id) on delete set null;
+
+-- So the cascades above find their rows without scanning
+create index idx_bookmarks_post_id on bookmarks(post_id);
+create index idx_notifications_post_id on notifications(post_id);
+
+-- A second post with an id already taken fails here on the primary key
+create function posts_register_id() returns trigger as $$
+begin
+    insert into post_ids (id) values (new.id);
+    return new;
+end;
+$$ language plpgsql;
+
+create trigger posts_register_id after insert on posts
+    for each row execute function posts_register_id();
+
+-- Deleting the registered id applies the foreign keys' ON DELETE rules
+create or replace function posts_delete_dependents() returns trigger as $$
+begin
+    delete from post_ids where id = old.id;
+    return old;
+end;
+$$ language plpgsql;
+
+-- Detaching a partition fires no delete triggers, so the detached posts' ids are unregistered here,
+-- which removes or unlinks their likes, bookmarks, media, hashtag links, notifications and replies.
+-- The detached table's own foreign keys are dropped first, so the archive is left as it was detached
+create or replace function detach_posts_partitions(retain_months int) returns int as $$
+declare
+    partition_name text;
+    constraint_name text;
+    cutoff date := (date_trunc('month', now()) - make_interval(months => retain_months))::date;
+    detached int := 0;
+begin
+    for partition_name in
+        select c.relname
+        from pg_inherits i
+        join pg_class c on c.oid = i.inhrelid
+        where i.inhparent = 'posts'::regclass
+          and c.relname ~ '^posts_[0-9]{4}_[0-9]{2}$'
+          and to_date(substr(c.relname, 7), 'YYYY_MM') < cutoff
+    loop
+        execute format('alter table posts detach partition %I', partition_name);
+        for constraint_name in
+            select conname from pg_constraint
+            where conrelid = partition_name::regclass and confrelid = 'post_ids'::regclass
+        loop
+            execute format('alter table %I drop constraint %I', partition_name, constraint_name);
+        end loop;
+        execute format('delete from post_ids p using %I d where p.id = d.id', partition_name);
+        detached := detached + 1;
+    end loop;
+    return detached;
+end;
+$$ language plpgsql;
@@ -0,0 +1,14 @@
+--liquibase formatted sql
+
+--changeset liquibase:24
+-- One row per login: each refresh replaces the family's current token, so only the latest one is accepted,
+-- and logging out deletes the row. Rows whose last token has expired are purged
+create table refresh_token_families (
+    id uuid primary key,
+    user_id uuid not null references users(id) on delete cascade,
+    current_token_id uuid not null,
+    expires_at timestamp not null
+);
+comment on table refresh_token_families is 'Refresh token families, one per login session, with the token currently accepted';
+
+create index idx_refresh_token_families_expires_at on refresh_token_families(expires_at);
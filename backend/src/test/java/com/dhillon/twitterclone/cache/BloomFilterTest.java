@@ -0,0 +1,56 @@
+package com.dhillon.twitterclone.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the BloomFilter.
+ */
+public class BloomFilterTest {
+    
+    @Test
+    public void mightContain_AfterPut_AlwaysReturnsTrue() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        
+        // Act
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user" + i);
+        }
+        
+        // Assert: Bloom filters never produce false negatives
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("user" + i)).isTrue();
+        }
+    }
+    
+    @Test
+    public void mightContain_ForUnseenValues_StaysNearTargetFalsePositiveRate() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user" + i);
+        }
+        
+        // Act
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other" + i)) {
+                falsePositives++;
+            }
+        }
+        
+        // Assert: allow generous slack over the 1% target
+        assertThat(falsePositives).isLessThan(2_000);
+    }
+    
+    @Test
+    public void mightContain_WhenEmpty_ReturnsFalse() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(100, 0.01);
+        
+        // Act & Assert
+        assertThat(filter.mightContain("anyone")).isFalse();
+    }
+}
@@ -0,0 +1,82 @@
+package com.dhillon.twitterclone.cache;
+
+import com.dhillon.twitterclone.config.JacksonConfig;
+import com.dhillon.twitterclone.dto.PostDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the PostJsonCache, serializing with the application's Jackson settings.
+ */
+public class PostJsonCacheTest {
+
+    private final ObjectMapper objectMapper = objectMapper();
+
+    @Test
+    public void put_SplicesBookmarkFlagsIntoWhatJacksonWouldWrite() throws Exception {
+        // Arrange: content that quotes the flag must be left alone
+        PostJsonCache cache = new PostJsonCache(objectMapper, 10);
+        PostDto original = post("{\"bookmarked\":false} is what the API sends", null);
+        PostDto repost = post("", original);
+
+        for (Set<UUID> bookmarked : List.of(Set.<UUID>of(), Set.of(repost.id()), Set.of(original.id()),
+                Set.of(repost.id(), original.id()))) {
+            // Act
+            JsonFragment.Spliced put = cache.put(repost.id(), "v1", repost, bookmarked);
+            JsonFragment.Spliced got = cache.get(repost.id(), "v1", bookmarked);
+
+            // Assert
+            PostDto expected = reposting(repost, original.withBookmarked(bookmarked.contains(original.id())))
+                    .withBookmarked(bookmarked.contains(repost.id()));
+            byte[] json = objectMapper.writeValueAsBytes(expected);
+            assertThat(new String(put.toByteArray(), StandardCharsets.UTF_8))
+                    .isEqualTo(new String(json, StandardCharsets.UTF_8));
+            assertThat(got.toByteArray()).isEqualTo(json);
+            assertThat(got.length()).isEqualTo(json.length);
+        }
+    }
+
+    @Test
+    public void get_AtAnotherVersion_Misses() {
+        // Arrange
+        PostJsonCache cache = new PostJsonCache(objectMapper, 1);
+        PostDto post = post("hello", null);
+        PostDto other = post("world", null);
+        cache.put(post.id(), "v1", post, Set.of());
+
+        // Act & Assert: a newer version replaces the older one, and the oldest post makes way
+        assertThat(cache.get(post.id(), "v2", Set.of())).isNull();
+        assertThat(cache.get(post.id(), "v1", Set.of(post.id())).flags()).containsExactly(true);
+        cache.put(other.id(), "v1", other, Set.of());
+        assertThat(cache.get(post.id(), "v1", Set.of())).isNull();
+        assertThat(cache.get(other.id(), "v1", Set.of())).isNotNull();
+    }
+
+    static PostDto post(String content, PostDto original) {
+        return new PostDto(UUID.randomUUID(), UUID.randomUUID(), "alice", "Alice", null, content,
+                List.of("/media/1.png"), 3, 1, 2, false, false, false, LocalDateTime.of(2024, 1, 2, 3, 4, 5),
+                List.of("java"), List.of(), original, List.of());
+    }
+
+    private static PostDto reposting(PostDto post, PostDto original) {
+        return new PostDto(post.id(), post.userId(), post.username(), post.displayName(), post.profileImage(),
+                post.content(), post.media(), post.likeCount(), post.retweetCount(), post.replyCount(), post.liked(),
+                post.retweeted(), post.bookmarked(), post.createdAt(), post.hashtags(), post.mentions(), original,
+                post.repostedBy());
+    }
+
+    static ObjectMapper objectMapper() {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        new JacksonConfig().sparseFieldsetCustomizer().customize(builder);
+        return builder.build();
+    }
+}
@@ -0,0 +1,94 @@
+package com.dhillon.twitterclone.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the UnreadCounts cache.
+ */
+public class UnreadCountsTest {
+
+    private final UUID userId = UUID.randomUUID();
+
+    @Test
+    public void increment_OnlyAdjustsCachedUsers() {
+        // Arrange
+        UnreadCounts counts = new UnreadCounts(10);
+        UUID uncached = UUID.randomUUID();
+        counts.load(userId, 2);
+
+        // Act
+        counts.increment(userId, 3);
+        counts.increment(uncached, 3);
+
+        // Assert: an uncached user is counted from the database on their next read instead
+        assertThat(counts.get(userId)).isEqualTo(5);
+        assertThat(counts.get(uncached)).isNull();
+    }
+
+    @Test
+    public void awaitChange_CompletesOnNextChangeAndForgetsWaiter() {
+        // Arrange
+        UnreadCounts counts = new UnreadCounts(10);
+        counts.load(userId, 0);
+        CompletableFuture<Long> waiter = counts.awaitChange(userId, 0);
+
+        // Act
+        counts.increment(userId, 1);
+
+        // Assert
+        assertThat(waiter).isCompletedWithValue(1L);
+        assertThat(counts.waiterCount()).isZero();
+    }
+
+    @Test
+    public void awaitChange_WhenAlreadyChanged_CompletesAtOnce() {
+        // Arrange
+        UnreadCounts counts = new UnreadCounts(10);
+        counts.load(userId, 4);
+
+        // Act
+        CompletableFuture<Long> waiter = counts.awaitChange(userId, 1);
+
+        // Assert
+        assertThat(waiter).isCompletedWithValue(4L);
+    }
+
+    @Test
+    public void replace_WhenChangedSinceSnapshot_KeepsNewerCount() {
+        // Arrange
+        UnreadCounts counts = new UnreadCounts(10);
+        counts.load(userId, 1);
+        long expected = counts.snapshot().get(userId);
+        counts.increment(userId, 1);
+
+        // Act
+        boolean replaced = counts.replace(userId, expected, 7);
+
+        // Assert
+        assertThat(replaced).isFalse();
+        assertThat(counts.get(userId)).isEqualTo(2);
+    }
+
+    @Test
+    public void load_BeyondCapacity_EvictsLeastRecentlyUsed() {
+        // Arrange
+        UnreadCounts counts = new UnreadCounts(2);
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        counts.load(userId, 1);
+        counts.load(second, 1);
+        counts.get(userId);
+
+        // Act
+        counts.load(third, 1);
+
+        // Assert
+        assertThat(counts.get(userId)).isEqualTo(1);
+        assertThat(counts.get(second)).isNull();
+    }
+}
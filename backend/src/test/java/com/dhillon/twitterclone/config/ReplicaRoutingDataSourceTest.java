@@ -0,0 +1,132 @@
+package com.dhillon.twitterclone.config;
+
+import com.dhillon.twitterclone.cache.RecentWriters;
+import com.dhillon.twitterclone.security.AuthenticatedUser;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the ReplicaRoutingDataSource, with in-memory H2 databases standing in for the primary and replicas.
+ * Each database holds a single row naming itself.
+ */
+public class ReplicaRoutingDataSourceTest {
+    
+    private ReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+    
+    @BeforeEach
+    public void setup() {
+        routingDataSource = new ReplicaRoutingDataSource(
+                pool("primary"), List.of(pool("replica-1"), pool("replica-2")), new RecentWriters(60000));
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+    
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        routingDataSource.close();
+    }
+    
+    @Test
+    public void readOnlyTransaction_GoesToReplica() {
+        String target = readOnly.execute(status -> target());
+        
+        assertThat(target).startsWith("replica");
+    }
+    
+    @Test
+    public void readWriteTransaction_GoesToPrimary() {
+        String target = readWrite.execute(status -> target());
+        
+        assertThat(target).isEqualTo("primary");
+    }
+    
+    @Test
+    public void withoutTransaction_GoesToPrimary() {
+        assertThat(target()).isEqualTo("primary");
+    }
+    
+    @Test
+    public void readOnlyTransactions_AlternateBetweenReplicas() {
+        String first = readOnly.execute(status -> target());
+        String second = readOnly.execute(status -> target());
+        
+        assertThat(List.of(first, second)).containsExactlyInAnyOrder("replica-1", "replica-2");
+    }
+    
+    @Test
+    public void afterWrite_SameUserReadsFromPrimary() {
+        // Arrange
+        UUID writer = UUID.randomUUID();
+        authenticate(writer);
+        readWrite.executeWithoutResult(status -> target());
+        
+        // Act
+        String writerReads = readOnly.execute(status -> target());
+        authenticate(UUID.randomUUID());
+        String otherReads = readOnly.execute(status -> target());
+        
+        // Assert
+        assertThat(writerReads).isEqualTo("primary");
+        assertThat(otherReads).startsWith("replica");
+    }
+    
+    @Test
+    public void rolledBackWrite_DoesNotStickUser() {
+        // Arrange
+        authenticate(UUID.randomUUID());
+        readWrite.executeWithoutResult(status -> {
+            target();
+            status.setRollbackOnly();
+        });
+        
+        // Act
+        String reads = readOnly.execute(status -> target());
+        
+        // Assert
+        assertThat(reads).startsWith("replica");
+    }
+    
+    private String target() {
+        return jdbcTemplate.queryForObject("SELECT name FROM target", String.class);
+    }
+    
+    private static void authenticate(UUID userId) {
+        AuthenticatedUser user = AuthenticatedUser.of(userId, "user", List.of("USER"), Instant.now().plusSeconds(60));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.authorities()));
+    }
+    
+    private static HikariDataSource pool(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:routing-" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setPoolName(name);
+        dataSource.setMaximumPoolSize(2);
+        new JdbcTemplate(dataSource).execute(
+                "CREATE TABLE target (name VARCHAR(20)); INSERT INTO target VALUES ('" + name + "')");
+        return dataSource;
+    }
+}
@@ -0,0 +1,193 @@
+package com.dhillon.twitterclone.controller;
+
+import com.dhillon.twitterclone.entity.User;
+import com.dhillon.twitterclone.exception.GlobalExceptionHandler;
+import com.dhillon.twitterclone.exception.ServiceUnavailableException;
+import com.dhillon.twitterclone.security.JwtTokenProvider;
+import com.dhillon.twitterclone.security.LoginThrottle;
+import com.dhillon.twitterclone.security.RefreshTokenStore;
+import com.dhillon.twitterclone.service.PasswordHashingService;
+import com.dhillon.twitterclone.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Controller tests for AuthController.
+ */
+@ExtendWith(MockitoExtension.class)
+public class AuthControllerTest {
+    
+    private static final String LOGIN_BODY = "{\"username\":\"testuser\",\"password\":\"secret\"}";
+    
+    private MockMvc mockMvc;
+    
+    @Mock
+    private UserService userService;
+    
+    @Mock
+    private PasswordHashingService passwordHashingService;
+    
+    @Mock
+    private RefreshTokenStore refreshTokenStore;
+    
+    private LoginThrottle loginThrottle;
+    
+    private JwtTokenProvider tokenProvider;
+    
+    private User testUser;
+    
+    @BeforeEach
+    public void setup() {
+        loginThrottle = new LoginThrottle(2, 1, 100, 100);
+        tokenProvider = new JwtTokenProvider("test-secret-that-is-at-least-32-bytes-long", 60000, 600000);
+        mockMvc = MockMvcBuilders.standaloneSetup(new AuthController(userService, passwordHashingService, loginThrottle,
+                        tokenProvider, refreshTokenStore))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+        
+        testUser = new User();
+        testUser.setId(UUID.randomUUID());
+        testUser.setUsername("testuser");
+        testUser.setEmail("test@example.com");
+        testUser.setDisplayName("Test User");
+        testUser.setPasswordHash("$2a$04$oldhash");
+        testUser.setEnabled(true);
+        testUser.setRoles(List.of("USER"));
+    }
+    
+    @Test
+    public void login_WithValidCredentials_RehashesOutdatedHash() throws Exception {
+        // Arrange
+        when(userService.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(passwordHashingService.verify("secret", "$2a$04$oldhash")).thenReturn(CompletableFuture.completedFuture(true));
+        when(passwordHashingService.needsRehash("$2a$04$oldhash")).thenReturn(true);
+        when(passwordHashingService.hash("secret")).thenReturn(CompletableFuture.completedFuture("$2a$10$newhash"));
+        
+        // Act
+        MvcResult result = mockMvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON).content(LOGIN_BODY))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.username", is("testuser")))
+                .andExpect(jsonPath("$.data.token", notNullValue()))
+                .andExpect(jsonPath("$.data.refreshToken", notNullValue()));
+        verify(userService).replacePasswordHash(testUser.getId(), "$2a$04$oldhash", "$2a$10$newhash");
+        verify(refreshTokenStore).start(argThat(token -> token.userId().equals(testUser.getId())));
+    }
+    
+    @Test
+    public void login_WithInvalidCredentials_ReturnsUnauthorized() throws Exception {
+        // Arrange
+        when(userService.findByUsername("testuser")).thenReturn(Optional.empty());
+        when(passwordHashingService.verify("secret", null)).thenReturn(CompletableFuture.completedFuture(false));
+        
+        // Act
+        MvcResult result = mockMvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON).content(LOGIN_BODY))
+                .andReturn();
+        
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isUnauthorized());
+        verify(userService, never()).replacePasswordHash(any(), any(), any());
+    }
+    
+    @Test
+    public void login_WhenUsernameThrottled_ReturnsTooManyRequests() throws Exception {
+        // Arrange
+        when(userService.findByUsername("testuser")).thenReturn(Optional.empty());
+        when(passwordHashingService.verify(eq("secret"), any())).thenReturn(CompletableFuture.completedFuture(false));
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON).content(LOGIN_BODY));
+        }
+        
+        // Act & Assert
+        mockMvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON).content(LOGIN_BODY))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+    }
+    
+    @Test
+    public void login_WhenHashingPoolFull_ReturnsServiceUnavailable() throws Exception {
+        // Arrange
+        when(userService.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(passwordHashingService.verify(any(), any()))
+                .thenThrow(new ServiceUnavailableException("Too many password requests in progress", 1));
+        
+        // Act & Assert
+        mockMvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON).content(LOGIN_BODY))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+    
+    @Test
+    public void refresh_RotatesTokenWithinItsFamilyAndRejectsReuse() throws Exception {
+        // Arrange
+        JwtTokenProvider.RefreshToken refreshToken = tokenProvider.newRefreshToken(testUser.getId(), UUID.randomUUID());
+        when(userService.findById(testUser.getId())).thenReturn(Optional.of(testUser));
+        when(refreshTokenStore.rotate(any(), any())).thenReturn(true, false);
+        String body = refreshBody(refreshToken);
+        
+        // Act & Assert: the store accepts the token once
+        mockMvc.perform(post("/auth/refresh").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.token", notNullValue()))
+                .andExpect(jsonPath("$.data.refreshToken", notNullValue()));
+        mockMvc.perform(post("/auth/refresh").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isUnauthorized());
+        verify(refreshTokenStore, times(2)).rotate(
+                argThat(presented -> presented.id().equals(refreshToken.id())),
+                argThat(next -> next.familyId().equals(refreshToken.familyId()) && !next.id().equals(refreshToken.id())));
+    }
+    
+    @Test
+    public void logout_RevokesTheTokensFamily() throws Exception {
+        // Arrange
+        JwtTokenProvider.RefreshToken refreshToken = tokenProvider.newRefreshToken(testUser.getId(), UUID.randomUUID());
+        
+        // Act
+        mockMvc.perform(post("/auth/logout").contentType(MediaType.APPLICATION_JSON).content(refreshBody(refreshToken)))
+                .andExpect(status().isNoContent());
+        
+        // Assert
+        verify(refreshTokenStore).revoke(refreshToken.familyId());
+    }
+    
+    @Test
+    public void refresh_WithAccessToken_ReturnsUnauthorized() throws Exception {
+        // Arrange
+        String accessToken = tokenProvider.createAccessToken(testUser.getId(), "testuser", List.of("USER"));
+        
+        // Act & Assert
+        mockMvc.perform(post("/auth/refresh").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + accessToken + "\"}"))
+                .andExpect(status().isUnauthorized());
+    }
+    
+    private String refreshBody(JwtTokenProvider.RefreshToken refreshToken) {
+        return "{\"refreshToken\":\"" + tokenProvider.createRefreshToken(refreshToken) + "\"}";
+    }
+}
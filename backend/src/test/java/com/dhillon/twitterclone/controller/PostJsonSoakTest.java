@@ -0,0 +1,209 @@
+package com.dhillon.twitterclone.controller;
+
+import com.dhillon.twitterclone.cache.PostJsonCache;
+import com.dhillon.twitterclone.config.JacksonConfig;
+import com.dhillon.twitterclone.config.JsonFragmentHttpMessageConverter;
+import com.dhillon.twitterclone.dto.PostDto;
+import com.dhillon.twitterclone.dto.PostVersion;
+import com.dhillon.twitterclone.entity.Post;
+import com.dhillon.twitterclone.entity.User;
+import com.dhillon.twitterclone.service.BookmarkService;
+import com.dhillon.twitterclone.service.PostService;
+import com.dhillon.twitterclone.service.UserService;
+import com.dhillon.twitterclone.util.PostMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Benchmark of a hot post read over and over: serialized by Jackson for every reader, compared with its
+ * cached JSON with the reader's bookmark flags spliced in. First the serialization alone, on the CPU time
+ * of the thread, then whole GET /posts/{id} requests against mocked services. Throughput is logged;
+ * that both write the same bytes is asserted. Run with -Psoak-tests.
+ */
+public class PostJsonSoakTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostJsonSoakTest.class);
+
+    private static final int WARMUP = 20_000;
+    private static final int POSTS = 200_000;
+    private static final int REQUESTS = 20_000;
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    private ObjectMapper objectMapper;
+    private Post repost;
+    private Post original;
+
+    @BeforeEach
+    public void setup() {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        new JacksonConfig().sparseFieldsetCustomizer().customize(builder);
+        objectMapper = builder.build();
+
+        original = post(user("author"), "A post worth reposting, with #hashtags and a link to "
+                + "https://example.com/some/long/path?with=query&and=more " + "and some more words ".repeat(8));
+        original.getMedia().add("/media/1.png");
+        original.getMedia().add("/media/2.png");
+        repost = post(user("alice"), "");
+        repost.setRepost(true);
+        repost.setOriginalPost(original);
+    }
+
+    @Test
+    public void serialize_SplicingCachedJsonSkipsJackson() throws Exception {
+        // Arrange: the hot post, read alternately by users who have and have not bookmarked it
+        PostDto dto = PostMapper.toDtoList(List.of(repost), Map.of(original.getId(), original), Set.of()).get(0);
+        PostJsonCache cache = new PostJsonCache(objectMapper, 10);
+        List<Set<UUID>> readers = List.of(Set.of(), Set.of(repost.getId(), original.getId()));
+        cache.put(repost.getId(), "v1", dto, Set.of());
+        CountingStream jacksonOut = new CountingStream();
+        CountingStream splicedOut = new CountingStream();
+        for (int i = 0; i < WARMUP; i++) {
+            objectMapper.writeValue(jacksonOut, bookmarked(dto, readers.get(i % 2)));
+            cache.get(repost.getId(), "v1", readers.get(i % 2)).writeTo(splicedOut);
+        }
+        jacksonOut.count = 0;
+        splicedOut.count = 0;
+
+        // Act: as every response did before
+        long jacksonStart = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < POSTS; i++) {
+            objectMapper.writeValue(jacksonOut, bookmarked(dto, readers.get(i % 2)));
+        }
+        long jacksonNanos = threads.getCurrentThreadCpuTime() - jacksonStart;
+
+        // From the cache
+        long splicedStart = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < POSTS; i++) {
+            cache.get(repost.getId(), "v1", readers.get(i % 2)).writeTo(splicedOut);
+        }
+        long splicedNanos = threads.getCurrentThreadCpuTime() - splicedStart;
+
+        logger.info("{} posts of {} bytes: Jackson took {} ns of CPU per post, the cached JSON {} ns ({}x)",
+                POSTS, splicedOut.count / POSTS, jacksonNanos / POSTS, splicedNanos / POSTS,
+                jacksonNanos / Math.max(splicedNanos, 1));
+
+        // Assert
+        assertThat(splicedOut.count).isEqualTo(jacksonOut.count);
+        for (Set<UUID> reader : readers) {
+            assertThat(cache.get(repost.getId(), "v1", reader).toByteArray())
+                    .isEqualTo(objectMapper.writeValueAsBytes(bookmarked(dto, reader)));
+        }
+    }
+
+    @Test
+    public void getPostById_ServesCachedJsonAtHigherThroughput() throws Exception {
+        // Arrange: without room in the cache every request serializes the post again
+        MockMvc uncached = mockMvc(new PostJsonCache(objectMapper, 0));
+        MockMvc cached = mockMvc(new PostJsonCache(objectMapper, 1000));
+        String path = "/posts/" + repost.getId();
+        for (int i = 0; i < WARMUP / 10; i++) {
+            uncached.perform(get(path));
+            cached.perform(get(path));
+        }
+
+        // Act
+        long uncachedNanos = time(uncached, path);
+        long cachedNanos = time(cached, path);
+
+        logger.info("{} requests: {} requests/s serializing each post, {} requests/s from the cache",
+                REQUESTS, perSecond(REQUESTS, uncachedNanos), perSecond(REQUESTS, cachedNanos));
+
+        // Assert
+        String expected = uncached.perform(get(path)).andReturn().getResponse().getContentAsString();
+        assertThat(cached.perform(get(path)).andReturn().getResponse().getContentAsString()).isEqualTo(expected);
+    }
+
+    private MockMvc mockMvc(PostJsonCache cache) {
+        PostService postService = mock(PostService.class);
+        PostVersion version = mock(PostVersion.class);
+        when(version.getId()).thenReturn(repost.getId());
+        when(version.getOriginalId()).thenReturn(original.getId());
+        when(postService.findVersion(repost.getId())).thenReturn(Optional.of(version));
+        when(postService.findById(repost.getId())).thenReturn(Optional.of(repost));
+        when(postService.getOriginalPosts(any())).thenReturn(Map.of(original.getId(), original));
+        PostController controller = new PostController(postService, mock(UserService.class),
+                mock(BookmarkService.class), cache, 100);
+        return MockMvcBuilders.standaloneSetup(controller)
+                .setMessageConverters(new JsonFragmentHttpMessageConverter(),
+                        new MappingJackson2HttpMessageConverter(objectMapper))
+                .build();
+    }
+
+    private static long time(MockMvc mockMvc, String path) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            mockMvc.perform(get(path));
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static PostDto bookmarked(PostDto dto, Set<UUID> bookmarkedPostIds) {
+        PostDto original = dto.originalPost().withBookmarked(bookmarkedPostIds.contains(dto.originalPost().id()));
+        return new PostDto(dto.id(), dto.userId(), dto.username(), dto.displayName(), dto.profileImage(),
+                dto.content(), dto.media(), dto.likeCount(), dto.retweetCount(), dto.replyCount(), dto.liked(),
+                dto.retweeted(), bookmarkedPostIds.contains(dto.id()), dto.createdAt(), dto.hashtags(),
+                dto.mentions(), original, dto.repostedBy());
+    }
+
+    private static long perSecond(int count, long nanos) {
+        return count * 1_000_000_000L / Math.max(nanos, 1);
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setUsername(username);
+        user.setDisplayName(username);
+        user.setUpdatedAt(LocalDateTime.now());
+        return user;
+    }
+
+    private static Post post(User author, String content) {
+        Post post = new Post(author, content);
+        post.setId(UUID.randomUUID());
+        post.setCreatedAt(LocalDateTime.now());
+        return post;
+    }
+
+    /**
+     * Discards what is written, counting the bytes
+     */
+    private static class CountingStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
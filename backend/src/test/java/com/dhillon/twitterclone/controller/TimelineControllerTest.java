@@ -0,0 +1,331 @@
+package com.dhillon.twitterclone.controller;
+
+import com.dhillon.twitterclone.config.JacksonConfig;
+import com.dhillon.twitterclone.config.SparseFieldsetAdvice;
+import com.dhillon.twitterclone.dto.TimelineEntryDto;
+import com.dhillon.twitterclone.entity.Post;
+import com.dhillon.twitterclone.entity.User;
+import com.dhillon.twitterclone.exception.GlobalExceptionHandler;
+import com.dhillon.twitterclone.security.AuthenticatedUser;
+import com.dhillon.twitterclone.service.BookmarkService;
+import com.dhillon.twitterclone.service.PostService;
+import com.dhillon.twitterclone.service.impl.TimelineStreamServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Controller tests for TimelineController, streaming from a real TimelineStreamServiceImpl
+ * and reading the home timeline from mocked services.
+ */
+public class TimelineControllerTest {
+
+    private static final Pattern EVENT_ID = Pattern.compile("id:(\\S+)");
+
+    private MockMvc mockMvc;
+
+    private TimelineStreamServiceImpl timelineStreamService;
+
+    private PostService postService;
+
+    private BookmarkService bookmarkService;
+
+    private UUID userId;
+
+    @BeforeEach
+    public void setup() {
+        timelineStreamService = new TimelineStreamServiceImpl(3, 100, 60000, 3000);
+        postService = mock(PostService.class);
+        bookmarkService = mock(BookmarkService.class);
+        mockMvc = MockMvcBuilders.standaloneSetup(
+                        new TimelineController(timelineStreamService, postService, bookmarkService, 100))
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .setControllerAdvice(new GlobalExceptionHandler(), new SparseFieldsetAdvice())
+                .setMessageConverters(new StringHttpMessageConverter(), jsonConverter())
+                .build();
+
+        userId = UUID.randomUUID();
+        AuthenticatedUser user = new AuthenticatedUser(userId, "testuser", List.of(), Instant.now().plusSeconds(60));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, List.of()));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        SecurityContextHolder.clearContext();
+        timelineStreamService.shutdown();
+    }
+
+    @Test
+    public void stream_SendsNewPostsAsTheyArePublished() throws Exception {
+        // Arrange
+        MockHttpServletResponse response = open(null);
+        UUID postId = UUID.randomUUID();
+
+        // Act
+        timelineStreamService.publish(userId, List.of(new TimelineEntryDto(postId, UUID.randomUUID())));
+
+        // Assert
+        await(() -> contentOf(response).contains(postId.toString()));
+        assertThat(contentOf(response)).contains("retry:3000", "event:post", "\"postId\":\"" + postId + "\"");
+        assertThat(response.getHeader("X-Accel-Buffering")).isEqualTo("no");
+    }
+
+    @Test
+    public void stream_WithLastEventId_ReplaysMissedPosts() throws Exception {
+        // Arrange: the client saw the first post, then lost its connection
+        MockHttpServletResponse first = open(null);
+        UUID seen = UUID.randomUUID();
+        timelineStreamService.publish(userId, List.of(new TimelineEntryDto(seen, UUID.randomUUID())));
+        await(() -> contentOf(first).contains(seen.toString()));
+        String lastEventId = lastEventId(first);
+        UUID missed1 = UUID.randomUUID();
+        UUID missed2 = UUID.randomUUID();
+        timelineStreamService.publish(userId, List.of(
+                new TimelineEntryDto(missed1, UUID.randomUUID()), new TimelineEntryDto(missed2, UUID.randomUUID())));
+
+        // Act
+        MockHttpServletResponse resumed = open(lastEventId);
+
+        // Assert
+        await(() -> contentOf(resumed).contains(missed2.toString()));
+        String content = contentOf(resumed);
+        assertThat(content).doesNotContain(seen.toString(), "event:reset");
+        assertThat(content.indexOf(missed1.toString())).isLessThan(content.indexOf(missed2.toString()));
+    }
+
+    @Test
+    public void stream_WhenMissedPostsLeftTheBuffer_SendsReset() throws Exception {
+        // Arrange: more posts than the buffer holds arrive after the client's last event
+        MockHttpServletResponse first = open(null);
+        UUID seen = UUID.randomUUID();
+        timelineStreamService.publish(userId, List.of(new TimelineEntryDto(seen, UUID.randomUUID())));
+        await(() -> contentOf(first).contains(seen.toString()));
+        String lastEventId = lastEventId(first);
+        for (int i = 0; i < 4; i++) {
+            timelineStreamService.publish(userId, List.of(new TimelineEntryDto(UUID.randomUUID(), UUID.randomUUID())));
+        }
+
+        // Act
+        MockHttpServletResponse resumed = open(lastEventId);
+        UUID next = UUID.randomUUID();
+        await(() -> contentOf(resumed).contains("event:reset"));
+        timelineStreamService.publish(userId, List.of(new TimelineEntryDto(next, UUID.randomUUID())));
+
+        // Assert: only what follows the reset is sent
+        await(() -> contentOf(resumed).contains(next.toString()));
+        assertThat(contentOf(resumed).split("event:post")).hasSize(2);
+    }
+
+    @Test
+    public void stream_WithUnknownLastEventId_SendsReset() throws Exception {
+        // Act
+        MockHttpServletResponse response = open("stale-42");
+
+        // Assert
+        await(() -> contentOf(response).contains("event:reset"));
+    }
+
+    @Test
+    public void getHomeTimeline_CollapsesRepostsOfTheSameOriginal() throws Exception {
+        // Arrange: two followees repost the same post, one of them between two other posts
+        Post original = post(user("author"), "the original");
+        Post byAlice = repost(user("alice"), original);
+        Post other = post(user("carol"), "something else");
+        Post byBob = repost(user("bob"), original);
+        List<Post> posts = List.of(byAlice, other, byBob);
+        when(postService.getHomeTimeline(eq(userId), any()))
+                .thenReturn(new SliceImpl<>(posts, PageRequest.of(0, 20), false));
+        when(postService.getOriginalPosts(posts)).thenReturn(Map.of(original.getId(), original));
+        when(bookmarkService.getBookmarkedPostIds(eq(userId), anyCollection())).thenReturn(Set.of(original.getId()));
+
+        // Act & Assert
+        mockMvc.perform(get("/timeline"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id").value(byAlice.getId().toString()))
+                .andExpect(jsonPath("$[0].repostedBy", contains("alice", "bob")))
+                .andExpect(jsonPath("$[0].originalPost.content").value("the original"))
+                .andExpect(jsonPath("$[0].originalPost.username").value("author"))
+                .andExpect(jsonPath("$[0].originalPost.bookmarked").value(true))
+                .andExpect(jsonPath("$[1].content").value("something else"))
+                .andExpect(jsonPath("$[1].repostedBy", hasSize(0)));
+    }
+
+    @Test
+    public void getHomeTimeline_WithFields_WritesOnlyThoseAndSkipsBookmarks() throws Exception {
+        // Arrange
+        Post original = post(user("author"), "the original");
+        original.getMedia().add("/media/1.png");
+        Post repost = repost(user("alice"), original);
+        List<Post> posts = List.of(repost);
+        when(postService.getHomeTimeline(eq(userId), any()))
+                .thenReturn(new SliceImpl<>(posts, PageRequest.of(0, 20), false));
+        when(postService.getOriginalPosts(posts)).thenReturn(Map.of(original.getId(), original));
+
+        // Act & Assert: the embedded original is trimmed the same way
+        mockMvc.perform(get("/timeline").param("fields", "content, repostedBy,originalPost"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(repost.getId().toString()))
+                .andExpect(jsonPath("$[0].repostedBy", contains("alice")))
+                .andExpect(jsonPath("$[0].username").doesNotExist())
+                .andExpect(jsonPath("$[0].bookmarked").doesNotExist())
+                .andExpect(jsonPath("$[0].originalPost.content").value("the original"))
+                .andExpect(jsonPath("$[0].originalPost.media").doesNotExist());
+        verify(bookmarkService, never()).getBookmarkedPostIds(any(), anyCollection());
+    }
+
+    @Test
+    public void getHomeTimeline_WithUnknownField_Returns400() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/timeline").param("fields", "content,password"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void getHomeTimeline_WithCurrentETag_Returns304WithoutLoadingPosts() throws Exception {
+        // Arrange
+        UUID head = UUID.randomUUID();
+        when(postService.getHomeTimelineHead(userId)).thenReturn(Optional.of(head));
+        when(postService.getHomeTimeline(eq(userId), any()))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 20), false));
+        String eTag = mockMvc.perform(get("/timeline"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(eTag).startsWith("W/\"");
+
+        // Act & Assert
+        mockMvc.perform(get("/timeline").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", eTag));
+        verify(postService, times(1)).getHomeTimeline(eq(userId), any());
+    }
+
+    @Test
+    public void getHomeTimeline_WhenANewPostArrives_ChangesETag() throws Exception {
+        // Arrange
+        when(postService.getHomeTimelineHead(userId)).thenReturn(Optional.of(UUID.randomUUID()));
+        when(postService.getHomeTimeline(eq(userId), any()))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 20), false));
+        String eTag = mockMvc.perform(get("/timeline"))
+                .andReturn().getResponse().getHeader("ETag");
+        when(postService.getHomeTimelineHead(userId)).thenReturn(Optional.of(UUID.randomUUID()));
+
+        // Act & Assert: the same page of a different size is a different representation as well
+        mockMvc.perform(get("/timeline").header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(eTag)));
+        mockMvc.perform(get("/timeline").param("size", "10").header("If-None-Match", eTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void stream_WithoutAuthentication_Returns401() throws Exception {
+        // Arrange
+        SecurityContextHolder.clearContext();
+
+        // Act & Assert
+        mockMvc.perform(get("/timeline/stream"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private static MappingJackson2HttpMessageConverter jsonConverter() {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        new JacksonConfig().sparseFieldsetCustomizer().customize(builder);
+        return new MappingJackson2HttpMessageConverter(builder.build());
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setUsername(username);
+        return user;
+    }
+
+    private static Post post(User author, String content) {
+        Post post = new Post(author, content);
+        post.setId(UUID.randomUUID());
+        return post;
+    }
+
+    private static Post repost(User reposter, Post original) {
+        Post repost = post(reposter, "");
+        repost.setRepost(true);
+        repost.setOriginalPost(original);
+        return repost;
+    }
+
+    private MockHttpServletResponse open(String lastEventId) throws Exception {
+        MockHttpServletRequestBuilder builder = get("/timeline/stream");
+        if (lastEventId != null) {
+            builder.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+    }
+
+    private static String lastEventId(MockHttpServletResponse response) throws Exception {
+        Matcher matcher = EVENT_ID.matcher(contentOf(response));
+        String id = null;
+        while (matcher.find()) {
+            id = matcher.group(1);
+        }
+        return id;
+    }
+
+    private static String contentOf(MockHttpServletResponse response) {
+        try {
+            return response.getContentAsString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition met in time").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+}
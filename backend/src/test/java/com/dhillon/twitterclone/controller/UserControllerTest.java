@@ -1,23 +1,34 @@
 package com.dhillon.twitterclone.controller;
 
+import com.dhillon.twitterclone.config.JacksonConfig;
+import com.dhillon.twitterclone.config.SparseFieldsetAdvice;
 import com.dhillon.twitterclone.exception.GlobalExceptionHandler;
 import com.dhillon.twitterclone.dto.UserDto;
 import com.dhillon.twitterclone.entity.User;
 import com.dhillon.twitterclone.exception.ResourceNotFoundException;
-import com.dhillon.twitterclone.repository.FollowRepository;
+import com.dhillon.twitterclone.security.AuthenticatedUser;
+import com.dhillon.twitterclone.service.RecommendationService;
 import com.dhillon.twitterclone.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.time.Instant;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -41,18 +52,17 @@ public class UserControllerTest {
     private UserService userService;
     
     @Mock
-    private FollowRepository followRepository;
-    
-    @InjectMocks
-    private UserController userController;
+    private RecommendationService recommendationService;
     
     private User testUser;
     private UUID testUserId;
     
     @BeforeEach
     public void setup() {
-        mockMvc = MockMvcBuilders.standaloneSetup(userController)
-                .setControllerAdvice(new GlobalExceptionHandler())
+        mockMvc = MockMvcBuilders.standaloneSetup(new UserController(userService, recommendationService, 3))
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .setControllerAdvice(new GlobalExceptionHandler(), new SparseFieldsetAdvice())
+                .setMessageConverters(new StringHttpMessageConverter(), jsonConverter())
                 .build();
         
         testUserId = UUID.randomUUID();
@@ -64,12 +74,17 @@ public class UserControllerTest {
         testUser.setDisplayName("Test User");
     }
     
+    @AfterEach
+    public void cleanup() {
+        SecurityContextHolder.clearContext();
+    }
+    
     @Test
     public void getUserByUsername_WhenUserExists_ReturnsUser() throws Exception {
         // Arrange
-        when(userService.findByUsername("testuser")).thenReturn(Optional.of(testUser));
-        when(followRepository.countByFollowingId(testUserId)).thenReturn(10L);
-        when(followRepository.countByFollowerId(testUserId)).thenReturn(20L);
+        testUser.setFollowerCount(10);
+        testUser.setFollowingCount(20);
+        when(userService.findByIdOrUsername("testuser")).thenReturn(Optional.of(testUser));
         
         // Act & Assert
         mockMvc.perform(get("/users/testuser"))
@@ -80,15 +95,13 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.followersCount", is(10)))
                 .andExpect(jsonPath("$.followingCount", is(20)));
         
-        verify(userService).findByUsername("testuser");
-        verify(followRepository).countByFollowingId(testUserId);
-        verify(followRepository).countByFollowerId(testUserId);
+        verify(userService).findByIdOrUsername("testuser");
     }
     
     @Test
     public void getUserByUsername_WhenUserDoesNotExist_ReturnsNotFound() throws Exception {
         // Arrange
-        when(userService.findByUsername("nonexistent")).thenReturn(Optional.empty());
+        when(userService.findByIdOrUsername("nonexistent")).thenReturn(Optional.empty());
         
         // Act & Assert
         mockMvc.perform(get("/users/nonexistent"))
@@ -96,7 +109,47 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.status", is(404)))
                 .andExpect(jsonPath("$.error", is("Not Found")));
         
-        verify(userService).findByUsername("nonexistent");
+        verify(userService).findByIdOrUsername("nonexistent");
+    }
+    
+    @Test
+    public void getUser_WithCurrentETag_ReturnsNotModified() throws Exception {
+        // Arrange
+        when(userService.findByIdOrUsername("testuser")).thenReturn(Optional.of(testUser));
+        String eTag = mockMvc.perform(get("/users/testuser"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andReturn().getResponse().getHeader("ETag");
+        
+        // Act & Assert
+        mockMvc.perform(get("/users/testuser").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        
+        // A new follower changes the representation, and so the tag
+        testUser.setFollowerCount(1);
+        mockMvc.perform(get("/users/testuser").header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(eTag)))
+                .andExpect(jsonPath("$.followersCount", is(1)));
+    }
+    
+    @Test
+    public void getUser_WithFields_ReturnsOnlyThoseAndTheId() throws Exception {
+        // Arrange
+        testUser.setFollowerCount(10);
+        when(userService.findByIdOrUsername("testuser")).thenReturn(Optional.of(testUser));
+        
+        // Act & Assert
+        mockMvc.perform(get("/users/testuser").param("fields", "username,followersCount"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(testUserId.toString())))
+                .andExpect(jsonPath("$.username", is("testuser")))
+                .andExpect(jsonPath("$.followersCount", is(10)))
+                .andExpect(jsonPath("$.displayName").doesNotExist())
+                .andExpect(jsonPath("$.email").doesNotExist());
+        mockMvc.perform(get("/users/testuser").param("fields", "username,passwordHash"))
+                .andExpect(status().isBadRequest());
     }
     
     @Test
@@ -176,6 +229,39 @@ public class UserControllerTest {
         verify(userService, never()).createUser(any(User.class));
     }
     
+    @Test
+    public void getUsersByIds_ReturnsUsersInTheOrderAsked() throws Exception {
+        // Arrange
+        User other = new User();
+        other.setId(UUID.randomUUID());
+        other.setUsername("other");
+        List<UUID> ids = List.of(other.getId(), UUID.randomUUID(), testUserId);
+        when(userService.findByIds(ids)).thenReturn(List.of(other, testUser));
+        
+        // Act & Assert
+        mockMvc.perform(post("/users/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(ids)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].username", is("other")))
+                .andExpect(jsonPath("$[1].username", is("testuser")));
+    }
+    
+    @Test
+    public void getUsersByIds_WithTooManyIds_ReturnsBadRequest() throws Exception {
+        // Arrange
+        List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        
+        // Act & Assert
+        mockMvc.perform(post("/users/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(ids)))
+                .andExpect(status().isBadRequest());
+        
+        verify(userService, never()).findByIds(any());
+    }
+    
     @Test
     public void searchUsers_ReturnsMatchingUsers() throws Exception {
         // Arrange
@@ -188,8 +274,6 @@ public class UserControllerTest {
         user2.setUsername("test2");
         
         when(userService.searchUsers("test")).thenReturn(Arrays.asList(user1, user2));
-        when(followRepository.countByFollowingId(any(UUID.class))).thenReturn(0L);
-        when(followRepository.countByFollowerId(any(UUID.class))).thenReturn(0L);
         
         // Act & Assert
         mockMvc.perform(get("/users/search").param("query", "test"))
@@ -285,10 +369,8 @@ public class UserControllerTest {
         updatedUser.setProfileImage("http://example.com/profile.jpg");
         updatedUser.setHeaderImage("http://example.com/header.jpg");
         
-        when(userService.findByUsername("johndoe")).thenReturn(Optional.of(testUser));
+        when(userService.resolveUserId("johndoe")).thenReturn(Optional.of(testUserId));
         when(userService.updateUser(eq(testUserId), any(User.class))).thenReturn(updatedUser);
-        when(followRepository.countByFollowingId(testUserId)).thenReturn(10L);
-        when(followRepository.countByFollowerId(testUserId)).thenReturn(20L);
         
         // Act & Assert
         mockMvc.perform(put("/users/johndoe")
@@ -297,7 +379,7 @@ public class UserControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.displayName").value("Updated Name"));
         
-        verify(userService).findByUsername("johndoe");
+        verify(userService).resolveUserId("johndoe");
         verify(userService).updateUser(eq(testUserId), any(User.class));
     }
     
@@ -321,7 +403,7 @@ public class UserControllerTest {
             null
         );
         
-        when(userService.findByUsername("nonexistent")).thenReturn(Optional.empty());
+        when(userService.resolveUserId("nonexistent")).thenReturn(Optional.empty());
         
         // Act & Assert
         mockMvc.perform(put("/users/nonexistent")
@@ -329,32 +411,68 @@ public class UserControllerTest {
                 .content(objectMapper.writeValueAsString(updateDto)))
                 .andExpect(status().isNotFound());
         
-        verify(userService).findByUsername("nonexistent");
+        verify(userService).resolveUserId("nonexistent");
     }
     
     @Test
     public void deleteUser_WhenUserExists_ReturnsNoContent() throws Exception {
         // Arrange
-        when(userService.findByUsername("johndoe")).thenReturn(Optional.of(testUser));
+        when(userService.resolveUserId("johndoe")).thenReturn(Optional.of(testUserId));
         doNothing().when(userService).deleteUser(testUserId);
         
         // Act & Assert
         mockMvc.perform(delete("/users/johndoe"))
                 .andExpect(status().isNoContent());
         
-        verify(userService).findByUsername("johndoe");
+        verify(userService).resolveUserId("johndoe");
         verify(userService).deleteUser(testUserId);
     }
     
     @Test
     public void deleteUser_WhenUserDoesNotExist_ReturnsNotFound() throws Exception {
         // Arrange
-        when(userService.findByUsername("nonexistent")).thenReturn(Optional.empty());
+        when(userService.resolveUserId("nonexistent")).thenReturn(Optional.empty());
         
         // Act & Assert
         mockMvc.perform(delete("/users/nonexistent"))
                 .andExpect(status().isNotFound());
         
-        verify(userService).findByUsername("nonexistent");
+        verify(userService).resolveUserId("nonexistent");
+    }
+    
+    @Test
+    public void followUser_FollowsAsTheAuthenticatedUser() throws Exception {
+        // Arrange
+        UUID currentUserId = UUID.randomUUID();
+        AuthenticatedUser currentUser =
+                new AuthenticatedUser(currentUserId, "alice", List.of(), Instant.now().plusSeconds(60));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(currentUser, null, List.of()));
+        when(userService.resolveUserId("testuser")).thenReturn(Optional.of(testUserId));
+        
+        // Act & Assert: a follower named in the request is not used
+        mockMvc.perform(post("/users/testuser/follow").param("followerId", UUID.randomUUID().toString()))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/users/testuser/follow"))
+                .andExpect(status().isNoContent());
+        verify(userService).followUser(currentUserId, testUserId);
+        verify(userService).unfollowUser(currentUserId, testUserId);
+    }
+    
+    @Test
+    public void followUser_WhenNotAuthenticated_ReturnsUnauthorized() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/users/testuser/follow").param("followerId", testUserId.toString()))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(delete("/users/testuser/follow"))
+                .andExpect(status().isUnauthorized());
+        verify(userService, never()).followUser(any(), any());
+        verify(userService, never()).unfollowUser(any(), any());
+    }
+    
+    private static MappingJackson2HttpMessageConverter jsonConverter() {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        new JacksonConfig().sparseFieldsetCustomizer().customize(builder);
+        return new MappingJackson2HttpMessageConverter(builder.build());
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,49 @@
+package com.dhillon.twitterclone.e2e;
+
+import io.restassured.RestAssured;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+
+/**
+ * E2E tests for the actuator endpoints, which are served on the management port only.
+ */
+public class ActuatorE2ETest extends E2EBaseTest {
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Test
+    public void health_IsServedOnTheManagementPort() {
+        // Act & Assert: up or down depends on the services around the test, but the status is reported
+        RestAssured.given().port(managementPort).basePath("")
+                .when()
+                .get("/actuator/health")
+                .then()
+                .body("status", notNullValue());
+    }
+
+    @Test
+    public void metrics_AreServedOnTheManagementPort() {
+        // Act & Assert
+        RestAssured.given().port(managementPort).basePath("")
+                .when()
+                .get("/actuator/metrics")
+                .then()
+                .statusCode(200)
+                .body("names", hasItem("hikaricp.connections.active"));
+    }
+
+    @Test
+    public void metrics_AreNotServedOnTheApplicationPort() {
+        // Act & Assert: no handler maps the path, however the error is then reported
+        givenJson()
+                .when()
+                .get("/actuator/metrics")
+                .then()
+                .statusCode(not(200));
+    }
+}
@@ -0,0 +1,37 @@
+package com.dhillon.twitterclone.e2e;
+
+import io.restassured.response.Response;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * E2E tests for the per-IP login throttle behind the proxy.
+ * The tests connect from localhost, a trusted proxy address, so the client address comes from X-Forwarded-For.
+ */
+@TestPropertySource(properties = "app.auth.throttle.ip.capacity=2")
+public class LoginThrottleE2ETest extends E2EBaseTest {
+
+    @Test
+    public void login_ThrottlesEachForwardedClientSeparately() {
+        // Arrange: one client uses up its attempts
+        for (int i = 0; i < 2; i++) {
+            login("203.0.113.1").then().statusCode(401);
+        }
+
+        // Act & Assert: that client is throttled, another one behind the same proxy is not
+        login("203.0.113.1").then().statusCode(429);
+        login("203.0.113.2").then().statusCode(401);
+    }
+
+    private Response login(String clientAddress) {
+        // A different username each time, so only the per-IP limit applies
+        return givenJson()
+                .header("X-Forwarded-For", clientAddress)
+                .body(Map.of("username", "nobody-" + UUID.randomUUID(), "password", "wrong"))
+                .when()
+                .post("/auth/login");
+    }
+}
@@ -0,0 +1,120 @@
+package com.dhillon.twitterclone.integration;
+
+import com.dhillon.twitterclone.entity.User;
+import com.dhillon.twitterclone.security.JwtTokenProvider;
+import com.dhillon.twitterclone.service.NotificationService;
+import jakarta.persistence.EntityManagerFactory;
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifies replica routing through whole requests, with the application's JPA transaction manager.
+ * Two in-memory H2 databases stand in for the primary and a replica; the replica gets the same schema
+ * and users, as replication would give it, so a write sent there would succeed and show up on the
+ * wrong database.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReplicaRoutingIntegrationTest.PRIMARY_URL,
+        "app.datasource.replica.urls=" + ReplicaRoutingIntegrationTest.REPLICA_URL
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ReplicaRoutingIntegrationTest {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1;MODE=PostgreSQL";
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1;MODE=PostgreSQL";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private NotificationService notificationService;
+
+    private final JdbcTemplate primary = new JdbcTemplate(new DriverManagerDataSource(PRIMARY_URL, "sa", ""));
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    private UUID aliceId;
+    private UUID bobId;
+
+    @BeforeAll
+    public static void migrateReplica() throws Exception {
+        // Before the application starts, as its startup reads already go to the replica
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+        liquibase.setChangeLog("classpath:db/changelog/db.changelog-master.yaml");
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+    }
+
+    @BeforeEach
+    public void setup() {
+        aliceId = UUID.randomUUID();
+        bobId = UUID.randomUUID();
+        for (JdbcTemplate database : new JdbcTemplate[] { primary, replica }) {
+            database.update("insert into users (id, username, email, password_hash) values (?, ?, ?, ?)",
+                    aliceId, "alice", "alice@example.com", "hashedpassword");
+            database.update("insert into users (id, username, email, password_hash) values (?, ?, ?, ?)",
+                    bobId, "bob", "bob@example.com", "hashedpassword");
+        }
+    }
+
+    @AfterEach
+    public void cleanup() {
+        for (JdbcTemplate database : new JdbcTemplate[] { primary, replica }) {
+            database.update("delete from follows");
+            database.update("delete from users");
+        }
+    }
+
+    @Test
+    public void followByUsername_ReadOnlyLookupThenWrite_WritesToPrimary() throws Exception {
+        // Act: the username is resolved in a read-only transaction before the follow is written
+        String token = tokenProvider.createAccessToken(aliceId, "alice", List.of("USER"));
+        mockMvc.perform(post("/users/bob/follow").header("Authorization", "Bearer " + token))
+                .andExpect(status().isNoContent());
+
+        // Assert: the lookup's replica connection was not kept for the rest of the request
+        assertThat(primary.queryForObject("select count(*) from follows where follower_id = ? and following_id = ?",
+                Integer.class, aliceId, bobId)).isEqualTo(1);
+        assertThat(replica.queryForObject("select count(*) from follows", Integer.class)).isZero();
+    }
+
+    @Test
+    public void getUser_ReadFromReplica_IsNotPutInSecondLevelCache() throws Exception {
+        // Arrange: the replica has not caught up with a follow bob got on the primary
+        primary.update("update users set follower_count = 1 where id = ?", bobId);
+        entityManagerFactory.getCache().evict(User.class, bobId);
+
+        // Act
+        mockMvc.perform(get("/users/" + bobId)).andExpect(status().isOk());
+
+        // Assert: the replica's count was served once, but not cached for the following reads
+        assertThat(entityManagerFactory.getCache().contains(User.class, bobId)).isFalse();
+    }
+}
@@ -0,0 +1,43 @@
+package com.dhillon.twitterclone.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hibernate statement inspector that records the SQL it sees, so tests can examine generated queries.
+ */
+public class CapturingStatementInspector implements StatementInspector {
+    
+    private static final List<String> STATEMENTS = new ArrayList<>();
+    
+    @Override
+    public String inspect(String sql) {
+        synchronized (STATEMENTS) {
+            STATEMENTS.add(sql);
+        }
+        return sql;
+    }
+    
+    /**
+     * Forget all recorded statements.
+     */
+    public static void clear() {
+        synchronized (STATEMENTS) {
+            STATEMENTS.clear();
+        }
+    }
+    
+    /**
+     * @return the first statement recorded since the last clear
+     */
+    public static String first() {
+        synchronized (STATEMENTS) {
+            if (STATEMENTS.isEmpty()) {
+                throw new IllegalStateException("No statements captured");
+            }
+            return STATEMENTS.get(0);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.dhillon.twitterclone.repository;
+
+import com.dhillon.twitterclone.config.HibernateCacheConfig;
+import com.dhillon.twitterclone.entity.Like;
+import com.dhillon.twitterclone.entity.Post;
+import com.dhillon.twitterclone.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for the PostRepository.
+ * Uses DataJpaTest which sets up an in-memory database.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(HibernateCacheConfig.class)
+public class PostRepositoryTest {
+    
+    @Autowired
+    private TestEntityManager entityManager;
+    
+    @Autowired
+    private PostRepository postRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private User testUser;
+    
+    @BeforeEach
+    public void setup() {
+        testUser = new User();
+        testUser.setUsername("testuser");
+        testUser.setEmail("test@example.com");
+        testUser.setPasswordHash("hashedpassword");
+        testUser = entityManager.persistAndFlush(testUser);
+    }
+    
+    @Test
+    public void softDelete_HidesPostFromQueries() {
+        // Arrange
+        Post post = entityManager.persistAndFlush(new Post(testUser, "hello"));
+        
+        // Act
+        postRepository.softDelete(post.getId());
+        
+        // Assert
+        assertThat(postRepository.findById(post.getId())).isEmpty();
+        assertThat(postRepository.findByUserIdOrderByCreatedAtDesc(testUser.getId(),
+                PageRequest.of(0, 10))).isEmpty();
+        assertThat(countRows("posts")).isEqualTo(1);
+    }
+    
+    @Test
+    public void purgeDeletedPosts_DeletesInBatchesWithDependentRows() {
+        // Arrange: three deleted posts, one with a like and a live reply
+        Post parent = entityManager.persistAndFlush(new Post(testUser, "parent"));
+        entityManager.persistAndFlush(new Like(testUser, parent));
+        Post reply = new Post(testUser, "reply");
+        reply.setReply(true);
+        reply.setParent(parent);
+        reply = entityManager.persistAndFlush(reply);
+        for (int i = 0; i < 2; i++) {
+            Post post = entityManager.persistAndFlush(new Post(testUser, "post " + i));
+            postRepository.softDelete(post.getId());
+        }
+        postRepository.softDelete(parent.getId());
+        
+        // Act
+        int firstBatch = postRepository.purgeDeletedPosts(2);
+        int secondBatch = postRepository.purgeDeletedPosts(2);
+        
+        // Assert: the like went with its post, the reply survives without a parent
+        assertThat(firstBatch).isEqualTo(2);
+        assertThat(secondBatch).isEqualTo(1);
+        assertThat(countRows("posts")).isEqualTo(1);
+        assertThat(countRows("likes")).isZero();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from posts where parent_id is null and id = ?",
+                Integer.class, reply.getId())).isEqualTo(1);
+    }
+    
+    private int countRows(String table) {
+        return jdbcTemplate.queryForObject("select count(*) from " + table, Integer.class);
+    }
+}
@@ -0,0 +1,216 @@
+package com.dhillon.twitterclone.repository;
+
+import com.dhillon.twitterclone.config.HibernateCacheConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the SQL Hibernate generates for the hot repository queries is planned as an index scan.
+ * Each query is captured as issued, then run through EXPLAIN against a seeded and analyzed database,
+ * since planners fall back to table scans when the statistics say a table is empty.
+ * H2 keeps the single-column foreign key indexes that PostgreSQL drops, and may pick those instead
+ * of the composite ones when both lead with the filtered column.
+ */
+@DataJpaTest(properties = {
+    // ANALYZE commits, so the seeded rows get a database of their own
+    "spring.datasource.url=jdbc:h2:mem:queryplan;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.dhillon.twitterclone.repository.CapturingStatementInspector"
+})
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(HibernateCacheConfig.class)
+public class QueryPlanTest {
+    
+    @Autowired
+    private PostRepository postRepository;
+    
+    @Autowired
+    private NotificationRepository notificationRepository;
+    
+    @Autowired
+    private LikeRepository likeRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private static final int USERS = 20;
+    private static final int POSTS_PER_USER = 100;
+    private static final int HASHTAGS = 50;
+    
+    @BeforeEach
+    public void setup() {
+        if (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM posts", Long.class) == 0) {
+            List<UUID> userIds = insertUsers();
+            List<UUID> postIds = insertPosts(userIds);
+            insertHashtags(postIds);
+            insertLikesAndNotifications(userIds, postIds);
+            jdbcTemplate.execute("ANALYZE");
+        }
+        
+        CapturingStatementInspector.clear();
+    }
+    
+    @Test
+    public void userTimeline_UsesUserIndex() {
+        postRepository.findByUserIdOrderByCreatedAtDesc(UUID.randomUUID(), PageRequest.of(0, 20));
+        
+        assertThat(accessPath(explainCaptured(), "POSTS")).startsWith("IDX_POSTS_USER_").contains("USER_ID = ?1");
+    }
+    
+    @Test
+    public void replies_UsesParentIndex() {
+        postRepository.findByParentIdOrderByCreatedAtDesc(UUID.randomUUID(), PageRequest.of(0, 20));
+        
+        assertThat(accessPath(explainCaptured(), "POSTS")).startsWith("IDX_POSTS_PARENT_").contains("PARENT_ID = ?1");
+    }
+    
+    @Test
+    public void unreadNotifications_UsesUserReadIndex() {
+        notificationRepository.findByUserIdAndReadFalseOrderByCreatedAtDesc(UUID.randomUUID(), PageRequest.of(0, 20));
+        
+        assertThat(accessPath(explainCaptured(), "NOTIFICATIONS"))
+                .startsWith("IDX_NOTIFICATIONS_USER_READ_CREATED")
+                .contains("USER_ID = ?1")
+                .contains("READ = FALSE");
+    }
+    
+    @Test
+    public void unreadCount_UsesUserReadIndex() {
+        notificationRepository.countByUserIdAndReadFalse(UUID.randomUUID());
+        
+        assertThat(accessPath(explainCaptured(), "NOTIFICATIONS"))
+                .startsWith("IDX_NOTIFICATIONS_USER_READ_CREATED")
+                .contains("READ = FALSE");
+    }
+    
+    @Test
+    public void postsByHashtag_UsesHashtagIndex() {
+        postRepository.findByHashtagName("tag7", PageRequest.of(0, 20));
+        
+        String plan = explainCaptured();
+        assertThat(accessPath(plan, "POST_HASHTAGS")).startsWith("IDX_POST_HASHTAGS_HASHTAG_POST");
+        assertThat(accessPath(plan, "POSTS")).contains("ID = H1_0.POST_ID");
+    }
+    
+    @Test
+    public void likeLookup_UsesIndex() {
+        likeRepository.existsByUserIdAndPostId(UUID.randomUUID(), UUID.randomUUID());
+        
+        assertThat(accessPath(explainCaptured(), "LIKES")).containsPattern("(USER|POST)_ID = \\?");
+    }
+    
+    /**
+     * EXPLAIN the first captured statement, with every parameter bound to null.
+     * The plan is chosen from the statement shape, so the values do not matter.
+     */
+    private String explainCaptured() {
+        String sql = CapturingStatementInspector.first();
+        int parameters = (int) sql.chars().filter(c -> c == '?').count();
+        String plan = jdbcTemplate.query("EXPLAIN " + sql,
+                ps -> {
+                    for (int i = 1; i <= parameters; i++) {
+                        ps.setObject(i, null);
+                    }
+                },
+                rs -> {
+                    rs.next();
+                    return rs.getString(1);
+                });
+        return plan;
+    }
+    
+    /**
+     * Extract how a table is read from an H2 plan, failing on a full table scan.
+     *
+     * @param plan the EXPLAIN output
+     * @param table the table name
+     * @return the index name followed by the conditions it is searched with
+     */
+    private static String accessPath(String plan, String table) {
+        Matcher matcher = Pattern.compile("\"PUBLIC\"\\.\"" + table + "\" \"\\w+\"\\s*/\\* PUBLIC\\.([^*]*)\\*/")
+                .matcher(plan);
+        assertThat(matcher.find()).as("%s is read in:%n%s", table, plan).isTrue();
+        String path = matcher.group(1).replaceAll("\\s+", " ").trim();
+        assertThat(path).as("%s is read in:%n%s", table, plan).doesNotContain("tableScan");
+        return path;
+    }
+    
+    private List<UUID> insertUsers() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, username, email, password_hash) VALUES (?, ?, ?, 'hash')",
+                ids, ids.size(), (ps, id) -> {
+                    ps.setObject(1, id);
+                    ps.setString(2, "user" + ids.indexOf(id));
+                    ps.setString(3, "user" + ids.indexOf(id) + "@example.com");
+                });
+        return ids;
+    }
+    
+    private List<UUID> insertPosts(List<UUID> userIds) {
+        List<Object[]> rows = new ArrayList<>();
+        List<UUID> ids = new ArrayList<>();
+        Instant now = Instant.now();
+        for (int i = 0; i < USERS * POSTS_PER_USER; i++) {
+            UUID id = UUID.randomUUID();
+            // Every tenth post replies to one of the first few posts
+            UUID parentId = i % 10 == 9 ? ids.get(i % 7) : null;
+            rows.add(new Object[] { id, userIds.get(i % USERS), parentId, parentId != null,
+                    Timestamp.from(now.minusSeconds(i)) });
+            ids.add(id);
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO posts (id, user_id, parent_id, is_reply, content, created_at) VALUES (?, ?, ?, ?, 'post', ?)",
+                rows);
+        return ids;
+    }
+    
+    private void insertHashtags(List<UUID> postIds) {
+        List<UUID> hashtagIds = new ArrayList<>();
+        for (int i = 0; i < HASHTAGS; i++) {
+            UUID id = UUID.randomUUID();
+            jdbcTemplate.update("INSERT INTO hashtags (id, name) VALUES (?, ?)", id, "tag" + i);
+            hashtagIds.add(id);
+        }
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < postIds.size(); i++) {
+            rows.add(new Object[] { postIds.get(i), hashtagIds.get(i % HASHTAGS) });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO post_hashtags (post_id, hashtag_id) VALUES (?, ?)", rows);
+    }
+    
+    private void insertLikesAndNotifications(List<UUID> userIds, List<UUID> postIds) {
+        List<Object[]> likes = new ArrayList<>();
+        List<Object[]> notifications = new ArrayList<>();
+        for (int i = 0; i < postIds.size(); i++) {
+            UUID userId = userIds.get((i + 1) % USERS);
+            likes.add(new Object[] { UUID.randomUUID(), userId, postIds.get(i) });
+            notifications.add(new Object[] { UUID.randomUUID(), userIds.get(i % USERS), userId, postIds.get(i),
+                    i % 3 == 0 });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO likes (id, user_id, post_id) VALUES (?, ?, ?)", likes);
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO notifications (id, user_id, actor_id, type, post_id, read) VALUES (?, ?, ?, 'LIKE', ?, ?)",
+                notifications);
+    }
+}
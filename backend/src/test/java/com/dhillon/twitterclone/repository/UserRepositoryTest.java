@@ -1,5 +1,9 @@
 package com.dhillon.twitterclone.repository;
 
+import com.dhillon.twitterclone.cache.AvailabilityFilter;
+import com.dhillon.twitterclone.config.HibernateCacheConfig;
+import com.dhillon.twitterclone.entity.Follow;
+import com.dhillon.twitterclone.entity.Post;
 import com.dhillon.twitterclone.entity.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -7,6 +11,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.util.List;
@@ -21,6 +26,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 @DataJpaTest
 @ActiveProfiles("test")
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(HibernateCacheConfig.class)
 public class UserRepositoryTest {
     
     @Autowired
@@ -138,4 +144,84 @@ public class UserRepositoryTest {
         assertThat(users).hasSize(2);
         assertThat(users).extracting("username").containsOnly("testuser", "different");
     }
-} 
\ No newline at end of file
+    
+    @Test
+    public void adjustFollowerCount_UpdatesCachedCount() {
+        // Act
+        userRepository.adjustFollowerCount(testUser.getId(), 1);
+        userRepository.adjustFollowerCount(testUser.getId(), 1);
+        entityManager.clear();
+        
+        // Assert
+        User reloaded = userRepository.findById(testUser.getId()).orElseThrow();
+        assertThat(reloaded.getFollowerCount()).isEqualTo(2);
+        assertThat(reloaded.getFollowingCount()).isZero();
+    }
+    
+    @Test
+    public void reconcileFollowCounts_CorrectsDriftedCounts() {
+        // Arrange: a follow row exists but the cached counts were never incremented
+        User follower = new User();
+        follower.setUsername("follower");
+        follower.setEmail("follower@example.com");
+        follower.setPasswordHash("hashedpassword");
+        follower = entityManager.persistAndFlush(follower);
+        entityManager.persistAndFlush(new Follow(follower, testUser));
+        
+        // Act
+        int corrected = userRepository.reconcileFollowerCounts() + userRepository.reconcileFollowingCounts();
+        entityManager.clear();
+        
+        // Assert
+        assertThat(corrected).isEqualTo(2);
+        assertThat(userRepository.findById(testUser.getId()).orElseThrow().getFollowerCount()).isEqualTo(1);
+        assertThat(userRepository.findById(follower.getId()).orElseThrow().getFollowingCount()).isEqualTo(1);
+    }
+    
+    @Test
+    public void softDelete_HidesUserButKeepsUsernameTaken() {
+        // Act
+        userRepository.softDelete(testUser.getId());
+        
+        // Assert
+        assertThat(userRepository.findById(testUser.getId())).isEmpty();
+        assertThat(userRepository.findByUsername("testuser")).isEmpty();
+        assertThat(userRepository.existsByUsername("testuser")).isTrue();
+        assertThat(userRepository.existsByEmail("test@example.com")).isTrue();
+    }
+    
+    @Test
+    public void availabilityFilter_AfterRebuild_KeepsDeletedUsersTaken() {
+        // Arrange
+        userRepository.softDelete(testUser.getId());
+        AvailabilityFilter availabilityFilter = new AvailabilityFilter(userRepository, 0.01);
+        
+        // Act
+        availabilityFilter.rebuild();
+        
+        // Assert: the filter sends the check on to the database, which finds the name still held
+        assertThat(availabilityFilter.mightContainUsername("testuser")).isTrue();
+        assertThat(availabilityFilter.mightContainEmail("test@example.com")).isTrue();
+    }
+    
+    @Test
+    public void purgeDeletedUsers_SkipsUsersWithRemainingPosts() {
+        // Arrange
+        User poster = new User();
+        poster.setUsername("poster");
+        poster.setEmail("poster@example.com");
+        poster.setPasswordHash("hashedpassword");
+        poster = entityManager.persistAndFlush(poster);
+        entityManager.persistAndFlush(new Post(poster, "still here"));
+        userRepository.softDelete(testUser.getId());
+        userRepository.softDelete(poster.getId());
+        
+        // Act
+        int purged = userRepository.purgeDeletedUsers(10);
+        
+        // Assert
+        assertThat(purged).isEqualTo(1);
+        assertThat(userRepository.existsByUsername("testuser")).isFalse();
+        assertThat(userRepository.existsByUsername("poster")).isTrue();
+    }
+}
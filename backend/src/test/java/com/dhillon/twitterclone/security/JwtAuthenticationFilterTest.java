@@ -0,0 +1,136 @@
+package com.dhillon.twitterclone.security;
+
+import com.dhillon.twitterclone.cache.TokenClaimsCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for the JwtAuthenticationFilter.
+ */
+public class JwtAuthenticationFilterTest {
+    
+    private JwtTokenProvider tokenProvider;
+    private JwtAuthenticationFilter filter;
+    private UUID userId;
+    
+    @BeforeEach
+    public void setup() {
+        tokenProvider = spy(new JwtTokenProvider("test-secret-that-is-at-least-32-bytes-long", 60000, 600000));
+        filter = new JwtAuthenticationFilter(tokenProvider, new TokenClaimsCache(100),
+                new ObjectMapper().registerModule(new JavaTimeModule()));
+        userId = UUID.randomUUID();
+    }
+    
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+    
+    @Test
+    public void doFilter_WithValidToken_AuthenticatesAndCachesClaims() throws Exception {
+        // Arrange
+        String token = tokenProvider.createAccessToken(userId, "testuser", List.of("USER"));
+        
+        // Act
+        Authentication first = authenticate(token);
+        Authentication second = authenticate(token);
+        
+        // Assert: the second request is served from the cache without parsing the token again
+        assertThat(first.getPrincipal()).isInstanceOf(AuthenticatedUser.class);
+        assertThat(((AuthenticatedUser) second.getPrincipal()).id()).isEqualTo(userId);
+        assertThat(second.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_USER");
+        verify(tokenProvider, times(1)).parseAccessToken(anyString());
+    }
+    
+    @Test
+    public void doFilter_WithoutToken_PassesThroughUnauthenticated() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/posts");
+        MockFilterChain chain = new MockFilterChain();
+        
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        
+        // Assert
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+    
+    @Test
+    public void doFilter_WithTamperedToken_ReturnsUnauthorized() throws Exception {
+        // Arrange
+        String token = tokenProvider.createAccessToken(userId, "testuser", List.of("USER"));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/posts");
+        request.addHeader("Authorization", "Bearer " + token.substring(0, token.length() - 2) + "xx");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        
+        // Act
+        filter.doFilter(request, response, chain);
+        
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(401);
+        assertThat(chain.getRequest()).isNull();
+    }
+    
+    @Test
+    public void doFilter_AuthEndpointWithExpiredToken_PassesThrough() throws Exception {
+        // Arrange: the client refreshing because its access token expired still sends that token
+        JwtTokenProvider expiredProvider =
+                new JwtTokenProvider("test-secret-that-is-at-least-32-bytes-long", -1000, 600000);
+        String token = expiredProvider.createAccessToken(userId, "testuser", List.of("USER"));
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/refresh");
+        request.setContextPath("/api");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        
+        // Act
+        filter.doFilter(request, response, chain);
+        
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+    
+    @Test
+    public void parseAccessToken_WithRefreshToken_IsRejected() {
+        // Arrange
+        String refreshToken =
+                tokenProvider.createRefreshToken(tokenProvider.newRefreshToken(userId, UUID.randomUUID()));
+        
+        // Act & Assert
+        assertThatThrownBy(() -> tokenProvider.parseAccessToken(refreshToken))
+                .isInstanceOf(JwtException.class);
+    }
+    
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/posts");
+        request.addHeader("Authorization", "Bearer " + token);
+        FilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,117 @@
+package com.dhillon.twitterclone.security;
+
+import com.dhillon.twitterclone.config.HibernateCacheConfig;
+import com.dhillon.twitterclone.entity.User;
+import com.dhillon.twitterclone.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies refresh token rotation, reuse and logout against the refresh_token_families table.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({RefreshTokenStore.class, HibernateCacheConfig.class})
+public class RefreshTokenStoreTest {
+
+    @Autowired
+    private RefreshTokenStore refreshTokenStore;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final JwtTokenProvider tokenProvider =
+            new JwtTokenProvider("test-secret-that-is-at-least-32-bytes-long", 60000, 600000);
+
+    private UUID userId;
+
+    @BeforeEach
+    public void setup() {
+        User user = new User();
+        user.setUsername("testuser");
+        user.setEmail("test@example.com");
+        user.setPasswordHash("hashedpassword");
+        userId = userRepository.saveAndFlush(user).getId();
+    }
+
+    @Test
+    public void rotate_AcceptsEachTokenOnceAndKeepsOneRowPerLogin() {
+        // Arrange
+        JwtTokenProvider.RefreshToken first = tokenProvider.newRefreshToken(userId, UUID.randomUUID());
+        refreshTokenStore.start(first);
+        JwtTokenProvider.RefreshToken second = tokenProvider.newRefreshToken(userId, first.familyId());
+        JwtTokenProvider.RefreshToken third = tokenProvider.newRefreshToken(userId, first.familyId());
+
+        // Act & Assert
+        assertThat(refreshTokenStore.rotate(first, second)).isTrue();
+        assertThat(refreshTokenStore.rotate(second, third)).isTrue();
+        assertThat(families()).isEqualTo(1);
+    }
+
+    @Test
+    public void rotate_WithAReplacedToken_EndsTheFamily() {
+        // Arrange: the first token was copied before it was used
+        JwtTokenProvider.RefreshToken first = tokenProvider.newRefreshToken(userId, UUID.randomUUID());
+        refreshTokenStore.start(first);
+        JwtTokenProvider.RefreshToken second = tokenProvider.newRefreshToken(userId, first.familyId());
+        refreshTokenStore.rotate(first, second);
+
+        // Act
+        boolean reused = refreshTokenStore.rotate(first, tokenProvider.newRefreshToken(userId, first.familyId()));
+
+        // Assert: neither copy can be used any more
+        assertThat(reused).isFalse();
+        assertThat(refreshTokenStore.rotate(second, tokenProvider.newRefreshToken(userId, first.familyId()))).isFalse();
+        assertThat(families()).isZero();
+    }
+
+    @Test
+    public void revoke_EndsOnlyThatLogin() {
+        // Arrange
+        JwtTokenProvider.RefreshToken phone = tokenProvider.newRefreshToken(userId, UUID.randomUUID());
+        JwtTokenProvider.RefreshToken laptop = tokenProvider.newRefreshToken(userId, UUID.randomUUID());
+        refreshTokenStore.start(phone);
+        refreshTokenStore.start(laptop);
+
+        // Act
+        refreshTokenStore.revoke(phone.familyId());
+
+        // Assert
+        assertThat(refreshTokenStore.rotate(phone, tokenProvider.newRefreshToken(userId, phone.familyId()))).isFalse();
+        assertThat(refreshTokenStore.rotate(laptop, tokenProvider.newRefreshToken(userId, laptop.familyId()))).isTrue();
+    }
+
+    @Test
+    public void purgeExpired_DropsFamiliesWhoseTokenExpired() {
+        // Arrange
+        refreshTokenStore.start(new JwtTokenProvider.RefreshToken(UUID.randomUUID(), UUID.randomUUID(), userId,
+                Instant.now().minusSeconds(60)));
+        refreshTokenStore.start(tokenProvider.newRefreshToken(userId, UUID.randomUUID()));
+
+        // Act
+        int purged = refreshTokenStore.purgeExpired();
+
+        // Assert
+        assertThat(purged).isEqualTo(1);
+        assertThat(families()).isEqualTo(1);
+    }
+
+    private int families() {
+        return jdbcTemplate.queryForObject("select count(*) from refresh_token_families", Integer.class);
+    }
+}
@@ -0,0 +1,63 @@
+package com.dhillon.twitterclone.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the TokenBucketLimiter.
+ */
+public class TokenBucketLimiterTest {
+    
+    private static final long START = 1_000_000_000L;
+    
+    @Test
+    public void tryAcquire_AllowsBurstUpToCapacityThenRefuses() {
+        // Arrange
+        TokenBucketLimiter limiter = new TokenBucketLimiter(3, 6);
+        
+        // Act & Assert
+        assertThat(limiter.tryAcquire("alice", START)).isZero();
+        assertThat(limiter.tryAcquire("alice", START)).isZero();
+        assertThat(limiter.tryAcquire("alice", START)).isZero();
+        assertThat(limiter.tryAcquire("alice", START)).isEqualTo(10);
+    }
+    
+    @Test
+    public void tryAcquire_RefillsOverTime() {
+        // Arrange: one token every 10 seconds
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 6);
+        limiter.tryAcquire("alice", START);
+        
+        // Act & Assert
+        assertThat(limiter.tryAcquire("alice", START + TimeUnit.SECONDS.toNanos(4))).isEqualTo(6);
+        assertThat(limiter.tryAcquire("alice", START + TimeUnit.SECONDS.toNanos(10))).isZero();
+    }
+    
+    @Test
+    public void tryAcquire_KeepsKeysIndependent() {
+        // Arrange
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 1);
+        limiter.tryAcquire("alice", START);
+        
+        // Act & Assert
+        assertThat(limiter.tryAcquire("alice", START)).isPositive();
+        assertThat(limiter.tryAcquire("bob", START)).isZero();
+    }
+    
+    @Test
+    public void evictFullBuckets_DropsOnlyRefilledKeys() {
+        // Arrange
+        TokenBucketLimiter limiter = new TokenBucketLimiter(2, 6);
+        limiter.tryAcquire("alice", START);
+        limiter.tryAcquire("bob", START + TimeUnit.SECONDS.toNanos(5));
+        
+        // Act: alice has refilled after 10 seconds, bob has not
+        limiter.evictFullBuckets(START + TimeUnit.SECONDS.toNanos(10));
+        
+        // Assert
+        assertThat(limiter.size()).isEqualTo(1);
+    }
+}
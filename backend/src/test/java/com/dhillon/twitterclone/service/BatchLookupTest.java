@@ -0,0 +1,226 @@
+package com.dhillon.twitterclone.service;
+
+import com.dhillon.twitterclone.cache.AvailabilityFilter;
+import com.dhillon.twitterclone.cache.ThreadCache;
+import com.dhillon.twitterclone.cache.UsernameCache;
+import com.dhillon.twitterclone.config.HibernateCacheConfig;
+import com.dhillon.twitterclone.dto.PostDto;
+import com.dhillon.twitterclone.dto.PostVersion;
+import com.dhillon.twitterclone.entity.Post;
+import com.dhillon.twitterclone.entity.User;
+import com.dhillon.twitterclone.repository.PostRepository;
+import com.dhillon.twitterclone.repository.UserRepository;
+import com.dhillon.twitterclone.service.impl.PostServiceImpl;
+import com.dhillon.twitterclone.service.impl.UserServiceImpl;
+import com.dhillon.twitterclone.util.PostMapper;
+import com.dhillon.twitterclone.util.SparseFieldset;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies that several posts or users are looked up together, in the order asked for, and that post
+ * versions take one query, run without the usual rollback-only test transaction so each call has a
+ * session of its own.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:batch-lookups;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PostServiceImpl.class, UserServiceImpl.class, ThreadCache.class, HibernateCacheConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BatchLookupTest {
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockBean
+    private NotificationService notificationService;
+
+    @MockBean
+    private PushService pushService;
+
+    @MockBean
+    private PasswordHashingService passwordHashingService;
+
+    @MockBean
+    private RecommendationService recommendationService;
+
+    @MockBean
+    private UsernameCache usernameCache;
+
+    @MockBean
+    private AvailabilityFilter availabilityFilter;
+
+    private List<User> users;
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setup() {
+        users = List.of(userRepository.save(newUser("alice")), userRepository.save(newUser("bob")),
+                userRepository.save(newUser("carol")));
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        jdbcTemplate.update("delete from posts");
+        jdbcTemplate.update("delete from users");
+    }
+
+    @Test
+    public void findUsersByIds_KeepsOrderAndQueriesOnlyForUncachedUsers() {
+        // Arrange
+        UUID alice = users.get(0).getId();
+        UUID bob = users.get(1).getId();
+        UUID carol = users.get(2).getId();
+
+        // Act & Assert: nothing cached yet, so one query for all of them
+        assertThat(userService.findByIds(List.of(carol, UUID.randomUUID(), alice, carol)))
+                .extracting(User::getUsername).containsExactly("carol", "alice");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        // Only bob is left to load
+        statistics.clear();
+        assertThat(userService.findByIds(List.of(bob, alice, carol)))
+                .extracting(User::getUsername).containsExactly("bob", "alice", "carol");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(1);
+
+        // All cached now
+        statistics.clear();
+        assertThat(userService.findByIds(List.of(alice, bob))).hasSize(2);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    public void findPostsByIds_LoadsPostsAndAuthorsTogether() {
+        // Arrange
+        Post first = postRepository.save(new Post(users.get(0), "first"));
+        Post second = postRepository.save(new Post(users.get(1), "second"));
+        Post deleted = postRepository.save(new Post(users.get(2), "deleted"));
+        jdbcTemplate.update("update posts set deleted_at = current_timestamp where id = ?", deleted.getId());
+        statistics.clear();
+
+        // Act
+        List<Post> posts = postService.findByIds(
+                List.of(second.getId(), deleted.getId(), UUID.randomUUID(), first.getId()));
+
+        // Assert: authors were fetched along with the posts, as reading them outside the session shows,
+        // and the roles of both, not yet cached, in one more query
+        assertThat(posts).extracting(Post::getContent).containsExactly("second", "first");
+        assertThat(posts).extracting(post -> post.getUser().getUsername()).containsExactly("bob", "alice");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(postService.findByIds(List.of())).isEmpty();
+    }
+
+    @Test
+    public void findVersion_ReadsCountersOfThePostAndItsOriginal() {
+        // Arrange
+        Post original = postRepository.save(new Post(users.get(0), "original"));
+        Post repost = new Post(users.get(1), "");
+        repost.setOriginalPost(original);
+        repost = postRepository.save(repost);
+        jdbcTemplate.update("update posts set like_count = 7 where id = ?", original.getId());
+        statistics.clear();
+
+        // Act
+        PostVersion version = postService.findVersion(repost.getId()).orElseThrow();
+
+        // Assert: one query, and counter updates that leave updated_at alone still show
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(version.getId()).isEqualTo(repost.getId());
+        assertThat(version.getOriginalId()).isEqualTo(original.getId());
+        assertThat(version.getOriginalLikeCount()).isEqualTo(7);
+        assertThat(version.getOriginalDeletedAt()).isNull();
+        assertThat(postService.findVersion(original.getId()).orElseThrow().getOriginalId()).isNull();
+
+        jdbcTemplate.update("update posts set deleted_at = current_timestamp where id = ?", repost.getId());
+        assertThat(postService.findVersion(repost.getId())).isEmpty();
+    }
+
+    @Test
+    public void toDtoList_WithFewerFields_LoadsLess() {
+        // Arrange: posts by different authors, each with media and a hashtag
+        List<UUID> ids = new ArrayList<>();
+        for (User user : users) {
+            Post post = new Post(user, "post by " + user.getUsername() + " #batched");
+            post.setMedia(new ArrayList<>(List.of("/media/" + user.getUsername() + ".png")));
+            ids.add(postService.createPost(post).getId());
+        }
+
+        // Act
+        long everything = statementsToMap(ids, SparseFieldset.ALL);
+        long someFields = statementsToMap(ids, SparseFieldset.parse("content,likeCount", PostDto.class));
+        long withAuthor = statementsToMap(ids, SparseFieldset.parse("content,username", PostDto.class));
+
+        // Assert: one batch each for the authors, the media and the hashtags, and only what is asked for
+        assertThat(everything).isEqualTo(3);
+        assertThat(someFields).isZero();
+        assertThat(withAuthor).isEqualTo(1);
+    }
+
+    /**
+     * Load posts, with nothing cached, and count the statements mapping them with the given fields takes.
+     */
+    private long statementsToMap(List<UUID> ids, SparseFieldset fields) {
+        entityManagerFactory.getCache().evictAll();
+        return transactionTemplate.execute(status -> {
+            List<Post> posts = postRepository.findAllById(ids);
+            statistics.clear();
+            PostMapper.toDtoList(posts, Map.of(), Set.of(), fields);
+            return statistics.getPrepareStatementCount();
+        });
+    }
+
+    private static User newUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPasswordHash("hashedpassword");
+        return user;
+    }
+}
@@ -0,0 +1,146 @@
+package com.dhillon.twitterclone.service;
+
+import com.dhillon.twitterclone.config.HibernateCacheConfig;
+import com.dhillon.twitterclone.entity.Bookmark;
+import com.dhillon.twitterclone.entity.Post;
+import com.dhillon.twitterclone.entity.User;
+import com.dhillon.twitterclone.exception.ResourceNotFoundException;
+import com.dhillon.twitterclone.repository.PostRepository;
+import com.dhillon.twitterclone.repository.UserRepository;
+import com.dhillon.twitterclone.service.impl.BookmarkServiceImpl;
+import com.dhillon.twitterclone.util.KeysetCursor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Integration tests for the BookmarkService, run without the usual rollback-only test transaction
+ * so each call commits, against a database of their own.
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:bookmarks;DB_CLOSE_DELAY=-1;MODE=PostgreSQL")
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({BookmarkServiceImpl.class, HibernateCacheConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BookmarkServiceTest {
+
+    @Autowired
+    private BookmarkService bookmarkService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private UUID userId;
+    private List<UUID> postIds;
+
+    @BeforeEach
+    public void setup() {
+        User author = userRepository.save(newUser("author"));
+        userId = userRepository.save(newUser("reader")).getId();
+        postIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            postIds.add(postRepository.save(new Post(author, "post " + i)).getId());
+        }
+    }
+
+    @AfterEach
+    public void cleanup() {
+        jdbcTemplate.update("delete from bookmarks");
+        jdbcTemplate.update("delete from posts");
+        jdbcTemplate.update("delete from users");
+    }
+
+    @Test
+    public void addBookmark_Twice_KeepsOneBookmark() {
+        // Act
+        boolean first = bookmarkService.addBookmark(userId, postIds.get(0));
+        boolean again = bookmarkService.addBookmark(userId, postIds.get(0));
+
+        // Assert
+        assertThat(first).isTrue();
+        assertThat(again).isFalse();
+        assertThat(bookmarkService.getBookmarks(userId, null, 10)).hasSize(1);
+    }
+
+    @Test
+    public void addBookmark_ForMissingOrDeletedPost_IsNotFound() {
+        // Arrange
+        transactionTemplate.executeWithoutResult(status -> postRepository.softDelete(postIds.get(0)));
+
+        // Act & Assert
+        assertThatThrownBy(() -> bookmarkService.addBookmark(userId, UUID.randomUUID()))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> bookmarkService.addBookmark(userId, postIds.get(0)))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    public void getBookmarks_PagesByKeysetNewestFirst() {
+        // Arrange: bookmarked in the reverse of the order they were posted
+        for (int i = 2; i >= 0; i--) {
+            bookmarkService.addBookmark(userId, postIds.get(i));
+        }
+
+        // Act
+        List<Bookmark> first = bookmarkService.getBookmarks(userId, null, 2);
+        Bookmark last = first.get(first.size() - 1);
+        List<Bookmark> second = bookmarkService.getBookmarks(userId,
+                new KeysetCursor(last.getCreatedAt(), last.getId()), 2);
+
+        // Assert
+        assertThat(first).extracting(bookmark -> bookmark.getPost().getId())
+                .containsExactly(postIds.get(0), postIds.get(1));
+        assertThat(second).extracting(bookmark -> bookmark.getPost().getContent()).containsExactly("post 2");
+        assertThat(second.get(0).getPost().getUser().getUsername()).isEqualTo("author");
+    }
+
+    @Test
+    public void getBookmarkedPostIds_ReturnsOnlyTheUsersBookmarksOnThePage() {
+        // Arrange
+        UUID otherId = userRepository.save(newUser("other")).getId();
+        bookmarkService.addBookmark(userId, postIds.get(0));
+        bookmarkService.addBookmark(userId, postIds.get(2));
+        bookmarkService.addBookmark(otherId, postIds.get(1));
+
+        // Act
+        bookmarkService.removeBookmark(userId, postIds.get(2));
+
+        // Assert
+        assertThat(bookmarkService.getBookmarkedPostIds(userId, postIds)).containsExactly(postIds.get(0));
+        assertThat(bookmarkService.getBookmarkedPostIds(userId, List.of(postIds.get(1)))).isEmpty();
+        assertThat(bookmarkService.removeBookmark(userId, postIds.get(2))).isFalse();
+    }
+
+    private static User newUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPasswordHash("hashedpassword");
+        return user;
+    }
+}
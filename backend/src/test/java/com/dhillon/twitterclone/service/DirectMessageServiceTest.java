@@ -0,0 +1,273 @@
+package com.dhillon.twitterclone.service;
+
+import com.dhillon.twitterclone.config.HibernateCacheConfig;
+import com.dhillon.twitterclone.entity.Conversation;
+import com.dhillon.twitterclone.entity.ConversationParticipant;
+import com.dhillon.twitterclone.entity.DirectMessage;
+import com.dhillon.twitterclone.entity.User;
+import com.dhillon.twitterclone.exception.BadRequestException;
+import com.dhillon.twitterclone.exception.ResourceNotFoundException;
+import com.dhillon.twitterclone.repository.UserRepository;
+import com.dhillon.twitterclone.service.impl.DirectMessageServiceImpl;
+import com.dhillon.twitterclone.util.KeysetCursor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Integration tests for the DirectMessageService, run without the usual rollback-only test transaction
+ * so each call commits, against a database of their own.
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:direct-messages;DB_CLOSE_DELAY=-1;MODE=PostgreSQL")
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({DirectMessageServiceImpl.class, HibernateCacheConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class DirectMessageServiceTest {
+
+    @Autowired
+    private DirectMessageService directMessageService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private PushService pushService;
+
+    private List<User> users;
+
+    @BeforeEach
+    public void setup() {
+        users = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            users.add(userRepository.save(newUser("user" + i)));
+        }
+    }
+
+    @AfterEach
+    public void cleanup() {
+        jdbcTemplate.update("delete from dm_messages");
+        jdbcTemplate.update("delete from dm_participants");
+        jdbcTemplate.update("delete from dm_conversations");
+        jdbcTemplate.update("delete from users");
+    }
+
+    @Test
+    public void createConversation_OneToOneTwice_ReturnsTheSameConversation() {
+        // Arrange
+        Conversation first = directMessageService.createConversation(id(0), List.of(id(1)), null);
+
+        // Act: the other side starts it, and a named one is always new
+        Conversation again = directMessageService.createConversation(id(1), List.of(id(0), id(1)), " ");
+        Conversation named = directMessageService.createConversation(id(0), List.of(id(1)), "plans");
+
+        // Assert
+        assertThat(again.getId()).isEqualTo(first.getId());
+        assertThat(first.isGroup()).isFalse();
+        assertThat(named.getId()).isNotEqualTo(first.getId());
+        assertThat(named.isGroup()).isTrue();
+        assertThat(directMessageService.getParticipantIds(List.of(first.getId())).get(first.getId()))
+                .containsExactlyInAnyOrder(id(0), id(1));
+    }
+
+    @Test
+    public void createConversation_OneToOneFromBothSidesAtOnce_CreatesOneConversation() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < users.size(); i++) {
+                for (int j = i + 1; j < users.size(); j++) {
+                    // Arrange
+                    UUID one = id(i);
+                    UUID other = id(j);
+                    CountDownLatch start = new CountDownLatch(1);
+
+                    // Act
+                    Future<Conversation> first = executor.submit(() -> {
+                        start.await();
+                        return directMessageService.createConversation(one, List.of(other), null);
+                    });
+                    Future<Conversation> second = executor.submit(() -> {
+                        start.await();
+                        return directMessageService.createConversation(other, List.of(one), null);
+                    });
+                    start.countDown();
+
+                    // Assert
+                    assertThat(second.get().getId()).isEqualTo(first.get().getId());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        // One conversation of two per pair
+        assertThat(jdbcTemplate.queryForObject("select count(*) from dm_conversations", Integer.class)).isEqualTo(6);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from dm_participants", Integer.class)).isEqualTo(12);
+    }
+
+    @Test
+    public void createConversation_WithoutOthers_ThrowsBadRequest() {
+        // Act & Assert
+        assertThatThrownBy(() -> directMessageService.createConversation(id(0), List.of(id(0)), null))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> directMessageService.createConversation(id(0), List.of(UUID.randomUUID()), null))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    public void sendMessage_MovesConversationToTopOfInboxAndCountsAsUnread() {
+        // Arrange: the group is created before the one-to-one, so it starts below it
+        Conversation group = directMessageService.createConversation(id(0), List.of(id(1), id(2), id(3)), null);
+        Conversation direct = directMessageService.createConversation(id(0), List.of(id(1)), null);
+        assertThat(directMessageService.getInbox(id(1), null, 10)).extracting(Conversation::getId)
+                .containsExactly(direct.getId(), group.getId());
+
+        // Act
+        DirectMessage message = directMessageService.sendMessage(id(0), group.getId(), "  hello all ");
+
+        // Assert: unread for the others but not the sender, and the most recent for everyone in it
+        assertThat(message.getContent()).isEqualTo("hello all");
+        List<UUID> conversationIds = List.of(group.getId(), direct.getId());
+        assertThat(directMessageService.getUnreadCounts(id(1), conversationIds))
+                .containsExactly(Map.entry(group.getId(), 1L));
+        assertThat(directMessageService.getUnreadCounts(id(0), conversationIds)).isEmpty();
+        assertThat(directMessageService.getInbox(id(1), null, 10)).extracting(Conversation::getId)
+                .containsExactly(group.getId(), direct.getId());
+        assertThat(directMessageService.getInbox(id(0), null, 1)).extracting(Conversation::getId)
+                .containsExactly(group.getId());
+        verify(pushService).messageReceived(id(3), group.getId());
+        verify(pushService, never()).messageReceived(id(0), group.getId());
+    }
+
+    @Test
+    public void getInbox_PagesByKeyset() {
+        // Arrange
+        List<Conversation> conversations = new ArrayList<>();
+        for (int i = 1; i < 4; i++) {
+            conversations.add(directMessageService.createConversation(id(0), List.of(id(i)), null));
+        }
+
+        // Act
+        List<Conversation> first = directMessageService.getInbox(id(0), null, 2);
+        Conversation last = first.get(first.size() - 1);
+        List<Conversation> second = directMessageService.getInbox(id(0),
+                new KeysetCursor(last.getLastMessageAt(), last.getId()), 2);
+
+        // Assert
+        assertThat(first).extracting(Conversation::getId)
+                .containsExactly(conversations.get(2).getId(), conversations.get(1).getId());
+        assertThat(second).extracting(Conversation::getId).containsExactly(conversations.get(0).getId());
+    }
+
+    @Test
+    public void getMessages_PagesByKeyset() {
+        // Arrange
+        Conversation conversation = directMessageService.createConversation(id(0), List.of(id(1)), null);
+        for (int i = 0; i < 3; i++) {
+            directMessageService.sendMessage(id(i % 2), conversation.getId(), "message " + i);
+        }
+
+        // Act
+        List<DirectMessage> first = directMessageService.getMessages(id(1), conversation.getId(), null, 2);
+        DirectMessage last = first.get(first.size() - 1);
+        List<DirectMessage> second = directMessageService.getMessages(id(1), conversation.getId(),
+                new KeysetCursor(last.getCreatedAt(), last.getId()), 2);
+
+        // Assert
+        assertThat(first).extracting(DirectMessage::getContent).containsExactly("message 2", "message 1");
+        assertThat(second).extracting(DirectMessage::getContent).containsExactly("message 0");
+        assertThat(second.get(0).getSender().getUsername()).isEqualTo("user0");
+    }
+
+    @Test
+    public void conversation_ForOutsider_IsNotFound() {
+        // Arrange
+        Conversation conversation = directMessageService.createConversation(id(0), List.of(id(1)), null);
+
+        // Act & Assert
+        assertThatThrownBy(() -> directMessageService.getMessages(id(2), conversation.getId(), null, 10))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> directMessageService.sendMessage(id(2), conversation.getId(), "hi"))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verify(pushService, never()).messageReceived(any(), any());
+    }
+
+    @Test
+    public void markRead_MovesOnlyTheReadersWatermarkAndOnlyForwards() {
+        // Arrange
+        Conversation group = directMessageService.createConversation(id(0), List.of(id(1), id(2)), null);
+        DirectMessage one = directMessageService.sendMessage(id(0), group.getId(), "one");
+        DirectMessage two = directMessageService.sendMessage(id(0), group.getId(), "two");
+        DirectMessage three = directMessageService.sendMessage(id(0), group.getId(), "three");
+
+        // Act: a fast scroll, with one receipt arriving late
+        boolean readTwo = directMessageService.markRead(id(1), group.getId(), two.getId());
+        boolean lateOne = directMessageService.markRead(id(1), group.getId(), one.getId());
+
+        // Assert: one message left for the reader, all three for the other participant
+        assertThat(readTwo).isTrue();
+        assertThat(lateOne).isFalse();
+        assertThat(directMessageService.getUnreadCounts(id(1), List.of(group.getId())))
+                .containsEntry(group.getId(), 1L);
+        assertThat(directMessageService.getUnreadCounts(id(2), List.of(group.getId())))
+                .containsEntry(group.getId(), 3L);
+        assertThat(directMessageService.getReadMarks(id(2), group.getId()))
+                .extracting(p -> p.getUser().getId(), ConversationParticipant::getLastReadMessageId)
+                .containsExactlyInAnyOrder(tuple(id(0), three.getId()), tuple(id(1), two.getId()), tuple(id(2), null));
+
+        // Without a message ID everything up to the latest is read
+        assertThat(directMessageService.markRead(id(1), group.getId(), null)).isTrue();
+        assertThat(directMessageService.getUnreadCounts(id(1), List.of(group.getId()))).isEmpty();
+    }
+
+    @Test
+    public void markRead_WithMessageFromAnotherConversation_IsNotFound() {
+        // Arrange
+        Conversation first = directMessageService.createConversation(id(0), List.of(id(1)), null);
+        Conversation second = directMessageService.createConversation(id(0), List.of(id(2)), null);
+        DirectMessage elsewhere = directMessageService.sendMessage(id(0), second.getId(), "hi");
+
+        // Act & Assert
+        assertThatThrownBy(() -> directMessageService.markRead(id(1), first.getId(), elsewhere.getId()))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private UUID id(int index) {
+        return users.get(index).getId();
+    }
+
+    private static User newUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPasswordHash("hashedpassword");
+        return user;
+    }
+}
@@ -0,0 +1,224 @@
+package com.dhillon.twitterclone.service;
+
+import com.dhillon.twitterclone.cache.UnreadCounts;
+import com.dhillon.twitterclone.config.HibernateCacheConfig;
+import com.dhillon.twitterclone.entity.Notification;
+import com.dhillon.twitterclone.entity.NotificationType;
+import com.dhillon.twitterclone.entity.Post;
+import com.dhillon.twitterclone.entity.User;
+import com.dhillon.twitterclone.repository.PostRepository;
+import com.dhillon.twitterclone.repository.UserRepository;
+import com.dhillon.twitterclone.service.impl.NotificationServiceImpl;
+import com.dhillon.twitterclone.util.KeysetCursor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Integration tests for the NotificationService.
+ * Events are only buffered once their transaction commits, so these tests run without
+ * the usual rollback-only test transaction, against a database of their own.
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:notifications;DB_CLOSE_DELAY=-1;MODE=PostgreSQL")
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({NotificationServiceImpl.class, UnreadCounts.class, HibernateCacheConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class NotificationServiceTest {
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockBean
+    private PushService pushService;
+
+    private User author;
+    private Post post;
+    private List<User> fans;
+
+    @BeforeEach
+    public void setup() {
+        author = userRepository.save(newUser("author"));
+        post = postRepository.save(new Post(author, "hello"));
+        fans = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            fans.add(userRepository.save(newUser("fan" + i)));
+        }
+    }
+
+    @AfterEach
+    public void cleanup() {
+        jdbcTemplate.update("delete from notifications");
+        jdbcTemplate.update("delete from posts");
+        jdbcTemplate.update("delete from users");
+    }
+
+    @Test
+    public void flush_CollapsesSameTypeEventsOnAPost() {
+        // Arrange
+        for (User fan : fans) {
+            notificationService.notify(author.getId(), NotificationType.LIKE, fan.getId(), post.getId());
+        }
+        notificationService.notify(author.getId(), NotificationType.LIKE, fans.get(0).getId(), post.getId());
+        notificationService.notify(author.getId(), NotificationType.FOLLOW, fans.get(1).getId(), null);
+
+        // Act
+        int written = notificationService.flush();
+
+        // Assert: the repeated like counts once, and the latest actor is named
+        assertThat(written).isEqualTo(2);
+        Map<String, Object> like = jdbcTemplate.queryForMap(
+                "select actor_id, actor_count from notifications where type = 'LIKE'");
+        assertThat(like.get("actor_count")).isEqualTo(3);
+        assertThat(like.get("actor_id")).isEqualTo(fans.get(0).getId());
+        verify(pushService).notificationsChanged(author.getId(), 2);
+    }
+
+    @Test
+    public void flush_MergesIntoUnreadNotificationUntilRead() {
+        // Arrange
+        notificationService.notify(author.getId(), NotificationType.LIKE, fans.get(0).getId(), post.getId());
+        notificationService.flush();
+        notificationService.notify(author.getId(), NotificationType.LIKE, fans.get(1).getId(), post.getId());
+        notificationService.flush();
+
+        // Act
+        notificationService.markAllAsRead(author.getId());
+        notificationService.notify(author.getId(), NotificationType.LIKE, fans.get(2).getId(), post.getId());
+        notificationService.flush();
+
+        // Assert
+        List<Integer> counts = jdbcTemplate.queryForList(
+                "select actor_count from notifications order by created_at", Integer.class);
+        assertThat(counts).containsExactly(2, 1);
+    }
+
+    @Test
+    public void flush_CountsAnActorOnceAcrossFlushes() {
+        // Arrange
+        notificationService.notify(author.getId(), NotificationType.LIKE, fans.get(0).getId(), post.getId());
+        notificationService.flush();
+
+        // Act: the same fan again, as after an unlike and like, along with a new one
+        notificationService.notify(author.getId(), NotificationType.LIKE, fans.get(0).getId(), post.getId());
+        notificationService.notify(author.getId(), NotificationType.LIKE, fans.get(1).getId(), post.getId());
+        notificationService.flush();
+        notificationService.notify(author.getId(), NotificationType.LIKE, fans.get(1).getId(), post.getId());
+        notificationService.flush();
+
+        // Assert
+        Map<String, Object> like = jdbcTemplate.queryForMap("select actor_id, actor_count from notifications");
+        assertThat(like.get("actor_count")).isEqualTo(2);
+        assertThat(like.get("actor_id")).isEqualTo(fans.get(1).getId());
+    }
+
+    @Test
+    public void notify_WhenCommitFillsTheBuffer_FlushesInATransactionOfItsOwn() {
+        // Arrange: one more event than the buffer holds, all enqueued after the same commit
+        int events = 10_001;
+
+        // Act: the last one flushes the buffer from the committed transaction's afterCommit callback
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < events; i++) {
+                notificationService.notify(author.getId(), NotificationType.LIKE, fans.get(0).getId(), post.getId());
+            }
+        });
+
+        // Assert
+        assertThat(jdbcTemplate.queryForObject("select count(*) from notifications", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    public void notify_IgnoresOwnActions() {
+        // Act
+        notificationService.notify(author.getId(), NotificationType.LIKE, author.getId(), post.getId());
+
+        // Assert
+        assertThat(notificationService.flush()).isZero();
+    }
+
+    @Test
+    public void getNotifications_PagesByKeyset() {
+        // Arrange: one notification per type, so none are collapsed
+        NotificationType[] types = { NotificationType.LIKE, NotificationType.REPLY, NotificationType.REPOST };
+        for (NotificationType type : types) {
+            notificationService.notify(author.getId(), type, fans.get(0).getId(), post.getId());
+        }
+        notificationService.flush();
+
+        // Act
+        List<Notification> first = notificationService.getNotifications(author.getId(), null, 2);
+        Notification last = first.get(first.size() - 1);
+        List<Notification> second = notificationService.getNotifications(author.getId(),
+                new KeysetCursor(last.getCreatedAt(), last.getId()), 2);
+
+        // Assert
+        assertThat(first).hasSize(2);
+        assertThat(second).hasSize(1);
+        assertThat(second.get(0).getId()).isNotIn(first.get(0).getId(), first.get(1).getId());
+        assertThat(second.get(0).getActor().getUsername()).isEqualTo("fan0");
+    }
+
+    @Test
+    public void getUnreadCount_TracksInsertsReadsAndDrift() {
+        // Arrange
+        assertThat(notificationService.getUnreadCount(author.getId())).isZero();
+        notificationService.notify(author.getId(), NotificationType.LIKE, fans.get(0).getId(), post.getId());
+        notificationService.notify(author.getId(), NotificationType.FOLLOW, fans.get(1).getId(), null);
+        notificationService.flush();
+        notificationService.notify(author.getId(), NotificationType.LIKE, fans.get(2).getId(), post.getId());
+        notificationService.flush();
+        long afterFlushes = notificationService.getUnreadCount(author.getId());
+
+        // Act: a row the counter never saw, as if written by another instance
+        jdbcTemplate.update("insert into notifications (id, user_id, type, actor_id) values (?, ?, 'MENTION', ?)",
+                UUID.randomUUID(), author.getId(), fans.get(0).getId());
+        int corrected = notificationService.reconcileUnreadCounts();
+        long afterReconcile = notificationService.getUnreadCount(author.getId());
+        notificationService.markAllAsRead(author.getId());
+
+        // Assert: the second like merged into the unread like, so it added nothing
+        assertThat(afterFlushes).isEqualTo(2);
+        assertThat(corrected).isEqualTo(1);
+        assertThat(afterReconcile).isEqualTo(3);
+        assertThat(notificationService.getUnreadCount(author.getId())).isZero();
+    }
+
+    private static User newUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPasswordHash("hashedpassword");
+        return user;
+    }
+}
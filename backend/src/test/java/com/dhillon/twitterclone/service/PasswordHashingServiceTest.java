@@ -0,0 +1,93 @@
+package com.dhillon.twitterclone.service;
+
+import com.dhillon.twitterclone.exception.ServiceUnavailableException;
+import com.dhillon.twitterclone.service.impl.PasswordHashingServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the PasswordHashingService.
+ */
+public class PasswordHashingServiceTest {
+    
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    
+    private PasswordHashingServiceImpl passwordHashingService;
+    
+    @AfterEach
+    public void tearDown() {
+        if (passwordHashingService != null) {
+            passwordHashingService.shutdown();
+        }
+    }
+    
+    @Test
+    public void verify_MatchesHashAndRecordsLatency() {
+        // Arrange
+        passwordHashingService = new PasswordHashingServiceImpl(new BCryptPasswordEncoder(4), meterRegistry, 4, 1, 4);
+        String hash = passwordHashingService.hash("secret").join();
+        
+        // Act & Assert
+        assertThat(passwordHashingService.verify("secret", hash).join()).isTrue();
+        assertThat(passwordHashingService.verify("wrong", hash).join()).isFalse();
+        assertThat(meterRegistry.get("auth.password.hash").tag("operation", "verify").timer().count()).isEqualTo(2);
+    }
+    
+    @Test
+    public void verify_WhenUserUnknown_ReturnsFalse() {
+        // Arrange
+        passwordHashingService = new PasswordHashingServiceImpl(new BCryptPasswordEncoder(4), meterRegistry, 4, 1, 4);
+        
+        // Act & Assert
+        assertThat(passwordHashingService.verify("dummy-password-for-unknown-users", null).join()).isFalse();
+    }
+    
+    @Test
+    public void needsRehash_WhenCostDiffers_ReturnsTrue() {
+        // Arrange
+        passwordHashingService = new PasswordHashingServiceImpl(new BCryptPasswordEncoder(5), meterRegistry, 5, 1, 4);
+        
+        // Act & Assert
+        assertThat(passwordHashingService.needsRehash(new BCryptPasswordEncoder(4).encode("secret"))).isTrue();
+        assertThat(passwordHashingService.needsRehash(new BCryptPasswordEncoder(6).encode("secret"))).isTrue();
+        assertThat(passwordHashingService.needsRehash(new BCryptPasswordEncoder(5).encode("secret"))).isFalse();
+        assertThat(passwordHashingService.needsRehash("not-a-bcrypt-hash")).isFalse();
+    }
+    
+    @Test
+    public void verify_WhenPoolAndQueueAreFull_RejectsImmediately() throws Exception {
+        // Arrange: one thread blocked in the encoder and one request waiting in the queue
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blockingEncoder = mock(PasswordEncoder.class);
+        when(blockingEncoder.matches(any(), any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return true;
+        });
+        passwordHashingService = new PasswordHashingServiceImpl(blockingEncoder, meterRegistry, 10, 1, 1);
+        passwordHashingService.verify("a", "hash");
+        started.await();
+        passwordHashingService.verify("b", "hash");
+        
+        // Act & Assert
+        try {
+            assertThatThrownBy(() -> passwordHashingService.verify("c", "hash"))
+                    .isInstanceOf(ServiceUnavailableException.class);
+            assertThat(meterRegistry.get("auth.password.rejected").counter().count()).isEqualTo(1);
+        } finally {
+            release.countDown();
+        }
+    }
+}
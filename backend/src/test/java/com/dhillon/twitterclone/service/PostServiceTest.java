@@ -0,0 +1,215 @@
+package com.dhillon.twitterclone.service;
+
+import com.dhillon.twitterclone.cache.ThreadCache;
+import com.dhillon.twitterclone.entity.NotificationType;
+import com.dhillon.twitterclone.entity.Post;
+import com.dhillon.twitterclone.entity.User;
+import com.dhillon.twitterclone.repository.HashtagRepository;
+import com.dhillon.twitterclone.repository.LikeRepository;
+import com.dhillon.twitterclone.repository.PostRepository;
+import com.dhillon.twitterclone.repository.UserRepository;
+import com.dhillon.twitterclone.service.impl.PostServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the PostService.
+ */
+@ExtendWith(MockitoExtension.class)
+public class PostServiceTest {
+    
+    @Mock
+    private PostRepository postRepository;
+    
+    @Mock
+    private HashtagRepository hashtagRepository;
+    
+    @Mock
+    private LikeRepository likeRepository;
+    
+    @Mock
+    private UserRepository userRepository;
+    
+    @Mock
+    private NotificationService notificationService;
+    
+    @Mock
+    private PushService pushService;
+    
+    private PostServiceImpl postService;
+    
+    private UUID userId;
+    private Pageable pageable;
+    
+    @BeforeEach
+    public void setup() {
+        postService = new PostServiceImpl(postRepository, hashtagRepository, likeRepository, userRepository,
+                notificationService, pushService, new ThreadCache(100, 30000), 30, 7, 50, 4, 200);
+        userId = UUID.randomUUID();
+        pageable = PageRequest.of(0, 2);
+    }
+    
+    @Test
+    public void getUserTimeline_WhenWindowHasMore_SkipsFullHistory() {
+        // Arrange
+        Slice<Post> recent = new SliceImpl<>(List.of(new Post(), new Post()), pageable, true);
+        when(postRepository.findByUserIdSince(eq(userId), any(LocalDateTime.class), eq(pageable))).thenReturn(recent);
+        
+        // Act
+        Slice<Post> result = postService.getUserTimeline(userId, pageable);
+        
+        // Assert
+        assertThat(result).isSameAs(recent);
+        verify(postRepository, never()).findByUserIdOrderByCreatedAtDesc(any(), any());
+    }
+    
+    @Test
+    public void getUserTimeline_WhenWindowRunsOut_ReadsFullHistory() {
+        // Arrange
+        when(postRepository.findByUserIdSince(eq(userId), any(LocalDateTime.class), eq(pageable)))
+                .thenReturn(new SliceImpl<>(List.of(new Post()), pageable, false));
+        PageImpl<Post> all = new PageImpl<>(List.of(new Post(), new Post()), pageable, 5);
+        when(postRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable)).thenReturn(all);
+        
+        // Act
+        Slice<Post> result = postService.getUserTimeline(userId, pageable);
+        
+        // Assert
+        assertThat(result).isSameAs(all);
+    }
+    
+    @Test
+    public void getOriginalPosts_LoadsTheOriginalsOfAPageInOneQuery() {
+        // Arrange
+        Post original = new Post();
+        original.setId(UUID.randomUUID());
+        Post first = new Post();
+        first.setRepost(true);
+        first.setOriginalPost(original);
+        Post second = new Post();
+        second.setRepost(true);
+        second.setOriginalPost(original);
+        when(postRepository.findWithUserByIdIn(Set.of(original.getId()))).thenReturn(List.of(original));
+        
+        // Act
+        Map<UUID, Post> originals = postService.getOriginalPosts(List.of(first, new Post(), second));
+        
+        // Assert
+        assertThat(originals).containsExactly(Map.entry(original.getId(), original));
+        verify(postRepository, times(1)).findWithUserByIdIn(any());
+    }
+    
+    @Test
+    public void getHomeTimeline_BoundsQueryToWindow() {
+        // Arrange
+        when(postRepository.findHomeTimelineSince(eq(userId), any(LocalDateTime.class), eq(pageable)))
+                .thenReturn(new SliceImpl<>(List.of(new Post(), new Post()), pageable, true));
+        LocalDateTime earliest = LocalDateTime.now().minusDays(30);
+        
+        // Act
+        postService.getHomeTimeline(userId, pageable);
+        
+        // Assert
+        verify(postRepository).findHomeTimelineSince(eq(userId),
+                argThat(since -> !since.isBefore(earliest) && since.isBefore(earliest.plusMinutes(1))), eq(pageable));
+    }
+    
+    @Test
+    public void getTrendingPosts_WhenWindowEmpty_FallsBackToAllTime() {
+        // Arrange
+        when(postRepository.existsByCreatedAtGreaterThanEqual(any(LocalDateTime.class))).thenReturn(false);
+        when(postRepository.findTrendingPosts(pageable)).thenReturn(new PageImpl<>(List.of(new Post()), pageable, 1));
+        
+        // Act
+        Slice<Post> result = postService.getTrendingPosts(pageable);
+        
+        // Assert
+        assertThat(result.getContent()).hasSize(1);
+        verify(postRepository, never()).findTrendingPostsSince(any(), any());
+    }
+    
+    @Test
+    public void getTrendingPosts_WhenWindowPartial_KeepsRecentRanking() {
+        // Arrange
+        Slice<Post> recent = new SliceImpl<>(List.of(new Post()), pageable, false);
+        when(postRepository.existsByCreatedAtGreaterThanEqual(any(LocalDateTime.class))).thenReturn(true);
+        when(postRepository.findTrendingPostsSince(any(LocalDateTime.class), eq(pageable))).thenReturn(recent);
+        
+        // Act
+        Slice<Post> result = postService.getTrendingPosts(pageable);
+        
+        // Assert
+        assertThat(result).isSameAs(recent);
+        verify(postRepository, never()).findTrendingPosts(any());
+    }
+    
+    @Test
+    public void getTrendingPosts_LaterPageOfAnEmptyWindow_FallsBackLikeTheFirst() {
+        // Arrange: page 0 fell back to all time, so page 1 must continue that listing
+        Pageable second = PageRequest.of(1, pageable.getPageSize());
+        when(postRepository.existsByCreatedAtGreaterThanEqual(any(LocalDateTime.class))).thenReturn(false);
+        when(postRepository.findTrendingPosts(second)).thenReturn(new PageImpl<>(List.of(new Post()), second, 21));
+        
+        // Act
+        Slice<Post> result = postService.getTrendingPosts(second);
+        
+        // Assert
+        assertThat(result.getContent()).hasSize(1);
+        verify(postRepository, never()).findTrendingPostsSince(any(), any());
+    }
+    
+    @Test
+    public void likePost_WhenNotLiked_InsertsLikeAndNotifiesAuthor() {
+        // Arrange
+        User author = new User();
+        author.setId(UUID.randomUUID());
+        Post post = new Post(author, "hello");
+        UUID postId = UUID.randomUUID();
+        when(postRepository.findById(postId)).thenReturn(Optional.of(post));
+        when(likeRepository.insertIfAbsent(any(), eq(userId), eq(postId))).thenReturn(1);
+        
+        // Act
+        boolean liked = postService.likePost(postId, userId);
+        
+        // Assert
+        assertThat(liked).isTrue();
+        verify(postRepository).adjustLikeCount(postId, 1);
+        verify(notificationService).notify(author.getId(), NotificationType.LIKE, userId, postId);
+    }
+    
+    @Test
+    public void likePost_WhenAlreadyLiked_ChangesNothing() {
+        // Arrange
+        UUID postId = UUID.randomUUID();
+        when(postRepository.findById(postId)).thenReturn(Optional.of(new Post()));
+        when(likeRepository.insertIfAbsent(any(), eq(userId), eq(postId))).thenReturn(0);
+        
+        // Act
+        boolean liked = postService.likePost(postId, userId);
+        
+        // Assert
+        assertThat(liked).isFalse();
+        verify(postRepository, never()).adjustLikeCount(any(), anyInt());
+        verifyNoInteractions(notificationService);
+    }
+}
@@ -0,0 +1,188 @@
+package com.dhillon.twitterclone.service;
+
+import com.dhillon.twitterclone.cache.ThreadCache;
+import com.dhillon.twitterclone.config.HibernateCacheConfig;
+import com.dhillon.twitterclone.dto.PostDto;
+import com.dhillon.twitterclone.dto.PostThreadDto;
+import com.dhillon.twitterclone.dto.ThreadReplyDto;
+import com.dhillon.twitterclone.entity.Post;
+import com.dhillon.twitterclone.entity.User;
+import com.dhillon.twitterclone.exception.ResourceNotFoundException;
+import com.dhillon.twitterclone.repository.UserRepository;
+import com.dhillon.twitterclone.service.impl.PostServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Integration tests for thread loading in the PostService, with small limits so they are easy to reach,
+ * run without the usual rollback-only test transaction so each call commits, against a database of their own.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:post-threads;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "app.post.thread.max-depth=2",
+        "app.post.thread.max-replies=5"
+})
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PostServiceImpl.class, ThreadCache.class, HibernateCacheConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PostThreadTest {
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private NotificationService notificationService;
+
+    @MockBean
+    private PushService pushService;
+
+    private User user;
+
+    @BeforeEach
+    public void setup() {
+        user = new User();
+        user.setUsername("talker");
+        user.setEmail("talker@example.com");
+        user.setPasswordHash("hashedpassword");
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        jdbcTemplate.update("delete from posts");
+        jdbcTemplate.update("delete from users");
+    }
+
+    @Test
+    public void getThread_ReturnsAncestorsAndReplyTree() {
+        // Arrange
+        Post root = postService.createPost(new Post(user, "root"));
+        Post middle = reply(root, "middle");
+        Post post = reply(middle, "post");
+        Post first = reply(post, "first");
+        reply(post, "second");
+        reply(first, "first.1");
+        reply(root, "elsewhere");
+
+        // Act
+        PostThreadDto thread = postService.getThread(post.getId());
+
+        // Assert
+        assertThat(thread.ancestors()).extracting(PostDto::content).containsExactly("root", "middle");
+        assertThat(thread.post().content()).isEqualTo("post");
+        assertThat(thread.replies()).extracting(reply -> reply.post().content()).containsExactly("first", "second");
+        assertThat(thread.replies().get(0).replies()).extracting(reply -> reply.post().content())
+                .containsExactly("first.1");
+        assertThat(thread.moreReplies()).isFalse();
+        assertThat(thread.postIds()).hasSize(6);
+    }
+
+    @Test
+    public void getThread_BeyondDepthOrSize_FlagsMoreReplies() {
+        // Arrange: a chain deeper than two levels, and more direct replies than five
+        Post post = postService.createPost(new Post(user, "post"));
+        Post level1 = reply(post, "level 1");
+        Post level2 = reply(level1, "level 2");
+        reply(level2, "level 3");
+        for (int i = 0; i < 5; i++) {
+            reply(post, "sibling " + i);
+        }
+
+        // Act
+        PostThreadDto thread = postService.getThread(post.getId());
+
+        // Assert: the shallowest and oldest five replies are kept
+        assertThat(thread.replies()).extracting(reply -> reply.post().content())
+                .containsExactly("level 1", "sibling 0", "sibling 1", "sibling 2", "sibling 3");
+        assertThat(thread.moreReplies()).isTrue();
+        ThreadReplyDto first = thread.replies().get(0);
+        assertThat(first.replies()).isEmpty();
+        assertThat(first.moreReplies()).isTrue();
+
+        // The chain continues in the thread of its last loaded reply
+        PostThreadDto deeper = postService.getThread(level2.getId());
+        assertThat(deeper.ancestors()).extracting(PostDto::content).containsExactly("post", "level 1");
+        assertThat(deeper.replies()).extracting(reply -> reply.post().content()).containsExactly("level 3");
+    }
+
+    @Test
+    public void getThread_AfterAReplyIsDeleted_DoesNotFlagMoreReplies() {
+        // Arrange: the reply counts still include the deleted replies
+        Post post = postService.createPost(new Post(user, "post"));
+        Post kept = reply(post, "kept");
+        Post deleted = reply(post, "deleted");
+        reply(kept, "kept.1");
+        postService.deletePost(reply(kept, "kept.2").getId());
+        postService.deletePost(deleted.getId());
+
+        // Act
+        PostThreadDto thread = postService.getThread(post.getId());
+
+        // Assert
+        assertThat(thread.replies()).extracting(reply -> reply.post().content()).containsExactly("kept");
+        assertThat(thread.moreReplies()).isFalse();
+        assertThat(thread.replies().get(0).replies()).hasSize(1);
+        assertThat(thread.replies().get(0).moreReplies()).isFalse();
+    }
+
+    @Test
+    public void getThread_IsCachedUntilAReplyIsCreated() {
+        // Arrange
+        Post root = postService.createPost(new Post(user, "root"));
+        Post post = reply(root, "post");
+        PostThreadDto cached = postService.getThread(post.getId());
+        PostThreadDto rootThread = postService.getThread(root.getId());
+
+        // Act
+        PostThreadDto again = postService.getThread(post.getId());
+        reply(post, "new reply");
+        PostThreadDto afterReply = postService.getThread(post.getId());
+
+        // Assert: the root's thread showed the post too, so it is reloaded as well
+        assertThat(again).isSameAs(cached);
+        assertThat(afterReply.replies()).extracting(reply -> reply.post().content()).containsExactly("new reply");
+        PostThreadDto reloadedRoot = postService.getThread(root.getId());
+        assertThat(reloadedRoot).isNotSameAs(rootThread);
+        assertThat(reloadedRoot.replies().get(0).replies()).hasSize(1);
+    }
+
+    @Test
+    public void getThread_ForMissingOrDeletedPost_IsNotFound() {
+        // Arrange
+        Post post = postService.createPost(new Post(user, "post"));
+        postService.getThread(post.getId());
+        postService.deletePost(post.getId());
+
+        // Act & Assert
+        assertThatThrownBy(() -> postService.getThread(post.getId()))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> postService.getThread(UUID.randomUUID()))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private Post reply(Post parent, String content) {
+        return postService.createReply(parent.getId(), new Post(user, content));
+    }
+}
@@ -0,0 +1,120 @@
+package com.dhillon.twitterclone.service;
+
+import com.dhillon.twitterclone.cache.ThreadCache;
+import com.dhillon.twitterclone.config.HibernateCacheConfig;
+import com.dhillon.twitterclone.entity.NotificationType;
+import com.dhillon.twitterclone.entity.Post;
+import com.dhillon.twitterclone.entity.User;
+import com.dhillon.twitterclone.service.impl.PostServiceImpl;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Verifies that post creation is written with batched JDBC statements.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PostServiceImpl.class, ThreadCache.class, HibernateCacheConfig.class})
+public class PostWriteBatchingTest {
+    
+    @Autowired
+    private TestEntityManager entityManager;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private PostService postService;
+    
+    @MockBean
+    private NotificationService notificationService;
+    
+    @MockBean
+    private PushService pushService;
+    
+    private User testUser;
+    private Statistics statistics;
+    
+    @BeforeEach
+    public void setup() {
+        testUser = new User();
+        testUser.setUsername("testuser");
+        testUser.setEmail("test@example.com");
+        testUser.setPasswordHash("hashedpassword");
+        testUser = entityManager.persistAndFlush(testUser);
+        
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+    
+    @Test
+    public void createPost_WithMediaAndHashtags_UsesOneStatementPerTable() {
+        // Arrange
+        String content = IntStream.range(0, 10)
+                .mapToObj(i -> "#tag" + i)
+                .collect(Collectors.joining(" ", "Batched post ", ""));
+        Post post = new Post(testUser, content);
+        post.setMedia(List.of("/media/1.png", "/media/2.png", "/media/3.png", "/media/4.png"));
+        
+        // Act
+        postService.createPost(post);
+        entityManager.flush();
+        
+        // Assert: one hashtag lookup, then one insert each into hashtags, posts, post_media and post_hashtags
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(11);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(5);
+    }
+    
+    @Test
+    public void createPost_WithExistingHashtags_LooksThemUpInOneQuery() {
+        // Arrange
+        postService.createPost(new Post(testUser, "#alpha #beta #gamma"));
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        
+        // Act
+        postService.createPost(new Post(entityManager.find(User.class, testUser.getId()), "#alpha #beta #gamma #alpha"));
+        entityManager.flush();
+        
+        // Assert: the user lookup, the hashtag lookup, the post and its hashtag links
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+    }
+    
+    @Test
+    public void likePost_Twice_InsertsAndCountsOneLike() {
+        // Arrange
+        Post post = postService.createPost(new Post(testUser, "hello"));
+        entityManager.flush();
+        
+        // Act
+        boolean first = postService.likePost(post.getId(), testUser.getId());
+        boolean second = postService.likePost(post.getId(), testUser.getId());
+        entityManager.clear();
+        
+        // Assert
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        assertThat(entityManager.find(Post.class, post.getId()).getLikeCount()).isEqualTo(1);
+        verify(notificationService).notify(testUser.getId(), NotificationType.LIKE, testUser.getId(), post.getId());
+    }
+}
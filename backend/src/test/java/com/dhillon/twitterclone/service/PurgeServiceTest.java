@@ -0,0 +1,67 @@
+package com.dhillon.twitterclone.service;
+
+import com.dhillon.twitterclone.repository.PostRepository;
+import com.dhillon.twitterclone.repository.UserRepository;
+import com.dhillon.twitterclone.service.impl.PurgeServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the PurgeService.
+ */
+@ExtendWith(MockitoExtension.class)
+public class PurgeServiceTest {
+    
+    @Mock
+    private PostRepository postRepository;
+    
+    @Mock
+    private UserRepository userRepository;
+    
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    
+    private PurgeServiceImpl purgeService;
+    
+    @BeforeEach
+    public void setup() {
+        purgeService = new PurgeServiceImpl(postRepository, userRepository, new TransactionTemplate(transactionManager), 100);
+    }
+    
+    @Test
+    public void purgeDeleted_RepeatsFullBatchesThenPurgesUsers() {
+        // Arrange
+        when(postRepository.purgeDeletedPosts(100)).thenReturn(100, 100, 7);
+        when(userRepository.purgeDeletedUsers(100)).thenReturn(3);
+        
+        // Act
+        int purged = purgeService.purgeDeleted();
+        
+        // Assert: each batch commits separately, posts before users
+        assertThat(purged).isEqualTo(210);
+        InOrder inOrder = inOrder(postRepository, userRepository);
+        inOrder.verify(postRepository, times(3)).purgeDeletedPosts(100);
+        inOrder.verify(userRepository).purgeDeletedUsers(100);
+        verify(transactionManager, times(4)).commit(any());
+    }
+    
+    @Test
+    public void purgeDeleted_WhenNothingDeleted_RunsOneBatchEach() {
+        // Act
+        int purged = purgeService.purgeDeleted();
+        
+        // Assert
+        assertThat(purged).isZero();
+        verify(postRepository).purgeDeletedPosts(100);
+        verify(userRepository).purgeDeletedUsers(100);
+    }
+}
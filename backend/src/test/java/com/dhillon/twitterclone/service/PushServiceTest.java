@@ -0,0 +1,95 @@
+package com.dhillon.twitterclone.service;
+
+import com.dhillon.twitterclone.dto.PushEvent;
+import com.dhillon.twitterclone.dto.TimelineEntryDto;
+import com.dhillon.twitterclone.repository.FollowRepository;
+import com.dhillon.twitterclone.service.impl.PushServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the fan-out of new posts in the PushService.
+ */
+@ExtendWith(MockitoExtension.class)
+public class PushServiceTest {
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Mock
+    private SimpUserRegistry userRegistry;
+
+    @Mock
+    private FollowRepository followRepository;
+
+    @Mock
+    private TimelineStreamService timelineStreamService;
+
+    private PushServiceImpl pushService;
+
+    private UUID authorId;
+    private UUID connectedId;
+    private UUID streamingId;
+
+    @BeforeEach
+    public void setup() {
+        pushService = new PushServiceImpl(messagingTemplate, userRegistry, followRepository, timelineStreamService,
+                20, 100);
+        authorId = UUID.randomUUID();
+        connectedId = UUID.randomUUID();
+        streamingId = UUID.randomUUID();
+
+        SimpUser connected = mock(SimpUser.class);
+        when(connected.getName()).thenReturn(connectedId.toString());
+        when(userRegistry.getUsers()).thenReturn(Set.of(connected));
+        when(userRegistry.getUserCount()).thenReturn(1);
+        lenient().when(userRegistry.getUser(connectedId.toString())).thenReturn(connected);
+        when(timelineStreamService.streamingUserIds()).thenReturn(new HashSet<>(Set.of(streamingId)));
+        lenient().when(timelineStreamService.isStreaming(streamingId)).thenReturn(true);
+    }
+
+    @Test
+    public void flush_LooksUpOnlyOnlineFollowersOfTheAuthors() {
+        // Arrange
+        UUID postId = UUID.randomUUID();
+        List<Collection<UUID>> looked = new ArrayList<>();
+        when(followRepository.findFollowsAmong(eq(List.of(authorId)), anyCollection())).thenAnswer(invocation -> {
+            looked.add(new HashSet<>(invocation.<Collection<UUID>>getArgument(1)));
+            return List.<Object[]>of(new Object[] { authorId, connectedId }, new Object[] { authorId, streamingId });
+        });
+        pushService.postCreated(authorId, postId);
+
+        // Act
+        int sent = pushService.flush();
+
+        // Assert
+        assertThat(looked).containsExactly(Set.of(connectedId, streamingId));
+        assertThat(sent).isEqualTo(1);
+        verify(messagingTemplate).convertAndSendToUser(connectedId.toString(), PushServiceImpl.EVENTS_DESTINATION,
+                new PushEvent(PushEvent.Type.TIMELINE, List.of(postId), 1));
+        verify(timelineStreamService).publish(streamingId, List.of(new TimelineEntryDto(postId, authorId)));
+    }
+}
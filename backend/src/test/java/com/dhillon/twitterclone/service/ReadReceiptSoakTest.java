@@ -0,0 +1,172 @@
+package com.dhillon.twitterclone.service;
+
+import com.dhillon.twitterclone.config.HibernateCacheConfig;
+import com.dhillon.twitterclone.entity.Conversation;
+import com.dhillon.twitterclone.entity.User;
+import com.dhillon.twitterclone.repository.UserRepository;
+import com.dhillon.twitterclone.service.impl.DirectMessageServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark of read receipt writes in a busy group chat: every member scrolls quickly through the
+ * backlog, sending a receipt per screenful. Compares the per-message status rows the watermarks
+ * replaced, recreated here in a table of their own, with the watermark path of the service.
+ * Receipts per second for each are logged; the number of rows written is asserted.
+ * Run with -Psoak-tests.
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:read-receipts;DB_CLOSE_DELAY=-1;MODE=PostgreSQL")
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({DirectMessageServiceImpl.class, HibernateCacheConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ReadReceiptSoakTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadReceiptSoakTest.class);
+
+    private static final int MEMBERS = 50;
+    private static final int MESSAGES = 1000;
+    private static final int MESSAGES_PER_RECEIPT = 20;
+
+    @Autowired
+    private DirectMessageService directMessageService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockBean
+    private PushService pushService;
+
+    private List<UUID> memberIds;
+    private UUID conversationId;
+    private List<UUID> messageIds;
+
+    @BeforeEach
+    public void setup() {
+        memberIds = new ArrayList<>();
+        for (int i = 0; i < MEMBERS; i++) {
+            User user = new User();
+            user.setUsername("member" + i);
+            user.setEmail("member" + i + "@example.com");
+            user.setPasswordHash("hashedpassword");
+            memberIds.add(userRepository.save(user).getId());
+        }
+        Conversation group = directMessageService.createConversation(
+                memberIds.get(0), memberIds.subList(1, MEMBERS), null);
+        conversationId = group.getId();
+
+        // The backlog, from the first member, one second apart at a fixed time
+        messageIds = new ArrayList<>(MESSAGES);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 15, 12, 0);
+        for (int i = 0; i < MESSAGES; i++) {
+            messageIds.add(UUID.randomUUID());
+        }
+        List<Integer> indexes = new ArrayList<>(MESSAGES);
+        for (int i = 0; i < MESSAGES; i++) {
+            indexes.add(i);
+        }
+        jdbcTemplate.batchUpdate("insert into dm_messages (id, conversation_id, sender_id, content, created_at) " +
+                "values (?, ?, ?, ?, ?)", indexes, 500, (ps, i) -> {
+                    ps.setObject(1, messageIds.get(i));
+                    ps.setObject(2, conversationId);
+                    ps.setObject(3, memberIds.get(0));
+                    ps.setString(4, "message " + i);
+                    ps.setTimestamp(5, Timestamp.valueOf(start.plusSeconds(i)));
+                });
+
+        // The per-message table as it was, with an unread row per message and recipient
+        jdbcTemplate.execute("create table legacy_message_status (message_id uuid not null, user_id uuid not null, " +
+                "is_read boolean not null default false, read_at timestamp, primary key (message_id, user_id))");
+        for (UUID readerId : memberIds.subList(1, MEMBERS)) {
+            jdbcTemplate.batchUpdate("insert into legacy_message_status (message_id, user_id) values (?, ?)",
+                    messageIds, 500, (ps, messageId) -> {
+                        ps.setObject(1, messageId);
+                        ps.setObject(2, readerId);
+                    });
+        }
+    }
+
+    @AfterEach
+    public void cleanup() {
+        jdbcTemplate.execute("drop table legacy_message_status");
+        jdbcTemplate.update("delete from dm_messages");
+        jdbcTemplate.update("delete from dm_participants");
+        jdbcTemplate.update("delete from dm_conversations");
+        jdbcTemplate.update("delete from users");
+    }
+
+    @Test
+    public void readReceipts_WatermarkWritesOneRowPerReceipt() {
+        int receipts = (MEMBERS - 1) * (MESSAGES / MESSAGES_PER_RECEIPT);
+
+        // Act: the old way, marking each message up to the one on screen, by the time the database holds for it
+        long legacyStart = System.nanoTime();
+        long legacyRows = 0;
+        for (int upTo = MESSAGES_PER_RECEIPT - 1; upTo < MESSAGES; upTo += MESSAGES_PER_RECEIPT) {
+            UUID readUpTo = messageIds.get(upTo);
+            for (UUID readerId : memberIds.subList(1, MEMBERS)) {
+                Integer rows = transactionTemplate.execute(status -> jdbcTemplate.update(
+                        "update legacy_message_status set is_read = true, read_at = current_timestamp " +
+                        "where user_id = ? and is_read = false and message_id in " +
+                        "(select m.id from dm_messages m where m.conversation_id = ? and m.created_at <= " +
+                        "(select r.created_at from dm_messages r where r.id = ?))",
+                        readerId, conversationId, readUpTo));
+                legacyRows += rows != null ? rows : 0;
+            }
+        }
+        long legacyNanos = System.nanoTime() - legacyStart;
+
+        // The watermark, through the service
+        long watermarkStart = System.nanoTime();
+        long watermarkRows = 0;
+        for (int upTo = MESSAGES_PER_RECEIPT - 1; upTo < MESSAGES; upTo += MESSAGES_PER_RECEIPT) {
+            for (UUID readerId : memberIds.subList(1, MEMBERS)) {
+                if (directMessageService.markRead(readerId, conversationId, messageIds.get(upTo))) {
+                    watermarkRows++;
+                }
+            }
+        }
+        long watermarkNanos = System.nanoTime() - watermarkStart;
+
+        logger.info("{} read receipts: per-message statuses wrote {} rows at {} receipts/s; "
+                        + "watermarks wrote {} rows at {} receipts/s",
+                receipts, legacyRows, perSecond(receipts, legacyNanos),
+                watermarkRows, perSecond(receipts, watermarkNanos));
+
+        // Assert: everything read either way, at a twentieth of the row writes
+        assertThat(legacyRows).isEqualTo((long) (MEMBERS - 1) * MESSAGES);
+        assertThat(watermarkRows).isEqualTo(receipts);
+        assertThat(directMessageService.getUnreadCounts(memberIds.get(1), List.of(conversationId))).isEmpty();
+    }
+
+    private static long perSecond(int count, long nanos) {
+        return count * 1_000_000_000L / Math.max(nanos, 1);
+    }
+}
@@ -0,0 +1,260 @@
+package com.dhillon.twitterclone.service;
+
+import com.dhillon.twitterclone.entity.User;
+import com.dhillon.twitterclone.exception.ResourceNotFoundException;
+import com.dhillon.twitterclone.repository.FollowRepository;
+import com.dhillon.twitterclone.repository.UserRepository;
+import com.dhillon.twitterclone.service.impl.RecommendationServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the RecommendationService.
+ */
+@ExtendWith(MockitoExtension.class)
+public class RecommendationServiceTest {
+
+    @Mock
+    private FollowRepository followRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private RecommendationServiceImpl recommendationService;
+
+    private UUID alice;
+    private UUID bob;
+    private UUID carol;
+    private UUID dave;
+    private UUID erin;
+
+    @BeforeEach
+    public void setup() {
+        recommendationService = new RecommendationServiceImpl(followRepository, userRepository, 20, 2);
+
+        alice = UUID.randomUUID();
+        bob = UUID.randomUUID();
+        carol = UUID.randomUUID();
+        dave = UUID.randomUUID();
+        erin = UUID.randomUUID();
+
+        lenient().when(userRepository.existsById(any(UUID.class))).thenReturn(true);
+        lenient().when(userRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<User> users = new ArrayList<>();
+            for (Object id : (Iterable<?>) invocation.getArgument(0)) {
+                User user = new User();
+                user.setId((UUID) id);
+                users.add(user);
+            }
+            return users;
+        });
+    }
+
+    @Test
+    public void getSuggestions_AfterRebuild_RanksByMutualConnections() {
+        // Arrange: alice follows bob and carol; both follow dave, only bob follows erin
+        when(followRepository.streamAllEdges()).thenReturn(Stream.of(
+            new Object[] { alice, bob },
+            new Object[] { alice, carol },
+            new Object[] { bob, dave },
+            new Object[] { carol, dave },
+            new Object[] { bob, erin },
+            new Object[] { bob, carol }
+        ));
+        recommendationService.rebuildSuggestions();
+
+        // Act
+        List<User> result = recommendationService.getSuggestions(alice, 10);
+
+        // Assert: carol is already followed, so she is never suggested
+        assertThat(result).extracting(User::getId).containsExactly(dave, erin);
+        verify(followRepository, never()).findFriendsOfFriendsIds(any(UUID.class), any(Pageable.class));
+    }
+
+    @Test
+    public void getSuggestions_RespectsLimit() {
+        // Arrange
+        when(followRepository.streamAllEdges()).thenReturn(Stream.of(
+            new Object[] { alice, bob },
+            new Object[] { alice, carol },
+            new Object[] { bob, dave },
+            new Object[] { carol, dave },
+            new Object[] { bob, erin }
+        ));
+        recommendationService.rebuildSuggestions();
+
+        // Act
+        List<User> result = recommendationService.getSuggestions(alice, 1);
+
+        // Assert
+        assertThat(result).extracting(User::getId).containsExactly(dave);
+    }
+
+    @Test
+    public void getSuggestions_WhenNotCached_QueriesAndCaches() {
+        // Arrange
+        when(followRepository.findFriendsOfFriendsIds(eq(alice), any(Pageable.class))).thenReturn(List.of(dave));
+
+        // Act
+        recommendationService.getSuggestions(alice, 10);
+        List<User> result = recommendationService.getSuggestions(alice, 10);
+
+        // Assert
+        assertThat(result).extracting(User::getId).containsExactly(dave);
+        verify(followRepository, times(1)).findFriendsOfFriendsIds(eq(alice), any(Pageable.class));
+    }
+
+    @Test
+    public void onFollowChanged_EvictsOnlyTheFollower() {
+        // Arrange: bob follows alice, so alice following someone changes bob's second hop too
+        when(followRepository.findFriendsOfFriendsIds(any(UUID.class), any(Pageable.class))).thenReturn(List.of(dave));
+        recommendationService.getSuggestions(alice, 10);
+        recommendationService.getSuggestions(bob, 10);
+
+        // Act
+        recommendationService.onFollowChanged(alice, carol);
+        recommendationService.getSuggestions(alice, 10);
+        recommendationService.getSuggestions(bob, 10);
+
+        // Assert: alice is recomputed on read, while bob waits for the next rebuild, as does whoever else follows her
+        verify(followRepository, times(2)).findFriendsOfFriendsIds(eq(alice), any(Pageable.class));
+        verify(followRepository, times(1)).findFriendsOfFriendsIds(eq(bob), any(Pageable.class));
+    }
+
+    @Test
+    public void getSuggestions_WhenFollowChangesDuringTheLoad_DoesNotCacheIt() {
+        // Arrange: alice follows someone while her suggestions are being read
+        when(followRepository.findFriendsOfFriendsIds(eq(alice), any(Pageable.class))).thenAnswer(invocation -> {
+            recommendationService.onFollowChanged(alice, erin);
+            return List.of(dave);
+        });
+
+        // Act
+        recommendationService.getSuggestions(alice, 10);
+        recommendationService.getSuggestions(alice, 10);
+
+        // Assert: the possibly outdated result was not kept
+        verify(followRepository, times(2)).findFriendsOfFriendsIds(eq(alice), any(Pageable.class));
+    }
+
+    @Test
+    public void getSuggestions_KeepsTheMostRecentlyReadUsers() {
+        // Arrange: room for two users
+        when(followRepository.findFriendsOfFriendsIds(any(UUID.class), any(Pageable.class))).thenReturn(List.of(dave));
+        recommendationService.getSuggestions(alice, 10);
+        recommendationService.getSuggestions(bob, 10);
+        recommendationService.getSuggestions(alice, 10);
+
+        // Act
+        recommendationService.getSuggestions(carol, 10);
+        recommendationService.getSuggestions(alice, 10);
+        recommendationService.getSuggestions(bob, 10);
+
+        // Assert: bob, read least recently, made way for carol
+        verify(followRepository, times(1)).findFriendsOfFriendsIds(eq(alice), any(Pageable.class));
+        verify(followRepository, times(2)).findFriendsOfFriendsIds(eq(bob), any(Pageable.class));
+    }
+
+    @Test
+    public void getSuggestions_ForUnknownUser_ThrowsWithoutCaching() {
+        // Arrange
+        UUID unknown = UUID.randomUUID();
+        when(userRepository.existsById(unknown)).thenReturn(false);
+
+        // Act & Assert
+        assertThatThrownBy(() -> recommendationService.getSuggestions(unknown, 10))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verify(followRepository, never()).findFriendsOfFriendsIds(any(UUID.class), any(Pageable.class));
+    }
+
+    @Test
+    public void onFollowChanged_WhenTransactionRollsBack_KeepsSuggestions() {
+        // Arrange
+        when(followRepository.findFriendsOfFriendsIds(eq(alice), any(Pageable.class))).thenReturn(List.of(dave));
+        recommendationService.getSuggestions(alice, 10);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            recommendationService.onFollowChanged(alice, carol);
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        recommendationService.getSuggestions(alice, 10);
+
+        // Assert
+        verify(followRepository, times(1)).findFriendsOfFriendsIds(eq(alice), any(Pageable.class));
+    }
+
+    @Test
+    public void rebuildSuggestions_KeepsFollowChangesMadeDuringTheRebuild() {
+        // Arrange: alice follows someone while the snapshot is being read
+        when(followRepository.streamAllEdges()).thenAnswer(invocation -> {
+            recommendationService.onFollowChanged(alice, erin);
+            return Stream.of(
+                new Object[] { alice, bob },
+                new Object[] { bob, dave }
+            );
+        });
+        when(followRepository.findFriendsOfFriendsIds(eq(alice), any(Pageable.class))).thenReturn(List.of(erin));
+
+        // Act
+        recommendationService.rebuildSuggestions();
+        List<User> result = recommendationService.getSuggestions(alice, 10);
+
+        // Assert: alice is loaded again rather than served the snapshot
+        assertThat(result).extracting(User::getId).containsExactly(erin);
+    }
+
+    @Test
+    public void getSuggestions_SkipsDeletedUsersAndFillsTheLimit() {
+        // Arrange: dave was deleted after the suggestions were computed
+        when(followRepository.findFriendsOfFriendsIds(eq(alice), any(Pageable.class)))
+                .thenReturn(List.of(dave, erin, carol));
+        when(userRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<User> users = new ArrayList<>();
+            for (Object id : (Iterable<?>) invocation.getArgument(0)) {
+                if (!id.equals(dave)) {
+                    User user = new User();
+                    user.setId((UUID) id);
+                    users.add(user);
+                }
+            }
+            return users;
+        });
+
+        // Act
+        List<User> result = recommendationService.getSuggestions(alice, 2);
+
+        // Assert
+        assertThat(result).extracting(User::getId).containsExactly(erin, carol);
+    }
+
+    @Test
+    public void getSuggestions_WithNonPositiveLimit_ReturnsNothing() {
+        // Act & Assert
+        assertThat(recommendationService.getSuggestions(alice, -1)).isEmpty();
+        assertThat(recommendationService.getSuggestions(alice, 0)).isEmpty();
+        verifyNoInteractions(followRepository);
+    }
+}
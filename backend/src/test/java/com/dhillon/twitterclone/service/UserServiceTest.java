@@ -1,21 +1,30 @@
 package com.dhillon.twitterclone.service;
 
+import com.dhillon.twitterclone.cache.AvailabilityFilter;
+import com.dhillon.twitterclone.cache.UsernameCache;
+import com.dhillon.twitterclone.entity.NotificationType;
 import com.dhillon.twitterclone.entity.User;
+import com.dhillon.twitterclone.exception.BadRequestException;
 import com.dhillon.twitterclone.exception.ResourceNotFoundException;
+import com.dhillon.twitterclone.exception.ServiceUnavailableException;
+import com.dhillon.twitterclone.repository.FollowRepository;
+import com.dhillon.twitterclone.repository.PostRepository;
 import com.dhillon.twitterclone.repository.UserRepository;
 import com.dhillon.twitterclone.service.impl.UserServiceImpl;
+import jakarta.persistence.EntityManagerFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -32,7 +41,28 @@ public class UserServiceTest {
     private UserRepository userRepository;
     
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private FollowRepository followRepository;
+    
+    @Mock
+    private PostRepository postRepository;
+    
+    @Mock
+    private PasswordHashingService passwordHashingService;
+    
+    @Mock
+    private RecommendationService recommendationService;
+    
+    @Mock
+    private UsernameCache usernameCache;
+    
+    @Mock
+    private AvailabilityFilter availabilityFilter;
+    
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Mock
+    private NotificationService notificationService;
     
     @InjectMocks
     private UserServiceImpl userService;
@@ -93,6 +123,55 @@ public class UserServiceTest {
         verify(userRepository).findByUsername(username);
     }
     
+    @Test
+    public void findByIdOrUsername_WithUuid_LooksUpById() {
+        // Arrange
+        when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
+        
+        // Act
+        Optional<User> result = userService.findByIdOrUsername(testUserId.toString());
+        
+        // Assert
+        assertThat(result).contains(testUser);
+        verify(userRepository, never()).findByUsername(any(String.class));
+    }
+    
+    @Test
+    public void findByIdOrUsername_WithUsername_CachesId() {
+        // Arrange
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        
+        // Act
+        Optional<User> result = userService.findByIdOrUsername("testuser");
+        
+        // Assert
+        assertThat(result).contains(testUser);
+        verify(usernameCache).put("testuser", testUserId);
+    }
+    
+    @Test
+    public void resolveUserId_WithCachedUsername_SkipsDatabase() {
+        // Arrange
+        when(usernameCache.get("testuser")).thenReturn(testUserId);
+        
+        // Act
+        Optional<UUID> result = userService.resolveUserId("testuser");
+        
+        // Assert
+        assertThat(result).contains(testUserId);
+        verifyNoInteractions(userRepository);
+    }
+    
+    @Test
+    public void resolveUserId_WithUuid_SkipsDatabase() {
+        // Act
+        Optional<UUID> result = userService.resolveUserId(testUserId.toString());
+        
+        // Assert
+        assertThat(result).contains(testUserId);
+        verifyNoInteractions(userRepository, usernameCache);
+    }
+    
     @Test
     public void createUser_EncodesPasswordAndSetsDefaults() {
         // Arrange
@@ -101,7 +180,7 @@ public class UserServiceTest {
         newUser.setEmail("new@example.com");
         newUser.setPasswordHash("password");
         
-        when(passwordEncoder.encode("password")).thenReturn("encodedPassword");
+        when(passwordHashingService.hash("password")).thenReturn(CompletableFuture.completedFuture("encodedPassword"));
         when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
         
         // Act
@@ -112,8 +191,24 @@ public class UserServiceTest {
         assertThat(result.isEnabled()).isTrue();
         assertThat(result.isEmailVerified()).isFalse();
         assertThat(result.isVerified()).isFalse();
-        verify(passwordEncoder).encode("password");
+        verify(passwordHashingService).hash("password");
         verify(userRepository).save(newUser);
+        verify(availabilityFilter, atLeastOnce()).add("newuser", "new@example.com");
+    }
+    
+    @Test
+    public void createUser_WhenHashingFails_RethrowsTheCauseWithoutSaving() {
+        // Arrange
+        User newUser = new User();
+        newUser.setUsername("newuser");
+        newUser.setPasswordHash("password");
+        when(passwordHashingService.hash("password")).thenReturn(
+                CompletableFuture.failedFuture(new ServiceUnavailableException("Too many requests", 1)));
+        
+        // Act & Assert: not wrapped in a CompletionException, so the client gets 503 rather than 500
+        assertThatThrownBy(() -> userService.createUser(newUser))
+                .isInstanceOf(ServiceUnavailableException.class);
+        verify(userRepository, never()).save(any(User.class));
     }
     
     @Test
@@ -153,7 +248,7 @@ public class UserServiceTest {
     }
     
     @Test
-    public void deleteUser_WhenUserExists_DeletesUser() {
+    public void deleteUser_WhenUserExists_SoftDeletesUserAndPosts() {
         // Arrange
         when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
         
@@ -162,7 +257,11 @@ public class UserServiceTest {
         
         // Assert
         verify(userRepository).findById(testUserId);
-        verify(userRepository).delete(testUser);
+        verify(followRepository).deleteAllByUserId(testUserId);
+        verify(postRepository).softDeleteByUserId(testUserId);
+        verify(userRepository).softDelete(testUserId);
+        verify(userRepository, never()).delete(any(User.class));
+        verify(usernameCache).evict("testuser");
     }
     
     @Test
@@ -176,7 +275,7 @@ public class UserServiceTest {
                 .hasMessageContaining("User not found with id:");
         
         verify(userRepository).findById(testUserId);
-        verify(userRepository, never()).delete(any(User.class));
+        verify(userRepository, never()).softDelete(any(UUID.class));
     }
     
     @Test
@@ -200,6 +299,7 @@ public class UserServiceTest {
     public void isUsernameAvailable_WhenUsernameDoesNotExist_ReturnsTrue() {
         // Arrange
         String username = "available";
+        when(availabilityFilter.mightContainUsername(username)).thenReturn(true);
         when(userRepository.existsByUsername(username)).thenReturn(false);
         
         // Act
@@ -210,10 +310,24 @@ public class UserServiceTest {
         verify(userRepository).existsByUsername(username);
     }
     
+    @Test
+    public void isUsernameAvailable_WhenFilterHasNoMatch_SkipsDatabase() {
+        // Arrange
+        when(availabilityFilter.mightContainUsername("fresh")).thenReturn(false);
+        
+        // Act
+        boolean result = userService.isUsernameAvailable("fresh");
+        
+        // Assert
+        assertThat(result).isTrue();
+        verify(userRepository, never()).existsByUsername(any(String.class));
+    }
+    
     @Test
     public void isUsernameAvailable_WhenUsernameExists_ReturnsFalse() {
         // Arrange
         String username = "taken";
+        when(availabilityFilter.mightContainUsername(username)).thenReturn(true);
         when(userRepository.existsByUsername(username)).thenReturn(true);
         
         // Act
@@ -223,4 +337,71 @@ public class UserServiceTest {
         assertThat(result).isFalse();
         verify(userRepository).existsByUsername(username);
     }
+    
+    @Test
+    public void followUser_WhenNotFollowing_SavesFollowAndRefreshesSuggestions() {
+        // Arrange
+        User other = new User();
+        UUID otherId = UUID.randomUUID();
+        other.setId(otherId);
+        
+        when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
+        when(userRepository.findById(otherId)).thenReturn(Optional.of(other));
+        when(followRepository.insertIfAbsent(any(UUID.class), eq(testUserId), eq(otherId))).thenReturn(1);
+        
+        // Act
+        userService.followUser(testUserId, otherId);
+        
+        // Assert
+        verify(followRepository).insertIfAbsent(any(UUID.class), eq(testUserId), eq(otherId));
+        verify(userRepository).adjustFollowingCount(testUserId, 1);
+        verify(userRepository).adjustFollowerCount(otherId, 1);
+        verify(entityManagerFactory.getCache(), atLeastOnce()).evict(User.class, testUserId);
+        verify(entityManagerFactory.getCache(), atLeastOnce()).evict(User.class, otherId);
+        verify(recommendationService).onFollowChanged(testUserId, otherId);
+        verify(notificationService).notify(otherId, NotificationType.FOLLOW, testUserId, null);
+    }
+    
+    @Test
+    public void followUser_WhenFollowingSelf_ThrowsException() {
+        // Act & Assert
+        assertThatThrownBy(() -> userService.followUser(testUserId, testUserId))
+                .isInstanceOf(BadRequestException.class);
+        
+        verify(followRepository, never()).insertIfAbsent(any(UUID.class), any(UUID.class), any(UUID.class));
+    }
+    
+    @Test
+    public void followUser_WhenAlreadyFollowing_DoesNotCountOrNotifyAgain() {
+        // Arrange
+        User other = new User();
+        UUID otherId = UUID.randomUUID();
+        other.setId(otherId);
+        
+        when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
+        when(userRepository.findById(otherId)).thenReturn(Optional.of(other));
+        when(followRepository.insertIfAbsent(any(UUID.class), eq(testUserId), eq(otherId))).thenReturn(0);
+        
+        // Act
+        userService.followUser(testUserId, otherId);
+        
+        // Assert
+        verify(userRepository, never()).adjustFollowingCount(any(UUID.class), anyInt());
+        verify(userRepository, never()).adjustFollowerCount(any(UUID.class), anyInt());
+        verify(recommendationService, never()).onFollowChanged(any(UUID.class), any(UUID.class));
+        verify(notificationService, never()).notify(any(), any(), any(), any());
+    }
+    
+    @Test
+    public void unfollowUser_WhenNotFollowing_DoesNotRefreshSuggestions() {
+        // Arrange
+        UUID otherId = UUID.randomUUID();
+        when(followRepository.deleteByFollowerIdAndFollowingId(testUserId, otherId)).thenReturn(0);
+        
+        // Act
+        userService.unfollowUser(testUserId, otherId);
+        
+        // Assert
+        verify(recommendationService, never()).onFollowChanged(any(UUID.class), any(UUID.class));
+    }
 } 
\ No newline at end of file
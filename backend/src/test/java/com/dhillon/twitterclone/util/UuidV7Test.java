@@ -0,0 +1,34 @@
+package com.dhillon.twitterclone.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for UuidV7.
+ */
+public class UuidV7Test {
+    
+    @Test
+    public void fromTimestamp_SetsVersionVariantAndTimestamp() {
+        // Act
+        UUID uuid = UuidV7.fromTimestamp(1_700_000_000_000L);
+        
+        // Assert
+        assertThat(uuid.version()).isEqualTo(7);
+        assertThat(uuid.variant()).isEqualTo(2);
+        assertThat(UuidV7.timestampOf(uuid)).isEqualTo(1_700_000_000_000L);
+    }
+    
+    @Test
+    public void fromTimestamp_SortsByTimeAcrossMilliseconds() {
+        // Act
+        UUID earlier = UuidV7.fromTimestamp(1_700_000_000_000L);
+        UUID later = UuidV7.fromTimestamp(1_700_000_000_001L);
+        
+        // Assert: the string form is what databases compare byte-wise
+        assertThat(earlier.toString()).isLessThan(later.toString());
+    }
+}
@@ -0,0 +1,203 @@
+package com.dhillon.twitterclone.websocket;
+
+import com.dhillon.twitterclone.security.JwtTokenProvider;
+import com.dhillon.twitterclone.service.PushService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Soak test of the push channel with 10k simulated connections, each following one author.
+ * Sessions are driven through the real STOMP handler, broker and outboxes; only the sockets are simulated.
+ * One in a hundred clients stops reading for a while and must lose old events without being disconnected;
+ * one in a hundred never reads again and must be disconnected. Everyone else must get exactly one
+ * event per burst of posts. Set -Dpush.soak.connections to change the number of connections.
+ * Takes close to a minute, so it only runs with the soak-tests profile.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:push-soak;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "app.push.session-queue-capacity=4",
+        "app.push.send-time-limit-ms=5000",
+        // Flushed by the test instead
+        "app.push.coalesce-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+public class PushSoakTest {
+
+    private static final int CONNECTIONS = Integer.getInteger("push.soak.connections", 10_000);
+    private static final int BURSTS = 8;
+    private static final int POSTS_PER_BURST = 5;
+    private static final int QUEUE_CAPACITY = 4;
+    private static final long SEND_TIME_LIMIT_MS = 5000;
+
+    @Autowired
+    @Qualifier("subProtocolWebSocketHandler")
+    private WebSocketHandler stompHandler;
+
+    @Autowired
+    @Qualifier("clientInboundChannelExecutor")
+    private ThreadPoolTaskExecutor inboundExecutor;
+
+    @Autowired
+    private SessionOutboxFactory outboxFactory;
+
+    @Autowired
+    private SimpUserRegistry userRegistry;
+
+    @Autowired
+    private PushService pushService;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<SimulatedSession> sessions = new ArrayList<>();
+
+    @AfterEach
+    public void cleanup() {
+        sessions.forEach(SimulatedSession::resume);
+        jdbcTemplate.update("delete from follows");
+        jdbcTemplate.update("delete from users");
+    }
+
+    @Test
+    public void push_TenThousandConnections_CoalescesBurstsAndShedsSlowClients() throws Exception {
+        // Arrange: every follower connects and subscribes; 1% never read again
+        UUID authorId = UUID.randomUUID();
+        List<UUID> followerIds = createFollowers(authorId);
+        WebSocketHandler handler = outboxFactory.decorate(stompHandler);
+        List<SimulatedSession> fast = new ArrayList<>();
+        List<SimulatedSession> slow = new ArrayList<>();
+        List<SimulatedSession> stuck = new ArrayList<>();
+        for (int i = 0; i < CONNECTIONS; i++) {
+            SimulatedSession session = new SimulatedSession("session-" + i);
+            if (i % 100 == 1) {
+                slow.add(session);
+            } else if (i % 100 == 2) {
+                stuck.add(session.pause());
+            } else {
+                fast.add(session);
+            }
+            sessions.add(session);
+            connect(handler, session, followerIds.get(i));
+        }
+        await(() -> userRegistry.getUserCount() == CONNECTIONS);
+        awaitIdle();
+
+        // The first event to each session fills the broker's destination cache, which takes a while
+        burst(authorId);
+        await(() -> fast.stream().allMatch(session -> session.messages() == 1));
+        await(() -> slow.stream().allMatch(session -> session.messages() == 1));
+
+        // Act: 1% stop reading, then bursts of posts, each flushed as one event per user
+        slow.forEach(SimulatedSession::pauseMessages);
+        for (int burst = 0; burst < BURSTS; burst++) {
+            burst(authorId);
+        }
+        await(() -> fast.stream().allMatch(session -> session.messages() == 1 + BURSTS));
+        long queuedWhilePaused = outboxFactory.queuedFrames();
+        long droppedWhilePaused = outboxFactory.droppedFrames();
+
+        // The paused clients catch up; the stuck ones outlive the send time limit
+        slow.forEach(SimulatedSession::resume);
+        Thread.sleep(SEND_TIME_LIMIT_MS + 100);
+        burst(authorId);
+        await(() -> fast.stream().allMatch(session -> session.messages() == BURSTS + 2));
+        await(() -> slow.stream().allMatch(session -> session.lastFrame().contains("\"count\":" + POSTS_PER_BURST)
+                && session.lastFrame().startsWith("MESSAGE")));
+
+        // Assert: memory stayed bounded by the per-session queues, and paused clients shed their oldest events
+        assertThat(queuedWhilePaused).isLessThanOrEqualTo((long) (slow.size() + stuck.size()) * QUEUE_CAPACITY);
+        assertThat(droppedWhilePaused).isGreaterThanOrEqualTo((long) slow.size() * (BURSTS - QUEUE_CAPACITY - 1));
+
+        // Fast clients got one event per burst, carrying the whole burst
+        assertThat(fast).allSatisfy(session -> {
+            assertThat(session.isOpen()).isTrue();
+            assertThat(session.lastFrame()).contains("\"type\":\"TIMELINE\"", "\"count\":" + POSTS_PER_BURST);
+        });
+
+        // Paused clients lost old events but stayed connected; stuck ones were disconnected
+        assertThat(slow).allSatisfy(session -> {
+            assertThat(session.isOpen()).isTrue();
+            assertThat(session.messages()).isLessThanOrEqualTo(QUEUE_CAPACITY + 3);
+        });
+        assertThat(stuck).allSatisfy(session ->
+                assertThat(session.closeStatus()).isEqualTo(CloseStatus.SESSION_NOT_RELIABLE));
+        assertThat(outboxFactory.disconnectedClients()).isEqualTo(stuck.size());
+    }
+
+    private List<UUID> createFollowers(UUID authorId) {
+        List<UUID> followerIds = new ArrayList<>(CONNECTIONS);
+        for (int i = 0; i < CONNECTIONS; i++) {
+            followerIds.add(UUID.randomUUID());
+        }
+        jdbcTemplate.update("insert into users (id, username, email, password_hash) values (?, ?, ?, ?)",
+                authorId, "author", "author@example.com", "hashedpassword");
+        jdbcTemplate.batchUpdate("insert into users (id, username, email, password_hash) values (?, ?, ?, ?)",
+                followerIds, 1000, (ps, id) -> {
+                    String username = "u" + id.toString().substring(0, 8) + id.toString().substring(24);
+                    ps.setObject(1, id);
+                    ps.setString(2, username);
+                    ps.setString(3, username + "@example.com");
+                    ps.setString(4, "hashedpassword");
+                });
+        jdbcTemplate.batchUpdate("insert into follows (id, follower_id, following_id) values (?, ?, ?)",
+                followerIds, 1000, (ps, id) -> {
+                    ps.setObject(1, UUID.randomUUID());
+                    ps.setObject(2, id);
+                    ps.setObject(3, authorId);
+                });
+        return followerIds;
+    }
+
+    private void connect(WebSocketHandler handler, SimulatedSession session, UUID userId) throws Exception {
+        String token = tokenProvider.createAccessToken(userId, "user", List.of("USER"));
+        handler.afterConnectionEstablished(session);
+        handler.handleMessage(session, new TextMessage(
+                "CONNECT\naccept-version:1.2\nheart-beat:0,0\nAuthorization:Bearer " + token + "\n\n\0"));
+        handler.handleMessage(session, new TextMessage(
+                "SUBSCRIBE\nid:events\ndestination:/user/queue/events\n\n\0"));
+    }
+
+    private void burst(UUID authorId) throws InterruptedException {
+        for (int i = 0; i < POSTS_PER_BURST; i++) {
+            pushService.postCreated(authorId, UUID.randomUUID());
+        }
+        assertThat(pushService.flush()).isEqualTo(CONNECTIONS);
+    }
+
+    /**
+     * Wait until the inbound channel has handled every frame, so that all subscriptions are registered.
+     */
+    private void awaitIdle() throws InterruptedException {
+        await(() -> inboundExecutor.getQueueSize() == 0 && inboundExecutor.getActiveCount() == 0);
+        Thread.sleep(100);
+        await(() -> inboundExecutor.getQueueSize() == 0 && inboundExecutor.getActiveCount() == 0);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 60_000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition met in time").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.dhillon.twitterclone.websocket;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the SessionOutbox.
+ */
+public class SessionOutboxTest {
+
+    private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+    private final SessionOutboxFactory counters = new SessionOutboxFactory(2, 10000);
+
+    @AfterEach
+    public void cleanup() {
+        sender.shutdownNow();
+        counters.shutdown();
+    }
+
+    @Test
+    public void sendMessage_WhenFull_DropsOldestMessageFrame() throws Exception {
+        // Arrange: the client stops reading while the CONNECTED frame is being written
+        SimulatedSession session = new SimulatedSession("s1").pause();
+        SessionOutbox outbox = new SessionOutbox(session, sender, 2, 10000, counters);
+        outbox.sendMessage(new TextMessage("CONNECTED\n\n\0"));
+        await(() -> session.writes() == 1);
+
+        // Act
+        for (int i = 1; i <= 3; i++) {
+            outbox.sendMessage(new TextMessage("MESSAGE\nevent:" + i + "\n\n\0"));
+        }
+        session.resume();
+
+        // Assert: the first event made way for the last
+        await(() -> session.messages() == 2);
+        assertThat(counters.droppedFrames()).isEqualTo(1);
+        assertThat(session.lastFrame()).contains("event:3");
+        assertThat(session.isOpen()).isTrue();
+    }
+
+    @Test
+    public void sendMessage_WhenWriteStuckPastLimit_Disconnects() throws Exception {
+        // Arrange
+        SimulatedSession session = new SimulatedSession("s1").pause();
+        SessionOutbox outbox = new SessionOutbox(session, sender, 2, 50, counters);
+        outbox.sendMessage(new TextMessage("MESSAGE\nevent:1\n\n\0"));
+        await(() -> session.writes() == 1);
+        Thread.sleep(100);
+
+        // Act
+        outbox.sendMessage(new TextMessage("MESSAGE\nevent:2\n\n\0"));
+
+        // Assert
+        assertThat(session.closeStatus()).isEqualTo(CloseStatus.SESSION_NOT_RELIABLE);
+        assertThat(counters.disconnectedClients()).isEqualTo(1);
+        assertThat(outbox.queued()).isZero();
+        session.resume();
+    }
+
+    @Test
+    public void close_WritesQueuedFramesFirst() throws Exception {
+        // Arrange
+        SimulatedSession session = new SimulatedSession("s1").pause();
+        SessionOutbox outbox = new SessionOutbox(session, sender, 2, 10000, counters);
+        outbox.sendMessage(new TextMessage("MESSAGE\nevent:1\n\n\0"));
+        outbox.sendMessage(new TextMessage("ERROR\nmessage:bye\n\n\0"));
+
+        // Act
+        outbox.close(CloseStatus.PROTOCOL_ERROR);
+        boolean closedEarly = !session.isOpen();
+        session.resume();
+
+        // Assert
+        await(() -> !session.isOpen());
+        assertThat(closedEarly).isFalse();
+        assertThat(session.lastFrame()).startsWith("ERROR");
+        assertThat(session.closeStatus()).isEqualTo(CloseStatus.PROTOCOL_ERROR);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition met in time").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+}
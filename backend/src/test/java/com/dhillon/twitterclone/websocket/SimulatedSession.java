@@ -0,0 +1,186 @@
+package com.dhillon.twitterclone.websocket;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process WebSocket session standing in for a client connection.
+ * Writes of MESSAGE frames can be held at a gate, to play a client that stops reading.
+ */
+class SimulatedSession implements WebSocketSession {
+
+    private final String id;
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+    private final AtomicInteger messages = new AtomicInteger();
+    private final AtomicInteger writes = new AtomicInteger();
+    private volatile CountDownLatch gate;
+    private volatile boolean gateMessagesOnly;
+    private volatile String lastFrame;
+    private volatile CloseStatus closeStatus;
+    private int textMessageSizeLimit = 64 * 1024;
+    private int binaryMessageSizeLimit = 64 * 1024;
+
+    SimulatedSession(String id) {
+        this.id = id;
+    }
+
+    /**
+     * Hold every write until {@link #resume()} is called.
+     */
+    SimulatedSession pause() {
+        gate = new CountDownLatch(1);
+        return this;
+    }
+
+    /**
+     * Hold writes of MESSAGE frames until {@link #resume()} is called, letting protocol frames through.
+     */
+    SimulatedSession pauseMessages() {
+        gateMessagesOnly = true;
+        return pause();
+    }
+
+    void resume() {
+        CountDownLatch held = gate;
+        if (held != null) {
+            held.countDown();
+        }
+    }
+
+    /**
+     * @return number of MESSAGE frames written
+     */
+    int messages() {
+        return messages.get();
+    }
+
+    /**
+     * @return number of writes started, including ones held at the gate
+     */
+    int writes() {
+        return writes.get();
+    }
+
+    String lastFrame() {
+        return lastFrame;
+    }
+
+    CloseStatus closeStatus() {
+        return closeStatus;
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) {
+        writes.incrementAndGet();
+        String frame = ((TextMessage) message).getPayload();
+        boolean isMessage = frame.startsWith("MESSAGE\n");
+        CountDownLatch held = gate;
+        if (held != null && (isMessage || !gateMessagesOnly)) {
+            try {
+                held.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        lastFrame = frame;
+        if (isMessage) {
+            messages.incrementAndGet();
+        }
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public URI getUri() {
+        return URI.create("ws://localhost/api/ws");
+    }
+
+    @Override
+    public HttpHeaders getHandshakeHeaders() {
+        return new HttpHeaders();
+    }
+
+    @Override
+    public Map<String, Object> getAttributes() {
+        return attributes;
+    }
+
+    @Override
+    public Principal getPrincipal() {
+        return null;
+    }
+
+    @Override
+    public InetSocketAddress getLocalAddress() {
+        return null;
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return null;
+    }
+
+    @Override
+    public String getAcceptedProtocol() {
+        return null;
+    }
+
+    @Override
+    public void setTextMessageSizeLimit(int messageSizeLimit) {
+        this.textMessageSizeLimit = messageSizeLimit;
+    }
+
+    @Override
+    public int getTextMessageSizeLimit() {
+        return textMessageSizeLimit;
+    }
+
+    @Override
+    public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+        this.binaryMessageSizeLimit = messageSizeLimit;
+    }
+
+    @Override
+    public int getBinaryMessageSizeLimit() {
+        return binaryMessageSizeLimit;
+    }
+
+    @Override
+    public List<WebSocketExtension> getExtensions() {
+        return List.of();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return closeStatus == null;
+    }
+
+    @Override
+    public void close() {
+        close(CloseStatus.NORMAL);
+    }
+
+    @Override
+    public void close(CloseStatus status) {
+        if (closeStatus == null) {
+            closeStatus = status;
+        }
+    }
+}
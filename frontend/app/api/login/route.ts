@@ -12,11 +12,15 @@ export async function POST(request: Request) {
     const backendUrl = process.env.BACKEND_URL || 'http://backend:8081';
     console.log(`Using backend URL: ${backendUrl}/api/auth/login`);
     
+    // The backend throttles logins per client address, which it reads from the header nginx set
+    const forwardedFor = request.headers.get('x-forwarded-for');
+    
     // Forward the request to the backend
     const response = await fetch(`${backendUrl}/api/auth/login`, {
       method: 'POST',
       headers: {
         'Content-Type': 'application/json',
+        ...(forwardedFor ? { 'X-Forwarded-For': forwardedFor } : {}),
       },
       body: JSON.stringify(loginData),
       // Important: This prevents Next.js from trying to reuse connections